@@ -0,0 +1,53 @@
+package com.umg.game_for_devs.benchmark;
+
+import com.umg.game_for_devs.entity.AuditLog;
+import com.umg.game_for_devs.service.AuditService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de AuditService.logAction para el llamador, con el escritor asíncrono y con guardado directo
+ * Con BLOCK el llamador espera cuando el buffer se llena, así que se mide el ritmo sostenido de escritura
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class AuditLogBenchmark {
+
+    @Param({"true", "false"})
+    public boolean asyncWriter;
+
+    private ConfigurableApplicationContext context;
+    private AuditService auditService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixture.start(1000,
+                "game.audit.writer.enabled=" + asyncWriter,
+                "game.audit.writer.overflow-policy=BLOCK");
+        auditService = context.getBean(AuditService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void logAction() {
+        auditService.logAction("Pista actualizada", AuditLog.ActionType.UPDATE, "Track", 1L, "Benchmark");
+    }
+}
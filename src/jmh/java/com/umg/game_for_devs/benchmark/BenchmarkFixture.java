@@ -0,0 +1,143 @@
+package com.umg.game_for_devs.benchmark;
+
+import com.umg.game_for_devs.GameForDevsApplication;
+import com.umg.game_for_devs.engine.MoveCodec;
+import com.umg.game_for_devs.engine.MoveProgram;
+import com.umg.game_for_devs.service.SessionRollupService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contexto Spring sobre H2 embebido para los benchmarks que pasan por repositorios
+ * Usa el perfil dev (pistas de data-dev.sql) sin servidor web y genera sesiones y logs sintéticos
+ * con una semilla fija para que los resultados sean comparables entre commits
+ */
+public final class BenchmarkFixture {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static final String[] STATUSES = {"SUCCESS", "FAILED", "IN_PROGRESS", "ABANDONED"};
+    private static final String[] DEVICES = {"DESKTOP", "MOBILE", "TABLET"};
+    private static final String[] ACTION_TYPES = {"LOGIN", "CREATE", "UPDATE", "READ", "EXPORT"};
+
+    private static final String SESSION_SQL =
+            "INSERT INTO game_sessions (session_id, track_id, start_time, end_time, status, moves_count, " +
+            "execution_time_ms, ip_address, device_type, moves_encoded, attempts_count, cells_visited, " +
+            "total_cells_required) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String AUDIT_SQL =
+            "INSERT INTO audit_logs (username, action, action_type, resource_type, timestamp, ip_address, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 'SUCCESS')";
+
+    private BenchmarkFixture() {}
+
+    /**
+     * Arrancar la aplicación sobre una base H2 nueva con la cantidad de sesiones indicada
+     */
+    public static ConfigurableApplicationContext start(int sessions, String... extraProperties) {
+        // devtools reinicia la aplicación en otro hilo; en un benchmark solo agrega ruido
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.profiles.active=dev",
+                "--spring.datasource.url=jdbc:h2:mem:bench" + DATABASES.incrementAndGet(),
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.umg.game_for_devs=WARN",
+                "--game.rollups.backfill-on-startup=false",
+                "--game.moves.migration.enabled=false"
+        ));
+        for (String property : extraProperties) {
+            args.add("--" + property);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(GameForDevsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seedSessions(jdbcTemplate, sessions);
+        seedAuditLogs(jdbcTemplate, sessions / 10);
+        context.getBean(SessionRollupService.class).rebuild();
+        return context;
+    }
+
+    // Métodos auxiliares
+
+    private static void seedSessions(JdbcTemplate jdbcTemplate, int sessions) {
+        List<Long> trackIds = jdbcTemplate.queryForList("SELECT id FROM tracks", Long.class);
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(1000);
+
+        for (int i = 0; i < sessions; i++) {
+            LocalDateTime start = now.minusMinutes(random.nextInt(60 * 24 * 60));
+            String status = STATUSES[random.nextInt(STATUSES.length)];
+            boolean finished = !"IN_PROGRESS".equals(status);
+            MoveProgram program = randomProgram(random, 3 + random.nextInt(20));
+            batch.add(new Object[] {
+                    "bench-" + i, trackIds.get(random.nextInt(trackIds.size())), Timestamp.valueOf(start),
+                    finished ? Timestamp.valueOf(start.plusSeconds(30 + random.nextInt(600))) : null, status,
+                    program.size(), finished ? 500L + random.nextInt(5000) : null, "10.0.0." + random.nextInt(255),
+                    DEVICES[random.nextInt(DEVICES.length)], MoveCodec.encode(program), 1 + random.nextInt(3),
+                    random.nextInt(8), 8
+            });
+            if (batch.size() == 1000) {
+                jdbcTemplate.batchUpdate(SESSION_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(SESSION_SQL, batch);
+        }
+    }
+
+    private static void seedAuditLogs(JdbcTemplate jdbcTemplate, int entries) {
+        Random random = new Random(7);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            batch.add(new Object[] {
+                    "user" + random.nextInt(20), "Acción de benchmark", ACTION_TYPES[random.nextInt(ACTION_TYPES.length)],
+                    "Track", Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 30))), "10.0.0.1"
+            });
+        }
+        jdbcTemplate.batchUpdate(AUDIT_SQL, batch);
+    }
+
+    /**
+     * Programa aleatorio con la mezcla de tokens que genera el cliente (mayoría de FORWARD)
+     */
+    public static MoveProgram randomProgram(Random random, int size) {
+        byte[] ops = new byte[size];
+        int depth = 0;
+        for (int i = 0; i < size; i++) {
+            int roll = random.nextInt(10);
+            if (roll < 5) {
+                ops[i] = MoveProgram.FORWARD;
+            } else if (roll < 7) {
+                ops[i] = MoveProgram.LEFT;
+            } else if (roll < 9) {
+                ops[i] = MoveProgram.RIGHT;
+            } else if (depth > 0) {
+                ops[i] = MoveProgram.LOOP_END;
+                depth--;
+            } else {
+                ops[i] = MoveProgram.LOOP_START;
+                depth++;
+            }
+        }
+        return MoveProgram.of(ops);
+    }
+}
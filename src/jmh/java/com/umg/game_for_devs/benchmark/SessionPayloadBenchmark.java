@@ -0,0 +1,96 @@
+package com.umg.game_for_devs.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.game_for_devs.engine.ExecutionResult;
+import com.umg.game_for_devs.engine.Heading;
+import com.umg.game_for_devs.engine.MoveCodec;
+import com.umg.game_for_devs.engine.MoveProgram;
+import com.umg.game_for_devs.engine.RobotInterpreter;
+import com.umg.game_for_devs.engine.TrackGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Procesamiento del cuerpo de PUT /api/game/session/{sessionId} en GameApiController:
+ * lectura del JSON, compilación de movesSequence, simulación y codificación binaria
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SessionPayloadBenchmark {
+
+    private static final String GRID = "[[0,0,0,0,0],[1,1,1,0,0],[0,0,1,0,0],[0,0,1,1,1]]";
+
+    @Param({"10", "100", "1000"})
+    public int moves;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutionResult result = new ExecutionResult();
+
+    private String requestBody;
+    private String movesSequence;
+    private MoveProgram program;
+    private byte[] encoded;
+    private TrackGrid grid;
+
+    @Setup
+    public void setUp() throws Exception {
+        program = BenchmarkFixture.randomProgram(new Random(42), moves);
+
+        // Mismo formato que envía game.js: objetos con type e id
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < program.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"type\":\"").append(MoveProgram.nameOf(program.op(i)))
+              .append("\",\"id\":").append(1700000000000L + i).append('.').append(i % 1000).append('}');
+        }
+        movesSequence = sb.append(']').toString();
+        requestBody = objectMapper.writeValueAsString(Map.of(
+                "movesSequence", movesSequence, "status", "SUCCESS", "cellsVisited", 5, "attemptsCount", 1));
+        encoded = MoveCodec.encode(program);
+        grid = TrackGrid.parse(GRID);
+    }
+
+    @Benchmark
+    public Map<?, ?> readRequestBody() throws Exception {
+        return objectMapper.readValue(requestBody, Map.class);
+    }
+
+    @Benchmark
+    public MoveProgram parseMovesSequence() {
+        return MoveProgram.parse(movesSequence);
+    }
+
+    @Benchmark
+    public ExecutionResult simulate() {
+        return RobotInterpreter.run(grid, 0, 1, Heading.EAST, program, result);
+    }
+
+    @Benchmark
+    public byte[] encodeProgram() {
+        return MoveCodec.encode(program);
+    }
+
+    @Benchmark
+    public MoveProgram decodeProgram() {
+        return MoveCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] fullUpdatePath() throws Exception {
+        Map<?, ?> request = objectMapper.readValue(requestBody, Map.class);
+        MoveProgram parsed = MoveProgram.parse(request.get("movesSequence").toString());
+        RobotInterpreter.run(grid, 0, 1, Heading.EAST, parsed, result);
+        return MoveCodec.encode(parsed);
+    }
+}
@@ -0,0 +1,84 @@
+package com.umg.game_for_devs.benchmark;
+
+import com.umg.game_for_devs.service.StatisticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de StatisticsService sobre los agregados y el post-procesamiento en streams
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticsBenchmark {
+
+    @Param({"10000", "100000"})
+    public int sessions;
+
+    // false mide la consulta sobre los agregados; true, la lectura desde StatisticsCache
+    @Param({"false"})
+    public boolean cache;
+
+    private ConfigurableApplicationContext context;
+    private StatisticsService statisticsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixture.start(sessions, "game.statistics.cache.enabled=" + cache);
+        statisticsService = context.getBean(StatisticsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public StatisticsService.DashboardStats dashboardStats() {
+        return statisticsService.getDashboardStats();
+    }
+
+    @Benchmark
+    public List<StatisticsService.DailyActivityStats> dailyActivity30Days() {
+        return statisticsService.getDailyActivityStats(30);
+    }
+
+    @Benchmark
+    public List<StatisticsService.TrackSuccessStats> trackSuccessStats() {
+        return statisticsService.getTrackSuccessStats();
+    }
+
+    @Benchmark
+    public List<StatisticsService.TrackPerformanceStats> trackPerformanceStats() {
+        return statisticsService.getTrackPerformanceStats();
+    }
+
+    @Benchmark
+    public List<StatisticsService.DeviceStats> deviceStats() {
+        return statisticsService.getDeviceStats();
+    }
+
+    @Benchmark
+    public StatisticsService.SystemOverviewStats allTimeOverview() {
+        return statisticsService.getAllTimeOverviewStats();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> hourlyActivityLastDay() {
+        return statisticsService.getHourlyActivity(LocalDateTime.now().minusDays(1));
+    }
+}
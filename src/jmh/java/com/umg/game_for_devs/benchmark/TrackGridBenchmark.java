@@ -0,0 +1,127 @@
+package com.umg.game_for_devs.benchmark;
+
+import com.umg.game_for_devs.engine.ExecutionResult;
+import com.umg.game_for_devs.engine.Heading;
+import com.umg.game_for_devs.engine.MoveProgram;
+import com.umg.game_for_devs.engine.RobotInterpreter;
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.engine.TrackSolution;
+import com.umg.game_for_devs.engine.TrackSolver;
+import com.umg.game_for_devs.service.TrackValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de grids según el tamaño del tablero: validación, simulación y resolución
+ * - fullGrid: todas las celdas son camino (el peor caso para parsear y para la comprobación de alcance)
+ * - corridor: pasillo de hasta 24 celdas por el borde, resoluble con la búsqueda exacta en cualquier tamaño
+ * La simulación recorre el borde del tablero completo con un programa de MAX_MOVES tokens, así que el
+ * trabajo por operación es el mismo en todos los tamaños
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrackGridBenchmark {
+
+    private static final int CORRIDOR_CELLS = 24;
+
+    @Param({"5x4", "16x16", "64x64"})
+    public String size;
+
+    private final TrackValidator trackValidator = new TrackValidator();
+    private final ExecutionResult result = new ExecutionResult();
+
+    private String fullGridJson;
+    private TrackGrid fullGrid;
+    private TrackGrid corridor;
+    private MoveProgram perimeterProgram;
+
+    @Setup
+    public void setUp() {
+        String[] dimensions = size.split("x");
+        int cols = Integer.parseInt(dimensions[0]);
+        int rows = Integer.parseInt(dimensions[1]);
+
+        int[][] full = new int[rows][cols];
+        int[][] corridorCells = new int[rows][cols];
+        StringBuilder json = new StringBuilder("[");
+        for (int y = 0; y < rows; y++) {
+            json.append(y > 0 ? ",[" : "[");
+            for (int x = 0; x < cols; x++) {
+                full[y][x] = 1;
+                json.append(x > 0 ? ",1" : "1");
+            }
+            json.append(']');
+        }
+        fullGridJson = json.append(']').toString();
+        fullGrid = TrackGrid.of(full);
+
+        // Pasillo: las primeras celdas del borde en sentido horario desde (0, 0)
+        int x = 0;
+        int y = 0;
+        int[] dx = {1, 0, -1, 0};
+        int[] dy = {0, 1, 0, -1};
+        int direction = 0;
+        for (int cell = 0; cell < CORRIDOR_CELLS && corridorCells[y][x] == 0; cell++) {
+            corridorCells[y][x] = 1;
+            int nx = x + dx[direction];
+            int ny = y + dy[direction];
+            if (nx < 0 || nx >= cols || ny < 0 || ny >= rows) {
+                direction = (direction + 1) & 3;
+                nx = x + dx[direction];
+                ny = y + dy[direction];
+            }
+            x = nx;
+            y = ny;
+        }
+        corridor = TrackGrid.of(corridorCells);
+
+        // Vueltas al borde del tablero completo: (cols - 1) FORWARD, RIGHT, (rows - 1) FORWARD, RIGHT...
+        byte[] ops = new byte[MoveProgram.MAX_MOVES];
+        int length = 0;
+        for (int side = 0; length < ops.length; side++) {
+            int steps = side % 2 == 0 ? cols - 1 : rows - 1;
+            for (int step = 0; step < steps && length < ops.length; step++) {
+                ops[length++] = MoveProgram.FORWARD;
+            }
+            if (length < ops.length) {
+                ops[length++] = MoveProgram.RIGHT;
+            }
+        }
+        perimeterProgram = MoveProgram.of(ops);
+    }
+
+    @Benchmark
+    public TrackGrid parseFullGrid() {
+        return TrackGrid.parse(fullGridJson);
+    }
+
+    @Benchmark
+    public TrackGrid validateFullGrid() {
+        return trackValidator.checkGrid(fullGridJson).getGrid();
+    }
+
+    @Benchmark
+    public ExecutionResult simulatePerimeter() {
+        return RobotInterpreter.run(fullGrid, 0, 0, Heading.EAST, perimeterProgram, result);
+    }
+
+    @Benchmark
+    public TrackSolution solveCorridor() {
+        return TrackSolver.solve(corridor, 0, 0, Heading.EAST);
+    }
+
+    @Benchmark
+    public TrackSolution checkFullGridReachability() {
+        // Más celdas de camino de las que caben en la clave de estado: solo la comprobación de alcance
+        return TrackSolver.solve(fullGrid, 0, 0, Heading.EAST);
+    }
+}
@@ -0,0 +1,51 @@
+package com.umg.game_for_devs.benchmark;
+
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.service.TrackValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación de gridConfig al crear, actualizar o importar pistas (TrackValidator.checkGrid)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrackValidationBenchmark {
+
+    // Formato compacto y formato con saltos de línea e indentación como en data-dev.sql
+    private static final String COMPACT_GRID = "[[0,0,0,0,0],[1,1,1,0,0],[0,0,1,0,0],[0,0,1,1,1]]";
+    private static final String PRETTY_GRID =
+            "[\n        [0, 0, 0, 0, 0],\n        [1, 1, 1, 0, 0],\n" +
+            "        [0, 0, 1, 0, 0],\n        [0, 0, 1, 1, 1]\n    ]";
+    private static final String INVALID_GRID = "[[0,0,0,0,0],[1,1,1,0,0],[0,0,1,0,0]]";
+
+    private final TrackValidator trackValidator = new TrackValidator();
+
+    @Benchmark
+    public TrackValidator.Result validateCompactGrid() {
+        return trackValidator.checkGrid(COMPACT_GRID);
+    }
+
+    @Benchmark
+    public TrackValidator.Result validatePrettyGrid() {
+        return trackValidator.checkGrid(PRETTY_GRID);
+    }
+
+    @Benchmark
+    public void rejectInvalidGrid(Blackhole blackhole) {
+        blackhole.consume(trackValidator.checkGrid(INVALID_GRID));
+    }
+
+    @Benchmark
+    public TrackGrid parseGrid() {
+        return TrackGrid.parse(PRETTY_GRID);
+    }
+}
@@ -0,0 +1,133 @@
+package com.umg.game_for_devs.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource con una compuerta de permisos delante del pool de conexiones
+ * Cada conexión abierta ocupa un permiso hasta que se cierra; los hilos que esperan quedan estacionados en
+ * un Semaphore justo (FIFO) en lugar de competir dentro del pool, lo que con hilos virtuales evita que
+ * miles de peticiones bloqueen hilos portadores esperando una de las pocas conexiones disponibles
+ */
+public class GatedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long acquireTimeoutMs;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private Counter timeouts;
+    private Timer waitTimer;
+
+    public GatedDataSource(DataSource target, int maxPermits, long acquireTimeoutMs) {
+        super(target);
+        this.maxPermits = maxPermits;
+        this.permits = new Semaphore(maxPermits, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    /**
+     * Registrar las métricas de la compuerta
+     */
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("game.db.gate.waiting", waiting, AtomicInteger::get).register(registry);
+        Gauge.builder("game.db.gate.in-use", permits, p -> maxPermits - p.availablePermits()).register(registry);
+        timeouts = registry.counter("game.db.gate.timeouts");
+        waitTimer = registry.timer("game.db.gate.wait");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxPermits() { return maxPermits; }
+    public int getAvailablePermits() { return permits.availablePermits(); }
+    public int getWaiting() { return waiting.get(); }
+
+    // Métodos auxiliares
+
+    private void acquire() throws SQLException {
+        long started = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                if (timeouts != null) {
+                    timeouts.increment();
+                }
+                throw new SQLTransientConnectionException("Tiempo de espera agotado para obtener una conexión ("
+                        + waiting.get() + " hilos en espera, " + maxPermits + " permisos)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido mientras esperaba una conexión", e);
+        } finally {
+            waiting.decrementAndGet();
+            if (waitTimer != null) {
+                waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Envolver la conexión para devolver el permiso en el primer close()
+     */
+    private Connection gated(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,12 @@
+package com.umg.game_for_devs.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas periódicas (@Scheduled) de los servicios
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,50 @@
+package com.umg.game_for_devs.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Modo de hilos virtuales (opcional, requiere Java 21)
+ * Con spring.threads.virtual.enabled=true Spring Boot atiende las peticiones de Tomcat y ejecuta las tareas
+ * @Async y @Scheduled en hilos virtuales; aquí se agrega la compuerta de conexiones delante del pool
+ * (game.db.gate.enabled, activa por defecto en ese modo)
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "game.db.gate.enabled", havingValue = "true")
+    public static BeanPostProcessor connectionGatePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof GatedDataSource) {
+                    return bean;
+                }
+                // Por defecto tantos permisos como conexiones tiene el pool
+                int permits = environment.getProperty("game.db.gate.permits", Integer.class, 0);
+                if (permits <= 0) {
+                    permits = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                }
+                long timeoutMs = environment.getProperty("game.db.gate.acquire-timeout-ms", Long.class, 30000L);
+                return new GatedDataSource(dataSource, permits, timeoutMs);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionGateMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof GatedDataSource gate) {
+                gate.bindTo(registry);
+            }
+        };
+    }
+}
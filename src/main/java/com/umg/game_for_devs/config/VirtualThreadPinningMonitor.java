@@ -0,0 +1,151 @@
+package com.umg.game_for_devs.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detector de hilos virtuales fijados (pinned) a su hilo portador
+ * Escucha el evento JFR jdk.VirtualThreadPinned (Java 21+) y agrupa los casos por el primer frame de la
+ * aplicación; los que ocurren con un driver JDBC o el pool en la pila se marcan como JDBC dentro de synchronized
+ * Por eso los servicios que hacen JDBC o E/S de archivos con exclusión mutua (volcados, reconstrucciones,
+ * mantenimiento, segmentos y desborde de auditoría) usan ReentrantLock y no synchronized: un hilo virtual que bloquea
+ * dentro de un monitor fija su hilo portador, y con ReentrantLock se desmonta mientras espera
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.umg.game_for_devs.";
+    private static final String[] JDBC_PACKAGES = {"java.sql.", "com.zaxxer.hikari.", "org.mariadb.jdbc.", "org.h2."};
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${game.threads.pinning-detector.enabled:true}")
+    private boolean enabled;
+
+    @Value("${game.threads.pinning-detector.threshold-ms:20}")
+    private long thresholdMs;
+
+    private final ConcurrentMap<String, PinnedSite> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!virtualThreads || !enabled) {
+            return;
+        }
+        if (Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled requiere Java 21 o superior; se ejecuta en Java {} con hilos de plataforma",
+                    Runtime.version().feature());
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Detector de hilos virtuales fijados activo (umbral {} ms)", thresholdMs);
+        } catch (Exception e) {
+            log.warn("No se pudo iniciar el detector de hilos virtuales fijados: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Resumen por sitio: cantidad de eventos, duración acumulada y si había JDBC en la pila
+     */
+    public Map<String, Map<String, Object>> getPinnedSites() {
+        Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+        sites.forEach((site, stats) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", stats.count.sum());
+            entry.put("totalMs", stats.totalNanos.sum() / 1_000_000);
+            entry.put("jdbc", stats.jdbc);
+            report.put(site, entry);
+        });
+        return report;
+    }
+
+    public boolean isActive() {
+        return stream != null;
+    }
+
+    // Métodos auxiliares
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String site = "desconocido";
+        boolean jdbc = false;
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                String type = frame.getMethod().getType().getName();
+                if (!jdbc && isJdbc(type)) {
+                    jdbc = true;
+                }
+                if (type.startsWith(APP_PACKAGE)) {
+                    site = type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+                    break;
+                }
+            }
+        }
+
+        boolean holdsJdbc = jdbc;
+        PinnedSite stats = sites.computeIfAbsent(site, key -> {
+            log.warn("Hilo virtual fijado{} en {} ({} ms)", holdsJdbc ? " durante una llamada JDBC" : "", key,
+                    event.getDuration().toMillis());
+            return new PinnedSite(holdsJdbc);
+        });
+        stats.count.increment();
+        stats.totalNanos.add(event.getDuration().toNanos());
+        meterRegistry.counter("game.threads.pinned", "jdbc", String.valueOf(holdsJdbc)).increment();
+    }
+
+    private static boolean isJdbc(String type) {
+        for (String prefix : JDBC_PACKAGES) {
+            if (type.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class PinnedSite {
+        private final boolean jdbc;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private PinnedSite(boolean jdbc) {
+            this.jdbc = jdbc;
+        }
+    }
+}
@@ -1,23 +1,52 @@
 package com.umg.game_for_devs.controller;
 
+import com.umg.game_for_devs.config.GatedDataSource;
+import com.umg.game_for_devs.config.VirtualThreadPinningMonitor;
+import com.umg.game_for_devs.dto.CursorPage;
 import com.umg.game_for_devs.dto.UserDto;
+import com.umg.game_for_devs.engine.MoveProgram;
+import com.umg.game_for_devs.engine.TrackSolution;
+import com.umg.game_for_devs.entity.CompletionSketch;
+import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.entity.SessionRollup;
 import com.umg.game_for_devs.entity.Track;
 import com.umg.game_for_devs.entity.User;
 import com.umg.game_for_devs.entity.AuditLog;
 import com.umg.game_for_devs.service.UserService;
 import com.umg.game_for_devs.service.TrackService;
+import com.umg.game_for_devs.service.TrackImportService;
 import com.umg.game_for_devs.service.StatisticsService;
+import com.umg.game_for_devs.service.StatisticsQueryExecutor;
+import com.umg.game_for_devs.service.StatisticsCache;
+import com.umg.game_for_devs.service.LiveFeedService;
+import com.umg.game_for_devs.service.SessionRollupService;
+import com.umg.game_for_devs.service.TrackHeatmapService;
+import com.umg.game_for_devs.service.UniquePlayerService;
+import com.umg.game_for_devs.service.CompletionDistributionService;
+import com.umg.game_for_devs.service.SessionPartitionService;
+import com.umg.game_for_devs.service.AuditRetentionService;
+import com.umg.game_for_devs.service.AuditService;
+import com.umg.game_for_devs.service.DataExportService;
+import com.umg.game_for_devs.service.MovesSequenceMigrationService;
 import com.umg.game_for_devs.repository.AuditLogRepository;
+import com.umg.game_for_devs.repository.GameSessionRepository;
 import com.umg.game_for_devs.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import javax.sql.DataSource;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
@@ -34,12 +63,19 @@ import java.time.LocalDateTime;
 @RequestMapping("/api/admin")
 public class AdminApiController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final LocalDateTime CURSOR_MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime CURSOR_MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private UserService userService;
 
     @Autowired
     private TrackService trackService;
 
+    @Autowired
+    private TrackImportService trackImportService;
+
     @Autowired
     private StatisticsService statisticsService;
 
@@ -50,7 +86,52 @@ public class AdminApiController {
     private UserRepository userRepository;
     
     @Autowired
-    private com.umg.game_for_devs.repository.GameSessionRepository gameSessionRepository;
+    private GameSessionRepository gameSessionRepository;
+    
+    @Autowired
+    private SessionRollupService sessionRollupService;
+    
+    @Autowired
+    private TrackHeatmapService trackHeatmapService;
+    
+    @Autowired
+    private UniquePlayerService uniquePlayerService;
+    
+    @Autowired
+    private CompletionDistributionService completionDistributionService;
+    
+    @Autowired
+    private SessionPartitionService sessionPartitionService;
+    
+    @Autowired
+    private AuditRetentionService auditRetentionService;
+    
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private DataExportService dataExportService;
+
+    @Autowired
+    private StatisticsQueryExecutor statisticsQueryExecutor;
+
+    @Autowired
+    private StatisticsCache statisticsCache;
+
+    @Autowired
+    private LiveFeedService liveFeedService;
+
+    @Autowired
+    private MovesSequenceMigrationService movesSequenceMigrationService;
+
+    @Autowired
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
 
     // ==================== USUARIOS ====================
 
@@ -68,6 +149,18 @@ public class AdminApiController {
         return ResponseEntity.ok(userService.getAllUsers(page, size, sortBy, sortDir, search, role));
     }
 
+    /**
+     * Obtener usuarios paginados por cursor (sin conteo total)
+     */
+    @GetMapping("/users/cursor")
+    public ResponseEntity<CursorPage<User>> getUsersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String role) {
+        return ResponseEntity.ok(userService.getUsersPage(cursor, clampPageSize(size), search, role));
+    }
+
     /**
      * Buscar usuarios por criterios
      */
@@ -301,47 +394,105 @@ public class AdminApiController {
     }
 
     /**
-     * Importar pistas desde archivo
+     * Importar un paquete de pistas (array JSON o NDJSON); los registros inválidos se informan sin detener la importación
      */
     @PostMapping("/tracks/import")
     public ResponseEntity<?> importTracks(@RequestParam("file") org.springframework.web.multipart.MultipartFile file, Authentication auth) {
-        try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "El archivo está vacío"));
-            }
-            
-            // Por ahora retornamos un mensaje de éxito simple
-            // En el futuro se puede implementar la lógica de importación
-            return ResponseEntity.ok(Map.of(
-                "message", "Funcionalidad de importación en desarrollo",
-                "filename", file.getOriginalFilename()
-            ));
-            
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "El archivo está vacío"));
+        }
+        try (java.io.InputStream input = file.getInputStream()) {
+            Map<String, Object> summary = trackImportService.importTracks(input, auth.getName());
+            summary.put("filename", file.getOriginalFilename());
+            return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Error al importar: " + e.getMessage()));
         }
     }
 
     /**
-     * Exportar pistas a archivo
+     * Exportar pistas en streaming (CSV o NDJSON, opcionalmente comprimido)
+     * Por defecto NDJSON, que importTracks acepta de vuelta
      */
     @GetMapping("/tracks/export")
-    public ResponseEntity<?> exportTracks(@RequestParam(defaultValue = "false") boolean activeOnly) {
-        try {
-            // Por ahora retornamos un mensaje de éxito simple
-            // En el futuro se puede implementar la lógica de exportación real
-            List<Track> tracks = activeOnly ? 
-                trackService.getAllActiveTracks() : 
-                trackService.getAllTracks(0, Integer.MAX_VALUE, "id", "asc").getContent();
-                
-            return ResponseEntity.ok(Map.of(
-                "message", "Funcionalidad de exportación en desarrollo", 
-                "totalTracks", tracks.size()
-            ));
-            
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Error al exportar: " + e.getMessage()));
+    public ResponseEntity<StreamingResponseBody> exportTracks(
+            @RequestParam(defaultValue = "false") boolean activeOnly,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        DataExportService.Format exportFormat = DataExportService.Format.parse(format);
+        
+        auditService.logAction("Pistas exportadas", AuditLog.ActionType.EXPORT,
+                "Track", null, exportFormat.getExtension());
+        return exportResponse(DataExportService.fileName("tracks", exportFormat, gzip), exportFormat, gzip,
+                dataExportService.exportTracks(activeOnly, exportFormat, gzip));
+    }
+
+    /**
+     * Recalcular la dificultad objetiva de todas las pistas
+     */
+    @PostMapping("/tracks/analyze")
+    public ResponseEntity<Map<String, Object>> analyzeTracks() {
+        long start = System.nanoTime();
+        Map<Track, TrackSolution> results = trackService.analyzeCatalog();
+        
+        List<Map<String, Object>> tracks = new ArrayList<>();
+        int unsolvable = 0;
+        for (Map.Entry<Track, TrackSolution> result : results.entrySet()) {
+            tracks.add(toSolutionSummary(result.getKey(), result.getValue()));
+            if (result.getValue().isDetermined() && !result.getValue().isSolvable()) {
+                unsolvable++;
+            }
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Dificultad de pistas recalculada");
+        response.put("analyzed", results.size());
+        response.put("unsolvable", unsolvable);
+        response.put("elapsedMs", (System.nanoTime() - start) / 1_000_000);
+        response.put("tracks", tracks);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Ver la solución óptima de una pista, con y sin bucles
+     */
+    @GetMapping("/tracks/{id}/solution")
+    public ResponseEntity<Map<String, Object>> getTrackSolution(@PathVariable Long id) {
+        return trackService.getTrackById(id)
+                .map(track -> {
+                    TrackSolution solution = trackService.getTrackSolution(id);
+                    Map<String, Object> response = toSolutionSummary(track, solution);
+                    response.put("turns", solution.getTurns());
+                    response.put("revisits", solution.getRevisits());
+                    response.put("shortestProgram", toMoveNames(solution.getShortestProgram()));
+                    response.put("loopProgram", toMoveNames(solution.getLoopProgram()));
+                    return ResponseEntity.ok(response);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    private Map<String, Object> toSolutionSummary(Track track, TrackSolution solution) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("id", track.getId());
+        summary.put("name", track.getName());
+        summary.put("status", solution.getStatus());
+        summary.put("difficultyScore", solution.getDifficultyScore());
+        summary.put("difficultyLevel", track.getDifficultyLevel());
+        summary.put("optimalMoves", solution.getMinMoves());
+        summary.put("optimalLoopLength", solution.getMinLoopProgramLength());
+        summary.put("statesExplored", solution.getStatesExplored());
+        return summary;
+    }
+    
+    private static List<String> toMoveNames(MoveProgram program) {
+        List<String> moves = new ArrayList<>();
+        if (program != null) {
+            for (int i = 0; i < program.size(); i++) {
+                moves.add(MoveProgram.nameOf(program.op(i)));
+            }
         }
+        return moves;
     }
 
     // ==================== AUDITORÍA ====================
@@ -354,7 +505,8 @@ public class AdminApiController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("timestamp").descending());
-        return ResponseEntity.ok(auditLogRepository.findAll(pageRequest));
+        return ResponseEntity.ok(auditRetentionService.search(
+                null, null, null, null, CURSOR_MIN_DATE, CURSOR_MAX_DATE, pageRequest));
     }
 
     /**
@@ -370,48 +522,96 @@ public class AdminApiController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
-        LocalDateTime fromDateTime = (fromDate != null) ? fromDate.atStartOfDay() : null;
-        LocalDateTime toDateTime = (toDate != null) ? toDate.atTime(23, 59, 59) : null;
+        LocalDateTime fromDateTime = (fromDate != null) ? fromDate.atStartOfDay() : CURSOR_MIN_DATE;
+        LocalDateTime toDateTime = (toDate != null) ? toDate.atTime(23, 59, 59) : CURSOR_MAX_DATE;
         
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("timestamp").descending());
         
-        return ResponseEntity.ok(auditLogRepository.findByFilters(
+        return ResponseEntity.ok(auditRetentionService.search(
                 username, action, entity, null, fromDateTime, toDateTime, pageRequest));
     }
 
+    /**
+     * Obtener logs de auditoría por cursor (timestamp, id) con filtros, sin conteo total
+     */
+    @GetMapping("/audit/cursor")
+    public ResponseEntity<CursorPage<AuditLog>> getAuditLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) AuditLog.ActionType action,
+            @RequestParam(required = false) String entity,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) AuditLog.Status status,
+            @RequestParam(required = false) LocalDate fromDate,
+            @RequestParam(required = false) LocalDate toDate,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+        if (after != null && after.getKey() == null) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+        int pageSize = clampPageSize(size);
+        LocalDateTime fromDateTime = fromDate != null ? fromDate.atStartOfDay() : CURSOR_MIN_DATE;
+        LocalDateTime toDateTime = toDate != null ? toDate.atTime(23, 59, 59) : CURSOR_MAX_DATE;
+        
+        List<AuditLog> rows = auditRetentionService.findPage(username, action, entity, status, fromDateTime, toDateTime,
+                after != null ? after.getKey() : null, after != null ? after.getId() : null, pageSize + 1);
+        
+        return ResponseEntity.ok(CursorPage.of(rows, pageSize,
+                entry -> new CursorPage.Cursor(entry.getTimestamp(), entry.getId()), null));
+    }
+
     /**
      * Obtener detalles de entrada de auditoría específica
      */
     @GetMapping("/audit/{id}")
     public ResponseEntity<AuditLog> getAuditEntry(@PathVariable Long id) {
-        return auditLogRepository.findById(id)
+        return auditRetentionService.findById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Exportar logs de auditoría
+     * Exportar logs de auditoría en streaming (CSV o NDJSON, opcionalmente comprimido)
      */
     @GetMapping("/audit/export")
-    public ResponseEntity<?> exportAuditLogs(
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
             @RequestParam(required = false) AuditLog.ActionType action,
+            @RequestParam(required = false) String entity,
             @RequestParam(required = false) String username,
             @RequestParam(required = false) LocalDate dateFrom,
-            @RequestParam(required = false) LocalDate dateTo) {
-        try {
-            // Por ahora un placeholder
-            return ResponseEntity.ok(Map.of(
-                "message", "Funcionalidad de exportación en desarrollo",
-                "filters", Map.of(
-                    "action", action != null ? action.toString() : "ALL",
-                    "username", username != null ? username : "ALL",
-                    "dateFrom", dateFrom != null ? dateFrom.toString() : "N/A",
-                    "dateTo", dateTo != null ? dateTo.toString() : "N/A"
-                )
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Error al exportar: " + e.getMessage()));
-        }
+            @RequestParam(required = false) LocalDate dateTo,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        DataExportService.Format exportFormat = DataExportService.Format.parse(format);
+        LocalDateTime fromDateTime = dateFrom != null ? dateFrom.atStartOfDay() : CURSOR_MIN_DATE;
+        LocalDateTime toDateTime = dateTo != null ? dateTo.atTime(23, 59, 59) : CURSOR_MAX_DATE;
+        
+        auditService.logAction("Bitácora de auditoría exportada", AuditLog.ActionType.EXPORT,
+                "AuditLog", null, exportFormat.getExtension());
+        return exportResponse(DataExportService.fileName("audit_log", exportFormat, gzip), exportFormat, gzip,
+                dataExportService.exportAuditLogs(username, action, entity, fromDateTime, toDateTime, exportFormat, gzip));
+    }
+
+    /**
+     * Obtener el catálogo de segmentos fríos de la bitácora (rango de tiempo e ids, conteos y tamaño)
+     */
+    @GetMapping("/audit/segments")
+    public ResponseEntity<Map<String, Object>> getAuditSegments() {
+        return ResponseEntity.ok(auditRetentionService.getCatalog());
+    }
+
+    /**
+     * Ejecutar ahora la retención de la bitácora (mover a segmentos, compactar y purgar)
+     */
+    @PostMapping("/audit/segments/maintain")
+    public ResponseEntity<Map<String, Object>> maintainAuditSegments() {
+        Map<String, Object> summary = auditRetentionService.maintain();
+        auditService.logAction("Retención de la bitácora de auditoría", AuditLog.ActionType.UPDATE);
+        
+        Map<String, Object> response = new HashMap<>(summary);
+        response.put("message", "Retención de la bitácora completada");
+        return ResponseEntity.ok(response);
     }
 
     // ==================== ESTADÍSTICAS ====================
@@ -429,13 +629,12 @@ public class AdminApiController {
             // Contar entradas de auditoría de hoy
             long todayAuditEntries = auditLogRepository.countByTimestampBetween(startOfDay, endOfDay);
             
-            // Contar usuarios activos (últimas 24 horas)
-            long activeUsers = auditLogRepository.countDistinctUsernameByTimestampAfter(
-                LocalDateTime.now().minusHours(24)
-            );
+            // Usuarios activos (últimas 24 horas), estimados con los sketches de auditoría
+            LocalDateTime now = LocalDateTime.now();
+            long activeUsers = uniquePlayerService.countAuditUsers(now.minusHours(24), now);
             
             // Total de entradas de auditoría
-            long totalAuditEntries = auditLogRepository.count();
+            long totalAuditEntries = auditRetentionService.countAll();
             
             // Última actividad
             Optional<AuditLog> lastActivity = auditLogRepository.findFirstByOrderByTimestampDesc();
@@ -483,121 +682,187 @@ public class AdminApiController {
     @GetMapping("/statistics/complete")
     public ResponseEntity<Map<String, Object>> getCompleteStatistics(
             @RequestParam(defaultValue = "7") int days) {
-        try {
-            LocalDate endDate = LocalDate.now();
-            LocalDate startDate = endDate.minusDays(days);
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-            
-            Map<String, Object> stats = new HashMap<>();
-            
-            // Estadísticas básicas
-            long totalGames = 0;
-            long completedGames = 0;
-            long activeUsers = 0;
-            Double averageTimeMinutes = 0.0;
-            
-            try {
-                totalGames = gameSessionRepository.count();
-            } catch (Exception e) {
-                System.out.println("Error counting total games: " + e.getMessage());
-            }
-            
-            try {
-                completedGames = gameSessionRepository.countByCompleted(true);
-            } catch (Exception e) {
-                System.out.println("Error counting completed games: " + e.getMessage());
-            }
-            
-            try {
-                activeUsers = userRepository.countByIsActiveTrue();
-            } catch (Exception e) {
-                System.out.println("Error counting active users: " + e.getMessage());
-            }
-            
-            try {
-                averageTimeMinutes = gameSessionRepository.findAverageCompletionTimeInMinutes();
-            } catch (Exception e) {
-                System.out.println("Error calculating average time: " + e.getMessage());
-            }
-            
-            stats.put("totalGames", totalGames);
-            stats.put("completedGames", completedGames);
-            stats.put("activeUsers", activeUsers);
-            stats.put("averageTime", averageTimeMinutes != null ? Math.round(averageTimeMinutes) : 0);
-            
-            // Actividad diaria (últimos N días)
-            List<Map<String, Object>> dailyData = new ArrayList<>();
-            try {
-                List<Object[]> dailyActivity = gameSessionRepository.findDailyGameActivityBetween(startDateTime, endDateTime);
-                dailyData = dailyActivity.stream()
-                    .map(row -> {
-                        Map<String, Object> dayData = new HashMap<>();
-                        dayData.put("date", row[0].toString());
-                        dayData.put("games", row[1]);
-                        return dayData;
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-            } catch (Exception e) {
-                System.out.println("Error getting daily activity: " + e.getMessage());
-            }
-            stats.put("dailyActivity", dailyData);
-            
-            // Estado de partidas
-            Map<String, Long> gameStatus = new HashMap<>();
-            gameStatus.put("completed", completedGames);
-            gameStatus.put("inProgress", totalGames - completedGames);
-            stats.put("gameStatus", gameStatus);
-            
-            // Rendimiento por pista
-            List<Map<String, Object>> trackData = new ArrayList<>();
-            try {
-                List<Object[]> trackStats = gameSessionRepository.findTrackStatistics();
-                trackData = trackStats.stream()
-                    .map(row -> {
-                        Map<String, Object> track = new HashMap<>();
-                        track.put("trackName", row[0]);
-                        track.put("totalGames", row[1]);
-                        track.put("completedGames", row[2]);
-                        track.put("successRate", row[3]);
-                        track.put("averageTime", row[4]);
-                        return track;
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-            } catch (Exception e) {
-                System.out.println("Error getting track statistics: " + e.getMessage());
-            }
-            stats.put("trackStats", trackData);
-            
-            // Actividad por hora (últimos 7 días)
-            List<Map<String, Object>> hourlyData = new ArrayList<>();
-            try {
-                LocalDateTime hourlyStartDate = LocalDateTime.now().minusDays(7);
-                List<Object[]> hourlyActivity = gameSessionRepository.findHourlyGameActivity(hourlyStartDate);
-                hourlyData = hourlyActivity.stream()
-                    .map(row -> {
-                        Map<String, Object> hourData = new HashMap<>();
-                        hourData.put("hour", row[0]);
-                        hourData.put("games", row[1]);
-                        return hourData;
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-            } catch (Exception e) {
-                System.out.println("Error getting hourly activity: " + e.getMessage());
-            }
-            stats.put("hourlyActivity", hourlyData);
-            
-            return ResponseEntity.ok(stats);
-            
-        } catch (Exception e) {
-            e.printStackTrace(); // Para debug en logs del servidor
-            return ResponseEntity.internalServerError()
-                .body(Map.of(
-                    "error", "Error al obtener estadísticas completas: " + e.getMessage(),
-                    "type", e.getClass().getSimpleName(),
-                    "cause", e.getCause() != null ? e.getCause().getMessage() : "Unknown"
-                ));
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days);
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
+        LocalDateTime hourlyStartDate = LocalDateTime.now().minusDays(7);
+        
+        // Las consultas son independientes: se lanzan juntas y se espera cada una con su tiempo máximo
+        StatisticsQueryExecutor.Batch batch = statisticsQueryExecutor.batch();
+        StatisticsQueryExecutor.Query<StatisticsService.SystemOverviewStats> overviewQuery =
+                batch.submit("overview", statisticsService::getAllTimeOverviewStats);
+        StatisticsQueryExecutor.Query<Long> activeUsersQuery =
+                batch.submit("activeUsers", userRepository::countByIsActiveTrue);
+        StatisticsQueryExecutor.Query<Long> uniquePlayersQuery =
+                batch.submit("uniquePlayers", () -> uniquePlayerService.countTotalPlayers(startDateTime, endDateTime));
+        StatisticsQueryExecutor.Query<Double> averageTimeQuery =
+                batch.submit("averageTime", statisticsService::getAverageCompletionTimeMinutes);
+        StatisticsQueryExecutor.Query<Map<String, Object>> completionTimeQuery =
+                batch.submit("completionTime", () -> completionDistributionService.getPercentiles(
+                        CompletionSketch.Metric.EXECUTION_TIME_MS, startDateTime, endDateTime));
+        StatisticsQueryExecutor.Query<List<StatisticsService.DailyActivityStats>> dailyQuery =
+                batch.submit("dailyActivity", () -> statisticsService.getDailyActivityStats(startDateTime, endDateTime));
+        StatisticsQueryExecutor.Query<List<StatisticsService.TrackPerformanceStats>> trackQuery =
+                batch.submit("trackStats", statisticsService::getTrackPerformanceStats);
+        StatisticsQueryExecutor.Query<Map<Integer, Long>> hourlyQuery =
+                batch.submit("hourlyActivity", () -> statisticsService.getHourlyActivity(hourlyStartDate));
+        
+        Map<String, Object> stats = new HashMap<>();
+        
+        // Estadísticas básicas
+        StatisticsService.SystemOverviewStats overview = overviewQuery.get(null);
+        long totalGames = overview != null ? overview.getTotalSessions() : 0;
+        long completedGames = overview != null ? overview.getSuccessfulSessions() : 0;
+        Double averageTimeMinutes = averageTimeQuery.get(0.0);
+        
+        stats.put("totalGames", totalGames);
+        stats.put("completedGames", completedGames);
+        stats.put("activeUsers", activeUsersQuery.get(0L));
+        stats.put("uniquePlayers", uniquePlayersQuery.get(0L));
+        stats.put("averageTime", averageTimeMinutes != null ? Math.round(averageTimeMinutes) : 0);
+        stats.put("completionTime", completionTimeQuery.get(Map.of()));
+        
+        // Actividad diaria (últimos N días)
+        List<Map<String, Object>> dailyData = dailyQuery.get(List.of()).stream()
+            .map(day -> {
+                Map<String, Object> dayData = new HashMap<>();
+                dayData.put("date", day.getDate());
+                dayData.put("games", day.getTotalSessions());
+                return dayData;
+            })
+            .collect(java.util.stream.Collectors.toList());
+        stats.put("dailyActivity", dailyData);
+        
+        // Estado de partidas
+        Map<String, Long> gameStatus = new HashMap<>();
+        gameStatus.put("completed", completedGames);
+        gameStatus.put("inProgress", totalGames - completedGames);
+        stats.put("gameStatus", gameStatus);
+        
+        // Rendimiento por pista
+        List<Map<String, Object>> trackData = trackQuery.get(List.of()).stream()
+            .map(row -> {
+                Map<String, Object> track = new HashMap<>();
+                track.put("trackName", row.getTrackName());
+                track.put("totalGames", row.getTotalGames());
+                track.put("completedGames", row.getCompletedGames());
+                track.put("successRate", row.getSuccessRate());
+                track.put("averageTime", row.getAverageTimeMinutes());
+                return track;
+            })
+            .collect(java.util.stream.Collectors.toList());
+        stats.put("trackStats", trackData);
+        
+        // Actividad por hora (últimos 7 días)
+        List<Map<String, Object>> hourlyData = hourlyQuery.get(Map.of()).entrySet().stream()
+            .map(entry -> {
+                Map<String, Object> hourData = new HashMap<>();
+                hourData.put("hour", entry.getKey());
+                hourData.put("games", entry.getValue());
+                return hourData;
+            })
+            .collect(java.util.stream.Collectors.toList());
+        stats.put("hourlyActivity", hourlyData);
+        
+        // Resultados parciales: qué consultas se omitieron y por qué
+        stats.put("degraded", batch.isDegraded());
+        if (batch.isDegraded()) {
+            stats.put("degradedQueries", batch.getDegraded());
         }
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Reconstruir los agregados de sesiones desde game_sessions
+     */
+    @PostMapping("/statistics/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSessionRollups() {
+        long sessions = sessionRollupService.rebuild();
+        auditService.logAction("Reconstrucción de agregados de estadísticas", AuditLog.ActionType.UPDATE);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Agregados reconstruidos exitosamente");
+        response.put("sessions", sessions);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Percentiles (p50, p90, p99) de tiempo, movimientos e intentos de las partidas completadas en los últimos
+     * N días, en total y por pista. Con days=0 se devuelven los históricos
+     */
+    @GetMapping("/statistics/distributions")
+    public ResponseEntity<Map<String, Object>> getCompletionDistributions(@RequestParam(defaultValue = "30") int days) {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = days > 0 ? to.minusDays(days) : null;
+        
+        Map<String, Object> response = new HashMap<>(completionDistributionService.getDistributions(from, to));
+        response.put("from", from);
+        response.put("to", to);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Reconstruir los sketches de percentiles desde game_sessions
+     */
+    @PostMapping("/statistics/distributions/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildCompletionDistributions() {
+        long sessions = completionDistributionService.rebuild();
+        auditService.logAction("Reconstrucción de percentiles de partidas completadas", AuditLog.ActionType.UPDATE);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Percentiles reconstruidos exitosamente");
+        response.put("sessions", sessions);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Jugadores distintos (aproximados) de los últimos N días, en total, por pista y por dispositivo
+     * Con days=0 se devuelven los históricos
+     */
+    @GetMapping("/statistics/unique-players")
+    public ResponseEntity<Map<String, Object>> getUniquePlayers(@RequestParam(defaultValue = "7") int days) {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = days > 0 ? to.minusDays(days) : null;
+        
+        Map<String, Object> response = new HashMap<>(uniquePlayerService.countPlayers(from, to));
+        response.put("from", from);
+        response.put("to", to);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Mapas de calor de fallos de todas las pistas (desde memoria, sin consultar game_sessions)
+     */
+    @GetMapping("/statistics/heatmaps")
+    public ResponseEntity<List<Map<String, Object>>> getTrackHeatmaps(
+            @RequestParam(defaultValue = "true") boolean includeMatrices) {
+        return ResponseEntity.ok(trackHeatmapService.getHeatmaps(includeMatrices));
+    }
+
+    /**
+     * Mapa de calor de fallos de una pista
+     */
+    @GetMapping("/statistics/heatmaps/{trackId}")
+    public ResponseEntity<Map<String, Object>> getTrackHeatmap(@PathVariable Long trackId) {
+        return trackHeatmapService.getHeatmap(trackId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Reconstruir los mapas de calor desde game_sessions
+     */
+    @PostMapping("/statistics/heatmaps/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildTrackHeatmaps() {
+        long sessions = trackHeatmapService.rebuild();
+        auditService.logAction("Reconstrucción de mapas de calor de pistas", AuditLog.ActionType.UPDATE);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Mapas de calor reconstruidos exitosamente");
+        response.put("sessions", sessions);
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -635,7 +900,7 @@ public class AdminApiController {
             LocalDateTime startDateTime = startDate.atStartOfDay();
             LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
             
-            List<Object[]> dailyAuditActivity = auditLogRepository.findDailyActivityBetween(startDateTime, endDateTime);
+            List<Object[]> dailyAuditActivity = auditRetentionService.getDailyActivity(startDateTime, endDateTime);
             
             // Crear arrays para los últimos N días
             List<String> labels = new ArrayList<>();
@@ -659,13 +924,14 @@ public class AdminApiController {
             }
             
             // También obtener actividad de juegos como complemento
-            List<Object[]> gameActivity = gameSessionRepository.findDailyGameActivityBetween(startDateTime, endDateTime);
+            List<StatisticsService.DailyActivityStats> gameActivity =
+                statisticsService.getDailyActivityStats(startDateTime, endDateTime);
             List<Integer> gameData = new ArrayList<>();
             
             Map<String, Long> gameMap = gameActivity.stream()
                 .collect(java.util.stream.Collectors.toMap(
-                    row -> row[0].toString(),
-                    row -> ((Number) row[1]).longValue()
+                    StatisticsService.DailyActivityStats::getDate,
+                    StatisticsService.DailyActivityStats::getTotalSessions
                 ));
             
             for (int i = days - 1; i >= 0; i--) {
@@ -697,6 +963,242 @@ public class AdminApiController {
         return date.format(formatter);
     }
 
+    // ==================== SESIONES DE JUEGO ====================
+
+    /**
+     * Obtener sesiones de juego por cursor (startTime, id) con filtros
+     * Con includeTotal se agrega un total aproximado calculado desde los agregados de estadísticas
+     */
+    @GetMapping("/sessions/cursor")
+    public ResponseEntity<CursorPage<Map<String, Object>>> getGameSessionsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) GameSession.GameStatus status,
+            @RequestParam(required = false) Long trackId,
+            @RequestParam(required = false) String deviceType,
+            @RequestParam(required = false) LocalDate fromDate,
+            @RequestParam(required = false) LocalDate toDate,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+        if (after != null && after.getKey() == null) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+        int pageSize = clampPageSize(size);
+        // Los meses archivados ya no están en game_sessions: la ventana empieza en la primera partición caliente
+        LocalDateTime fromDateTime = sessionPartitionService.clampToHot(
+                fromDate != null ? fromDate.atStartOfDay() : CURSOR_MIN_DATE);
+        LocalDateTime toDateTime = toDate != null ? toDate.atTime(23, 59, 59) : CURSOR_MAX_DATE;
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        
+        List<GameSession> rows = after == null
+                ? gameSessionRepository.findFirstPageByFilters(status, trackId, deviceType, fromDateTime, toDateTime, limit)
+                : gameSessionRepository.findPageByFiltersAfter(status, trackId, deviceType, fromDateTime, toDateTime,
+                                                               after.getKey(), after.getId(), limit);
+        
+        Long approximateTotal = null;
+        if (includeTotal) {
+            LocalDateTime now = LocalDateTime.now();
+            approximateTotal = statisticsService.countSessionsApproximately(
+                    fromDate != null || sessionPartitionService.getHotStart() != null
+                            ? fromDateTime : SessionRollup.TOTAL_BUCKET,
+                    toDateTime.isAfter(now) ? now : toDateTime,
+                    status, trackId, deviceType);
+        }
+        
+        CursorPage<GameSession> page = CursorPage.of(rows, pageSize,
+                session -> new CursorPage.Cursor(session.getStartTime(), session.getId()), approximateTotal);
+        List<Map<String, Object>> content = page.getContent().stream()
+                .map(this::toSessionSummary)
+                .collect(java.util.stream.Collectors.toList());
+        return ResponseEntity.ok(new CursorPage<>(content, page.getNextCursor(), pageSize, approximateTotal));
+    }
+
+    /**
+     * Exportar sesiones de juego en streaming (CSV o NDJSON, opcionalmente comprimido)
+     */
+    @GetMapping("/sessions/export")
+    public ResponseEntity<StreamingResponseBody> exportGameSessions(
+            @RequestParam(required = false) GameSession.GameStatus status,
+            @RequestParam(required = false) Long trackId,
+            @RequestParam(required = false) String deviceType,
+            @RequestParam(required = false) LocalDate fromDate,
+            @RequestParam(required = false) LocalDate toDate,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        DataExportService.Format exportFormat = DataExportService.Format.parse(format);
+        LocalDateTime fromDateTime = sessionPartitionService.clampToHot(
+                fromDate != null ? fromDate.atStartOfDay() : CURSOR_MIN_DATE);
+        LocalDateTime toDateTime = toDate != null ? toDate.atTime(23, 59, 59) : CURSOR_MAX_DATE;
+        
+        auditService.logAction("Sesiones de juego exportadas", AuditLog.ActionType.EXPORT,
+                "GameSession", null, exportFormat.getExtension());
+        return exportResponse(DataExportService.fileName("game_sessions", exportFormat, gzip), exportFormat, gzip,
+                dataExportService.exportGameSessions(status, trackId, deviceType, fromDateTime, toDateTime, exportFormat, gzip));
+    }
+
+    /**
+     * Catálogo de particiones mensuales de game_sessions
+     */
+    @GetMapping("/sessions/partitions")
+    public ResponseEntity<Map<String, Object>> getSessionPartitions() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("partitions", sessionPartitionService.getPartitions());
+        response.put("hotStart", sessionPartitionService.getHotStart());
+        response.put("archivedBytes", sessionPartitionService.getArchivedBytes());
+        response.put("lastMaintenanceAt", sessionPartitionService.getLastMaintenanceAt());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Ejecutar ahora el mantenimiento de particiones (creación, cierre, archivado y retención)
+     */
+    @PostMapping("/sessions/partitions/maintain")
+    public ResponseEntity<Map<String, Object>> maintainSessionPartitions() {
+        Map<String, Object> summary = sessionPartitionService.maintain();
+        auditService.logAction("Mantenimiento de particiones de sesiones", AuditLog.ActionType.UPDATE);
+        
+        Map<String, Object> response = new HashMap<>(summary);
+        response.put("message", "Mantenimiento de particiones completado");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Descargar las sesiones archivadas de un mes (yyyy-MM) como NDJSON comprimido
+     */
+    @GetMapping("/sessions/partitions/{month}/archive")
+    public ResponseEntity<StreamingResponseBody> exportSessionArchive(@PathVariable String month) {
+        LocalDate partitionMonth;
+        try {
+            partitionMonth = LocalDate.parse(month + "-01");
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Mes inválido, se espera yyyy-MM: " + month);
+        }
+        
+        auditService.logAction("Archivo de sesiones exportado", AuditLog.ActionType.EXPORT,
+                "GameSession", null, month);
+        return exportResponse("game_sessions_" + month + ".ndjson.gz", DataExportService.Format.NDJSON, true,
+                out -> sessionPartitionService.exportArchive(partitionMonth, out));
+    }
+
+    /**
+     * Ver la secuencia de movimientos de una sesión, decodificada desde su forma binaria
+     */
+    @GetMapping("/sessions/{id}/moves")
+    public ResponseEntity<Map<String, Object>> getSessionMoves(@PathVariable Long id) {
+        return gameSessionRepository.findById(id)
+                .map(session -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("id", session.getId());
+                    response.put("sessionId", session.getSessionId());
+                    response.put("moves", toMoveNames(session.getMoveProgram()));
+                    response.put("encodedBytes", session.getMovesEncoded() != null ? session.getMovesEncoded().length : null);
+                    response.put("migrated", session.getLegacyMovesSequence() == null);
+                    return ResponseEntity.ok(response);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Migrar todas las secuencias de movimientos JSON pendientes al formato binario
+     */
+    @PostMapping("/sessions/moves/migrate")
+    public ResponseEntity<Map<String, Object>> migrateMovesSequences() {
+        Map<String, Object> result = movesSequenceMigrationService.migrateAll();
+        auditService.logAction("Migración de secuencias de movimientos", AuditLog.ActionType.UPDATE);
+        
+        Map<String, Object> response = new HashMap<>(result);
+        response.put("message", "Secuencias de movimientos migradas exitosamente");
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> exportResponse(String fileName, DataExportService.Format format,
+                                                                        boolean gzip, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .body(body);
+    }
+
+    private Map<String, Object> toSessionSummary(GameSession session) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("id", session.getId());
+        summary.put("sessionId", session.getSessionId());
+        summary.put("trackId", session.getTrack().getId());
+        summary.put("trackName", session.getTrack().getName());
+        summary.put("status", session.getStatus());
+        summary.put("startTime", session.getStartTime());
+        summary.put("endTime", session.getEndTime());
+        summary.put("movesCount", session.getMovesCount());
+        summary.put("executionTimeMs", session.getExecutionTimeMs());
+        summary.put("deviceType", session.getDeviceType());
+        summary.put("attemptsCount", session.getAttemptsCount());
+        summary.put("cellsVisited", session.getCellsVisited());
+        summary.put("totalCellsRequired", session.getTotalCellsRequired());
+        return summary;
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    }
+
+    // ==================== SISTEMA ====================
+
+    /**
+     * Estado del modo de hilos virtuales: compuerta de conexiones y sitios donde los hilos quedaron fijados
+     */
+    @GetMapping("/system/threads")
+    public ResponseEntity<Map<String, Object>> getThreadingStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("javaVersion", Runtime.version().feature());
+        response.put("virtualThreads", virtualThreadsEnabled && Runtime.version().feature() >= 21);
+        response.put("pinningDetectorActive", pinningMonitor.isActive());
+        response.put("pinnedSites", pinningMonitor.getPinnedSites());
+        
+        if (dataSource instanceof GatedDataSource gate) {
+            Map<String, Object> gateStatus = new HashMap<>();
+            gateStatus.put("permits", gate.getMaxPermits());
+            gateStatus.put("available", gate.getAvailablePermits());
+            gateStatus.put("waiting", gate.getWaiting());
+            response.put("connectionGate", gateStatus);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Feed en vivo del panel (Server-Sent Events): snapshot inicial y luego deltas "stats" y "audit"
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> liveFeed() {
+        SseEmitter emitter = liveFeedService.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    /**
+     * Aciertos, fallos y peticiones agrupadas de la caché de estadísticas
+     */
+    @GetMapping("/system/statistics-cache")
+    public ResponseEntity<Map<String, Object>> getStatisticsCacheStatus() {
+        return ResponseEntity.ok(statisticsCache.getStats());
+    }
+
+    /**
+     * Vaciar la caché de estadísticas
+     */
+    @DeleteMapping("/system/statistics-cache")
+    public ResponseEntity<Map<String, Object>> clearStatisticsCache() {
+        statisticsCache.invalidateAll();
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Caché de estadísticas vaciada");
+        return ResponseEntity.ok(response);
+    }
+
     // ==================== MANEJO DE ERRORES ====================
 
     /**
@@ -1,9 +1,10 @@
 package com.umg.game_for_devs.controller;
 
 import com.umg.game_for_devs.service.AuditService;
+import com.umg.game_for_devs.service.AuditRetentionService;
+import com.umg.game_for_devs.service.StatisticsService;
 import com.umg.game_for_devs.repository.UserRepository;
 import com.umg.game_for_devs.repository.TrackRepository;
-import com.umg.game_for_devs.repository.GameSessionRepository;
 import com.umg.game_for_devs.repository.AuditLogRepository;
 import com.umg.game_for_devs.entity.AuditLog;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,11 +37,14 @@ public class AdminController {
     private TrackRepository trackRepository;
     
     @Autowired
-    private GameSessionRepository gameSessionRepository;
+    private StatisticsService statisticsService;
     
     @Autowired
     private AuditLogRepository auditLogRepository;
     
+    @Autowired
+    private AuditRetentionService auditRetentionService;
+    
     /**
      * Redirigir /admin a /admin/dashboard
      */
@@ -82,9 +86,10 @@ public class AdminController {
             // Obtener estadísticas básicas
             long totalUsers = userRepository.count();
             long totalTracks = trackRepository.count();
-            long totalGamesPlayed = gameSessionRepository.count();
-            long completedGames = gameSessionRepository.countByCompleted(true);
-            long totalAuditEvents = auditLogRepository.count();
+            StatisticsService.SystemOverviewStats overview = statisticsService.getAllTimeOverviewStats();
+            long totalGamesPlayed = overview.getTotalSessions();
+            long completedGames = overview.getSuccessfulSessions();
+            long totalAuditEvents = auditRetentionService.countAll();
             
             // Calcular porcentaje de completación
             double completionPercentage = totalGamesPlayed > 0 ? 
@@ -2,18 +2,27 @@ package com.umg.game_for_devs.controller;
 
 import com.umg.game_for_devs.entity.Track;
 import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.service.ActiveTrackCatalog;
+import com.umg.game_for_devs.service.GameSessionService;
+import com.umg.game_for_devs.service.StatisticsService;
+import com.umg.game_for_devs.service.TrackPayloadCache;
 import com.umg.game_for_devs.service.TrackService;
-import com.umg.game_for_devs.repository.GameSessionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.Map;
 import java.util.Optional;
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controlador público para el juego Game For Devs
@@ -26,7 +35,20 @@ public class GameController {
     private TrackService trackService;
 
     @Autowired
-    private GameSessionRepository gameSessionRepository;
+    private GameSessionService gameSessionService;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private ActiveTrackCatalog activeTrackCatalog;
+
+    @Autowired
+    private TrackPayloadCache trackPayloadCache;
+
+    /** Segundos que el navegador puede reutilizar una pista antes de revalidarla con su ETag */
+    @Value("${game.tracks.http.max-age-seconds:60}")
+    private long trackMaxAgeSeconds;
     
     /**
      * Página principal del juego - Redirige al juego directamente
@@ -80,11 +102,17 @@ public class GameController {
      */
     @GetMapping("/api/track/random")
     @ResponseBody
-    public ResponseEntity<Track> getRandomTrack() {
+    public ResponseEntity<byte[]> getRandomTrack() {
         try {
             Optional<Track> trackOpt = trackService.getRandomTrack();
             if (trackOpt.isPresent()) {
-                return ResponseEntity.ok(trackOpt.get());
+                // Cada llamada elige otra pista: no se guarda, pero se informa el ETag de la elegida
+                TrackPayloadCache.TrackPayload payload = trackPayloadCache.get(trackOpt.get());
+                return ResponseEntity.ok()
+                        .eTag(payload.getEtag())
+                        .cacheControl(CacheControl.noStore())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(payload.getTrackJson());
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -95,14 +123,37 @@ public class GameController {
 
     /**
      * API para obtener pista por ID
+     * Las pistas activas se resuelven desde el catálogo en memoria, así que una revalidación con
+     * If-None-Match se responde con 304 sin consultar la base de datos
      */
     @GetMapping("/api/track/{id}")
     @ResponseBody
-    public ResponseEntity<Track> getTrack(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getTrack(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            Optional<Track> track = trackService.getTrackById(id);
-            return track.map(ResponseEntity::ok)
-                       .orElse(ResponseEntity.notFound().build());
+            Optional<Track> track = activeTrackCatalog.findActive(id);
+            if (track.isEmpty()) {
+                track = trackService.getTrackById(id);
+            }
+            if (track.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            TrackPayloadCache.TrackPayload payload = trackPayloadCache.get(track.get());
+            CacheControl cacheControl = CacheControl.maxAge(trackMaxAgeSeconds, TimeUnit.SECONDS)
+                    .cachePublic()
+                    .mustRevalidate();
+            if (TrackPayloadCache.matches(ifNoneMatch, payload.getEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(payload.getEtag())
+                        .cacheControl(cacheControl)
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(payload.getEtag())
+                    .cacheControl(cacheControl)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(payload.getTrackJson());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -141,7 +192,7 @@ public class GameController {
             session.setIpAddress(getClientIp(httpRequest));
             session.setUserAgent(httpRequest.getHeader("User-Agent"));
 
-            GameSession savedSession = gameSessionRepository.save(session);
+            GameSession savedSession = gameSessionService.recordSession(session);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -161,8 +212,9 @@ public class GameController {
     @ResponseBody
     public ResponseEntity<Map<String, Object>> getGameStats() {
         try {
-            long totalSessions = gameSessionRepository.count();
-            long completedSessions = gameSessionRepository.countByStatus(GameSession.GameStatus.SUCCESS);
+            StatisticsService.SystemOverviewStats overview = statisticsService.getAllTimeOverviewStats();
+            long totalSessions = overview.getTotalSessions();
+            long completedSessions = overview.getSuccessfulSessions();
             double completionRate = totalSessions > 0 ? (double) completedSessions / totalSessions * 100 : 0;
             
             return ResponseEntity.ok(Map.of(
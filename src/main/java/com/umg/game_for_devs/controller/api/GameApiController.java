@@ -1,11 +1,20 @@
 package com.umg.game_for_devs.controller.api;
 
+import com.umg.game_for_devs.engine.ExecutionResult;
+import com.umg.game_for_devs.engine.MoveProgram;
+import com.umg.game_for_devs.engine.TrackGrid;
 import com.umg.game_for_devs.entity.GameSession;
 import com.umg.game_for_devs.entity.Track;
-import com.umg.game_for_devs.repository.GameSessionRepository;
 import com.umg.game_for_devs.repository.TrackRepository;
+import com.umg.game_for_devs.service.ActiveTrackCatalog;
+import com.umg.game_for_devs.service.GameEngineService;
+import com.umg.game_for_devs.service.GameSessionService;
+import com.umg.game_for_devs.service.StatisticsService;
+import com.umg.game_for_devs.service.TrackPayloadCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,7 +35,19 @@ public class GameApiController {
     private TrackRepository trackRepository;
     
     @Autowired
-    private GameSessionRepository gameSessionRepository;
+    private GameEngineService gameEngineService;
+    
+    @Autowired
+    private ActiveTrackCatalog activeTrackCatalog;
+    
+    @Autowired
+    private GameSessionService gameSessionService;
+    
+    @Autowired
+    private StatisticsService statisticsService;
+    
+    @Autowired
+    private TrackPayloadCache trackPayloadCache;
     
     /**
      * Endpoint de debug para verificar pistas disponibles
@@ -59,42 +80,32 @@ public class GameApiController {
     
     /**
      * Obtiene una pista aleatoria para jugar
+     * El cuerpo sale ya serializado de TrackPayloadCache; no se guarda en caché porque cada llamada elige otra pista
      */
     @GetMapping("/track/random")
-    public ResponseEntity<Map<String, Object>> getRandomTrack(@RequestParam(required = false) Long excludeId) {
+    public ResponseEntity<?> getRandomTrack(
+            @RequestParam(required = false) Long excludeId,
+            @RequestParam(defaultValue = "false") boolean weighted) {
         try {
-            Optional<Track> trackOpt;
-            
-            // Si se especifica una pista a excluir, intentar obtener una diferente
-            if (excludeId != null) {
-                trackOpt = trackRepository.findRandomActiveTrackExcluding(excludeId);
-                // Si no hay otra pista disponible, obtener cualquiera
-                if (trackOpt.isEmpty()) {
-                    trackOpt = trackRepository.findRandomActiveTrack();
-                }
-            } else {
-                trackOpt = trackRepository.findRandomActiveTrack();
-            }
+            // Se sirve desde el catálogo en memoria; si no hay otra pista se devuelve la excluida
+            Optional<Track> trackOpt = weighted
+                    ? activeTrackCatalog.weightedRandomTrack(excludeId)
+                    : activeTrackCatalog.randomTrack(excludeId);
             
             if (trackOpt.isPresent()) {
                 Track track = trackOpt.get();
-                Map<String, Object> response = new HashMap<>();
-                response.put("id", track.getId());
-                response.put("name", track.getName());
-                response.put("gridConfig", track.getGridConfig());
-                response.put("startX", track.getStartX());
-                response.put("startY", track.getStartY());
-                response.put("startDirection", track.getStartDirection());
-                response.put("difficultyLevel", track.getDifficultyLevel());
-                response.put("description", track.getDescription());
+                TrackPayloadCache.TrackPayload payload = trackPayloadCache.get(track);
                 
                 // Información adicional sobre si es una pista diferente
-                if (excludeId != null) {
-                    response.put("isDifferent", !track.getId().equals(excludeId));
-                    response.put("excludedId", excludeId);
-                }
+                byte[] body = excludeId != null
+                        ? payload.getGameJson(excludeId, !track.getId().equals(excludeId))
+                        : payload.getGameJson();
                 
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok()
+                        .eTag(payload.getEtag())
+                        .cacheControl(CacheControl.noStore())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body);
             } else {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "No hay pistas disponibles");
@@ -116,9 +127,12 @@ public class GameApiController {
             HttpServletRequest httpRequest) {
         try {
             Long trackId = Long.valueOf(request.get("trackId").toString());
-            String sessionId = UUID.randomUUID().toString();
             
-            Optional<Track> trackOpt = trackRepository.findById(trackId);
+            // Las pistas activas se resuelven desde el catálogo en memoria
+            Optional<Track> trackOpt = activeTrackCatalog.findActive(trackId);
+            if (!trackOpt.isPresent()) {
+                trackOpt = trackRepository.findById(trackId);
+            }
             if (!trackOpt.isPresent()) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Pista no encontrada");
@@ -126,17 +140,13 @@ public class GameApiController {
             }
             
             Track track = trackOpt.get();
-            GameSession session = new GameSession(sessionId, track);
-            
-            // Información adicional de la sesión
-            session.setIpAddress(getClientIpAddress(httpRequest));
-            session.setUserAgent(httpRequest.getHeader("User-Agent"));
-            session.setDeviceType(detectDeviceType(httpRequest.getHeader("User-Agent")));
-            
-            // Calcular total de celdas requeridas
-            session.setTotalCellsRequired(calculateTotalCells(track.getGridConfig()));
+            String userAgent = httpRequest.getHeader("User-Agent");
             
-            gameSessionRepository.save(session);
+            // La inserción se encola y se escribe en lote
+            GameSession session = gameSessionService.startSession(track,
+                    getClientIpAddress(httpRequest), userAgent, detectDeviceType(userAgent),
+                    gameEngineService.getGrid(track).getPathCount());
+            String sessionId = session.getSessionId();
             
             Map<String, Object> response = new HashMap<>();
             response.put("sessionId", sessionId);
@@ -159,7 +169,7 @@ public class GameApiController {
             @PathVariable String sessionId,
             @RequestBody Map<String, Object> request) {
         try {
-            Optional<GameSession> sessionOpt = gameSessionRepository.findBySessionId(sessionId);
+            Optional<GameSession> sessionOpt = gameSessionService.findSession(sessionId);
             if (!sessionOpt.isPresent()) {
                 Map<String, Object> error = new HashMap<>();
                 error.put("error", "Sesión no encontrada");
@@ -167,56 +177,70 @@ public class GameApiController {
             }
             
             GameSession session = sessionOpt.get();
-            
-            // Actualizar información de la sesión
-            if (request.containsKey("movesCount")) {
-                session.setMovesCount(Integer.valueOf(request.get("movesCount").toString()));
-            }
-            
-            if (request.containsKey("movesSequence")) {
-                session.setMovesSequence(request.get("movesSequence").toString());
+            if (session.getStatus() == GameSession.GameStatus.SUCCESS) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "La sesión ya fue completada");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
             }
             
-            if (request.containsKey("cellsVisited")) {
-                session.setCellsVisited(Integer.valueOf(request.get("cellsVisited").toString()));
+            // Validar y convertir toda la solicitud antes de tocar la sesión viva: una falla a medias dejaría
+            // la sesión en memoria distinta de la guardada, sin evento ni escritura pendiente
+            String movesSequence = request.containsKey("movesSequence") ? request.get("movesSequence").toString() : null;
+            MoveProgram program = movesSequence != null ? MoveProgram.parse(movesSequence) : null;
+            Integer movesCount = parseInteger(request, "movesCount");
+            Integer attemptsCount = parseInteger(request, "attemptsCount");
+            GameSession.GameStatus status = request.containsKey("status")
+                    ? GameSession.GameStatus.valueOf(request.get("status").toString()) : null;
+            boolean finishing = status == GameSession.GameStatus.SUCCESS || status == GameSession.GameStatus.FAILED;
+            // El cliente solo puede pedir que se evalúe su programa; el estado y las celdas visitadas los fija
+            // el intérprete (ni abandonar ni reabrir una sesión desde aquí)
+            if (status != null && !finishing) {
+                throw new IllegalArgumentException("Estado no permitido: " + status);
             }
-            
-            if (request.containsKey("attemptsCount")) {
-                session.setAttemptsCount(Integer.valueOf(request.get("attemptsCount").toString()));
+            if (finishing && program == null) {
+                throw new IllegalArgumentException("Se requiere la secuencia de movimientos para finalizar la sesión");
             }
+            Long executionTimeMs = request.containsKey("executionTimeMs")
+                    ? Math.max(0L, Long.parseLong(request.get("executionTimeMs").toString())) : null;
+            // El resultado final lo decide el servidor ejecutando el programa enviado
+            TrackGrid grid = finishing ? gameEngineService.getGrid(session.getTrack()) : null;
+            ExecutionResult result = finishing ? gameEngineService.simulate(session.getTrack(), program) : null;
             
-            if (request.containsKey("status")) {
-                String status = request.get("status").toString();
-                session.setStatus(GameSession.GameStatus.valueOf(status));
+            // Los cambios se aplican bajo el lock de la sesión, compartida con el escritor en lote; la ejecución
+            // viaja en el evento para que los mapas de calor no la repitan
+            gameSessionService.updateSession(session, result, grid, s -> {
+                if (movesCount != null) {
+                    s.setMovesCount(movesCount);
+                }
                 
-                if ("SUCCESS".equals(status) || "FAILED".equals(status)) {
-                    session.setEndTime(LocalDateTime.now());
-                    
-                    if (request.containsKey("executionTimeMs")) {
-                        session.setExecutionTimeMs(Long.valueOf(request.get("executionTimeMs").toString()));
-                    }
-                    
-                    if ("FAILED".equals(status) && request.containsKey("errorMessage")) {
-                        session.setErrorMessage(request.get("errorMessage").toString());
-                        
-                        if (request.containsKey("errorPositionX")) {
-                            session.setErrorPositionX(Integer.valueOf(request.get("errorPositionX").toString()));
-                        }
-                        
-                        if (request.containsKey("errorPositionY")) {
-                            session.setErrorPositionY(Integer.valueOf(request.get("errorPositionY").toString()));
-                        }
+                if (program != null) {
+                    s.setMoveProgram(program);
+                    s.setMovesCount(program.size());
+                }
+                
+                if (attemptsCount != null) {
+                    s.setAttemptsCount(attemptsCount);
+                }
+                
+                if (result != null) {
+                    applyExecutionResult(s, result);
+                    if (s.getEndTime() != null && executionTimeMs != null) {
+                        s.setExecutionTimeMs(executionTimeMs);
                     }
                 }
-            }
-            
-            gameSessionRepository.save(session);
+            });
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Sesión actualizada exitosamente");
             response.put("sessionId", sessionId);
+            response.put("status", session.getStatus().name());
+            response.put("cellsVisited", session.getCellsVisited());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Solicitud inválida: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Error al actualizar sesión: " + e.getMessage());
@@ -224,6 +248,19 @@ public class GameApiController {
         }
     }
     
+    /**
+     * Señal de vida de una sesión en curso (no consulta la base de datos)
+     */
+    @PostMapping("/session/{sessionId}/heartbeat")
+    public ResponseEntity<Map<String, Object>> heartbeat(@PathVariable String sessionId) {
+        if (!gameSessionService.heartbeat(sessionId)) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Sesión no activa");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
     /**
      * Obtiene estadísticas básicas para mostrar al usuario
      */
@@ -233,8 +270,8 @@ public class GameApiController {
             LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
             LocalDateTime now = LocalDateTime.now();
             
-            long totalSessions = gameSessionRepository.countByStartTimeBetween(weekAgo, now);
-            long successfulSessions = gameSessionRepository.countByStatus(GameSession.GameStatus.SUCCESS);
+            long totalSessions = statisticsService.countSessionsBetween(weekAgo, now);
+            long successfulSessions = statisticsService.getAllTimeOverviewStats().getSuccessfulSessions();
             long totalTracks = trackRepository.countByIsActiveTrue();
             
             Map<String, Object> response = new HashMap<>();
@@ -280,10 +317,37 @@ public class GameApiController {
         }
     }
     
-    private Integer calculateTotalCells(String gridConfig) {
-        // Esta función debería parsear el JSON del grid y contar las celdas con valor 1
-        // Por simplicidad, retornamos un valor por defecto
-        // TODO: Implementar parsing real del JSON
-        return 6; // Valor por defecto
+    private static Integer parseInteger(Map<String, Object> request, String key) {
+        return request.containsKey(key) ? Integer.valueOf(request.get(key).toString()) : null;
+    }
+    
+    /**
+     * Aplica a la sesión el resultado calculado por el intérprete del servidor
+     */
+    private void applyExecutionResult(GameSession session, ExecutionResult result) {
+        session.setCellsVisited(result.getCellsVisited());
+        session.setTotalCellsRequired(result.getTotalCellsRequired());
+        
+        switch (result.getOutcome()) {
+            case SUCCESS:
+                session.setStatus(GameSession.GameStatus.SUCCESS);
+                session.setEndTime(LocalDateTime.now());
+                session.setErrorMessage(null);
+                session.setErrorPositionX(null);
+                session.setErrorPositionY(null);
+                break;
+            case CRASHED:
+                session.setStatus(GameSession.GameStatus.FAILED);
+                session.setEndTime(LocalDateTime.now());
+                session.setErrorMessage(ExecutionResult.CRASH_MESSAGE);
+                session.setErrorPositionX(result.getErrorX());
+                session.setErrorPositionY(result.getErrorY());
+                break;
+            default:
+                // El programa terminó sin error pero sin recorrer toda la pista: la sesión sigue abierta
+                session.setStatus(GameSession.GameStatus.IN_PROGRESS);
+                session.setEndTime(null);
+                break;
+        }
     }
 }
\ No newline at end of file
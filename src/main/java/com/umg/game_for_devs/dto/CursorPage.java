@@ -0,0 +1,85 @@
+package com.umg.game_for_devs.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados con paginación por cursor (keyset)
+ * nextCursor es un token opaco que codifica la clave de orden y el id de la última fila devuelta
+ */
+public class CursorPage<T> {
+
+    private static final String SEPARATOR = "|";
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final int size;
+    private final Long approximateTotal;
+
+    public CursorPage(List<T> content, String nextCursor, int size, Long approximateTotal) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.size = size;
+        this.approximateTotal = approximateTotal;
+    }
+
+    /**
+     * Armar la página a partir de size + 1 filas leídas: la fila extra solo indica que hay más
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Cursor> cursorOf, Long approximateTotal) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, size, approximateTotal);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)).encode(), size, approximateTotal);
+    }
+
+    // Getters
+    public List<T> getContent() { return content; }
+    public String getNextCursor() { return nextCursor; }
+    public int getSize() { return size; }
+    public Long getApproximateTotal() { return approximateTotal; }
+    public boolean isHasMore() { return nextCursor != null; }
+
+    /**
+     * Posición de la última fila vista: clave de orden (opcional) e id como desempate
+     */
+    public static class Cursor {
+        private final LocalDateTime key;
+        private final long id;
+
+        public Cursor(LocalDateTime key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        public LocalDateTime getKey() { return key; }
+        public long getId() { return id; }
+
+        public String encode() {
+            String raw = (key != null ? key.toString() : "") + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Decodificar un token; null o vacío significa primera página
+         */
+        public static Cursor decode(String token) {
+            if (token == null || token.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf(SEPARATOR);
+                String key = raw.substring(0, separator);
+                return new Cursor(key.isEmpty() ? null : LocalDateTime.parse(key),
+                                  Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.umg.game_for_devs.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contadores densos por celda de una pista: dónde chocan los jugadores y qué celdas pisan
+ * - Los choques se cuentan en la celda de destino del movimiento inválido, que puede quedar fuera del tablero;
+ *   por eso su matriz tiene un margen de MARGIN celdas alrededor del grid ((rows + 2) x (cols + 2))
+ * - Las visitas cuentan en cuántas ejecuciones se pisó cada celda (una vez por ejecución, aunque se repita)
+ * Los contadores se guardan como enteros sin signo de longitud variable (compactSnapshot); no es thread-safe
+ */
+public final class CellHeatmap {
+
+    /** Celdas de margen alrededor del grid en la matriz de choques */
+    public static final int MARGIN = 1;
+
+    private final int rows;
+    private final int cols;
+    private final int[] crashes;
+    private final int[] visits;
+    private long runs;
+    private long failures;
+
+    public CellHeatmap(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.crashes = new int[(rows + 2 * MARGIN) * (cols + 2 * MARGIN)];
+        this.visits = new int[rows * cols];
+    }
+
+    /**
+     * Reconstruye los contadores a partir de una instantánea de compactSnapshot
+     */
+    public static CellHeatmap restore(int rows, int cols, long runs, long failures, byte[] crashes, byte[] visits) {
+        CellHeatmap heatmap = new CellHeatmap(rows, cols);
+        heatmap.runs = runs;
+        heatmap.failures = failures;
+        decode(crashes, heatmap.crashes);
+        decode(visits, heatmap.visits);
+        return heatmap;
+    }
+
+    /**
+     * Sumar una ejecución del intérprete sobre el grid de esta pista
+     */
+    public void record(ExecutionResult result) {
+        runs++;
+        for (int cell = 0; cell < visits.length; cell++) {
+            if (result.isVisited(cell)) {
+                visits[cell]++;
+            }
+        }
+        if (result.isCrashed()) {
+            failures++;
+            addCrash(result.getErrorX(), result.getErrorY());
+        }
+    }
+
+    /**
+     * Sumar una ejecución de la que solo se conoce el resultado (sin movimientos para reproducirla)
+     */
+    public void recordOutcome(boolean failed, Integer errorX, Integer errorY) {
+        runs++;
+        if (failed) {
+            failures++;
+            if (errorX != null && errorY != null) {
+                addCrash(errorX, errorY);
+            }
+        }
+    }
+
+    /**
+     * Sumar los contadores de otro mapa del mismo grid
+     */
+    public void addAll(CellHeatmap other) {
+        if (other.rows != rows || other.cols != cols) {
+            throw new IllegalArgumentException("Los mapas de calor corresponden a grids distintos");
+        }
+        runs += other.runs;
+        failures += other.failures;
+        for (int cell = 0; cell < crashes.length; cell++) {
+            crashes[cell] += other.crashes[cell];
+        }
+        for (int cell = 0; cell < visits.length; cell++) {
+            visits[cell] += other.visits[cell];
+        }
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public long getRuns() { return runs; }
+    public long getFailures() { return failures; }
+
+    /**
+     * Choques por celda como matriz [fila][columna], incluyendo el margen
+     */
+    public int[][] crashMatrix() {
+        return toMatrix(crashes, rows + 2 * MARGIN, cols + 2 * MARGIN);
+    }
+
+    /**
+     * Visitas por celda como matriz [fila][columna]
+     */
+    public int[][] visitMatrix() {
+        return toMatrix(visits, rows, cols);
+    }
+
+    /**
+     * Las limit celdas con más choques, de mayor a menor, como {x, y, count} en coordenadas del grid
+     */
+    public List<int[]> crashHotspots(int limit) {
+        List<int[]> hotspots = new ArrayList<>(limit);
+        int width = cols + 2 * MARGIN;
+        for (int cell = 0; cell < crashes.length; cell++) {
+            int count = crashes[cell];
+            if (count == 0 || (hotspots.size() == limit && count <= hotspots.get(limit - 1)[2])) {
+                continue;
+            }
+            int[] hotspot = {cell % width - MARGIN, cell / width - MARGIN, count};
+            int index = hotspots.size();
+            while (index > 0 && hotspots.get(index - 1)[2] < count) {
+                index--;
+            }
+            hotspots.add(index, hotspot);
+            if (hotspots.size() > limit) {
+                hotspots.remove(limit);
+            }
+        }
+        return hotspots;
+    }
+
+    /**
+     * Choques codificados (ver encode)
+     */
+    public byte[] compactCrashes() {
+        return encode(crashes);
+    }
+
+    /**
+     * Visitas codificadas (ver encode)
+     */
+    public byte[] compactVisits() {
+        return encode(visits);
+    }
+
+    // Métodos auxiliares
+
+    private void addCrash(int x, int y) {
+        int mx = x + MARGIN;
+        int my = y + MARGIN;
+        int width = cols + 2 * MARGIN;
+        if (mx >= 0 && mx < width && my >= 0 && my < rows + 2 * MARGIN) {
+            crashes[my * width + mx]++;
+        }
+    }
+
+    private static int[][] toMatrix(int[] counts, int rows, int cols) {
+        int[][] matrix = new int[rows][cols];
+        for (int y = 0; y < rows; y++) {
+            System.arraycopy(counts, y * cols, matrix[y], 0, cols);
+        }
+        return matrix;
+    }
+
+    /**
+     * Cada contador como entero sin signo de 7 bits por byte (el bit alto indica que sigue otro byte):
+     * las celdas en cero o con pocos choques ocupan un byte
+     */
+    private static byte[] encode(int[] counts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(counts.length + 16);
+        for (int count : counts) {
+            int value = count;
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+        return out.toByteArray();
+    }
+
+    private static void decode(byte[] data, int[] counts) {
+        if (data == null) {
+            return;
+        }
+        int position = 0;
+        for (int cell = 0; cell < counts.length && position < data.length; cell++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0 && position < data.length);
+            counts[cell] = value;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CellHeatmap{" + cols + "x" + rows + ", runs=" + runs + ", failures=" + failures + '}';
+    }
+}
@@ -0,0 +1,127 @@
+package com.umg.game_for_devs.engine;
+
+import java.util.Arrays;
+
+/**
+ * Resultado mutable de una ejecución del intérprete
+ * Es reutilizable entre ejecuciones para que el intérprete no reserve memoria
+ */
+public final class ExecutionResult {
+
+    public enum Outcome {
+        SUCCESS,     // Se visitaron todas las celdas del camino
+        INCOMPLETE,  // El programa terminó sin error pero faltan celdas
+        CRASHED      // El robot intentó salir del camino
+    }
+
+    public static final String CRASH_MESSAGE = "Movimiento inválido: El robot no puede moverse a esa posición.";
+
+    private Outcome outcome;
+    private int finalX;
+    private int finalY;
+    private Heading finalHeading;
+    private int cellsVisited;
+    private int totalCellsRequired;
+    private int stepsExecuted;
+    private int errorX;
+    private int errorY;
+    private int failedMoveIndex;
+
+    // Celdas visitadas: una máscara para grids de hasta 64 celdas o un bitset por palabras para los mayores;
+    // el arreglo se conserva entre ejecuciones
+    private long visitedMask;
+    private long[] visitedWords = new long[0];
+    private boolean wide;
+
+    public ExecutionResult() {
+        reset();
+    }
+
+    public void reset() {
+        outcome = Outcome.INCOMPLETE;
+        finalX = 0;
+        finalY = 0;
+        finalHeading = Heading.EAST;
+        cellsVisited = 0;
+        totalCellsRequired = 0;
+        stepsExecuted = 0;
+        errorX = -1;
+        errorY = -1;
+        failedMoveIndex = -1;
+        visitedMask = 0L;
+        wide = false;
+    }
+
+    void complete(Outcome outcome, int x, int y, Heading heading, int cellsVisited, int totalCellsRequired, int steps) {
+        this.outcome = outcome;
+        this.finalX = x;
+        this.finalY = y;
+        this.finalHeading = heading;
+        this.cellsVisited = cellsVisited;
+        this.totalCellsRequired = totalCellsRequired;
+        this.stepsExecuted = steps;
+    }
+
+    /**
+     * Bitset de visitadas en cero con al menos la cantidad de palabras indicada
+     */
+    long[] visitedWords(int words) {
+        wide = true;
+        if (visitedWords.length < words) {
+            visitedWords = new long[words];
+        } else {
+            Arrays.fill(visitedWords, 0, words, 0L);
+        }
+        return visitedWords;
+    }
+
+    void visitedMask(long mask) {
+        this.visitedMask = mask;
+    }
+
+    void crash(int errorX, int errorY, int failedMoveIndex) {
+        this.errorX = errorX;
+        this.errorY = errorY;
+        this.failedMoveIndex = failedMoveIndex;
+    }
+
+    /**
+     * Indica si la celda de índice y * cols + x quedó visitada en la última ejecución
+     */
+    public boolean isVisited(int cell) {
+        if (wide) {
+            return (cell >>> 6) < visitedWords.length && (visitedWords[cell >>> 6] & (1L << cell)) != 0;
+        }
+        return cell < Long.SIZE && (visitedMask & (1L << cell)) != 0;
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCESS;
+    }
+
+    public boolean isCrashed() {
+        return outcome == Outcome.CRASHED;
+    }
+
+    public Outcome getOutcome() { return outcome; }
+    public int getFinalX() { return finalX; }
+    public int getFinalY() { return finalY; }
+    public Heading getFinalHeading() { return finalHeading; }
+    public int getCellsVisited() { return cellsVisited; }
+    public int getTotalCellsRequired() { return totalCellsRequired; }
+    public int getStepsExecuted() { return stepsExecuted; }
+    public int getErrorX() { return errorX; }
+    public int getErrorY() { return errorY; }
+    public int getFailedMoveIndex() { return failedMoveIndex; }
+
+    @Override
+    public String toString() {
+        return "ExecutionResult{" +
+                "outcome=" + outcome +
+                ", final=(" + finalX + ", " + finalY + ", " + finalHeading + ")" +
+                ", cellsVisited=" + cellsVisited + "/" + totalCellsRequired +
+                ", steps=" + stepsExecuted +
+                (outcome == Outcome.CRASHED ? ", error=(" + errorX + ", " + errorY + ") at move " + failedMoveIndex : "") +
+                '}';
+    }
+}
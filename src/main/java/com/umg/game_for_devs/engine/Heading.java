@@ -0,0 +1,56 @@
+package com.umg.game_for_devs.engine;
+
+/**
+ * Orientación del robot en el grid
+ * El orden sigue el sentido horario para que girar sea sumar o restar 1 (mod 4)
+ */
+public enum Heading {
+    NORTH(0, -1),
+    EAST(1, 0),
+    SOUTH(0, 1),
+    WEST(-1, 0);
+
+    private static final Heading[] VALUES = values();
+
+    private final int dx;
+    private final int dy;
+
+    Heading(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    public int getDx() {
+        return dx;
+    }
+
+    public int getDy() {
+        return dy;
+    }
+
+    public Heading turnLeft() {
+        return VALUES[(ordinal() + 3) & 3];
+    }
+
+    public Heading turnRight() {
+        return VALUES[(ordinal() + 1) & 3];
+    }
+
+    public static Heading fromOrdinal(int ordinal) {
+        return VALUES[ordinal & 3];
+    }
+
+    /**
+     * Convierte el valor de Track.startDirection (NORTH, SOUTH, EAST, WEST)
+     */
+    public static Heading fromName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("La dirección inicial es obligatoria");
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Dirección inicial inválida: " + name);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.umg.game_for_devs.engine;
+
+import java.util.Arrays;
+
+/**
+ * Codificación binaria compacta de un MoveProgram para guardarlo en una columna VARBINARY
+ *
+ * Formato: 1 byte de versión, cantidad de tokens como varint y luego un flujo de bits (MSB primero):
+ *   00 FORWARD, 01 LEFT, 10 RIGHT,
+ *   1100 LOOP_START, 1101 LOOP_END,
+ *   1110 + 4 bits n: repetir el token anterior n + 1 veces más (run-length)
+ * Un programa de MAX_MOVES tokens ocupa como máximo MAX_ENCODED_LENGTH bytes
+ */
+public final class MoveCodec {
+
+    public static final byte VERSION = 1;
+
+    /** Tamaño máximo de la columna: cabecera + MAX_MOVES tokens de 4 bits */
+    public static final int MAX_ENCODED_LENGTH = 3 + (MoveProgram.MAX_MOVES * 4 + 7) / 8;
+
+    private static final int ESCAPE = 0b11;
+    private static final int LOOP_START_CODE = 0b00;
+    private static final int LOOP_END_CODE = 0b01;
+    private static final int RUN_CODE = 0b10;
+    private static final int RUN_BITS = 4;
+    private static final int MAX_RUN = 1 << RUN_BITS;
+    private static final int RUN_COST = 4 + RUN_BITS;
+
+    private MoveCodec() {}
+
+    /**
+     * Codificar un programa
+     */
+    public static byte[] encode(MoveProgram program) {
+        BitWriter out = new BitWriter(MAX_ENCODED_LENGTH);
+        out.writeByte(VERSION);
+        out.writeVarint(program.size());
+
+        int i = 0;
+        while (i < program.size()) {
+            byte op = program.op(i);
+            writeToken(out, op);
+            int repeats = 0;
+            while (i + 1 + repeats < program.size() && program.op(i + 1 + repeats) == op) {
+                repeats++;
+            }
+            i += 1 + repeats;
+
+            // Las repeticiones cortas salen más baratas escritas token por token
+            while (repeats > 0) {
+                int run = Math.min(repeats, MAX_RUN);
+                if (run * tokenBits(op) > RUN_COST) {
+                    out.writeBits(ESCAPE, 2);
+                    out.writeBits(RUN_CODE, 2);
+                    out.writeBits(run - 1, RUN_BITS);
+                } else {
+                    for (int r = 0; r < run; r++) {
+                        writeToken(out, op);
+                    }
+                }
+                repeats -= run;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodificar un programa; lanza IllegalArgumentException si los bytes no son válidos
+     */
+    public static MoveProgram decode(byte[] encoded) {
+        if (encoded == null || encoded.length < 2 || encoded[0] != VERSION) {
+            throw new IllegalArgumentException("Secuencia de movimientos codificada inválida");
+        }
+        try {
+            BitReader in = new BitReader(encoded);
+            in.readByte();
+            int size = in.readVarint();
+            if (size > MoveProgram.MAX_MOVES) {
+                throw new IllegalArgumentException("El programa excede el máximo de " + MoveProgram.MAX_MOVES + " movimientos");
+            }
+
+            byte[] ops = new byte[size];
+            int count = 0;
+            while (count < size) {
+                int code = in.readBits(2);
+                if (code != ESCAPE) {
+                    ops[count++] = (byte) code;
+                    continue;
+                }
+                int extended = in.readBits(2);
+                if (extended == LOOP_START_CODE) {
+                    ops[count++] = MoveProgram.LOOP_START;
+                } else if (extended == LOOP_END_CODE) {
+                    ops[count++] = MoveProgram.LOOP_END;
+                } else if (extended == RUN_CODE && count > 0) {
+                    int run = in.readBits(RUN_BITS) + 1;
+                    if (count + run > size) {
+                        throw new IllegalArgumentException("Secuencia de movimientos codificada inválida");
+                    }
+                    Arrays.fill(ops, count, count + run, ops[count - 1]);
+                    count += run;
+                } else {
+                    throw new IllegalArgumentException("Secuencia de movimientos codificada inválida");
+                }
+            }
+            return MoveProgram.of(ops);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Secuencia de movimientos codificada truncada");
+        }
+    }
+
+    /**
+     * Representación JSON canónica (["FORWARD", ...]) aceptada por MoveProgram.parse
+     */
+    public static String toJson(MoveProgram program) {
+        StringBuilder sb = new StringBuilder(program.size() * 10 + 2).append('[');
+        for (int i = 0; i < program.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(MoveProgram.nameOf(program.op(i))).append('"');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static int tokenBits(byte op) {
+        return op <= MoveProgram.RIGHT ? 2 : 4;
+    }
+
+    private static void writeToken(BitWriter out, byte op) {
+        if (op <= MoveProgram.RIGHT) {
+            out.writeBits(op, 2);
+        } else {
+            out.writeBits(ESCAPE, 2);
+            out.writeBits(op == MoveProgram.LOOP_START ? LOOP_START_CODE : LOOP_END_CODE, 2);
+        }
+    }
+
+    private static final class BitWriter {
+        private byte[] buffer;
+        private int bitPosition;
+
+        BitWriter(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            writeBits(value & 0xFF, 8);
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeBits(int value, int bits) {
+            for (int b = bits - 1; b >= 0; b--) {
+                int index = bitPosition >>> 3;
+                if (index == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                if (((value >>> b) & 1) != 0) {
+                    buffer[index] |= (byte) (0x80 >>> (bitPosition & 7));
+                }
+                bitPosition++;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, (bitPosition + 7) >>> 3);
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] buffer;
+        private int bitPosition;
+
+        BitReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return readBits(8);
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Secuencia de movimientos codificada inválida");
+        }
+
+        int readBits(int bits) {
+            int value = 0;
+            for (int b = 0; b < bits; b++) {
+                int bit = (buffer[bitPosition >>> 3] >>> (7 - (bitPosition & 7))) & 1;
+                value = (value << 1) | bit;
+                bitPosition++;
+            }
+            return value;
+        }
+    }
+}
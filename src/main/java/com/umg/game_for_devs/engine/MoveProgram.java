@@ -0,0 +1,185 @@
+package com.umg.game_for_devs.engine;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Programa de movimientos compilado e inmutable
+ * Guarda los tokens como bytes y precalcula el LOOP_END correspondiente a cada LOOP_START
+ * para que el intérprete no tenga que buscarlo en cada ejecución (equivalente a findLoopEnd en game.js)
+ */
+public final class MoveProgram {
+
+    public static final byte FORWARD = 0;
+    public static final byte LEFT = 1;
+    public static final byte RIGHT = 2;
+    public static final byte LOOP_START = 3;
+    public static final byte LOOP_END = 4;
+
+    /** Cantidad de veces que se repite el cuerpo de un bucle (igual que en el cliente) */
+    public static final int LOOP_ITERATIONS = 2;
+
+    /** Límite de tokens aceptados para acotar el trabajo por petición */
+    public static final int MAX_MOVES = 1000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String[] TOKEN_NAMES = {"FORWARD", "LEFT", "RIGHT", "LOOP_START", "LOOP_END"};
+
+    private final byte[] ops;
+    private final int[] loopEnds;
+
+    private MoveProgram(byte[] ops) {
+        this.ops = ops;
+        this.loopEnds = computeLoopEnds(ops);
+    }
+
+    /**
+     * Crea un programa a partir de tokens ya codificados
+     */
+    public static MoveProgram of(byte... ops) {
+        if (ops.length > MAX_MOVES) {
+            throw new IllegalArgumentException("El programa excede el máximo de " + MAX_MOVES + " movimientos");
+        }
+        for (byte op : ops) {
+            if (op < FORWARD || op > LOOP_END) {
+                throw new IllegalArgumentException("Token de movimiento inválido: " + op);
+            }
+        }
+        return new MoveProgram(ops.clone());
+    }
+
+    /**
+     * Compila la secuencia enviada por el cliente
+     * Acepta [{"type":"FORWARD","id":...}, ...] (formato de game.js) o ["FORWARD", ...]
+     */
+    public static MoveProgram parse(String movesSequence) {
+        if (movesSequence == null || movesSequence.isBlank()) {
+            throw new IllegalArgumentException("La secuencia de movimientos está vacía");
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(movesSequence)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("La secuencia de movimientos debe ser un array JSON");
+            }
+
+            byte[] buffer = new byte[16];
+            int size = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                String type;
+                if (token == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if (token == JsonToken.START_OBJECT) {
+                    type = readType(parser);
+                } else {
+                    throw new IllegalArgumentException("Elemento inesperado en la secuencia de movimientos");
+                }
+
+                if (size == MAX_MOVES) {
+                    throw new IllegalArgumentException("El programa excede el máximo de " + MAX_MOVES + " movimientos");
+                }
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, MAX_MOVES));
+                }
+                buffer[size++] = tokenOf(type);
+            }
+            return new MoveProgram(Arrays.copyOf(buffer, size));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Formato de secuencia inválido: debe ser un array JSON válido");
+        }
+    }
+
+    private static String readType(JsonParser parser) throws IOException {
+        String type = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                type = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Movimiento sin tipo en la secuencia");
+        }
+        return type;
+    }
+
+    public static byte tokenOf(String type) {
+        switch (type) {
+            case "FORWARD": return FORWARD;
+            case "LEFT": return LEFT;
+            case "RIGHT": return RIGHT;
+            case "LOOP_START": return LOOP_START;
+            case "LOOP_END": return LOOP_END;
+            default: throw new IllegalArgumentException("Tipo de movimiento desconocido: " + type);
+        }
+    }
+
+    public static String nameOf(byte op) {
+        return TOKEN_NAMES[op];
+    }
+
+    /**
+     * Misma semántica que findLoopEnd: se empareja por profundidad y -1 si el bucle no está cerrado
+     */
+    private static int[] computeLoopEnds(byte[] ops) {
+        int[] ends = new int[ops.length];
+        int[] stack = new int[ops.length];
+        int depth = 0;
+        Arrays.fill(ends, -1);
+        for (int i = 0; i < ops.length; i++) {
+            if (ops[i] == LOOP_START) {
+                stack[depth++] = i;
+            } else if (ops[i] == LOOP_END && depth > 0) {
+                ends[stack[--depth]] = i;
+            }
+        }
+        return ends;
+    }
+
+    public int size() {
+        return ops.length;
+    }
+
+    public byte op(int index) {
+        return ops[index];
+    }
+
+    /**
+     * Índice del LOOP_END que cierra el LOOP_START en index, o -1
+     */
+    public int loopEnd(int index) {
+        return loopEnds[index];
+    }
+
+    public byte[] toArray() {
+        return ops.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof MoveProgram other && Arrays.equals(ops, other.ops));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ops);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("MoveProgram[");
+        for (int i = 0; i < ops.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(TOKEN_NAMES[ops[i]]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,209 @@
+package com.umg.game_for_devs.engine;
+
+/**
+ * Intérprete del lenguaje de movimientos del robot
+ * Replica la semántica de processMovesSequence/executeMove de game.js:
+ * - LOOP_START ejecuta su cuerpo LOOP_ITERATIONS veces y salta al LOOP_END correspondiente
+ * - Los marcadores de bucle dentro de un cuerpo se ignoran, igual que en el cliente
+ * - Un LOOP_START sin cerrar se ignora y la ejecución continúa con el siguiente token
+ * - FORWARD hacia una celda fuera del grid o sin camino detiene la ejecución
+ * No reserva memoria: el camino y las celdas visitadas se manejan como máscaras de bits; los grids de hasta
+ * 64 celdas usan un único long y los mayores un bitset por palabras reutilizado desde ExecutionResult
+ */
+public final class RobotInterpreter {
+
+    /** Máximo de celdas soportado por la máscara de visitadas de una sola palabra */
+    public static final int MAX_CELLS = Long.SIZE;
+
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private RobotInterpreter() {}
+
+    /**
+     * Ejecuta el programa sobre el bitboard de la pista y escribe el resultado en result
+     */
+    public static ExecutionResult run(TrackGrid grid, int startX, int startY, Heading startHeading,
+                                      MoveProgram program, ExecutionResult result) {
+        if (!grid.isCompact()) {
+            return runWide(grid, startX, startY, startHeading, program, result);
+        }
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        long pathMask = grid.getMask();
+
+        result.reset();
+        int x = startX;
+        int y = startY;
+        int heading = startHeading.ordinal();
+        int steps = 0;
+        long visited = (x >= 0 && x < cols && y >= 0 && y < rows) ? 1L << (y * cols + x) : 0L;
+
+        int n = program.size();
+        for (int i = 0; i < n; i++) {
+            byte op = program.op(i);
+            if (op == MoveProgram.LOOP_START) {
+                int end = program.loopEnd(i);
+                if (end == -1) {
+                    continue;
+                }
+                for (int iteration = 0; iteration < MoveProgram.LOOP_ITERATIONS; iteration++) {
+                    for (int j = i + 1; j < end; j++) {
+                        byte inner = program.op(j);
+                        if (inner == MoveProgram.FORWARD) {
+                            int nx = x + DX[heading];
+                            int ny = y + DY[heading];
+                            steps++;
+                            if (nx < 0 || nx >= cols || ny < 0 || ny >= rows
+                                    || (pathMask & (1L << (ny * cols + nx))) == 0) {
+                                result.visitedMask(visited);
+                                return crash(result, nx, ny, j, x, y, heading,
+                                        Long.bitCount(visited), Long.bitCount(pathMask), steps);
+                            }
+                            x = nx;
+                            y = ny;
+                            visited |= 1L << (ny * cols + nx);
+                        } else if (inner == MoveProgram.LEFT) {
+                            heading = (heading + 3) & 3;
+                            steps++;
+                        } else if (inner == MoveProgram.RIGHT) {
+                            heading = (heading + 1) & 3;
+                            steps++;
+                        }
+                    }
+                }
+                i = end;
+            } else if (op == MoveProgram.FORWARD) {
+                int nx = x + DX[heading];
+                int ny = y + DY[heading];
+                steps++;
+                if (nx < 0 || nx >= cols || ny < 0 || ny >= rows
+                        || (pathMask & (1L << (ny * cols + nx))) == 0) {
+                    result.visitedMask(visited);
+                    return crash(result, nx, ny, i, x, y, heading,
+                            Long.bitCount(visited), Long.bitCount(pathMask), steps);
+                }
+                x = nx;
+                y = ny;
+                visited |= 1L << (ny * cols + nx);
+            } else if (op == MoveProgram.LEFT) {
+                heading = (heading + 3) & 3;
+                steps++;
+            } else if (op == MoveProgram.RIGHT) {
+                heading = (heading + 1) & 3;
+                steps++;
+            }
+        }
+
+        ExecutionResult.Outcome outcome = (visited & pathMask) == pathMask
+                ? ExecutionResult.Outcome.SUCCESS
+                : ExecutionResult.Outcome.INCOMPLETE;
+        result.visitedMask(visited);
+        result.complete(outcome, x, y, Heading.fromOrdinal(heading),
+                Long.bitCount(visited), Long.bitCount(pathMask), steps);
+        return result;
+    }
+
+    /**
+     * Misma semántica que run para grids de más de 64 celdas: el camino se lee de las palabras del bitboard
+     * y las celdas visitadas se cuentan al marcarlas, así que el costo no depende del tamaño del grid
+     */
+    private static ExecutionResult runWide(TrackGrid grid, int startX, int startY, Heading startHeading,
+                                           MoveProgram program, ExecutionResult result) {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        long[] path = grid.words();
+        int pathCount = grid.getPathCount();
+
+        result.reset();
+        long[] visited = result.visitedWords(path.length);
+        int x = startX;
+        int y = startY;
+        int heading = startHeading.ordinal();
+        int steps = 0;
+        int cellsVisited = 0;
+        int pathVisited = 0;
+        if (x >= 0 && x < cols && y >= 0 && y < rows) {
+            int bit = y * cols + x;
+            visited[bit >>> 6] |= 1L << bit;
+            cellsVisited = 1;
+            pathVisited = (path[bit >>> 6] & (1L << bit)) != 0 ? 1 : 0;
+        }
+
+        int n = program.size();
+        for (int i = 0; i < n; i++) {
+            byte op = program.op(i);
+            if (op == MoveProgram.LOOP_START) {
+                int end = program.loopEnd(i);
+                if (end == -1) {
+                    continue;
+                }
+                for (int iteration = 0; iteration < MoveProgram.LOOP_ITERATIONS; iteration++) {
+                    for (int j = i + 1; j < end; j++) {
+                        byte inner = program.op(j);
+                        if (inner == MoveProgram.FORWARD) {
+                            int nx = x + DX[heading];
+                            int ny = y + DY[heading];
+                            steps++;
+                            int bit = ny * cols + nx;
+                            if (nx < 0 || nx >= cols || ny < 0 || ny >= rows
+                                    || (path[bit >>> 6] & (1L << bit)) == 0) {
+                                return crash(result, nx, ny, j, x, y, heading, cellsVisited, pathCount, steps);
+                            }
+                            x = nx;
+                            y = ny;
+                            if ((visited[bit >>> 6] & (1L << bit)) == 0) {
+                                visited[bit >>> 6] |= 1L << bit;
+                                cellsVisited++;
+                                pathVisited++;
+                            }
+                        } else if (inner == MoveProgram.LEFT) {
+                            heading = (heading + 3) & 3;
+                            steps++;
+                        } else if (inner == MoveProgram.RIGHT) {
+                            heading = (heading + 1) & 3;
+                            steps++;
+                        }
+                    }
+                }
+                i = end;
+            } else if (op == MoveProgram.FORWARD) {
+                int nx = x + DX[heading];
+                int ny = y + DY[heading];
+                steps++;
+                int bit = ny * cols + nx;
+                if (nx < 0 || nx >= cols || ny < 0 || ny >= rows
+                        || (path[bit >>> 6] & (1L << bit)) == 0) {
+                    return crash(result, nx, ny, i, x, y, heading, cellsVisited, pathCount, steps);
+                }
+                x = nx;
+                y = ny;
+                if ((visited[bit >>> 6] & (1L << bit)) == 0) {
+                    visited[bit >>> 6] |= 1L << bit;
+                    cellsVisited++;
+                    pathVisited++;
+                }
+            } else if (op == MoveProgram.LEFT) {
+                heading = (heading + 3) & 3;
+                steps++;
+            } else if (op == MoveProgram.RIGHT) {
+                heading = (heading + 1) & 3;
+                steps++;
+            }
+        }
+
+        ExecutionResult.Outcome outcome = pathVisited == pathCount
+                ? ExecutionResult.Outcome.SUCCESS
+                : ExecutionResult.Outcome.INCOMPLETE;
+        result.complete(outcome, x, y, Heading.fromOrdinal(heading), cellsVisited, pathCount, steps);
+        return result;
+    }
+
+    private static ExecutionResult crash(ExecutionResult result, int errorX, int errorY, int moveIndex,
+                                         int x, int y, int heading, int cellsVisited, int totalCells, int steps) {
+        result.complete(ExecutionResult.Outcome.CRASHED, x, y, Heading.fromOrdinal(heading),
+                cellsVisited, totalCells, steps);
+        result.crash(errorX, errorY, moveIndex);
+        return result;
+    }
+}
@@ -0,0 +1,230 @@
+package com.umg.game_for_devs.engine;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Representación inmutable del grid de una pista como bitboard
+ * La celda (x, y) ocupa el bit y * cols + x. Para grids de hasta 64 celdas (el tablero 5x4
+ * usa 20 bits) todo el camino cabe en un único long; los grids mayores usan un long[]
+ * (64 palabras para el máximo de 64x64)
+ */
+public final class TrackGrid {
+
+    /** Máximo de filas y de columnas que acepta el parser */
+    public static final int MAX_SIDE = 64;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int rows;
+    private final int cols;
+    private final long[] words;
+    private final int pathCount;
+
+    private TrackGrid(int rows, int cols, long[] words) {
+        this.rows = rows;
+        this.cols = cols;
+        this.words = words;
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        this.pathCount = count;
+    }
+
+    /**
+     * Construye el bitboard a partir de una matriz grid[fila][columna] con 0 y 1
+     */
+    public static TrackGrid of(int[][] grid) {
+        int rows = grid.length;
+        int cols = rows > 0 ? grid[0].length : 0;
+        checkSide(rows, cols);
+        long[] words = new long[wordCount(rows * cols)];
+        for (int y = 0; y < rows; y++) {
+            if (grid[y].length != cols) {
+                throw new IllegalArgumentException("Todas las filas del grid deben tener la misma cantidad de columnas");
+            }
+            for (int x = 0; x < cols; x++) {
+                int cell = grid[y][x];
+                if (cell != 0 && cell != 1) {
+                    throw new IllegalArgumentException("Las celdas del grid solo pueden contener 0 o 1");
+                }
+                if (cell == 1) {
+                    int bit = y * cols + x;
+                    words[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+        return new TrackGrid(rows, cols, words);
+    }
+
+    /**
+     * Parsea el JSON de Track.gridConfig sin construir un árbol intermedio
+     */
+    public static TrackGrid parse(String gridConfig) {
+        if (gridConfig == null || gridConfig.isBlank()) {
+            throw new IllegalArgumentException("La configuración del grid es obligatoria");
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(gridConfig)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Formato de grid inválido: debe ser un array JSON válido");
+            }
+
+            long[] words = new long[1];
+            int rows = 0;
+            int cols = -1;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_ARRAY) {
+                    throw new IllegalArgumentException("Formato de grid inválido: cada fila debe ser un array");
+                }
+                int x = 0;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token != JsonToken.VALUE_NUMBER_INT) {
+                        throw new IllegalArgumentException("Las celdas del grid solo pueden contener 0 o 1");
+                    }
+                    if (x == MAX_SIDE) {
+                        checkSide(rows, x + 1);
+                    }
+                    int cell = parser.getIntValue();
+                    if (cell != 0 && cell != 1) {
+                        throw new IllegalArgumentException("Las celdas del grid solo pueden contener 0 o 1");
+                    }
+                    if (cell == 1) {
+                        // El ancho se conoce al cerrar la primera fila, pero en ella el bit es la columna
+                        int bit = rows == 0 ? x : rows * cols + x;
+                        if ((bit >>> 6) >= words.length) {
+                            words = Arrays.copyOf(words, Math.max(words.length * 2, (bit >>> 6) + 1));
+                        }
+                        words[bit >>> 6] |= 1L << bit;
+                    }
+                    x++;
+                }
+                if (cols < 0) {
+                    cols = x;
+                } else if (x != cols) {
+                    throw new IllegalArgumentException("Todas las filas del grid deben tener la misma cantidad de columnas");
+                }
+                rows++;
+                if (rows > MAX_SIDE) {
+                    checkSide(rows, cols);
+                }
+            }
+            if (cols < 0) {
+                cols = 0;
+            }
+            return new TrackGrid(rows, cols, Arrays.copyOf(words, wordCount(rows * cols)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Formato de grid inválido: debe ser un array JSON válido");
+        }
+    }
+
+    private static void checkSide(int rows, int cols) {
+        if (rows > MAX_SIDE || cols > MAX_SIDE) {
+            throw new IllegalArgumentException("El grid no puede tener más de " + MAX_SIDE + " filas ni más de "
+                    + MAX_SIDE + " columnas");
+        }
+    }
+
+    private static int wordCount(int cells) {
+        return Math.max(1, (cells + Long.SIZE - 1) >>> 6);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getCellCount() {
+        return rows * cols;
+    }
+
+    /**
+     * Cantidad de celdas de camino (valor 1)
+     */
+    public int getPathCount() {
+        return pathCount;
+    }
+
+    public boolean hasPath() {
+        return pathCount > 0;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < cols && y >= 0 && y < rows;
+    }
+
+    public boolean isPath(int x, int y) {
+        if (!contains(x, y)) {
+            return false;
+        }
+        int bit = y * cols + x;
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Indica si todo el grid cabe en una sola palabra (getMask)
+     */
+    public boolean isCompact() {
+        return rows * cols <= Long.SIZE;
+    }
+
+    /**
+     * Máscara de camino para grids compactos
+     */
+    public long getMask() {
+        return words[0];
+    }
+
+    public int getWordCount() {
+        return words.length;
+    }
+
+    public long getWord(int index) {
+        return words[index];
+    }
+
+    /**
+     * Palabras del bitboard sin copiar, para los recorridos del motor; no deben modificarse
+     */
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * Vuelve a generar la matriz grid[fila][columna] (para exportar o mostrar)
+     */
+    public int[][] toArray() {
+        int[][] grid = new int[rows][cols];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                grid[y][x] = isPath(x, y) ? 1 : 0;
+            }
+        }
+        return grid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof TrackGrid other
+                && rows == other.rows && cols == other.cols && Arrays.equals(words, other.words));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * rows + cols) + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return "TrackGrid{" + cols + "x" + rows + ", pathCells=" + pathCount + '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.umg.game_for_devs.engine;
+
+/**
+ * Resultado de TrackSolver para una pista
+ * Si la búsqueda agotó el límite de estados no se sabe si la pista tiene solución (isDetermined() == false)
+ */
+public final class TrackSolution {
+
+    public enum Status {
+        SOLVED,
+        UNSOLVABLE,
+        UNDETERMINED
+    }
+
+    private final Status status;
+    private final MoveProgram shortestProgram;
+    private final MoveProgram loopProgram;
+    private final int turns;
+    private final int revisits;
+    private final int statesExplored;
+
+    TrackSolution(Status status, MoveProgram shortestProgram, MoveProgram loopProgram,
+                  int turns, int revisits, int statesExplored) {
+        this.status = status;
+        this.shortestProgram = shortestProgram;
+        this.loopProgram = loopProgram;
+        this.turns = turns;
+        this.revisits = revisits;
+        this.statesExplored = statesExplored;
+    }
+
+    static TrackSolution unsolved(Status status, int statesExplored) {
+        return new TrackSolution(status, null, null, 0, 0, statesExplored);
+    }
+
+    public boolean isSolvable() {
+        return status == Status.SOLVED;
+    }
+
+    public boolean isDetermined() {
+        return status != Status.UNDETERMINED;
+    }
+
+    /**
+     * Cantidad mínima de movimientos sin bucles
+     */
+    public Integer getMinMoves() {
+        return shortestProgram != null ? shortestProgram.size() : null;
+    }
+
+    /**
+     * Cantidad mínima de tokens usando bucles (LOOP_START y LOOP_END cuentan como un token cada uno)
+     */
+    public Integer getMinLoopProgramLength() {
+        return loopProgram != null ? loopProgram.size() : null;
+    }
+
+    /**
+     * Puntaje de dificultad de 0 a 100 a partir del programa mínimo: movimientos, giros y celdas que
+     * hay que volver a pisar (retrocesos); null si no hay solución conocida
+     */
+    public Integer getDifficultyScore() {
+        if (shortestProgram == null) {
+            return null;
+        }
+        double raw = shortestProgram.size() + turns + 2.0 * revisits;
+        return (int) Math.round(100 * (1 - Math.exp(-raw / 25.0)));
+    }
+
+    /**
+     * Nivel de 1 a 5 equivalente al puntaje (misma escala que Track.difficultyLevel)
+     */
+    public Integer getDifficultyLevel() {
+        Integer score = getDifficultyScore();
+        return score != null ? 1 + Math.min(4, score / 20) : null;
+    }
+
+    public Status getStatus() { return status; }
+    public MoveProgram getShortestProgram() { return shortestProgram; }
+    public MoveProgram getLoopProgram() { return loopProgram; }
+    public int getTurns() { return turns; }
+    public int getRevisits() { return revisits; }
+    public int getStatesExplored() { return statesExplored; }
+
+    @Override
+    public String toString() {
+        return "TrackSolution{" + status + ", minMoves=" + getMinMoves() + ", loopLength=" + getMinLoopProgramLength()
+                + ", score=" + getDifficultyScore() + ", states=" + statesExplored + '}';
+    }
+}
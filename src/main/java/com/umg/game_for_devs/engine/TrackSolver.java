@@ -0,0 +1,559 @@
+package com.umg.game_for_devs.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buscador de soluciones óptimas para una pista
+ * Recorre el espacio de estados (celda, orientación, celdas de camino visitadas) con A*: la heurística es la
+ * cantidad de celdas de camino que faltan, que ningún programa puede cubrir con menos movimientos FORWARD.
+ * La primera búsqueda usa solo FORWARD/LEFT/RIGHT y da el programa de menos movimientos; la segunda agrega como
+ * acciones los bucles válidos desde cada posición (cuerpo de hasta MAX_LOOP_BODY tokens ejecutado
+ * LOOP_ITERATIONS veces), memorizados por celda y orientación porque su efecto no depende de lo ya visitado
+ * Antes de buscar se comprueba por inundación que todo el camino sea alcanzable desde el inicio; eso decide
+ * si hay solución en cualquier grid, aunque el programa óptimo solo se busca cuando las celdas de camino caben
+ * en la clave de estado junto a la celda y la orientación
+ */
+public final class TrackSolver {
+
+    /** Límite de estados por defecto, suficiente para cualquier pista de 5x4 */
+    public static final int DEFAULT_MAX_STATES = 200_000;
+
+    /**
+     * Tokens máximos en el cuerpo de un bucle considerado por la búsqueda; con 8 la búsqueda con bucles agotaba
+     * DEFAULT_MAX_STATES en un tablero abierto de 5x4
+     */
+    public static final int MAX_LOOP_BODY = 6;
+
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private TrackSolver() {}
+
+    public static TrackSolution solve(TrackGrid grid, int startX, int startY, Heading startHeading) {
+        return solve(grid, startX, startY, startHeading, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Resolver la pista desde la posición y orientación iniciales
+     */
+    public static TrackSolution solve(TrackGrid grid, int startX, int startY, Heading startHeading, int maxStates) {
+        if (!grid.contains(startX, startY) || !grid.hasPath() || !coversPath(grid, startX, startY)) {
+            return TrackSolution.unsolved(TrackSolution.Status.UNSOLVABLE, 0);
+        }
+        if (grid.getPathCount() > maxPathCells(grid)) {
+            return TrackSolution.unsolved(TrackSolution.Status.UNDETERMINED, 0);
+        }
+        return new Search(grid, startX, startY, startHeading.ordinal(), maxStates).run();
+    }
+
+    /**
+     * Celdas de camino que admite la búsqueda exacta: los bits de la clave que no ocupan celda y orientación
+     */
+    public static int maxPathCells(TrackGrid grid) {
+        return Long.SIZE - cellBits(grid) - 2;
+    }
+
+    private static int cellBits(TrackGrid grid) {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(grid.getCellCount() - 1));
+    }
+
+    /**
+     * Indica si el robot puede pisar todas las celdas de camino: girar no tiene costo de posición, así que
+     * alcanza con que el camino sea una sola componente conexa que contenga el inicio o una celda vecina
+     * (si el inicio no es camino el robot no puede volver a él y solo entra a una componente)
+     */
+    private static boolean coversPath(TrackGrid grid, int startX, int startY) {
+        int cols = grid.getCols();
+        int rows = grid.getRows();
+        long[] path = grid.words();
+        int seed = -1;
+        if (grid.isPath(startX, startY)) {
+            seed = startY * cols + startX;
+        } else {
+            for (int d = 0; d < 4 && seed < 0; d++) {
+                if (grid.isPath(startX + DX[d], startY + DY[d])) {
+                    seed = (startY + DY[d]) * cols + startX + DX[d];
+                }
+            }
+        }
+        if (seed < 0) {
+            return false;
+        }
+
+        long[] reached = new long[path.length];
+        int[] queue = new int[grid.getPathCount()];
+        int head = 0;
+        int tail = 0;
+        reached[seed >>> 6] |= 1L << seed;
+        queue[tail++] = seed;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx < 0 || nx >= cols || ny < 0 || ny >= rows) {
+                    continue;
+                }
+                int next = ny * cols + nx;
+                long bit = 1L << next;
+                if ((path[next >>> 6] & bit) != 0 && (reached[next >>> 6] & bit) == 0) {
+                    reached[next >>> 6] |= bit;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail == grid.getPathCount();
+    }
+
+    /**
+     * Estado de una resolución; no es reutilizable entre pistas
+     */
+    private static final class Search {
+        private final int rows;
+        private final int cols;
+        private final long[] path;
+        private final int shift;
+        private final int cellMask;
+        private final int[] pathIndex;
+        private final long goal;
+        private final int maxStates;
+        private final int startCell;
+        private final int startHeading;
+        private final long startVisited;
+
+        // Macros de bucle memorizadas por (celda << 2 | orientación) y su lista global para reconstruir programas
+        private final Macro[][] macrosByPosition;
+        private final List<Macro> macros = new ArrayList<>();
+
+        // Nodos de la búsqueda en curso
+        private long[] keys = new long[1024];
+        private int[] costs = new int[1024];
+        private int[] parents = new int[1024];
+        private int[] actions = new int[1024];
+        private int nodeCount;
+        private int explored;
+        private LongIntMap index;
+
+        Search(TrackGrid grid, int startX, int startY, int startHeading, int maxStates) {
+            this.rows = grid.getRows();
+            this.cols = grid.getCols();
+            this.path = grid.words();
+            this.shift = cellBits(grid) + 2;
+            this.cellMask = (1 << cellBits(grid)) - 1;
+            this.maxStates = maxStates;
+            this.pathIndex = new int[rows * cols];
+            int next = 0;
+            for (int cell = 0; cell < rows * cols; cell++) {
+                pathIndex[cell] = isPath(cell) ? next++ : -1;
+            }
+            this.goal = next == Long.SIZE ? -1L : (1L << next) - 1;
+            this.startCell = startY * cols + startX;
+            this.startHeading = startHeading;
+            this.startVisited = visitBit(startCell);
+            this.macrosByPosition = new Macro[rows * cols * 4][];
+        }
+
+        TrackSolution run() {
+            int goalNode = search(false, Integer.MAX_VALUE);
+            int shortestExplored = explored;
+            if (goalNode == -2) {
+                return TrackSolution.unsolved(TrackSolution.Status.UNDETERMINED, shortestExplored);
+            }
+            if (goalNode == -1) {
+                return TrackSolution.unsolved(TrackSolution.Status.UNSOLVABLE, shortestExplored);
+            }
+            MoveProgram shortest = rebuild(goalNode);
+
+            // Solo interesa un programa con bucles estrictamente más corto; si no existe (o se agota el límite)
+            // el programa sin bucles es también el mínimo conocido con bucles
+            MoveProgram loopProgram = shortest;
+            int loopGoal = search(true, shortest.size() - 1);
+            if (loopGoal >= 0) {
+                loopProgram = rebuild(loopGoal);
+            }
+
+            int turns = 0;
+            int forwards = 0;
+            for (int i = 0; i < shortest.size(); i++) {
+                if (shortest.op(i) == MoveProgram.FORWARD) {
+                    forwards++;
+                } else {
+                    turns++;
+                }
+            }
+            int newCells = Long.bitCount(goal) - Long.bitCount(startVisited);
+            return new TrackSolution(TrackSolution.Status.SOLVED, shortest, loopProgram,
+                    turns, forwards - newCells, shortestExplored + explored);
+        }
+
+        /**
+         * A* con cola por buckets de f = g + h; devuelve el nodo objetivo, -1 si no hay solución y -2 si se
+         * superó el límite de estados
+         */
+        private int search(boolean loops, int bound) {
+            nodeCount = 0;
+            explored = 0;
+            index = new LongIntMap(1024);
+            IntBuckets open = new IntBuckets();
+
+            int root = addNode(key(startVisited, startCell, startHeading), 0, -1, -1);
+            open.add(heuristic(startVisited, loops), root);
+
+            int node;
+            while ((node = open.poll()) >= 0) {
+                long key = keys[node];
+                int cost = costs[node];
+                if (index.get(key) != node) {
+                    continue; // entrada obsoleta: se encontró un camino más corto a este estado
+                }
+                long visited = key >>> shift;
+                if (visited == goal) {
+                    return node;
+                }
+                explored++;
+                int cell = (int) (key >>> 2) & cellMask;
+                int heading = (int) key & 3;
+
+                // FORWARD
+                int x = cell % cols + DX[heading];
+                int y = cell / cols + DY[heading];
+                if (x >= 0 && x < cols && y >= 0 && y < rows) {
+                    int nextCell = y * cols + x;
+                    if (isPath(nextCell)) {
+                        long nextVisited = visited | visitBit(nextCell);
+                        if (!relax(open, key(nextVisited, nextCell, heading), cost + 1, node, MoveProgram.FORWARD,
+                                nextVisited, loops, bound)) {
+                            return -2;
+                        }
+                    }
+                }
+                // LEFT y RIGHT
+                if (!relax(open, key(visited, cell, (heading + 3) & 3), cost + 1, node, MoveProgram.LEFT,
+                        visited, loops, bound)
+                        || !relax(open, key(visited, cell, (heading + 1) & 3), cost + 1, node, MoveProgram.RIGHT,
+                        visited, loops, bound)) {
+                    return -2;
+                }
+                if (loops) {
+                    for (Macro macro : macrosAt(cell, heading)) {
+                        long nextVisited = visited | macro.visits;
+                        if (!relax(open, key(nextVisited, macro.endCell, macro.endHeading), cost + macro.cost, node,
+                                MoveProgram.LOOP_START + 1 + macro.id, nextVisited, loops, bound)) {
+                            return -2;
+                        }
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean relax(IntBuckets open, long key, int cost, int parent, int action,
+                              long visited, boolean loops, int bound) {
+            int f = cost + heuristic(visited, loops);
+            if (f > bound) {
+                return true;
+            }
+            int existing = index.get(key);
+            if (existing >= 0 && costs[existing] <= cost) {
+                return true;
+            }
+            if (nodeCount >= maxStates) {
+                return false;
+            }
+            open.add(f, addNode(key, cost, parent, action));
+            return true;
+        }
+
+        private int heuristic(long visited, boolean loops) {
+            int missing = Long.bitCount(goal & ~visited);
+            // Un bucle de k tokens cuesta k + 2 y pisa a lo sumo 2k celdas nuevas: con k <= MAX_LOOP_BODY
+            // cada token cubre como máximo 2 * MAX_LOOP_BODY / (MAX_LOOP_BODY + 2) celdas
+            return loops
+                    ? (missing * (MAX_LOOP_BODY + 2) + 2 * MAX_LOOP_BODY - 1) / (2 * MAX_LOOP_BODY)
+                    : missing;
+        }
+
+        private int addNode(long key, int cost, int parent, int action) {
+            if (nodeCount == keys.length) {
+                int size = keys.length * 2;
+                keys = Arrays.copyOf(keys, size);
+                costs = Arrays.copyOf(costs, size);
+                parents = Arrays.copyOf(parents, size);
+                actions = Arrays.copyOf(actions, size);
+            }
+            int node = nodeCount++;
+            keys[node] = key;
+            costs[node] = cost;
+            parents[node] = parent;
+            actions[node] = action;
+            index.put(key, node);
+            return node;
+        }
+
+        private MoveProgram rebuild(int node) {
+            List<byte[]> steps = new ArrayList<>();
+            int length = 0;
+            for (int current = node; parents[current] >= 0; current = parents[current]) {
+                int action = actions[current];
+                byte[] ops;
+                if (action <= MoveProgram.RIGHT) {
+                    ops = new byte[] {(byte) action};
+                } else {
+                    byte[] body = macros.get(action - MoveProgram.LOOP_START - 1).body;
+                    ops = new byte[body.length + 2];
+                    ops[0] = MoveProgram.LOOP_START;
+                    System.arraycopy(body, 0, ops, 1, body.length);
+                    ops[ops.length - 1] = MoveProgram.LOOP_END;
+                }
+                steps.add(ops);
+                length += ops.length;
+            }
+            byte[] program = new byte[length];
+            int position = 0;
+            for (int i = steps.size() - 1; i >= 0; i--) {
+                byte[] ops = steps.get(i);
+                System.arraycopy(ops, 0, program, position, ops.length);
+                position += ops.length;
+            }
+            return MoveProgram.of(program);
+        }
+
+        /**
+         * Bucles válidos desde la celda y orientación, uno por efecto distinto (el de cuerpo más corto)
+         */
+        private Macro[] macrosAt(int cell, int heading) {
+            int position = cell << 2 | heading;
+            Macro[] cached = macrosByPosition[position];
+            if (cached == null) {
+                List<Macro> found = new ArrayList<>();
+                // El efecto de un bucle tiene la misma forma que una clave de estado: se deduplica por ella
+                LongIntMap effects = new LongIntMap(64);
+                enumerateBodies(cell, heading, cell, heading, new byte[MAX_LOOP_BODY], 0, found, effects);
+                cached = found.toArray(new Macro[0]);
+                macrosByPosition[position] = cached;
+            }
+            return cached;
+        }
+
+        /**
+         * Recorre en profundidad los cuerpos canónicos (sin giros que se anulan ni tres giros seguidos);
+         * un prefijo que choca en la primera pasada descarta todas sus extensiones
+         */
+        private void enumerateBodies(int startCell, int startHeading, int cell, int heading,
+                                     byte[] body, int length, List<Macro> found, LongIntMap effects) {
+            // Cuerpos de 1 o 2 tokens nunca acortan el programa: 3 o 4 tokens por 2 o 4 movimientos
+            if (length >= 3 && hasForward(body, length)) {
+                addMacro(startCell, startHeading, body, length, found, effects);
+            }
+            if (length == MAX_LOOP_BODY) {
+                return;
+            }
+            byte last = length > 0 ? body[length - 1] : -1;
+            byte beforeLast = length > 1 ? body[length - 2] : -1;
+
+            int x = cell % cols + DX[heading];
+            int y = cell / cols + DY[heading];
+            if (x >= 0 && x < cols && y >= 0 && y < rows && isPath(y * cols + x)) {
+                body[length] = MoveProgram.FORWARD;
+                enumerateBodies(startCell, startHeading, y * cols + x, heading, body, length + 1, found, effects);
+            }
+            if (last != MoveProgram.RIGHT && !(last == MoveProgram.LEFT && beforeLast == MoveProgram.LEFT)) {
+                body[length] = MoveProgram.LEFT;
+                enumerateBodies(startCell, startHeading, cell, (heading + 3) & 3, body, length + 1, found, effects);
+            }
+            // Dos giros a la derecha equivalen a dos a la izquierda: solo se genera la segunda forma
+            if (last != MoveProgram.LEFT && last != MoveProgram.RIGHT) {
+                body[length] = MoveProgram.RIGHT;
+                enumerateBodies(startCell, startHeading, cell, (heading + 1) & 3, body, length + 1, found, effects);
+            }
+        }
+
+        private void addMacro(int startCell, int startHeading, byte[] body, int length,
+                              List<Macro> found, LongIntMap effects) {
+            int cell = startCell;
+            int heading = startHeading;
+            long visits = 0;
+            for (int iteration = 0; iteration < MoveProgram.LOOP_ITERATIONS; iteration++) {
+                for (int i = 0; i < length; i++) {
+                    byte op = body[i];
+                    if (op == MoveProgram.FORWARD) {
+                        int x = cell % cols + DX[heading];
+                        int y = cell / cols + DY[heading];
+                        if (x < 0 || x >= cols || y < 0 || y >= rows || !isPath(y * cols + x)) {
+                            return;
+                        }
+                        cell = y * cols + x;
+                        visits |= visitBit(cell);
+                    } else if (op == MoveProgram.LEFT) {
+                        heading = (heading + 3) & 3;
+                    } else {
+                        heading = (heading + 1) & 3;
+                    }
+                }
+            }
+            long effect = key(visits, cell, heading);
+            int existing = effects.get(effect);
+            if (existing < 0) {
+                effects.put(effect, found.size());
+                found.add(register(Arrays.copyOf(body, length), cell, heading, visits));
+            } else if (found.get(existing).cost > length + 2) {
+                found.set(existing, register(Arrays.copyOf(body, length), cell, heading, visits));
+            }
+        }
+
+        private Macro register(byte[] body, int endCell, int endHeading, long visits) {
+            Macro macro = new Macro(macros.size(), body, endCell, endHeading, visits);
+            macros.add(macro);
+            return macro;
+        }
+
+        private boolean isPath(int cell) {
+            return (path[cell >>> 6] & (1L << cell)) != 0;
+        }
+
+        private long visitBit(int cell) {
+            int bit = pathIndex[cell];
+            return bit >= 0 ? 1L << bit : 0L;
+        }
+
+        private long key(long visited, int cell, int heading) {
+            return visited << shift | (long) cell << 2 | heading;
+        }
+
+        private static boolean hasForward(byte[] body, int length) {
+            for (int i = 0; i < length; i++) {
+                if (body[i] == MoveProgram.FORWARD) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Bucle candidato: cuerpo y efecto de ejecutarlo LOOP_ITERATIONS veces desde una posición
+     */
+    private static final class Macro {
+        private final int id;
+        private final byte[] body;
+        private final int endCell;
+        private final int endHeading;
+        private final long visits;
+        private final int cost;
+
+        private Macro(int id, byte[] body, int endCell, int endHeading, long visits) {
+            this.id = id;
+            this.body = body;
+            this.endCell = endCell;
+            this.endHeading = endHeading;
+            this.visits = visits;
+            this.cost = body.length + 2;
+        }
+    }
+
+    /**
+     * Mapa long -> int con direccionamiento abierto (sin objetos por estado)
+     */
+    private static final class LongIntMap {
+        private long[] keys;
+        private int[] values;
+        private int size;
+
+        LongIntMap(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; values[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            for (; values[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return;
+                }
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(values, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] >= 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * Cola de prioridad por buckets para costos enteros y pequeños
+     */
+    private static final class IntBuckets {
+        private int[][] buckets = new int[16][];
+        private int[] sizes = new int[16];
+        private int current;
+        private int pending;
+
+        void add(int priority, int value) {
+            if (priority >= buckets.length) {
+                int size = Math.max(buckets.length * 2, priority + 1);
+                buckets = Arrays.copyOf(buckets, size);
+                sizes = Arrays.copyOf(sizes, size);
+            }
+            int[] bucket = buckets[priority];
+            if (bucket == null) {
+                bucket = buckets[priority] = new int[16];
+            } else if (sizes[priority] == bucket.length) {
+                bucket = buckets[priority] = Arrays.copyOf(bucket, bucket.length * 2);
+            }
+            bucket[sizes[priority]++] = value;
+            if (priority < current) {
+                current = priority;
+            }
+            pending++;
+        }
+
+        int poll() {
+            if (pending == 0) {
+                return -1;
+            }
+            while (sizes[current] == 0) {
+                current++;
+            }
+            pending--;
+            // Dentro de un bucket se expande primero el último agregado (más profundo)
+            return buckets[current][--sizes[current]];
+        }
+    }
+}
@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
  * Entidad que representa la bitácora de acciones administrativas
  */
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs",
+       indexes = @Index(name = "idx_audit_logs_timestamp_id", columnList = "timestamp, id"))
 public class AuditLog {
     
     @Id
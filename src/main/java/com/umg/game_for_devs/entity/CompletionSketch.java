@@ -0,0 +1,119 @@
+package com.umg.game_for_devs.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Distribución de una métrica de las partidas completadas por día y pista (QuantileSketch serializado)
+ * Se mantiene incrementalmente como session_rollups, así que los percentiles no recorren game_sessions
+ */
+@Entity
+@Table(name = "completion_sketches",
+       uniqueConstraints = @UniqueConstraint(name = "uk_completion_sketch",
+               columnNames = {"granularity", "bucket_start", "track_id", "metric"}),
+       indexes = @Index(name = "idx_completion_sketch_bucket", columnList = "granularity, bucket_start"))
+public class CompletionSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private SessionRollup.Granularity granularity; // DAY o TOTAL
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart; // Día de inicio de la sesión
+
+    @Column(name = "track_id", nullable = false)
+    private Long trackId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 20)
+    private Metric metric;
+
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    @Lob
+    @Column(name = "sketch", nullable = false, columnDefinition = "BLOB")
+    private byte[] sketch; // QuantileSketch.toBytes()
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Metric {
+        EXECUTION_TIME_MS,
+        MOVES,
+        ATTEMPTS
+    }
+
+    // Constructors
+    public CompletionSketch() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public SessionRollup.Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(SessionRollup.Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getTrackId() {
+        return trackId;
+    }
+
+    public void setTrackId(Long trackId) {
+        this.trackId = trackId;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(Metric metric) {
+        this.metric = metric;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
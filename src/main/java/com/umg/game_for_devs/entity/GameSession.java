@@ -1,5 +1,7 @@
 package com.umg.game_for_devs.entity;
 
+import com.umg.game_for_devs.engine.MoveCodec;
+import com.umg.game_for_devs.engine.MoveProgram;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
@@ -9,7 +11,8 @@ import java.time.LocalDateTime;
  * Entidad que representa una sesión de juego para estadísticas
  */
 @Entity
-@Table(name = "game_sessions")
+@Table(name = "game_sessions",
+       indexes = @Index(name = "idx_game_sessions_start_time_id", columnList = "start_time, id"))
 public class GameSession {
     
     @Id
@@ -65,7 +68,13 @@ public class GameSession {
     
     @Lob
     @Column(name = "moves_sequence", columnDefinition = "TEXT")
-    private String movesSequence; // Secuencia de movimientos en formato JSON
+    private String movesSequence; // Secuencia en JSON, solo en filas aún no migradas a moves_encoded
+    
+    @Column(name = "moves_encoded", length = MoveCodec.MAX_ENCODED_LENGTH)
+    private byte[] movesEncoded; // Secuencia de movimientos codificada con MoveCodec
+    
+    @Transient
+    private MoveProgram moveProgram; // Programa decodificado bajo demanda
     
     @Column(name = "attempts_count")
     private Integer attemptsCount = 1; // Cantidad de intentos en esta sesión
@@ -263,12 +272,56 @@ public class GameSession {
         this.deviceType = deviceType;
     }
     
+    /**
+     * Secuencia de movimientos en JSON; para filas codificadas se decodifica al pedirla
+     */
     public String getMovesSequence() {
+        if (movesSequence == null && movesEncoded != null) {
+            return MoveCodec.toJson(getMoveProgram());
+        }
         return movesSequence;
     }
     
     public void setMovesSequence(String movesSequence) {
         this.movesSequence = movesSequence;
+        this.movesEncoded = null;
+        this.moveProgram = null;
+    }
+    
+    /**
+     * Valor crudo de la columna JSON heredada (null una vez migrada)
+     */
+    public String getLegacyMovesSequence() {
+        return movesSequence;
+    }
+    
+    public byte[] getMovesEncoded() {
+        return movesEncoded;
+    }
+    
+    public void setMovesEncoded(byte[] movesEncoded) {
+        this.movesEncoded = movesEncoded;
+        this.moveProgram = null;
+    }
+    
+    /**
+     * Programa de movimientos, decodificado desde moves_encoded (o la columna JSON heredada) la primera vez
+     */
+    public MoveProgram getMoveProgram() {
+        if (moveProgram == null) {
+            if (movesEncoded != null) {
+                moveProgram = MoveCodec.decode(movesEncoded);
+            } else if (movesSequence != null) {
+                moveProgram = MoveProgram.parse(movesSequence);
+            }
+        }
+        return moveProgram;
+    }
+    
+    public void setMoveProgram(MoveProgram moveProgram) {
+        this.movesEncoded = moveProgram != null ? MoveCodec.encode(moveProgram) : null;
+        this.movesSequence = null;
+        this.moveProgram = moveProgram;
     }
     
     public Integer getAttemptsCount() {
@@ -0,0 +1,110 @@
+package com.umg.game_for_devs.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Bloque de sesiones archivadas de una partición mensual: filas de game_sessions como NDJSON comprimido con GZIP
+ * Cada bloque cubre las sesiones del mes con id en [first_id, last_id]
+ */
+@Entity
+@Table(name = "game_session_archives",
+       indexes = @Index(name = "idx_game_session_archives_month", columnList = "partition_month, first_id"))
+public class GameSessionArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "partition_month", nullable = false)
+    private LocalDate partitionMonth;
+
+    @Column(name = "first_id", nullable = false)
+    private Long firstId;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(name = "session_count", nullable = false)
+    private int sessionCount;
+
+    @Column(name = "raw_bytes", nullable = false)
+    private long rawBytes; // Tamaño sin comprimir
+
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public GameSessionArchive() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getPartitionMonth() {
+        return partitionMonth;
+    }
+
+    public void setPartitionMonth(LocalDate partitionMonth) {
+        this.partitionMonth = partitionMonth;
+    }
+
+    public Long getFirstId() {
+        return firstId;
+    }
+
+    public void setFirstId(Long firstId) {
+        this.firstId = firstId;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    public void setSessionCount(int sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    public void setRawBytes(long rawBytes) {
+        this.rawBytes = rawBytes;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,126 @@
+package com.umg.game_for_devs.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sketch HyperLogLog de usuarios distintos por intervalo, pista y dispositivo
+ * Los jugadores públicos son anónimos y se identifican por IP y navegador; los administradores por su
+ * username (ámbito AUDIT_USERS, con track_id 0 y device_type ALL). Los intervalos usan las mismas
+ * granularidades que session_rollups y se combinan al leer
+ */
+@Entity
+@Table(name = "player_sketches",
+       uniqueConstraints = @UniqueConstraint(name = "uk_player_sketch",
+               columnNames = {"scope", "granularity", "bucket_start", "track_id", "device_type"}),
+       indexes = @Index(name = "idx_player_sketch_bucket", columnList = "scope, granularity, bucket_start"))
+public class PlayerSketch {
+
+    /** track_id de los sketches que no corresponden a una pista */
+    public static final long NO_TRACK = 0L;
+
+    /** device_type de los sketches que no distinguen dispositivo */
+    public static final String ALL_DEVICES = "ALL";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 20)
+    private Scope scope;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private SessionRollup.Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "track_id", nullable = false)
+    private Long trackId;
+
+    @Column(name = "device_type", nullable = false, length = 20)
+    private String deviceType;
+
+    @Lob
+    @Column(name = "sketch", nullable = false, columnDefinition = "BLOB")
+    private byte[] sketch; // HyperLogLog.toBytes()
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Scope {
+        PLAYERS,     // Jugadores del juego público (IP + user agent de la sesión)
+        AUDIT_USERS  // Usuarios que generaron entradas de auditoría
+    }
+
+    // Constructors
+    public PlayerSketch() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public void setScope(Scope scope) {
+        this.scope = scope;
+    }
+
+    public SessionRollup.Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(SessionRollup.Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getTrackId() {
+        return trackId;
+    }
+
+    public void setTrackId(Long trackId) {
+        this.trackId = trackId;
+    }
+
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    public void setDeviceType(String deviceType) {
+        this.deviceType = deviceType;
+    }
+
+    public byte[] getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(byte[] sketch) {
+        this.sketch = sketch;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,154 @@
+package com.umg.game_for_devs.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Partición mensual de game_sessions (por start_time) administrada por SessionPartitionService
+ * Los meses pasan de OPEN a CLOSED al terminar, a ARCHIVED cuando sus sesiones se mueven comprimidas
+ * a game_session_archives y a PURGED cuando el archivo supera la retención
+ */
+@Entity
+@Table(name = "session_partitions")
+public class SessionPartition {
+
+    @Id
+    @Column(name = "partition_month", nullable = false)
+    private LocalDate partitionMonth; // Primer día del mes
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private Status status;
+
+    @Column(name = "first_id")
+    private Long firstId; // Menor id de la partición (medido al cerrarla)
+
+    @Column(name = "last_id")
+    private Long lastId; // Mayor id de la partición (medido al cerrarla)
+
+    @Column(name = "session_count", nullable = false)
+    private long sessionCount; // Sesiones en game_sessions al cerrarla
+
+    @Column(name = "archived_count", nullable = false)
+    private long archivedCount;
+
+    @Column(name = "archived_bytes", nullable = false)
+    private long archivedBytes; // Tamaño comprimido del archivo
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    public enum Status {
+        OPEN,
+        CLOSED,
+        ARCHIVED,
+        PURGED
+    }
+
+    // Constructors
+    public SessionPartition() {}
+
+    public SessionPartition(LocalDate partitionMonth) {
+        this.partitionMonth = partitionMonth;
+        this.status = Status.OPEN;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Métodos de utilidad
+    public LocalDateTime getStartTime() {
+        return partitionMonth.atStartOfDay();
+    }
+
+    public LocalDateTime getEndTime() {
+        return partitionMonth.plusMonths(1).atStartOfDay();
+    }
+
+    // Getters and Setters
+    public LocalDate getPartitionMonth() {
+        return partitionMonth;
+    }
+
+    public void setPartitionMonth(LocalDate partitionMonth) {
+        this.partitionMonth = partitionMonth;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getFirstId() {
+        return firstId;
+    }
+
+    public void setFirstId(Long firstId) {
+        this.firstId = firstId;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getSessionCount() {
+        return sessionCount;
+    }
+
+    public void setSessionCount(long sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+
+    public long getArchivedCount() {
+        return archivedCount;
+    }
+
+    public void setArchivedCount(long archivedCount) {
+        this.archivedCount = archivedCount;
+    }
+
+    public long getArchivedBytes() {
+        return archivedBytes;
+    }
+
+    public void setArchivedBytes(long archivedBytes) {
+        this.archivedBytes = archivedBytes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(LocalDateTime closedAt) {
+        this.closedAt = closedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
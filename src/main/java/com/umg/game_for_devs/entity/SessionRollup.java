@@ -0,0 +1,166 @@
+package com.umg.game_for_devs.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contadores agregados de sesiones de juego por intervalo, pista, dispositivo y estado
+ * Se mantienen incrementalmente para que las estadísticas no recorran game_sessions
+ */
+@Entity
+@Table(name = "session_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_session_rollup",
+               columnNames = {"granularity", "bucket_start", "track_id", "device_type", "status"}),
+       indexes = @Index(name = "idx_session_rollup_bucket", columnList = "granularity, bucket_start"))
+public class SessionRollup {
+
+    /** Fecha fija usada como bucket de los contadores históricos (granularidad TOTAL) */
+    public static final LocalDateTime TOTAL_BUCKET = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart; // Inicio de la hora o del día (según la hora de inicio de la sesión)
+
+    @Column(name = "track_id", nullable = false)
+    private Long trackId;
+
+    @Column(name = "device_type", nullable = false, length = 20)
+    private String deviceType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private GameSession.GameStatus status;
+
+    @Column(name = "session_count", nullable = false)
+    private long sessionCount;
+
+    @Column(name = "moves_sum", nullable = false)
+    private long movesSum;
+
+    @Column(name = "execution_time_sum", nullable = false)
+    private long executionTimeSum;
+
+    @Column(name = "execution_time_count", nullable = false)
+    private long executionTimeCount; // Sesiones con executionTimeMs informado
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Granularity {
+        HOUR,
+        DAY,
+        TOTAL
+    }
+
+    // Constructors
+    public SessionRollup() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getTrackId() {
+        return trackId;
+    }
+
+    public void setTrackId(Long trackId) {
+        this.trackId = trackId;
+    }
+
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    public void setDeviceType(String deviceType) {
+        this.deviceType = deviceType;
+    }
+
+    public GameSession.GameStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(GameSession.GameStatus status) {
+        this.status = status;
+    }
+
+    public long getSessionCount() {
+        return sessionCount;
+    }
+
+    public void setSessionCount(long sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+
+    public long getMovesSum() {
+        return movesSum;
+    }
+
+    public void setMovesSum(long movesSum) {
+        this.movesSum = movesSum;
+    }
+
+    public long getExecutionTimeSum() {
+        return executionTimeSum;
+    }
+
+    public void setExecutionTimeSum(long executionTimeSum) {
+        this.executionTimeSum = executionTimeSum;
+    }
+
+    public long getExecutionTimeCount() {
+        return executionTimeCount;
+    }
+
+    public void setExecutionTimeCount(long executionTimeCount) {
+        this.executionTimeCount = executionTimeCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionRollup{" +
+                "granularity=" + granularity +
+                ", bucketStart=" + bucketStart +
+                ", trackId=" + trackId +
+                ", deviceType='" + deviceType + '\'' +
+                ", status=" + status +
+                ", sessionCount=" + sessionCount +
+                '}';
+    }
+}
@@ -26,7 +26,13 @@ public class Track {
     @NotNull(message = "La configuración de la pista es obligatoria")
     @Lob
     @Column(name = "grid_config", nullable = false, columnDefinition = "TEXT")
-    private String gridConfig; // JSON que representa el grid 5x4
+    private String gridConfig; // JSON con la matriz del grid (filas x columnas, de 0 y 1)
+    
+    @Column(name = "grid_rows")
+    private Integer gridRows; // Filas del grid, derivadas de gridConfig al guardar
+    
+    @Column(name = "grid_cols")
+    private Integer gridCols; // Columnas del grid, derivadas de gridConfig al guardar
     
     @NotNull
     @Column(name = "start_x", nullable = false)
@@ -59,6 +65,15 @@ public class Track {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description; // Descripción opcional de la pista
     
+    @Column(name = "difficulty_score")
+    private Integer difficultyScore; // 0-100 calculado por TrackSolver; null si no se pudo determinar
+    
+    @Column(name = "optimal_moves")
+    private Integer optimalMoves; // Movimientos de la solución más corta sin bucles
+    
+    @Column(name = "optimal_loop_length")
+    private Integer optimalLoopLength; // Tokens de la solución más corta usando bucles
+    
     // Constructors
     public Track() {}
     
@@ -110,6 +125,22 @@ public class Track {
         this.gridConfig = gridConfig;
     }
     
+    public Integer getGridRows() {
+        return gridRows;
+    }
+    
+    public void setGridRows(Integer gridRows) {
+        this.gridRows = gridRows;
+    }
+    
+    public Integer getGridCols() {
+        return gridCols;
+    }
+    
+    public void setGridCols(Integer gridCols) {
+        this.gridCols = gridCols;
+    }
+    
     public Integer getStartX() {
         return startX;
     }
@@ -182,6 +213,30 @@ public class Track {
         this.description = description;
     }
     
+    public Integer getDifficultyScore() {
+        return difficultyScore;
+    }
+    
+    public void setDifficultyScore(Integer difficultyScore) {
+        this.difficultyScore = difficultyScore;
+    }
+    
+    public Integer getOptimalMoves() {
+        return optimalMoves;
+    }
+    
+    public void setOptimalMoves(Integer optimalMoves) {
+        this.optimalMoves = optimalMoves;
+    }
+    
+    public Integer getOptimalLoopLength() {
+        return optimalLoopLength;
+    }
+    
+    public void setOptimalLoopLength(Integer optimalLoopLength) {
+        this.optimalLoopLength = optimalLoopLength;
+    }
+    
     @Override
     public String toString() {
         return "Track{" +
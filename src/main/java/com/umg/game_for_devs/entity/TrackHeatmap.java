@@ -0,0 +1,120 @@
+package com.umg.game_for_devs.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Instantánea de los contadores por celda de una pista (choques y visitas)
+ * Los contadores se guardan codificados con CellHeatmap y se reemplazan completos en cada volcado
+ */
+@Entity
+@Table(name = "track_heatmaps")
+public class TrackHeatmap {
+
+    @Id
+    @Column(name = "track_id")
+    private Long trackId;
+
+    @Column(name = "grid_rows", nullable = false)
+    private int gridRows;
+
+    @Column(name = "grid_cols", nullable = false)
+    private int gridCols;
+
+    @Column(name = "grid_hash", nullable = false)
+    private int gridHash; // Hash del grid al que corresponden los contadores; si la pista cambia se reinician
+
+    @Column(name = "runs_count", nullable = false)
+    private long runsCount; // Ejecuciones terminadas (éxitos y choques)
+
+    @Column(name = "failures_count", nullable = false)
+    private long failuresCount;
+
+    @Lob
+    @Column(name = "crash_counts", columnDefinition = "BLOB")
+    private byte[] crashCounts; // (filas + 2) x (columnas + 2), con el margen de CellHeatmap.MARGIN
+
+    @Lob
+    @Column(name = "visit_counts", columnDefinition = "BLOB")
+    private byte[] visitCounts; // filas x columnas
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public TrackHeatmap() {}
+
+    // Getters and Setters
+    public Long getTrackId() {
+        return trackId;
+    }
+
+    public void setTrackId(Long trackId) {
+        this.trackId = trackId;
+    }
+
+    public int getGridRows() {
+        return gridRows;
+    }
+
+    public void setGridRows(int gridRows) {
+        this.gridRows = gridRows;
+    }
+
+    public int getGridCols() {
+        return gridCols;
+    }
+
+    public void setGridCols(int gridCols) {
+        this.gridCols = gridCols;
+    }
+
+    public int getGridHash() {
+        return gridHash;
+    }
+
+    public void setGridHash(int gridHash) {
+        this.gridHash = gridHash;
+    }
+
+    public long getRunsCount() {
+        return runsCount;
+    }
+
+    public void setRunsCount(long runsCount) {
+        this.runsCount = runsCount;
+    }
+
+    public long getFailuresCount() {
+        return failuresCount;
+    }
+
+    public void setFailuresCount(long failuresCount) {
+        this.failuresCount = failuresCount;
+    }
+
+    public byte[] getCrashCounts() {
+        return crashCounts;
+    }
+
+    public void setCrashCounts(byte[] crashCounts) {
+        this.crashCounts = crashCounts;
+    }
+
+    public byte[] getVisitCounts() {
+        return visitCounts;
+    }
+
+    public void setVisitCounts(byte[] visitCounts) {
+        this.visitCounts = visitCounts;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
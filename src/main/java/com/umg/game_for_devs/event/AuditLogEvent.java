@@ -0,0 +1,41 @@
+package com.umg.game_for_devs.event;
+
+import com.umg.game_for_devs.entity.AuditLog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado cuando se registra una entrada de auditoría (antes de que AuditLogWriter la escriba)
+ */
+public class AuditLogEvent {
+
+    private final String username;
+    private final String action;
+    private final AuditLog.ActionType actionType;
+    private final AuditLog.Status status;
+    private final String resourceType;
+    private final String resourceName;
+    private final LocalDateTime timestamp;
+
+    private AuditLogEvent(AuditLog auditLog) {
+        this.username = auditLog.getUsername();
+        this.action = auditLog.getAction();
+        this.actionType = auditLog.getActionType();
+        this.status = auditLog.getStatus();
+        this.resourceType = auditLog.getResourceType();
+        this.resourceName = auditLog.getResourceName();
+        this.timestamp = auditLog.getTimestamp();
+    }
+
+    public static AuditLogEvent of(AuditLog auditLog) {
+        return new AuditLogEvent(auditLog);
+    }
+
+    public String getUsername() { return username; }
+    public String getAction() { return action; }
+    public AuditLog.ActionType getActionType() { return actionType; }
+    public AuditLog.Status getStatus() { return status; }
+    public String getResourceType() { return resourceType; }
+    public String getResourceName() { return resourceName; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+}
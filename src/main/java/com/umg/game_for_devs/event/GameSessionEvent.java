@@ -0,0 +1,144 @@
+package com.umg.game_for_devs.event;
+
+import com.umg.game_for_devs.engine.ExecutionResult;
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.entity.GameSession;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado cada vez que una sesión de juego se crea o cambia
+ * Lleva los valores anteriores y nuevos de los campos que agregan las estadísticas, de modo
+ * que los consumidores puedan restar la contribución vieja y sumar la nueva sin leer la base de datos
+ */
+public class GameSessionEvent {
+
+    public enum Type {
+        STARTED,
+        UPDATED
+    }
+
+    private final Type type;
+    private final String sessionId;
+    private final Long trackId;
+    private final String deviceType;
+    private final String ipAddress;
+    private final String userAgent;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Contribution previous;
+    private final Contribution current;
+    private final Integer errorPositionX;
+    private final Integer errorPositionY;
+    private final Integer cellsVisited;
+    private final byte[] movesEncoded;
+    // Ejecución con la que el servidor decidió el resultado y el grid sobre el que corrió (null si no hubo)
+    private final ExecutionResult execution;
+    private final TrackGrid executionGrid;
+    private final LocalDateTime occurredAt;
+
+    private GameSessionEvent(Type type, GameSession session, Contribution previous,
+                             ExecutionResult execution, TrackGrid executionGrid) {
+        this.type = type;
+        this.sessionId = session.getSessionId();
+        this.trackId = session.getTrack() != null ? session.getTrack().getId() : null;
+        this.deviceType = session.getDeviceType();
+        this.ipAddress = session.getIpAddress();
+        this.userAgent = session.getUserAgent();
+        this.startTime = session.getStartTime();
+        this.endTime = session.getEndTime();
+        this.previous = previous;
+        this.current = Contribution.of(session);
+        this.errorPositionX = session.getErrorPositionX();
+        this.errorPositionY = session.getErrorPositionY();
+        this.cellsVisited = session.getCellsVisited();
+        this.movesEncoded = session.getMovesEncoded();
+        this.execution = execution;
+        this.executionGrid = executionGrid;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    /**
+     * Sesión recién creada (sin contribución previa)
+     */
+    public static GameSessionEvent started(GameSession session) {
+        return new GameSessionEvent(Type.STARTED, session, null, null, null);
+    }
+
+    /**
+     * Sesión modificada; previous es la contribución capturada antes del cambio
+     */
+    public static GameSessionEvent updated(GameSession session, Contribution previous) {
+        return new GameSessionEvent(Type.UPDATED, session, previous, null, null);
+    }
+
+    /**
+     * Sesión modificada con el resultado de ejecutar su programa, para que los consumidores no lo repitan
+     */
+    public static GameSessionEvent updated(GameSession session, Contribution previous,
+                                           ExecutionResult execution, TrackGrid executionGrid) {
+        return new GameSessionEvent(Type.UPDATED, session, previous, execution, executionGrid);
+    }
+
+    public boolean isStatusChange() {
+        return previous == null || previous.getStatus() != current.getStatus();
+    }
+
+    public boolean isTerminal() {
+        return current.getStatus() == GameSession.GameStatus.SUCCESS
+                || current.getStatus() == GameSession.GameStatus.FAILED;
+    }
+
+    public Type getType() { return type; }
+    public String getSessionId() { return sessionId; }
+    public Long getTrackId() { return trackId; }
+    public String getDeviceType() { return deviceType; }
+    public String getIpAddress() { return ipAddress; }
+    public String getUserAgent() { return userAgent; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public Contribution getPrevious() { return previous; }
+    public Contribution getCurrent() { return current; }
+    public Integer getErrorPositionX() { return errorPositionX; }
+    public Integer getErrorPositionY() { return errorPositionY; }
+    public Integer getCellsVisited() { return cellsVisited; }
+    public byte[] getMovesEncoded() { return movesEncoded; }
+    public ExecutionResult getExecution() { return execution; }
+    public TrackGrid getExecutionGrid() { return executionGrid; }
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+
+    /**
+     * Valores de una sesión que suman en los agregados
+     */
+    public static final class Contribution {
+        private final GameSession.GameStatus status;
+        private final int movesCount;
+        private final Long executionTimeMs;
+        private final int attemptsCount;
+
+        private Contribution(GameSession.GameStatus status, int movesCount, Long executionTimeMs, int attemptsCount) {
+            this.status = status;
+            this.movesCount = movesCount;
+            this.executionTimeMs = executionTimeMs;
+            this.attemptsCount = attemptsCount;
+        }
+
+        public static Contribution of(GameSession session) {
+            return new Contribution(session.getStatus(),
+                    session.getMovesCount() != null ? session.getMovesCount() : 0,
+                    session.getExecutionTimeMs(),
+                    session.getAttemptsCount() != null ? session.getAttemptsCount() : 0);
+        }
+
+        public GameSession.GameStatus getStatus() { return status; }
+        public int getMovesCount() { return movesCount; }
+        public Long getExecutionTimeMs() { return executionTimeMs; }
+        public int getAttemptsCount() { return attemptsCount; }
+
+        public boolean sameAs(Contribution other) {
+            return other != null && status == other.status && movesCount == other.movesCount
+                    && java.util.Objects.equals(executionTimeMs, other.executionTimeMs)
+                    && attemptsCount == other.attemptsCount;
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.umg.game_for_devs.repository;
 
 import com.umg.game_for_devs.entity.AuditLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad AuditLog
@@ -117,6 +121,65 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
                                 @Param("endDate") LocalDateTime endDate,
                                 Pageable pageable);
     
+    /**
+     * Primera página por cursor con filtros múltiples (sin consulta de conteo)
+     */
+    @Query("SELECT a FROM AuditLog a WHERE " +
+           "(:username IS NULL OR a.username = :username) AND " +
+           "(:actionType IS NULL OR a.actionType = :actionType) AND " +
+           "(:resourceType IS NULL OR a.resourceType = :resourceType) AND " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "a.timestamp BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findFirstPageByFilters(@Param("username") String username,
+                                          @Param("actionType") AuditLog.ActionType actionType,
+                                          @Param("resourceType") String resourceType,
+                                          @Param("status") AuditLog.Status status,
+                                          @Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          Pageable limit);
+    
+    /**
+     * Página siguiente por cursor: filas estrictamente posteriores a (afterTimestamp, afterId) en orden descendente
+     */
+    @Query("SELECT a FROM AuditLog a WHERE " +
+           "(:username IS NULL OR a.username = :username) AND " +
+           "(:actionType IS NULL OR a.actionType = :actionType) AND " +
+           "(:resourceType IS NULL OR a.resourceType = :resourceType) AND " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "a.timestamp BETWEEN :startDate AND :endDate AND " +
+           "(a.timestamp < :afterTimestamp OR (a.timestamp = :afterTimestamp AND a.id < :afterId)) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPageByFiltersAfter(@Param("username") String username,
+                                          @Param("actionType") AuditLog.ActionType actionType,
+                                          @Param("resourceType") String resourceType,
+                                          @Param("status") AuditLog.Status status,
+                                          @Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate,
+                                          @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                          @Param("afterId") Long afterId,
+                                          Pageable limit);
+    
+    /**
+     * Recorrer logs filtrados con un cursor JDBC de solo avance (para exportaciones en streaming)
+     * Debe consumirse dentro de una transacción y cerrarse al terminar
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE " +
+           "(:username IS NULL OR a.username = :username) AND " +
+           "(:actionType IS NULL OR a.actionType = :actionType) AND " +
+           "(:resourceType IS NULL OR a.resourceType = :resourceType) AND " +
+           "a.timestamp BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.timestamp, a.id")
+    Stream<AuditLog> streamByFilters(@Param("username") String username,
+                                     @Param("actionType") AuditLog.ActionType actionType,
+                                     @Param("resourceType") String resourceType,
+                                     @Param("startDate") LocalDateTime startDate,
+                                     @Param("endDate") LocalDateTime endDate);
+    
     /**
      * Obtener los 10 eventos más recientes
      */
@@ -133,6 +196,11 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
      */
     Optional<AuditLog> findFirstByOrderByTimestampDesc();
     
+    /**
+     * Registros más antiguos que la fecha dada en orden cronológico (para moverlos a los segmentos fríos)
+     */
+    List<AuditLog> findByTimestampBeforeOrderByTimestampAscIdAsc(LocalDateTime cutoff, Pageable pageable);
+    
     /**
      * Obtener actividad diaria de auditoría (para gráfico del dashboard)
      */
@@ -0,0 +1,35 @@
+package com.umg.game_for_devs.repository;
+
+import com.umg.game_for_devs.entity.CompletionSketch;
+import com.umg.game_for_devs.entity.SessionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio JPA para las distribuciones de métricas de partidas completadas
+ */
+@Repository
+public interface CompletionSketchRepository extends JpaRepository<CompletionSketch, Long> {
+
+    /**
+     * Buscar sketches de una granularidad en el rango [from, to)
+     */
+    @Query("SELECT s FROM CompletionSketch s WHERE s.granularity = :granularity " +
+           "AND s.bucketStart >= :from AND s.bucketStart < :to")
+    List<CompletionSketch> findBetween(@Param("granularity") SessionRollup.Granularity granularity,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    /**
+     * Buscar el sketch de una clave exacta
+     */
+    Optional<CompletionSketch> findByGranularityAndBucketStartAndTrackIdAndMetric(
+            SessionRollup.Granularity granularity, LocalDateTime bucketStart, Long trackId,
+            CompletionSketch.Metric metric);
+}
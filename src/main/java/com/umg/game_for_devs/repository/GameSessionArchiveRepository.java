@@ -0,0 +1,37 @@
+package com.umg.game_for_devs.repository;
+
+import com.umg.game_for_devs.entity.GameSessionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio JPA para los bloques de sesiones archivadas
+ */
+@Repository
+public interface GameSessionArchiveRepository extends JpaRepository<GameSessionArchive, Long> {
+
+    /**
+     * Ids de los bloques de un mes en orden (los bloques se cargan de a uno por su tamaño)
+     */
+    @Query("SELECT a.id FROM GameSessionArchive a WHERE a.partitionMonth = :month ORDER BY a.firstId")
+    List<Long> findIdsByPartitionMonth(@Param("month") LocalDate month);
+
+    /**
+     * Ids de todos los bloques en orden cronológico
+     */
+    @Query("SELECT a.id FROM GameSessionArchive a ORDER BY a.partitionMonth, a.firstId")
+    List<Long> findAllIds();
+
+    /**
+     * Eliminar los bloques de un mes
+     */
+    @Modifying
+    @Query("DELETE FROM GameSessionArchive a WHERE a.partitionMonth = :month")
+    int deleteByPartitionMonth(@Param("month") LocalDate month);
+}
@@ -2,16 +2,20 @@ package com.umg.game_for_devs.repository;
 
 import com.umg.game_for_devs.entity.GameSession;
 import com.umg.game_for_devs.entity.Track;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad GameSession
@@ -24,6 +28,12 @@ public interface GameSessionRepository extends JpaRepository<GameSession, Long>
      */
     Optional<GameSession> findBySessionId(String sessionId);
     
+    /**
+     * Buscar sesión por sessionId cargando la pista en la misma consulta
+     */
+    @Query("SELECT gs FROM GameSession gs JOIN FETCH gs.track WHERE gs.sessionId = :sessionId")
+    Optional<GameSession> findWithTrackBySessionId(@Param("sessionId") String sessionId);
+    
     /**
      * Buscar sesiones por estado
      */
@@ -39,6 +49,15 @@ public interface GameSessionRepository extends JpaRepository<GameSession, Long>
      */
     Page<GameSession> findByStartTimeBetweenOrderByStartTimeDesc(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
     
+    /**
+     * Sesiones en curso iniciadas antes del corte, por id a partir de afterId (barrido de sesiones abandonadas)
+     */
+    @Query("SELECT gs FROM GameSession gs JOIN FETCH gs.track WHERE gs.status = 'IN_PROGRESS' " +
+           "AND gs.startTime < :cutoff AND gs.id > :afterId ORDER BY gs.id")
+    List<GameSession> findStaleInProgress(@Param("cutoff") LocalDateTime cutoff,
+                                          @Param("afterId") Long afterId,
+                                          Pageable limit);
+    
     /**
      * Contar sesiones por estado
      */
@@ -139,6 +158,61 @@ public interface GameSessionRepository extends JpaRepository<GameSession, Long>
                                    @Param("endDate") LocalDateTime endDate,
                                    Pageable pageable);
     
+    /**
+     * Primera página por cursor con filtros múltiples (sin consulta de conteo)
+     */
+    @Query("SELECT gs FROM GameSession gs JOIN FETCH gs.track WHERE " +
+           "(:status IS NULL OR gs.status = :status) AND " +
+           "(:trackId IS NULL OR gs.track.id = :trackId) AND " +
+           "(:deviceType IS NULL OR gs.deviceType = :deviceType) AND " +
+           "gs.startTime BETWEEN :startDate AND :endDate " +
+           "ORDER BY gs.startTime DESC, gs.id DESC")
+    List<GameSession> findFirstPageByFilters(@Param("status") GameSession.GameStatus status,
+                                             @Param("trackId") Long trackId,
+                                             @Param("deviceType") String deviceType,
+                                             @Param("startDate") LocalDateTime startDate,
+                                             @Param("endDate") LocalDateTime endDate,
+                                             Pageable limit);
+    
+    /**
+     * Página siguiente por cursor: filas estrictamente posteriores a (afterStartTime, afterId) en orden descendente
+     */
+    @Query("SELECT gs FROM GameSession gs JOIN FETCH gs.track WHERE " +
+           "(:status IS NULL OR gs.status = :status) AND " +
+           "(:trackId IS NULL OR gs.track.id = :trackId) AND " +
+           "(:deviceType IS NULL OR gs.deviceType = :deviceType) AND " +
+           "gs.startTime BETWEEN :startDate AND :endDate AND " +
+           "(gs.startTime < :afterStartTime OR (gs.startTime = :afterStartTime AND gs.id < :afterId)) " +
+           "ORDER BY gs.startTime DESC, gs.id DESC")
+    List<GameSession> findPageByFiltersAfter(@Param("status") GameSession.GameStatus status,
+                                             @Param("trackId") Long trackId,
+                                             @Param("deviceType") String deviceType,
+                                             @Param("startDate") LocalDateTime startDate,
+                                             @Param("endDate") LocalDateTime endDate,
+                                             @Param("afterStartTime") LocalDateTime afterStartTime,
+                                             @Param("afterId") Long afterId,
+                                             Pageable limit);
+    
+    /**
+     * Recorrer sesiones filtradas con un cursor JDBC de solo avance (para exportaciones en streaming)
+     * Debe consumirse dentro de una transacción y cerrarse al terminar
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT gs FROM GameSession gs JOIN FETCH gs.track WHERE " +
+           "(:status IS NULL OR gs.status = :status) AND " +
+           "(:trackId IS NULL OR gs.track.id = :trackId) AND " +
+           "(:deviceType IS NULL OR gs.deviceType = :deviceType) AND " +
+           "gs.startTime BETWEEN :startDate AND :endDate " +
+           "ORDER BY gs.startTime, gs.id")
+    Stream<GameSession> streamByFilters(@Param("status") GameSession.GameStatus status,
+                                        @Param("trackId") Long trackId,
+                                        @Param("deviceType") String deviceType,
+                                        @Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate);
+    
     /**
      * Obtener sesiones más recientes
      */
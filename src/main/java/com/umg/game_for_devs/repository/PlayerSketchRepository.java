@@ -0,0 +1,36 @@
+package com.umg.game_for_devs.repository;
+
+import com.umg.game_for_devs.entity.PlayerSketch;
+import com.umg.game_for_devs.entity.SessionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio JPA para los sketches de usuarios distintos
+ */
+@Repository
+public interface PlayerSketchRepository extends JpaRepository<PlayerSketch, Long> {
+
+    /**
+     * Buscar sketches de un ámbito y granularidad en el rango [from, to)
+     */
+    @Query("SELECT s FROM PlayerSketch s WHERE s.scope = :scope AND s.granularity = :granularity " +
+           "AND s.bucketStart >= :from AND s.bucketStart < :to")
+    List<PlayerSketch> findBetween(@Param("scope") PlayerSketch.Scope scope,
+                                   @Param("granularity") SessionRollup.Granularity granularity,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    /**
+     * Buscar el sketch de una clave exacta
+     */
+    Optional<PlayerSketch> findByScopeAndGranularityAndBucketStartAndTrackIdAndDeviceType(
+            PlayerSketch.Scope scope, SessionRollup.Granularity granularity, LocalDateTime bucketStart,
+            Long trackId, String deviceType);
+}
@@ -0,0 +1,20 @@
+package com.umg.game_for_devs.repository;
+
+import com.umg.game_for_devs.entity.SessionPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio JPA para el catálogo de particiones mensuales de game_sessions
+ */
+@Repository
+public interface SessionPartitionRepository extends JpaRepository<SessionPartition, LocalDate> {
+
+    /**
+     * Particiones en orden cronológico
+     */
+    List<SessionPartition> findAllByOrderByPartitionMonthAsc();
+}
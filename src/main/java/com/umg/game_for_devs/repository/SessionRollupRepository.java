@@ -0,0 +1,31 @@
+package com.umg.game_for_devs.repository;
+
+import com.umg.game_for_devs.entity.SessionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio JPA para los agregados de sesiones de juego
+ */
+@Repository
+public interface SessionRollupRepository extends JpaRepository<SessionRollup, Long> {
+
+    /**
+     * Buscar agregados de una granularidad en el rango [from, to)
+     */
+    @Query("SELECT r FROM SessionRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    List<SessionRollup> findByGranularityBetween(@Param("granularity") SessionRollup.Granularity granularity,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    /**
+     * Buscar todos los agregados de una granularidad
+     */
+    List<SessionRollup> findByGranularity(SessionRollup.Granularity granularity);
+}
@@ -0,0 +1,12 @@
+package com.umg.game_for_devs.repository;
+
+import com.umg.game_for_devs.entity.TrackHeatmap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio JPA para las instantáneas de mapas de calor por pista
+ */
+@Repository
+public interface TrackHeatmapRepository extends JpaRepository<TrackHeatmap, Long> {
+}
@@ -1,13 +1,17 @@
 package com.umg.game_for_devs.repository;
 
 import com.umg.game_for_devs.entity.Track;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad Track
@@ -36,16 +40,9 @@ public interface TrackRepository extends JpaRepository<Track, Long> {
     List<Track> findByCreatedByAndIsActiveTrueOrderByCreatedAtDesc(String createdBy);
     
     /**
-     * Obtener una pista aleatoria activa
+     * Pistas sin dimensiones calculadas (guardadas antes de las columnas grid_rows y grid_cols)
      */
-    @Query(value = "SELECT * FROM tracks WHERE is_active = true ORDER BY RAND() LIMIT 1", nativeQuery = true)
-    Optional<Track> findRandomActiveTrack();
-    
-    /**
-     * Obtener una pista aleatoria activa excluyendo una específica
-     */
-    @Query(value = "SELECT * FROM tracks WHERE is_active = true AND id != :excludeId ORDER BY RAND() LIMIT 1", nativeQuery = true)
-    Optional<Track> findRandomActiveTrackExcluding(@Param("excludeId") Long excludeId);
+    List<Track> findByGridRowsIsNull();
     
     /**
      * Contar pistas activas
@@ -72,4 +69,15 @@ public interface TrackRepository extends JpaRepository<Track, Long> {
      * Buscar pistas más recientes
      */
     List<Track> findTop10ByIsActiveTrueOrderByCreatedAtDesc();
-}
\ No newline at end of file
+    
+    /**
+     * Recorrer las pistas (todas o solo las activas) con un cursor JDBC de solo avance (para exportaciones)
+     * Debe consumirse dentro de una transacción y cerrarse al terminar
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Track t WHERE (:activeOnly = false OR t.isActive = true) ORDER BY t.id")
+    Stream<Track> streamForExport(@Param("activeOnly") boolean activeOnly);
+}
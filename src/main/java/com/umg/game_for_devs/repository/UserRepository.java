@@ -101,4 +101,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%'))")
     org.springframework.data.domain.Page<User> findBySearchTerm(@org.springframework.data.repository.query.Param("search") String search, 
                                                                org.springframework.data.domain.Pageable pageable);
+    
+    /**
+     * Página por cursor de usuarios con filtros opcionales, ordenada por id descendente
+     * afterId null devuelve la primera página
+     */
+    @Query("SELECT u FROM User u WHERE " +
+           "(:afterId IS NULL OR u.id < :afterId) AND " +
+           "(:role IS NULL OR u.role = :role) AND " +
+           "(:search IS NULL OR " +
+           "LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "ORDER BY u.id DESC")
+    List<User> findPageAfter(@org.springframework.data.repository.query.Param("afterId") Long afterId,
+                             @org.springframework.data.repository.query.Param("role") User.Role role,
+                             @org.springframework.data.repository.query.Param("search") String search,
+                             org.springframework.data.domain.Pageable limit);
 }
\ No newline at end of file
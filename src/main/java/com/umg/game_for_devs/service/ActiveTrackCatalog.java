@@ -0,0 +1,260 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.Track;
+import com.umg.game_for_devs.repository.TrackRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Catálogo en memoria de las pistas activas
+ * Mantiene una instantánea inmutable que se reemplaza completa cuando TrackService modifica
+ * alguna pista, de modo que elegir una pista aleatoria no consulta la base de datos
+ */
+@Service
+public class ActiveTrackCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveTrackCatalog.class);
+
+    @Autowired
+    private TrackRepository trackRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Peso de cada nivel de dificultad (índice 0 = nivel 1) para las selecciones ponderadas */
+    @Value("${game.catalog.difficulty-weights:5,4,3,2,1}")
+    private int[] difficultyWeights;
+
+    /** Antigüedad máxima de la instantánea antes de recargarla desde la base de datos */
+    @Value("${game.catalog.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("game.catalog.hits", hits, LongAdder::sum)
+                .description("Selecciones servidas desde la instantánea")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.catalog.misses", misses, LongAdder::sum)
+                .description("Selecciones que requirieron recargar el catálogo")
+                .register(meterRegistry);
+        Gauge.builder("game.catalog.hit.ratio", this, ActiveTrackCatalog::getHitRatio)
+                .register(meterRegistry);
+        Gauge.builder("game.catalog.snapshot.age", this, c -> c.getSnapshotAgeMillis() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("game.catalog.size", this, c -> c.snapshot.tracks.length)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Recargar la instantánea de pistas activas desde la base de datos
+     */
+    public void refresh() {
+        List<Track> activeTracks = trackRepository.findByIsActiveTrue();
+        snapshot = new Snapshot(activeTracks.toArray(new Track[0]), difficultyWeights);
+        log.debug("Catálogo de pistas activas recargado: {} pistas", activeTracks.size());
+    }
+
+    /**
+     * Recargar la instantánea cuando confirme la transacción actual (o de inmediato si no hay una)
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * Obtener una pista activa al azar (distribución uniforme), evitando excludeId si hay alternativas
+     */
+    public Optional<Track> randomTrack(Long excludeId) {
+        Snapshot current = currentSnapshot();
+        int n = current.tracks.length;
+        if (n == 0) {
+            return Optional.empty();
+        }
+
+        Integer excluded = excludeId != null ? current.indexById.get(excludeId) : null;
+        if (excluded == null || n == 1) {
+            return Optional.of(current.tracks[ThreadLocalRandom.current().nextInt(n)]);
+        }
+
+        // Elegir entre las n-1 restantes saltando la excluida
+        int index = ThreadLocalRandom.current().nextInt(n - 1);
+        if (index >= excluded) {
+            index++;
+        }
+        return Optional.of(current.tracks[index]);
+    }
+
+    /**
+     * Obtener una pista activa al azar ponderada por su nivel de dificultad
+     */
+    public Optional<Track> weightedRandomTrack(Long excludeId) {
+        Snapshot current = currentSnapshot();
+        int n = current.tracks.length;
+        if (n == 0) {
+            return Optional.empty();
+        }
+
+        Integer excluded = excludeId != null && n > 1 ? current.indexById.get(excludeId) : null;
+        long excludedWeight = excluded != null ? current.weightAt(excluded) : 0L;
+        long total = current.totalWeight - excludedWeight;
+        if (total <= 0) {
+            return randomTrack(excludeId);
+        }
+
+        long target = ThreadLocalRandom.current().nextLong(total);
+        if (excluded != null && target >= current.cumulativeWeights[excluded] - excludedWeight) {
+            target += excludedWeight;
+        }
+
+        // Primer índice cuyo peso acumulado supera el objetivo
+        long[] cumulative = current.cumulativeWeights;
+        int low = 0;
+        int high = n - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] > target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return Optional.of(current.tracks[low]);
+    }
+
+    /**
+     * Obtener una pista activa del catálogo por ID
+     */
+    public Optional<Track> findActive(Long id) {
+        Snapshot current = currentSnapshot();
+        Integer index = id != null ? current.indexById.get(id) : null;
+        return index != null ? Optional.of(current.tracks[index]) : Optional.empty();
+    }
+
+    public int size() {
+        return snapshot.tracks.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total > 0 ? (double) h / total : 1.0;
+    }
+
+    public long getSnapshotAgeMillis() {
+        Snapshot current = snapshot;
+        return current == Snapshot.EMPTY ? 0L : (System.nanoTime() - current.loadedAtNanos) / 1_000_000L;
+    }
+
+    /**
+     * Devuelve la instantánea vigente, recargándola si está vacía o vencida
+     * Solo un hilo recarga a la vez; el resto sigue usando la instantánea anterior
+     */
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        boolean stale = current.tracks.length == 0
+                || System.nanoTime() - current.loadedAtNanos > maxAgeSeconds * 1_000_000_000L;
+        if (!stale) {
+            hits.increment();
+            return current;
+        }
+
+        misses.increment();
+        if (refreshing.compareAndSet(false, true)) {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.warn("No se pudo recargar el catálogo de pistas: {}", e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Instantánea inmutable del catálogo
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new Track[0], new int[0]);
+
+        private final Track[] tracks;
+        private final Map<Long, Integer> indexById;
+        private final long[] cumulativeWeights;
+        private final long totalWeight;
+        private final long loadedAtNanos;
+
+        private Snapshot(Track[] tracks, int[] difficultyWeights) {
+            this.tracks = tracks;
+            this.indexById = new HashMap<>(tracks.length * 2);
+            this.cumulativeWeights = new long[tracks.length];
+            long sum = 0;
+            for (int i = 0; i < tracks.length; i++) {
+                indexById.put(tracks[i].getId(), i);
+                sum += weightOf(tracks[i].getDifficultyLevel(), difficultyWeights);
+                cumulativeWeights[i] = sum;
+            }
+            this.totalWeight = sum;
+            this.loadedAtNanos = System.nanoTime();
+        }
+
+        private long weightAt(int index) {
+            return cumulativeWeights[index] - (index > 0 ? cumulativeWeights[index - 1] : 0L);
+        }
+
+        private static int weightOf(Integer difficultyLevel, int[] difficultyWeights) {
+            int level = difficultyLevel != null ? difficultyLevel : 1;
+            if (level < 1 || level > difficultyWeights.length) {
+                return 1;
+            }
+            return Math.max(0, difficultyWeights[level - 1]);
+        }
+    }
+}
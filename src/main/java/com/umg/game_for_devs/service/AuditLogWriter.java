@@ -0,0 +1,556 @@
+package com.umg.game_for_devs.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.game_for_devs.entity.AuditLog;
+import com.umg.game_for_devs.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escritor asíncrono de la bitácora de auditoría
+ * AuditService captura el contexto (usuario, IP, User-Agent) en el hilo del llamador y entrega el
+ * registro a un ring buffer sin locks; un hilo dedicado lo vacía con INSERT multi-fila.
+ * Si el buffer está lleno se aplica overflow-policy: BLOCK, DROP_OLDEST o SPILL (archivo local
+ * que se reinserta cuando el buffer vuelve a estar vacío)
+ */
+@Service
+public class AuditLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_logs (username, action, action_type, resource_type, resource_id, resource_name, " +
+            "details, timestamp, ip_address, user_agent, status, error_message) VALUES ";
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int COLUMNS = 12;
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP_OLDEST,
+        SPILL
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.audit.writer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${game.audit.writer.capacity:8192}")
+    private int capacity;
+
+    @Value("${game.audit.writer.batch-size:100}")
+    private int batchSize;
+
+    @Value("${game.audit.writer.flush-interval-ms:250}")
+    private long flushIntervalMs;
+
+    @Value("${game.audit.writer.overflow-policy:SPILL}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${game.audit.writer.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    @Value("${game.audit.writer.spill-file:./data/audit-spill.ndjson}")
+    private String spillFile;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Un solo vaciado a la vez: flushNow espera el lote que el hilo escritor tenga en curso
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    // Serializa las escrituras al archivo de desborde con el traslado que hace replaySpill
+    private final ReentrantLock spillLock = new ReentrantLock();
+
+    private RingBuffer ring;
+    private Path spillPath;
+    private String fullBatchSql;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter droppedEvents;
+    private Counter spilledEvents;
+    private Counter writtenRows;
+    private Counter failedWrites;
+    private Timer writeLag;
+
+    public AuditLogWriter() {
+    }
+
+    /**
+     * Escritor con parámetros explícitos y sin hilo propio (pruebas): el buffer se vacía llamando a drain()
+     */
+    AuditLogWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, int capacity, int batchSize,
+                   OverflowPolicy overflowPolicy, long blockTimeoutMs, String spillFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.spillFile = spillFile;
+        this.enabled = true;
+        init();
+    }
+
+    @PostConstruct
+    void start() {
+        init();
+        if (enabled) {
+            running = true;
+            writer = new Thread(this::runWriter, "audit-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private void init() {
+        ring = new RingBuffer(capacity);
+        spillPath = Paths.get(spillFile);
+        fullBatchSql = insertSql(batchSize);
+
+        Gauge.builder("game.audit.writer.queue.depth", this, AuditLogWriter::getQueueDepth)
+                .description("Registros de auditoría pendientes en el ring buffer")
+                .register(meterRegistry);
+        Gauge.builder("game.audit.writer.lag.seconds", this, w -> w.getLag().toMillis() / 1000.0)
+                .description("Antigüedad del registro pendiente más viejo")
+                .register(meterRegistry);
+        droppedEvents = Counter.builder("game.audit.writer.dropped")
+                .description("Registros de auditoría descartados")
+                .register(meterRegistry);
+        spilledEvents = Counter.builder("game.audit.writer.spilled")
+                .description("Registros de auditoría desviados al archivo local")
+                .register(meterRegistry);
+        writtenRows = Counter.builder("game.audit.writer.written")
+                .register(meterRegistry);
+        failedWrites = Counter.builder("game.audit.writer.failures")
+                .register(meterRegistry);
+        writeLag = Timer.builder("game.audit.writer.write.lag")
+                .description("Tiempo entre el registro de la acción y su escritura")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    /**
+     * Encolar un registro de auditoría ya completo
+     */
+    public void append(AuditLog auditLog) {
+        if (auditLog.getTimestamp() == null) {
+            auditLog.setTimestamp(LocalDateTime.now());
+        }
+        if (!enabled) {
+            auditLogRepository.save(auditLog);
+            return;
+        }
+
+        if (ring.offer(auditLog)) {
+            signalWriter();
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (!ring.offer(auditLog)) {
+                    if (ring.poll() != null) {
+                        droppedEvents.increment();
+                    }
+                }
+                break;
+            case BLOCK:
+                if (!offerBlocking(auditLog)) {
+                    droppedEvents.increment();
+                    log.warn("Buffer de auditoría lleno, se descartó el registro: {}", auditLog.getAction());
+                }
+                break;
+            default:
+                spill(auditLog);
+        }
+        signalWriter();
+    }
+
+    /**
+     * Escribir ya los registros pendientes en el buffer
+     */
+    public void flushNow() {
+        if (running) {
+            drain();
+        }
+    }
+
+    public int getQueueDepth() {
+        return ring != null ? ring.size() : 0;
+    }
+
+    /**
+     * Antigüedad del registro pendiente más viejo (cero si el buffer está vacío)
+     */
+    public Duration getLag() {
+        AuditLog oldest = ring != null ? ring.peek() : null;
+        return oldest != null ? Duration.between(oldest.getTimestamp(), LocalDateTime.now()) : Duration.ZERO;
+    }
+
+    // Hilo escritor
+
+    private void runWriter() {
+        replaySpill();
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    if (Files.exists(spillPath)) {
+                        replaySpill();
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                }
+            } catch (Exception e) {
+                log.error("Error en el escritor de auditoría: {}", e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+        }
+    }
+
+    /**
+     * Escribir todo lo pendiente en el buffer; devuelve cuántos registros se retiraron (escritos o no)
+     */
+    int drain() {
+        drainLock.lock();
+        try {
+            int total = 0;
+            List<AuditLog> batch = new ArrayList<>(batchSize);
+            AuditLog next;
+            while ((next = ring.poll()) != null) {
+                batch.add(next);
+                if (batch.size() == batchSize) {
+                    write(batch, true);
+                    total += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch, true);
+                total += batch.size();
+            }
+            return total;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Insertar un lote; devuelve las filas efectivamente escritas
+     * Las filas que fallan también fila por fila se desvían al archivo local (política SPILL, salvo que ya
+     * vengan de él) o se cuentan como descartadas
+     */
+    private int write(List<AuditLog> batch, boolean spillFailures) {
+        List<AuditLog> written = batch;
+        try {
+            insertRows(batch);
+        } catch (Exception e) {
+            // Reintentar fila por fila para aislar el registro que falla
+            log.warn("Falló el insert multi-fila de auditoría ({}), reintentando fila por fila", e.getMessage());
+            written = new ArrayList<>(batch.size());
+            for (AuditLog auditLog : batch) {
+                try {
+                    insertRows(List.of(auditLog));
+                    written.add(auditLog);
+                } catch (Exception rowError) {
+                    failedWrites.increment();
+                    log.error("No se pudo escribir el registro de auditoría: {}", rowError.getMessage());
+                    if (spillFailures && overflowPolicy == OverflowPolicy.SPILL) {
+                        spill(auditLog);
+                    } else {
+                        droppedEvents.increment();
+                    }
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (AuditLog auditLog : written) {
+            writeLag.record(Duration.between(auditLog.getTimestamp(), now));
+        }
+        writtenRows.increment(written.size());
+        return written.size();
+    }
+
+    private void insertRows(List<AuditLog> rows) {
+        String sql = rows.size() == batchSize ? fullBatchSql : insertSql(rows.size());
+        Object[] params = new Object[rows.size() * COLUMNS];
+        int i = 0;
+        for (AuditLog auditLog : rows) {
+            params[i++] = auditLog.getUsername();
+            params[i++] = auditLog.getAction();
+            params[i++] = auditLog.getActionType().name();
+            params[i++] = auditLog.getResourceType();
+            params[i++] = auditLog.getResourceId();
+            params[i++] = auditLog.getResourceName();
+            params[i++] = auditLog.getDetails();
+            params[i++] = Timestamp.valueOf(auditLog.getTimestamp());
+            params[i++] = auditLog.getIpAddress();
+            params[i++] = auditLog.getUserAgent();
+            params[i++] = auditLog.getStatus().name();
+            params[i++] = auditLog.getErrorMessage();
+        }
+        jdbcTemplate.update(sql, params);
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDERS.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+        }
+        return sql.toString();
+    }
+
+    private void signalWriter() {
+        if (writer != null && ring.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private boolean offerBlocking(AuditLog auditLog) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        while (System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (ring.offer(auditLog)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Desborde a archivo local
+
+    private void spill(AuditLog auditLog) {
+        spillLock.lock();
+        try {
+            if (spillPath.getParent() != null) {
+                Files.createDirectories(spillPath.getParent());
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(objectMapper.writeValueAsString(toMap(auditLog)));
+                out.newLine();
+            }
+            spilledEvents.increment();
+        } catch (IOException e) {
+            droppedEvents.increment();
+            log.error("No se pudo desviar el registro de auditoría a {}: {}", spillPath, e.getMessage());
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * Reinsertar los registros desviados al archivo local
+     */
+    void replaySpill() {
+        Path replaying = spillPath.resolveSibling(spillPath.getFileName() + ".replaying");
+        spillLock.lock();
+        try {
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(spillPath)) {
+                    return;
+                }
+                Files.move(spillPath, replaying, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            log.error("No se pudo preparar el archivo de auditoría desviada: {}", e.getMessage());
+            return;
+        } finally {
+            spillLock.unlock();
+        }
+
+        int replayed = 0;
+        try (BufferedReader in = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            List<AuditLog> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(fromMap(objectMapper.readValue(line, Map.class)));
+                } catch (Exception e) {
+                    failedWrites.increment();
+                    log.error("Registro de auditoría desviado ilegible, se omite: {}", e.getMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    replayed += write(batch, false);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                replayed += write(batch, false);
+            }
+            Files.delete(replaying);
+            log.info("Reinsertados {} registros de auditoría desde {}", replayed, replaying);
+        } catch (Exception e) {
+            log.error("Falló la reinserción de auditoría desviada: {}", e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> toMap(AuditLog auditLog) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("username", auditLog.getUsername());
+        map.put("action", auditLog.getAction());
+        map.put("actionType", auditLog.getActionType().name());
+        map.put("resourceType", auditLog.getResourceType());
+        map.put("resourceId", auditLog.getResourceId());
+        map.put("resourceName", auditLog.getResourceName());
+        map.put("details", auditLog.getDetails());
+        map.put("timestamp", auditLog.getTimestamp().toString());
+        map.put("ipAddress", auditLog.getIpAddress());
+        map.put("userAgent", auditLog.getUserAgent());
+        map.put("status", auditLog.getStatus().name());
+        map.put("errorMessage", auditLog.getErrorMessage());
+        return map;
+    }
+
+    private static AuditLog fromMap(Map<?, ?> map) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setUsername((String) map.get("username"));
+        auditLog.setAction((String) map.get("action"));
+        auditLog.setActionType(AuditLog.ActionType.valueOf((String) map.get("actionType")));
+        auditLog.setResourceType((String) map.get("resourceType"));
+        Object resourceId = map.get("resourceId");
+        auditLog.setResourceId(resourceId != null ? ((Number) resourceId).longValue() : null);
+        auditLog.setResourceName((String) map.get("resourceName"));
+        auditLog.setDetails((String) map.get("details"));
+        auditLog.setTimestamp(LocalDateTime.parse((String) map.get("timestamp")));
+        auditLog.setIpAddress((String) map.get("ipAddress"));
+        auditLog.setUserAgent((String) map.get("userAgent"));
+        auditLog.setStatus(AuditLog.Status.valueOf((String) map.get("status")));
+        auditLog.setErrorMessage((String) map.get("errorMessage"));
+        return auditLog;
+    }
+
+    /**
+     * Cola acotada multi-productor sin locks (esquema de secuencias por slot)
+     * poll() también usa CAS porque DROP_OLDEST consume desde los hilos productores
+     */
+    private static final class RingBuffer {
+        private final AtomicReferenceArray<AuditLog> slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        RingBuffer(int requestedCapacity) {
+            int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            slots = new AtomicReferenceArray<>(size);
+            sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+            mask = size - 1;
+        }
+
+        boolean offer(AuditLog value) {
+            while (true) {
+                long position = tail.get();
+                int index = (int) (position & mask);
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots.set(index, value);
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                } else if (difference < 0) {
+                    return false;
+                }
+            }
+        }
+
+        AuditLog poll() {
+            while (true) {
+                long position = head.get();
+                int index = (int) (position & mask);
+                long difference = sequences.get(index) - (position + 1);
+                if (difference == 0) {
+                    if (head.compareAndSet(position, position + 1)) {
+                        AuditLog value = slots.getAndSet(index, null);
+                        sequences.set(index, position + mask + 1);
+                        return value;
+                    }
+                } else if (difference < 0) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Registro más antiguo sin consumir (aproximado, solo para métricas)
+         */
+        AuditLog peek() {
+            long position = head.get();
+            int index = (int) (position & mask);
+            return sequences.get(index) == position + 1 ? slots.get(index) : null;
+        }
+
+        int size() {
+            return (int) Math.max(0, tail.get() - head.get());
+        }
+    }
+}
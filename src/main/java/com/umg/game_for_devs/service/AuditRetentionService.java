@@ -0,0 +1,341 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.AuditLog;
+import com.umg.game_for_devs.repository.AuditLogRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Retención de la bitácora de auditoría: audit_logs solo conserva los últimos hot-days días
+ * - Los registros más antiguos se mueven a segmentos fríos (AuditSegmentStore) de hasta segment-size registros:
+ *   primero se publica el segmento y después se borran sus filas, así una falla entre ambos pasos solo deja filas
+ *   repetidas en la tabla, que el siguiente mantenimiento borra antes de mover nada más
+ * - Los segmentos consecutivos que juntos no llegan a segment-size se compactan en uno solo
+ * - Los segmentos con más de segments.retention-days días se eliminan (0 los conserva indefinidamente)
+ * Las consultas de la bitácora pasan por aquí y recorren primero la tabla y luego los segmentos, que siempre
+ * guardan registros más antiguos que los de la tabla
+ */
+@Service
+public class AuditRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditRetentionService.class);
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditSegmentStore auditSegmentStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${game.audit.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${game.audit.retention.hot-days:30}")
+    private int hotDays;
+
+    @Value("${game.audit.retention.segment-size:10000}")
+    private int segmentSize;
+
+    @Value("${game.audit.retention.maintain-on-startup:true}")
+    private boolean maintainOnStartup;
+
+    @Value("${game.audit.segments.retention-days:0}")
+    private int segmentRetentionDays;
+
+    // Una sola pasada de retención: dos a la vez moverían las mismas filas a segmentos
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+    private volatile LocalDateTime lastMaintenanceAt;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        if (!enabled || !maintainOnStartup) {
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.error("Falló el mantenimiento inicial de la bitácora de auditoría: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mover los registros vencidos a segmentos, compactar los segmentos pequeños y aplicar la retención
+     */
+    @Scheduled(cron = "${game.audit.retention.cron:0 45 3 * * *}")
+    public Map<String, Object> maintain() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (!enabled) {
+            summary.put("enabled", false);
+            return summary;
+        }
+        maintenanceLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime cutoff = now.minusDays(Math.max(hotDays, 0));
+            int recovered = recover();
+            int segmentsBefore = auditSegmentStore.getSegments().size();
+            long moved = moveExpired(cutoff);
+            int written = auditSegmentStore.getSegments().size() - segmentsBefore;
+            int compacted = compact();
+            int purged = purge(now);
+
+            lastMaintenanceAt = now;
+            summary.put("cutoff", cutoff);
+            summary.put("recoveredDuplicates", recovered);
+            summary.put("movedEntries", moved);
+            summary.put("segmentsWritten", written);
+            summary.put("segmentsCompacted", compacted);
+            summary.put("segmentsPurged", purged);
+            summary.put("segments", auditSegmentStore.getSegments().size());
+            if (recovered > 0 || moved > 0 || compacted > 0 || purged > 0) {
+                log.info("Mantenimiento de la bitácora de auditoría: {}", summary);
+            }
+            return summary;
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Catálogo de segmentos fríos con su rango, tamaño y conteos
+     */
+    public Map<String, Object> getCatalog() {
+        List<Map<String, Object>> segments = new ArrayList<>();
+        for (AuditSegmentStore.Segment segment : auditSegmentStore.getSegments()) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("sequence", segment.getSequence());
+            view.put("from", segment.getMinTimestamp());
+            view.put("to", segment.getMaxTimestamp());
+            view.put("firstId", segment.getFirstId());
+            view.put("lastId", segment.getLastId());
+            view.put("entries", segment.getEntryCount());
+            view.put("users", segment.getUserActions().size());
+            view.put("rawBytes", segment.getRawBytes());
+            view.put("compressedBytes", segment.getCompressedBytes());
+            view.put("compactedFrom", segment.getSources());
+            view.put("createdAt", segment.getCreatedAt());
+            segments.add(view);
+        }
+        Map<String, Object> catalog = new LinkedHashMap<>();
+        catalog.put("segments", segments);
+        catalog.put("coldEntries", auditSegmentStore.getEntryCount());
+        catalog.put("compressedBytes", auditSegmentStore.getCompressedBytes());
+        catalog.put("hotEntries", auditLogRepository.count());
+        catalog.put("hotDays", hotDays);
+        catalog.put("lastMaintenanceAt", lastMaintenanceAt);
+        return catalog;
+    }
+
+    /**
+     * Buscar por filtros en la tabla y los segmentos (timestamp desc) con paginación por offset
+     * Las páginas que pasan el final de la tabla se completan con los segmentos, saltando lo que ya cubrió la tabla
+     */
+    public Page<AuditLog> search(String username, AuditLog.ActionType actionType, String resourceType,
+                                 AuditLog.Status status, LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        Page<AuditLog> hot = auditLogRepository.findByFilters(username, actionType, resourceType, status, from, to, pageable);
+        AuditSegmentStore.Filter filter = new AuditSegmentStore.Filter(username, actionType, resourceType, status, from, to);
+        long coldTotal = auditSegmentStore.count(filter);
+        if (coldTotal == 0) {
+            return hot;
+        }
+
+        List<AuditLog> content = new ArrayList<>(hot.getContent());
+        if (content.size() < pageable.getPageSize()) {
+            long coldSkip = Math.max(0, pageable.getOffset() - hot.getTotalElements());
+            content.addAll(auditSegmentStore.findNewest(filter, null, null, coldSkip, pageable.getPageSize() - content.size()));
+        }
+        return new PageImpl<>(content, pageable, hot.getTotalElements() + coldTotal);
+    }
+
+    /**
+     * Página por cursor (timestamp, id) desc en la tabla, completada con los segmentos cuando la tabla se agota
+     */
+    public List<AuditLog> findPage(String username, AuditLog.ActionType actionType, String resourceType,
+                                   AuditLog.Status status, LocalDateTime from, LocalDateTime to,
+                                   LocalDateTime afterTimestamp, Long afterId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<AuditLog> rows = afterTimestamp == null
+                ? auditLogRepository.findFirstPageByFilters(username, actionType, resourceType, status, from, to, page)
+                : auditLogRepository.findPageByFiltersAfter(username, actionType, resourceType, status, from, to,
+                                                            afterTimestamp, afterId, page);
+        if (rows.size() >= limit || auditSegmentStore.getSegments().isEmpty()) {
+            return rows;
+        }
+        List<AuditLog> combined = new ArrayList<>(rows);
+        AuditSegmentStore.Filter filter = new AuditSegmentStore.Filter(username, actionType, resourceType, status, from, to);
+        combined.addAll(auditSegmentStore.findNewest(filter, afterTimestamp, afterId, 0, limit - rows.size()));
+        return combined;
+    }
+
+    public Optional<AuditLog> findById(Long id) {
+        Optional<AuditLog> hot = auditLogRepository.findById(id);
+        return hot.isPresent() ? hot : auditSegmentStore.findById(id);
+    }
+
+    /**
+     * Total de registros de la bitácora (tabla y segmentos)
+     */
+    public long countAll() {
+        return auditLogRepository.count() + auditSegmentStore.getEntryCount();
+    }
+
+    /**
+     * Actividad diaria (día, conteo) en el formato de findDailyActivityBetween, sumando tabla y segmentos
+     */
+    public List<Object[]> getDailyActivity(LocalDateTime from, LocalDateTime to) {
+        Map<LocalDate, Long> days = auditSegmentStore.countByDay(AuditSegmentStore.Filter.between(from, to));
+        for (Object[] row : auditLogRepository.findDailyActivityBetween(from, to)) {
+            days.merge(LocalDate.parse(row[0].toString()), ((Number) row[1]).longValue(), Long::sum);
+        }
+        List<Object[]> result = new ArrayList<>(days.size());
+        days.forEach((day, count) -> result.add(new Object[] {Date.valueOf(day), count}));
+        return result;
+    }
+
+    /**
+     * Acciones por usuario y tipo (usuario, tipo, conteo) en el formato de getActionStatsByUser, sumando tabla y segmentos
+     */
+    public List<Object[]> getActionStatsByUser(LocalDateTime from, LocalDateTime to) {
+        Map<String, Map<AuditLog.ActionType, Long>> users =
+                auditSegmentStore.countByUserAndAction(AuditSegmentStore.Filter.between(from, to));
+        for (Object[] row : auditLogRepository.getActionStatsByUser(from, to)) {
+            users.computeIfAbsent((String) row[0], k -> new EnumMap<>(AuditLog.ActionType.class))
+                    .merge((AuditLog.ActionType) row[1], ((Number) row[2]).longValue(), Long::sum);
+        }
+        List<Object[]> result = new ArrayList<>();
+        users.forEach((username, actions) ->
+                actions.forEach((actionType, count) -> result.add(new Object[] {username, actionType, count})));
+        return result;
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Borrar de la tabla las filas del último segmento escrito que hayan quedado por una falla entre escribir y borrar
+     * (solo las que no son posteriores al segmento, por si la tabla se recreó y reutiliza ids)
+     */
+    private int recover() {
+        List<AuditSegmentStore.Segment> segments = auditSegmentStore.getSegments();
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        AuditSegmentStore.Segment newest = segments.get(segments.size() - 1);
+        return deleteRows(auditSegmentStore.getIds(newest), newest.getMaxTimestamp());
+    }
+
+    private long moveExpired(LocalDateTime cutoff) {
+        long moved = 0;
+        while (true) {
+            List<AuditLog> rows = auditLogRepository.findByTimestampBeforeOrderByTimestampAscIdAsc(
+                    cutoff, PageRequest.of(0, segmentSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            auditSegmentStore.write(rows, List.of());
+            List<Long> ids = new ArrayList<>(rows.size());
+            rows.forEach(row -> ids.add(row.getId()));
+            deleteRows(ids, cutoff);
+            moved += rows.size();
+            if (rows.size() < segmentSize) {
+                break;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Fusionar corridas de segmentos consecutivos cuyo total no pasa de segment-size
+     */
+    private int compact() {
+        int compacted = 0;
+        List<AuditSegmentStore.Segment> run = new ArrayList<>();
+        long runEntries = 0;
+        for (AuditSegmentStore.Segment segment : auditSegmentStore.getSegments()) {
+            if (runEntries + segment.getEntryCount() > segmentSize) {
+                compacted += merge(run);
+                run = new ArrayList<>();
+                runEntries = 0;
+            }
+            run.add(segment);
+            runEntries += segment.getEntryCount();
+        }
+        return compacted + merge(run);
+    }
+
+    private int merge(List<AuditSegmentStore.Segment> run) {
+        if (run.size() < 2) {
+            return 0;
+        }
+        List<AuditLog> entries = new ArrayList<>();
+        List<Long> sources = new ArrayList<>();
+        for (AuditSegmentStore.Segment segment : run) {
+            entries.addAll(auditSegmentStore.read(segment));
+            sources.add(segment.getSequence());
+        }
+        auditSegmentStore.write(entries, sources);
+        auditSegmentStore.delete(run);
+        return run.size();
+    }
+
+    private int purge(LocalDateTime now) {
+        if (segmentRetentionDays <= 0) {
+            return 0;
+        }
+        LocalDateTime purgeBefore = now.minusDays(segmentRetentionDays);
+        List<AuditSegmentStore.Segment> expired = auditSegmentStore.getSegments().stream()
+                .filter(segment -> segment.getMaxTimestamp().isBefore(purgeBefore))
+                .toList();
+        auditSegmentStore.delete(expired);
+        return expired.size();
+    }
+
+    private int deleteRows(List<Long> ids, LocalDateTime notAfter) {
+        int[] deleted = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int start = 0; start < ids.size(); start += DELETE_BATCH_SIZE) {
+                List<Long> batch = ids.subList(start, Math.min(start + DELETE_BATCH_SIZE, ids.size()));
+                String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+                List<Object> args = new ArrayList<>(batch);
+                args.add(Timestamp.valueOf(notAfter));
+                deleted[0] += jdbcTemplate.update(
+                        "DELETE FROM audit_logs WHERE id IN (" + placeholders + ") AND timestamp <= ?", args.toArray());
+            }
+        });
+        return deleted[0];
+    }
+}
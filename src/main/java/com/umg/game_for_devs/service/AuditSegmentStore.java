@@ -0,0 +1,632 @@
+package com.umg.game_for_devs.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.umg.game_for_devs.entity.AuditLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Almacén frío de la bitácora de auditoría: segmentos NDJSON comprimidos con GZIP en disco local, de solo anexado
+ * - Cada segmento guarda sus registros ordenados por (timestamp, id) y lo acompaña un índice JSON con su rango de
+ *   tiempo e ids y los conteos por usuario/tipo de acción y por día: las consultas descartan los segmentos que no
+ *   pueden coincidir sin abrirlos y los conteos de segmentos cubiertos por completo se responden desde el índice
+ * - Un segmento existe cuando existe su índice: los datos se escriben primero y el índice se publica al final con un
+ *   movimiento atómico; al arrancar se borran los datos sin índice y los segmentos ya fusionados en otro (sources)
+ * - Los segmentos no se modifican: la compactación escribe uno nuevo con los registros de varios y borra los originales
+ * Los segmentos no se solapan en el tiempo (cada uno se forma con los registros más antiguos que quedaban), así que
+ * recorrerlos en orden equivale a recorrer la bitácora en orden cronológico
+ */
+@Service
+public class AuditSegmentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSegmentStore.class);
+
+    private static final String PREFIX = "audit-";
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx.json";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final Comparator<AuditLog> CHRONOLOGICAL =
+            Comparator.comparing(AuditLog::getTimestamp).thenComparing(AuditLog::getId);
+
+    private static final Comparator<Segment> SEGMENT_ORDER =
+            Comparator.comparing(Segment::getMinTimestamp).thenComparingLong(Segment::getFirstId);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.audit.segments.directory:./data/audit-segments}")
+    private String directory;
+
+    @Value("${game.audit.segments.cache-size:4}")
+    private int cacheSize;
+
+    // Escrituras y borrados de segmentos, uno a la vez: protege nextSequence y el reemplazo del catálogo
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Catálogo inmutable ordenado cronológicamente; se reemplaza completo en cada cambio
+    private volatile List<Segment> segments = List.of();
+    private long nextSequence = 1;
+
+    // Últimos segmentos decodificados (LRU)
+    private final Map<Long, List<AuditLog>> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private Path root;
+    private ObjectReader entryReader;
+    private ObjectReader indexReader;
+
+    @PostConstruct
+    void init() {
+        root = Paths.get(directory);
+        entryReader = objectMapper.readerFor(AuditLog.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        indexReader = objectMapper.readerFor(Segment.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        load();
+
+        Gauge.builder("game.audit.segments.count", this, store -> store.segments.size())
+                .description("Segmentos fríos de la bitácora de auditoría")
+                .register(meterRegistry);
+        Gauge.builder("game.audit.segments.bytes", this, AuditSegmentStore::getCompressedBytes)
+                .description("Tamaño comprimido de los segmentos fríos de auditoría")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Escribir un segmento nuevo con los registros dados; sources lista los segmentos que reemplaza (compactación)
+     * Cuando retorna, el segmento ya está en disco y visible para las consultas
+     */
+    public Segment write(List<AuditLog> entries, List<Long> sources) {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Un segmento de auditoría no puede estar vacío");
+        }
+        List<AuditLog> sorted = new ArrayList<>(entries);
+        sorted.sort(CHRONOLOGICAL);
+
+        writeLock.lock();
+        try {
+            Files.createDirectories(root);
+            Segment segment = new Segment();
+            segment.setSequence(nextSequence++);
+            segment.setSources(new ArrayList<>(sources));
+            segment.setCreatedAt(LocalDateTime.now());
+
+            Path data = dataPath(segment.getSequence());
+            Path dataTemp = data.resolveSibling(data.getFileName() + TEMP_SUFFIX);
+            long rawBytes = 0;
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(dataTemp)))) {
+                for (AuditLog entry : sorted) {
+                    byte[] line = objectMapper.writeValueAsBytes(entry);
+                    out.write(line);
+                    out.write('\n');
+                    rawBytes += line.length + 1;
+                    index(segment, entry);
+                }
+            }
+            force(dataTemp);
+            Files.move(dataTemp, data, StandardCopyOption.ATOMIC_MOVE);
+            segment.setRawBytes(rawBytes);
+            segment.setCompressedBytes(Files.size(data));
+
+            Path index = indexPath(segment.getSequence());
+            Path indexTemp = index.resolveSibling(index.getFileName() + TEMP_SUFFIX);
+            Files.write(indexTemp, objectMapper.writeValueAsBytes(segment));
+            force(indexTemp);
+            Files.move(indexTemp, index, StandardCopyOption.ATOMIC_MOVE);
+
+            List<Segment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            updated.sort(SEGMENT_ORDER);
+            segments = List.copyOf(updated);
+            cachePut(segment.getSequence(), List.copyOf(sorted));
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el segmento de auditoría", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Borrar segmentos: primero el índice (deja de existir para las consultas) y luego los datos
+     */
+    public void delete(Collection<Segment> removed) {
+        writeLock.lock();
+        try {
+            Set<Long> sequences = new HashSet<>();
+            removed.forEach(segment -> sequences.add(segment.getSequence()));
+            List<Segment> updated = new ArrayList<>(segments);
+            updated.removeIf(segment -> sequences.contains(segment.getSequence()));
+            segments = List.copyOf(updated);
+            for (Long sequence : sequences) {
+                cacheRemove(sequence);
+                deleteFiles(sequence);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Registros de un segmento en orden cronológico
+     */
+    public List<AuditLog> read(Segment segment) {
+        List<AuditLog> cached = cacheGet(segment.getSequence());
+        if (cached != null) {
+            return cached;
+        }
+        List<AuditLog> entries = new ArrayList<>(segment.getEntryCount());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(dataPath(segment.getSequence()))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    entries.add(entryReader.readValue(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento de auditoría " + segment.getSequence(), e);
+        }
+        List<AuditLog> result = List.copyOf(entries);
+        cachePut(segment.getSequence(), result);
+        return result;
+    }
+
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    public long getEntryCount() {
+        return segments.stream().mapToLong(Segment::getEntryCount).sum();
+    }
+
+    public long getCompressedBytes() {
+        return segments.stream().mapToLong(Segment::getCompressedBytes).sum();
+    }
+
+    /**
+     * Contar los registros que cumplen el filtro
+     */
+    public long count(Filter filter) {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += count(segment, filter);
+        }
+        return total;
+    }
+
+    /**
+     * Registros que cumplen el filtro del más reciente al más antiguo (timestamp desc, id desc)
+     * Con beforeTimestamp solo se consideran los anteriores a (beforeTimestamp, beforeId); skip omite los primeros
+     */
+    public List<AuditLog> findNewest(Filter filter, LocalDateTime beforeTimestamp, Long beforeId, long skip, int limit) {
+        List<AuditLog> result = new ArrayList<>();
+        long toSkip = skip;
+        List<Segment> snapshot = segments;
+        for (int s = snapshot.size() - 1; s >= 0 && result.size() < limit; s--) {
+            Segment segment = snapshot.get(s);
+            if (!filter.overlaps(segment)
+                    || (beforeTimestamp != null && segment.getMinTimestamp().isAfter(beforeTimestamp))) {
+                continue;
+            }
+            boolean wholeSegment = beforeTimestamp == null || segment.getMaxTimestamp().isBefore(beforeTimestamp);
+            if (wholeSegment && toSkip > 0 && filter.isIndexable() && filter.coversTime(segment)) {
+                // Saltar segmentos completos con el conteo del índice, sin descomprimirlos
+                long matching = countFromIndex(segment, filter);
+                if (toSkip >= matching) {
+                    toSkip -= matching;
+                    continue;
+                }
+            }
+            List<AuditLog> entries = read(segment);
+            for (int i = entries.size() - 1; i >= 0 && result.size() < limit; i--) {
+                AuditLog entry = entries.get(i);
+                if (!filter.matches(entry) || !isBefore(entry, beforeTimestamp, beforeId)) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                } else {
+                    result.add(entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registros que cumplen el filtro en orden cronológico; los segmentos se decodifican a medida que se consumen
+     */
+    public Stream<AuditLog> stream(Filter filter) {
+        return segments.stream()
+                .filter(filter::overlaps)
+                .flatMap(segment -> read(segment).stream())
+                .filter(filter::matches);
+    }
+
+    public Optional<AuditLog> findById(long id) {
+        for (Segment segment : segments) {
+            if (id < segment.getFirstId() || id > segment.getLastId()) {
+                continue;
+            }
+            for (AuditLog entry : read(segment)) {
+                if (entry.getId() == id) {
+                    return Optional.of(entry);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Ids guardados en un segmento (para limpiar filas que quedaron duplicadas en la tabla)
+     */
+    public List<Long> getIds(Segment segment) {
+        List<Long> ids = new ArrayList<>(segment.getEntryCount());
+        read(segment).forEach(entry -> ids.add(entry.getId()));
+        return ids;
+    }
+
+    /**
+     * Conteo de registros por día que cumplen el filtro
+     */
+    public Map<LocalDate, Long> countByDay(Filter filter) {
+        Map<LocalDate, Long> days = new TreeMap<>();
+        for (Segment segment : segments) {
+            if (!filter.overlaps(segment)) {
+                continue;
+            }
+            if (filter.isIndexable() && filter.getUsername() == null && filter.getActionType() == null
+                    && filter.coversTime(segment)) {
+                segment.getDays().forEach((day, count) -> days.merge(LocalDate.parse(day), count, Long::sum));
+                continue;
+            }
+            for (AuditLog entry : read(segment)) {
+                if (filter.matches(entry)) {
+                    days.merge(entry.getTimestamp().toLocalDate(), 1L, Long::sum);
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Conteo de registros por usuario y tipo de acción que cumplen el filtro
+     */
+    public Map<String, Map<AuditLog.ActionType, Long>> countByUserAndAction(Filter filter) {
+        Map<String, Map<AuditLog.ActionType, Long>> users = new TreeMap<>();
+        for (Segment segment : segments) {
+            if (!filter.overlaps(segment)) {
+                continue;
+            }
+            if (filter.isIndexable() && filter.coversTime(segment)) {
+                segment.getUserActions().forEach((username, actions) -> actions.forEach((actionType, count) -> {
+                    AuditLog.ActionType type = AuditLog.ActionType.valueOf(actionType);
+                    if (filter.matchesUserAction(username, type)) {
+                        users.computeIfAbsent(username, k -> new EnumMap<>(AuditLog.ActionType.class))
+                                .merge(type, count, Long::sum);
+                    }
+                }));
+                continue;
+            }
+            for (AuditLog entry : read(segment)) {
+                if (filter.matches(entry)) {
+                    users.computeIfAbsent(entry.getUsername(), k -> new EnumMap<>(AuditLog.ActionType.class))
+                            .merge(entry.getActionType(), 1L, Long::sum);
+                }
+            }
+        }
+        return users;
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Cargar el catálogo desde los índices y limpiar escrituras incompletas y segmentos ya compactados
+     */
+    private void load() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Map<Long, Segment> loaded = new HashMap<>();
+        Set<Long> dataFiles = new HashSet<>();
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.startsWith(PREFIX) && name.endsWith(INDEX_SUFFIX)) {
+                    Segment segment = indexReader.readValue(file.toFile());
+                    loaded.put(segment.getSequence(), segment);
+                } else if (name.startsWith(PREFIX) && name.endsWith(DATA_SUFFIX)) {
+                    dataFiles.add(sequenceOf(name, DATA_SUFFIX));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cargar el catálogo de segmentos de auditoría", e);
+        }
+
+        Set<Long> superseded = new HashSet<>();
+        loaded.values().forEach(segment -> superseded.addAll(segment.getSources()));
+        long maxSequence = 0;
+        for (Long sequence : dataFiles) {
+            maxSequence = Math.max(maxSequence, sequence);
+            if (!loaded.containsKey(sequence) || superseded.contains(sequence)) {
+                deleteFiles(sequence);
+            }
+        }
+        List<Segment> active = new ArrayList<>();
+        for (Segment segment : loaded.values()) {
+            maxSequence = Math.max(maxSequence, segment.getSequence());
+            if (superseded.contains(segment.getSequence()) || !dataFiles.contains(segment.getSequence())) {
+                deleteFiles(segment.getSequence());
+            } else {
+                active.add(segment);
+            }
+        }
+        active.sort(SEGMENT_ORDER);
+        segments = List.copyOf(active);
+        nextSequence = maxSequence + 1;
+        if (!active.isEmpty()) {
+            log.info("Segmentos de auditoría cargados: {} ({} registros)", active.size(), getEntryCount());
+        }
+    }
+
+    private void index(Segment segment, AuditLog entry) {
+        if (segment.getEntryCount() == 0) {
+            segment.setMinTimestamp(entry.getTimestamp());
+            segment.setFirstId(entry.getId());
+            segment.setLastId(entry.getId());
+        }
+        segment.setMaxTimestamp(entry.getTimestamp());
+        segment.setFirstId(Math.min(segment.getFirstId(), entry.getId()));
+        segment.setLastId(Math.max(segment.getLastId(), entry.getId()));
+        segment.setEntryCount(segment.getEntryCount() + 1);
+        segment.getUserActions().computeIfAbsent(entry.getUsername(), k -> new TreeMap<>())
+                .merge(entry.getActionType().name(), 1L, Long::sum);
+        segment.getDays().merge(entry.getTimestamp().toLocalDate().toString(), 1L, Long::sum);
+    }
+
+    private long count(Segment segment, Filter filter) {
+        if (!filter.overlaps(segment)) {
+            return 0;
+        }
+        if (filter.isIndexable() && filter.coversTime(segment)) {
+            return countFromIndex(segment, filter);
+        }
+        long count = 0;
+        for (AuditLog entry : read(segment)) {
+            if (filter.matches(entry)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long countFromIndex(Segment segment, Filter filter) {
+        long count = 0;
+        for (Map.Entry<String, Map<String, Long>> user : segment.getUserActions().entrySet()) {
+            for (Map.Entry<String, Long> action : user.getValue().entrySet()) {
+                if (filter.matchesUserAction(user.getKey(), AuditLog.ActionType.valueOf(action.getKey()))) {
+                    count += action.getValue();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean isBefore(AuditLog entry, LocalDateTime beforeTimestamp, Long beforeId) {
+        if (beforeTimestamp == null) {
+            return true;
+        }
+        int compare = entry.getTimestamp().compareTo(beforeTimestamp);
+        return compare < 0 || (compare == 0 && beforeId != null && entry.getId() < beforeId);
+    }
+
+    private Path dataPath(long sequence) {
+        return root.resolve(String.format("%s%08d%s", PREFIX, sequence, DATA_SUFFIX));
+    }
+
+    private Path indexPath(long sequence) {
+        return root.resolve(String.format("%s%08d%s", PREFIX, sequence, INDEX_SUFFIX));
+    }
+
+    private static long sequenceOf(String fileName, String suffix) {
+        return Long.parseLong(fileName.substring(PREFIX.length(), fileName.length() - suffix.length()));
+    }
+
+    private void deleteFiles(long sequence) {
+        try {
+            Files.deleteIfExists(indexPath(sequence));
+            Files.deleteIfExists(dataPath(sequence));
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el segmento de auditoría {}: {}", sequence, e.getMessage());
+        }
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private List<AuditLog> cacheGet(long sequence) {
+        synchronized (cache) {
+            return cache.get(sequence);
+        }
+    }
+
+    private void cachePut(long sequence, List<AuditLog> entries) {
+        if (cacheSize <= 0) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(sequence, entries);
+            Iterator<Long> eldest = cache.keySet().iterator();
+            while (cache.size() > cacheSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void cacheRemove(long sequence) {
+        synchronized (cache) {
+            cache.remove(sequence);
+        }
+    }
+
+    /**
+     * Criterios de búsqueda de la bitácora; los nulos no filtran
+     */
+    public static class Filter {
+        private final String username;
+        private final AuditLog.ActionType actionType;
+        private final String resourceType;
+        private final AuditLog.Status status;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        public Filter(String username, AuditLog.ActionType actionType, String resourceType, AuditLog.Status status,
+                      LocalDateTime from, LocalDateTime to) {
+            this.username = username;
+            this.actionType = actionType;
+            this.resourceType = resourceType;
+            this.status = status;
+            this.from = from;
+            this.to = to;
+        }
+
+        public static Filter between(LocalDateTime from, LocalDateTime to) {
+            return new Filter(null, null, null, null, from, to);
+        }
+
+        public boolean matches(AuditLog entry) {
+            return matchesUserAction(entry.getUsername(), entry.getActionType())
+                    && (resourceType == null || resourceType.equals(entry.getResourceType()))
+                    && (status == null || status == entry.getStatus())
+                    && (from == null || !entry.getTimestamp().isBefore(from))
+                    && (to == null || !entry.getTimestamp().isAfter(to));
+        }
+
+        boolean matchesUserAction(String entryUsername, AuditLog.ActionType entryActionType) {
+            return (username == null || username.equals(entryUsername))
+                    && (actionType == null || actionType == entryActionType);
+        }
+
+        /**
+         * El segmento puede contener registros que cumplan el filtro (según su rango de tiempo y su índice)
+         */
+        boolean overlaps(Segment segment) {
+            if ((from != null && segment.getMaxTimestamp().isBefore(from))
+                    || (to != null && segment.getMinTimestamp().isAfter(to))) {
+                return false;
+            }
+            if (username != null && !segment.getUserActions().containsKey(username)) {
+                return false;
+            }
+            return actionType == null || segment.getUserActions().entrySet().stream()
+                    .filter(user -> username == null || username.equals(user.getKey()))
+                    .anyMatch(user -> user.getValue().containsKey(actionType.name()));
+        }
+
+        boolean coversTime(Segment segment) {
+            return (from == null || !segment.getMinTimestamp().isBefore(from))
+                    && (to == null || !segment.getMaxTimestamp().isAfter(to));
+        }
+
+        /**
+         * El índice por usuario y tipo de acción basta para contar (no hay filtros por recurso ni estado)
+         */
+        boolean isIndexable() {
+            return resourceType == null && status == null;
+        }
+
+        public String getUsername() { return username; }
+        public AuditLog.ActionType getActionType() { return actionType; }
+    }
+
+    /**
+     * Índice de un segmento, guardado como JSON junto a sus datos
+     */
+    public static class Segment {
+        private long sequence;
+        private long firstId;
+        private long lastId;
+        private LocalDateTime minTimestamp;
+        private LocalDateTime maxTimestamp;
+        private int entryCount;
+        private long rawBytes;
+        private long compressedBytes;
+        private LocalDateTime createdAt;
+        private List<Long> sources = new ArrayList<>();
+        private Map<String, Map<String, Long>> userActions = new TreeMap<>();
+        private Map<String, Long> days = new TreeMap<>();
+
+        public long getSequence() { return sequence; }
+        public void setSequence(long sequence) { this.sequence = sequence; }
+
+        public long getFirstId() { return firstId; }
+        public void setFirstId(long firstId) { this.firstId = firstId; }
+
+        public long getLastId() { return lastId; }
+        public void setLastId(long lastId) { this.lastId = lastId; }
+
+        public LocalDateTime getMinTimestamp() { return minTimestamp; }
+        public void setMinTimestamp(LocalDateTime minTimestamp) { this.minTimestamp = minTimestamp; }
+
+        public LocalDateTime getMaxTimestamp() { return maxTimestamp; }
+        public void setMaxTimestamp(LocalDateTime maxTimestamp) { this.maxTimestamp = maxTimestamp; }
+
+        public int getEntryCount() { return entryCount; }
+        public void setEntryCount(int entryCount) { this.entryCount = entryCount; }
+
+        public long getRawBytes() { return rawBytes; }
+        public void setRawBytes(long rawBytes) { this.rawBytes = rawBytes; }
+
+        public long getCompressedBytes() { return compressedBytes; }
+        public void setCompressedBytes(long compressedBytes) { this.compressedBytes = compressedBytes; }
+
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+        public List<Long> getSources() { return sources; }
+        public void setSources(List<Long> sources) { this.sources = sources; }
+
+        public Map<String, Map<String, Long>> getUserActions() { return userActions; }
+        public void setUserActions(Map<String, Map<String, Long>> userActions) { this.userActions = userActions; }
+
+        public Map<String, Long> getDays() { return days; }
+        public void setDays(Map<String, Long> days) { this.days = days; }
+    }
+}
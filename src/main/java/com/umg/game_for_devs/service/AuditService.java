@@ -1,9 +1,10 @@
 package com.umg.game_for_devs.service;
 
 import com.umg.game_for_devs.entity.AuditLog;
-import com.umg.game_for_devs.repository.AuditLogRepository;
+import com.umg.game_for_devs.event.AuditLogEvent;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -14,12 +15,17 @@ import java.time.LocalDateTime;
 
 /**
  * Servicio para el registro automático de auditoría
+ * El contexto de la request se captura en el hilo del llamador; la escritura la hace AuditLogWriter
+ * y cada entrada se publica como AuditLogEvent para los consumidores en memoria
  */
 @Service
 public class AuditService {
     
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditLogWriter auditLogWriter;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     /**
      * Registra una acción de auditoría
@@ -65,7 +71,8 @@ public class AuditService {
                 auditLog.setUserAgent(request.getHeader("User-Agent"));
             }
             
-            auditLogRepository.save(auditLog);
+            auditLogWriter.append(auditLog);
+            eventPublisher.publishEvent(AuditLogEvent.of(auditLog));
         } catch (Exception e) {
             // Si falla el log de auditoría, no debería afectar la operación principal
             System.err.println("Error al registrar auditoría: " + e.getMessage());
@@ -93,7 +100,8 @@ public class AuditService {
                 auditLog.setUserAgent(request.getHeader("User-Agent"));
             }
             
-            auditLogRepository.save(auditLog);
+            auditLogWriter.append(auditLog);
+            eventPublisher.publishEvent(AuditLogEvent.of(auditLog));
         } catch (Exception e) {
             System.err.println("Error al registrar auditoría de fallo: " + e.getMessage());
         }
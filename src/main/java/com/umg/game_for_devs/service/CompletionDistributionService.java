@@ -0,0 +1,473 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.CompletionSketch;
+import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.entity.SessionRollup;
+import com.umg.game_for_devs.event.GameSessionEvent;
+import com.umg.game_for_devs.repository.CompletionSketchRepository;
+import com.umg.game_for_devs.util.QuantileSketch;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Percentiles (p50, p90, p99) del tiempo de ejecución, movimientos e intentos de las partidas completadas
+ * Cada sesión que llega a SUCCESS suma sus valores al sketch de su día y al histórico de su pista; si una
+ * sesión ya contada cambia, se resta su valor anterior. Los deltas se combinan con completion_sketches cada
+ * flush-interval-ms y las consultas suman los sketches diarios del intervalo, así que su costo no depende
+ * de la cantidad de sesiones. Como session_rollups, solo se lee lo ya volcado
+ */
+@Service
+public class CompletionDistributionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletionDistributionService.class);
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99"};
+
+    private static final SessionRollup.Granularity[] GRANULARITIES = {
+            SessionRollup.Granularity.DAY, SessionRollup.Granularity.TOTAL
+    };
+
+    // Sin filtrar por estado: una sesión que cambió después del corte cuenta según su estado en el corte
+    private static final String SCAN_SQL =
+            "SELECT id, session_id, track_id, status, start_time, moves_count, execution_time_ms, attempts_count " +
+            "FROM game_sessions WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private CompletionSketchRepository completionSketchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionPartitionService sessionPartitionService;
+
+    @Autowired
+    private SessionRebuildCoordinator rebuildCoordinator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.completion-sketches.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${game.completion-sketches.backfill-page-size:5000}")
+    private int backfillPageSize;
+
+    // Los eventos suman deltas bajo el read lock; el volcado intercambia el mapa bajo el write lock
+    private final ReentrantReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private Map<SketchKey, QuantileSketch> pending = new ConcurrentHashMap<>();
+
+    // Serializa volcados y reconstrucciones
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+    private volatile LocalDateTime lastFlushAt;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("game.completion-sketches.pending", this, CompletionDistributionService::getPendingCount)
+                .description("Sketches de percentiles pendientes de volcar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sumar o restar los valores de una sesión completada
+     */
+    @EventListener
+    public void onSessionEvent(GameSessionEvent event) {
+        if (event.getTrackId() == null || event.getStartTime() == null) {
+            return;
+        }
+        GameSessionEvent.Contribution previous = event.getPrevious();
+        GameSessionEvent.Contribution current = event.getCurrent();
+        if (current.sameAs(previous)) {
+            return;
+        }
+        boolean wasCompleted = previous != null && previous.getStatus() == GameSession.GameStatus.SUCCESS;
+        boolean isCompleted = current.getStatus() == GameSession.GameStatus.SUCCESS;
+        if (!wasCompleted && !isCompleted) {
+            return;
+        }
+
+        pendingLock.readLock().lock();
+        try {
+            if (wasCompleted) {
+                apply(pending, event.getTrackId(), event.getStartTime(), previous.getExecutionTimeMs(),
+                        previous.getMovesCount(), previous.getAttemptsCount(), -1);
+            }
+            if (isCompleted) {
+                apply(pending, event.getTrackId(), event.getStartTime(), current.getExecutionTimeMs(),
+                        current.getMovesCount(), current.getAttemptsCount(), 1);
+            }
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Combinar los deltas pendientes con los sketches guardados
+     */
+    @Scheduled(fixedDelayString = "${game.completion-sketches.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<SketchKey, QuantileSketch> batch = drainPending();
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                transactionTemplate.executeWithoutResult(status -> batch.forEach((key, delta) -> merge(key, delta, now)));
+                lastFlushAt = now;
+            } catch (Exception e) {
+                // Se devuelven los deltas para el siguiente intento
+                log.warn("No se pudieron volcar los sketches de percentiles: {}", e.getMessage());
+                restorePending(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Recalcular todos los sketches a partir de las sesiones completadas de game_sessions (incluidos los meses archivados)
+     * Usa el mismo corte que SessionRollupService.rebuild: los deltas posteriores se conservan
+     */
+    public long rebuild() {
+        flushLock.lock();
+        try (SessionRebuildCoordinator.Snapshot snapshot = rebuildCoordinator.begin(this::drainPending)) {
+            Map<SketchKey, QuantileSketch> sketches = new HashMap<>();
+            long scanned = 0;
+            long lastId = 0;
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SCAN_SQL, lastId,
+                        snapshot.getMaxSessionId(), backfillPageSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Map<String, Object> row : rows) {
+                    lastId = ((Number) row.get("id")).longValue();
+                    if (accumulate(sketches, snapshot.resolve(row))) {
+                        scanned++;
+                    }
+                }
+            }
+            long[] archived = {0};
+            sessionPartitionService.forEachArchivedSession(row -> {
+                if (accumulate(sketches, snapshot.resolve(row))) {
+                    archived[0]++;
+                }
+            });
+            scanned += archived[0];
+
+            LocalDateTime now = LocalDateTime.now();
+            List<CompletionSketch> rows = new ArrayList<>(sketches.size());
+            sketches.forEach((key, sketch) -> rows.add(toEntity(key, sketch, now)));
+            transactionTemplate.executeWithoutResult(status -> {
+                completionSketchRepository.deleteAllInBatch();
+                completionSketchRepository.saveAll(rows);
+            });
+            lastFlushAt = now;
+            log.info("Sketches de percentiles reconstruidos: {} sesiones, {} filas", scanned, rows.size());
+            return scanned;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Reconstruir los sketches al arrancar si la tabla está vacía y ya hay sesiones completadas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (completionSketchRepository.count() == 0) {
+                Long sessions = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM game_sessions WHERE status = 'SUCCESS'", Long.class);
+                if (sessions != null && sessions > 0) {
+                    rebuild();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Falló la reconstrucción inicial de sketches de percentiles: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Percentiles de cada métrica en [from, to], en total y por pista (precisión de un día)
+     * Con from null se usan los sketches históricos
+     */
+    public Map<String, Object> getDistributions(LocalDateTime from, LocalDateTime to) {
+        Map<CompletionSketch.Metric, QuantileSketch> overall = new EnumMap<>(CompletionSketch.Metric.class);
+        Map<Long, Map<CompletionSketch.Metric, QuantileSketch>> byTrack = new TreeMap<>();
+        for (CompletionSketch row : findSketches(from, to)) {
+            QuantileSketch sketch = QuantileSketch.fromBytes(row.getSketch());
+            overall.computeIfAbsent(row.getMetric(), k -> new QuantileSketch()).addAll(sketch);
+            byTrack.computeIfAbsent(row.getTrackId(), k -> new EnumMap<>(CompletionSketch.Metric.class))
+                    .computeIfAbsent(row.getMetric(), k -> new QuantileSketch()).addAll(sketch);
+        }
+
+        Map<Long, Object> tracks = new LinkedHashMap<>();
+        byTrack.forEach((trackId, sketches) -> tracks.put(trackId, summarize(sketches)));
+
+        Map<String, Object> distributions = new LinkedHashMap<>();
+        distributions.put("overall", summarize(overall));
+        distributions.put("byTrack", tracks);
+        distributions.put("relativeAccuracy", QuantileSketch.RELATIVE_ACCURACY);
+        return distributions;
+    }
+
+    /**
+     * Percentiles de una métrica en [from, to] para todas las pistas (precisión de un día)
+     */
+    public Map<String, Object> getPercentiles(CompletionSketch.Metric metric, LocalDateTime from, LocalDateTime to) {
+        QuantileSketch total = new QuantileSketch();
+        for (CompletionSketch row : findSketches(from, to)) {
+            if (row.getMetric() == metric) {
+                total.addAll(QuantileSketch.fromBytes(row.getSketch()));
+            }
+        }
+        return percentiles(total);
+    }
+
+    /**
+     * Sketch combinado de una métrica por pista en [from, to] (precisión de un día)
+     */
+    public Map<Long, QuantileSketch> getSketchesByTrack(CompletionSketch.Metric metric, LocalDateTime from,
+                                                        LocalDateTime to) {
+        Map<Long, QuantileSketch> byTrack = new HashMap<>();
+        for (CompletionSketch row : findSketches(from, to)) {
+            if (row.getMetric() == metric) {
+                byTrack.computeIfAbsent(row.getTrackId(), k -> new QuantileSketch())
+                        .addAll(QuantileSketch.fromBytes(row.getSketch()));
+            }
+        }
+        return byTrack;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public LocalDateTime getLastFlushAt() {
+        return lastFlushAt;
+    }
+
+    // Métodos auxiliares
+
+    private static void apply(Map<SketchKey, QuantileSketch> sketches, long trackId, LocalDateTime startTime,
+                              Long executionTimeMs, int movesCount, int attemptsCount, long delta) {
+        for (SessionRollup.Granularity granularity : GRANULARITIES) {
+            LocalDateTime bucket = granularity == SessionRollup.Granularity.DAY
+                    ? startTime.truncatedTo(ChronoUnit.DAYS) : SessionRollup.TOTAL_BUCKET;
+            if (executionTimeMs != null) {
+                add(sketches, new SketchKey(granularity, bucket, trackId, CompletionSketch.Metric.EXECUTION_TIME_MS),
+                        executionTimeMs, delta);
+            }
+            add(sketches, new SketchKey(granularity, bucket, trackId, CompletionSketch.Metric.MOVES), movesCount, delta);
+            add(sketches, new SketchKey(granularity, bucket, trackId, CompletionSketch.Metric.ATTEMPTS), attemptsCount, delta);
+        }
+    }
+
+    /**
+     * Sumar una sesión completada; devuelve false si la fila no cuenta (no completada o creada después del corte)
+     */
+    private static boolean accumulate(Map<SketchKey, QuantileSketch> sketches, Map<String, Object> row) {
+        if (row == null || !"SUCCESS".equals(row.get("status"))) {
+            return false;
+        }
+        Object trackId = row.get("track_id");
+        LocalDateTime startTime = toLocalDateTime(row.get("start_time"));
+        if (trackId == null || startTime == null) {
+            return false;
+        }
+        Number executionTime = (Number) row.get("execution_time_ms");
+        apply(sketches, ((Number) trackId).longValue(), startTime,
+                executionTime != null ? executionTime.longValue() : null,
+                intValue(row.get("moves_count")), intValue(row.get("attempts_count")), 1);
+        return true;
+    }
+
+    private static void add(Map<SketchKey, QuantileSketch> sketches, SketchKey key, long value, long delta) {
+        QuantileSketch sketch = sketches.computeIfAbsent(key, k -> new QuantileSketch());
+        synchronized (sketch) {
+            sketch.add(value, delta);
+        }
+    }
+
+    private Map<SketchKey, QuantileSketch> drainPending() {
+        pendingLock.writeLock().lock();
+        try {
+            Map<SketchKey, QuantileSketch> drained = pending;
+            pending = new ConcurrentHashMap<>();
+            return drained;
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+    }
+
+    private void restorePending(Map<SketchKey, QuantileSketch> batch) {
+        pendingLock.readLock().lock();
+        try {
+            batch.forEach((key, delta) -> {
+                QuantileSketch target = pending.computeIfAbsent(key, k -> new QuantileSketch());
+                synchronized (target) {
+                    target.addAll(delta);
+                }
+            });
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    private void merge(SketchKey key, QuantileSketch delta, LocalDateTime now) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        Optional<CompletionSketch> stored = completionSketchRepository.findByGranularityAndBucketStartAndTrackIdAndMetric(
+                key.granularity, key.bucketStart, key.trackId, key.metric);
+        if (stored.isEmpty()) {
+            completionSketchRepository.save(toEntity(key, delta, now));
+            return;
+        }
+
+        QuantileSketch merged = QuantileSketch.fromBytes(stored.get().getSketch());
+        merged.addAll(delta);
+        if (merged.isEmpty()) {
+            // Todas sus sesiones dejaron de contar como completadas
+            completionSketchRepository.delete(stored.get());
+            return;
+        }
+        stored.get().setSketch(merged.toBytes());
+        stored.get().setSampleCount(merged.getCount());
+        stored.get().setUpdatedAt(now);
+        completionSketchRepository.save(stored.get());
+    }
+
+    private List<CompletionSketch> findSketches(LocalDateTime from, LocalDateTime to) {
+        if (from == null) {
+            return completionSketchRepository.findBetween(SessionRollup.Granularity.TOTAL,
+                    SessionRollup.TOTAL_BUCKET, SessionRollup.TOTAL_BUCKET.plusDays(1));
+        }
+        return completionSketchRepository.findBetween(SessionRollup.Granularity.DAY,
+                from.truncatedTo(ChronoUnit.DAYS), to.truncatedTo(ChronoUnit.DAYS).plusDays(1));
+    }
+
+    private static Map<String, Object> summarize(Map<CompletionSketch.Metric, QuantileSketch> sketches) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (CompletionSketch.Metric metric : CompletionSketch.Metric.values()) {
+            summary.put(metricName(metric), percentiles(sketches.getOrDefault(metric, new QuantileSketch())));
+        }
+        return summary;
+    }
+
+    private static Map<String, Object> percentiles(QuantileSketch sketch) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("count", Math.max(0, sketch.getCount()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles.put(PERCENTILE_NAMES[i], sketch.quantile(PERCENTILES[i]));
+        }
+        return percentiles;
+    }
+
+    private static String metricName(CompletionSketch.Metric metric) {
+        switch (metric) {
+            case EXECUTION_TIME_MS:
+                return "executionTimeMs";
+            case MOVES:
+                return "moves";
+            default:
+                return "attempts";
+        }
+    }
+
+    private static CompletionSketch toEntity(SketchKey key, QuantileSketch sketch, LocalDateTime now) {
+        CompletionSketch entity = new CompletionSketch();
+        entity.setGranularity(key.granularity);
+        entity.setBucketStart(key.bucketStart);
+        entity.setTrackId(key.trackId);
+        entity.setMetric(key.metric);
+        entity.setSampleCount(sketch.getCount());
+        entity.setSketch(sketch.toBytes());
+        entity.setUpdatedAt(now);
+        return entity;
+    }
+
+    private static int intValue(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private static final class SketchKey {
+        final SessionRollup.Granularity granularity;
+        final LocalDateTime bucketStart;
+        final Long trackId;
+        final CompletionSketch.Metric metric;
+        final int hash;
+
+        SketchKey(SessionRollup.Granularity granularity, LocalDateTime bucketStart, Long trackId,
+                  CompletionSketch.Metric metric) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.trackId = trackId;
+            this.metric = metric;
+            this.hash = Objects.hash(granularity, bucketStart, trackId, metric);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SketchKey)) return false;
+            SketchKey other = (SketchKey) o;
+            return granularity == other.granularity && metric == other.metric
+                    && bucketStart.equals(other.bucketStart) && trackId.equals(other.trackId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -3,19 +3,27 @@ package com.umg.game_for_devs.service;
 import com.umg.game_for_devs.entity.User;
 import com.umg.game_for_devs.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Servicio personalizado para la autenticación de usuarios
+ * Los principales de usuarios activos se guardan en una caché acotada con TTL; UserService la invalida
+ * al modificar un usuario. El último login lo registra LastLoginUpdater tras una autenticación exitosa
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -23,20 +31,91 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Value("${game.security.user-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    @Value("${game.security.user-cache.max-size:1000}")
+    private int maxSize;
+    
+    private final ConcurrentMap<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+    
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        long now = System.nanoTime();
+        CachedPrincipal cached = principals.get(username);
+        if (cached != null && now < cached.expiresAt) {
+            return cached.principal;
+        }
+        
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
         
         if (!user.getIsActive()) {
+            principals.remove(username);
             throw new UsernameNotFoundException("Usuario inactivo: " + username);
         }
         
-        // Actualizar último login
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        CustomUserPrincipal principal = new CustomUserPrincipal(user);
+        if (ttlSeconds > 0 && maxSize > 0) {
+            if (principals.size() >= maxSize) {
+                trim(now);
+            }
+            principals.put(username, new CachedPrincipal(principal, now + ttlSeconds * 1_000_000_000L));
+        }
+        return principal;
+    }
+    
+    /**
+     * Descartar los principales en caché ahora y de nuevo al confirmar la transacción en curso,
+     * para que una carga concurrente no deje en caché los datos anteriores al cambio
+     */
+    public void evictAfterCommit(String... usernames) {
+        evict(usernames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(usernames);
+                }
+            });
+        }
+    }
+    
+    public void evict(String... usernames) {
+        for (String username : usernames) {
+            if (username != null) {
+                principals.remove(username);
+            }
+        }
+    }
+    
+    public int getCacheSize() {
+        return principals.size();
+    }
+    
+    /**
+     * Quitar las entradas vencidas y, si no alcanza, las más próximas a vencer
+     */
+    private void trim(long now) {
+        principals.values().removeIf(entry -> now >= entry.expiresAt);
+        int excess = principals.size() - maxSize + 1;
+        if (excess > 0) {
+            principals.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .forEach(principals::remove);
+        }
+    }
+    
+    private static final class CachedPrincipal {
+        private final CustomUserPrincipal principal;
+        private final long expiresAt;
         
-        return new CustomUserPrincipal(user);
+        private CachedPrincipal(CustomUserPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
     }
     
     /**
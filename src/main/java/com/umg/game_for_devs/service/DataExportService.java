@@ -0,0 +1,338 @@
+package com.umg.game_for_devs.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.umg.game_for_devs.entity.AuditLog;
+import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.entity.Track;
+import com.umg.game_for_devs.repository.AuditLogRepository;
+import com.umg.game_for_devs.repository.GameSessionRepository;
+import com.umg.game_for_devs.repository.TrackRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación en streaming de la bitácora de auditoría, de las sesiones de juego y de las pistas
+ * Las filas se leen con un cursor JDBC de solo avance y se escriben directo a la respuesta;
+ * el contexto de persistencia se limpia cada FLUSH_EVERY filas para que la memoria no crezca
+ */
+@Service
+public class DataExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DataExportService.class);
+
+    private static final int FLUSH_EVERY = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] AUDIT_COLUMNS = {
+            "id", "timestamp", "username", "action", "actionType", "resourceType", "resourceId",
+            "resourceName", "status", "ipAddress", "userAgent", "errorMessage", "details"
+    };
+
+    private static final String[] SESSION_COLUMNS = {
+            "id", "sessionId", "trackId", "trackName", "status", "startTime", "endTime", "movesCount",
+            "executionTimeMs", "attemptsCount", "cellsVisited", "totalCellsRequired", "errorPositionX",
+            "errorPositionY", "errorMessage", "deviceType", "ipAddress", "movesSequence"
+    };
+
+    // Mismos nombres de campo que lee TrackImportService, así un NDJSON exportado se puede volver a importar
+    private static final String[] TRACK_COLUMNS = {
+            "id", "name", "gridConfig", "gridRows", "gridCols", "startX", "startY", "startDirection",
+            "difficultyLevel", "description", "isActive", "createdBy", "createdAt", "updatedAt",
+            "difficultyScore", "optimalMoves", "optimalLoopLength"
+    };
+
+    public enum Format {
+        CSV("csv", "text/csv; charset=UTF-8"),
+        NDJSON("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() { return extension; }
+        public String getContentType() { return contentType; }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value) || format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + value);
+        }
+    }
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private GameSessionRepository gameSessionRepository;
+
+    @Autowired
+    private TrackRepository trackRepository;
+
+    @Autowired
+    private AuditSegmentStore auditSegmentStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Exportar la bitácora de auditoría filtrada (primero los segmentos fríos, que son los registros más antiguos)
+     */
+    public StreamingResponseBody exportAuditLogs(String username, AuditLog.ActionType actionType, String resourceType,
+                                                 LocalDateTime startDate, LocalDateTime endDate,
+                                                 Format format, boolean gzip) {
+        AuditSegmentStore.Filter coldFilter =
+                new AuditSegmentStore.Filter(username, actionType, resourceType, null, startDate, endDate);
+        return output -> export(output, format, gzip, AUDIT_COLUMNS,
+                () -> Stream.concat(auditSegmentStore.stream(coldFilter),
+                        auditLogRepository.streamByFilters(username, actionType, resourceType, startDate, endDate)),
+                DataExportService::auditRow);
+    }
+
+    /**
+     * Exportar las sesiones de juego filtradas
+     */
+    public StreamingResponseBody exportGameSessions(GameSession.GameStatus status, Long trackId, String deviceType,
+                                                    LocalDateTime startDate, LocalDateTime endDate,
+                                                    Format format, boolean gzip) {
+        return output -> export(output, format, gzip, SESSION_COLUMNS,
+                () -> gameSessionRepository.streamByFilters(status, trackId, deviceType, startDate, endDate),
+                DataExportService::sessionRow);
+    }
+
+    /**
+     * Exportar las pistas (todas o solo las activas) en orden de id
+     */
+    public StreamingResponseBody exportTracks(boolean activeOnly, Format format, boolean gzip) {
+        return output -> export(output, format, gzip, TRACK_COLUMNS,
+                () -> trackRepository.streamForExport(activeOnly),
+                DataExportService::trackRow);
+    }
+
+    /**
+     * Nombre de archivo sugerido para la descarga
+     */
+    public static String fileName(String prefix, Format format, boolean gzip) {
+        return prefix + "_" + java.time.LocalDate.now() + "." + format.getExtension() + (gzip ? ".gz" : "");
+    }
+
+    // Métodos auxiliares
+
+    private <T> void export(OutputStream output, Format format, boolean gzip, String[] columns,
+                            Supplier<Stream<T>> source, Function<T, Object[]> toRow) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(output, BUFFER_SIZE) : output;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, jsonFactory);
+
+        long started = System.currentTimeMillis();
+        long[] count = {0};
+        try {
+            rows.header(columns);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<T> stream = source.get()) {
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        rows.row(columns, toRow.apply(iterator.next()));
+                        if (++count[0] % FLUSH_EVERY == 0) {
+                            // Liberar las entidades ya escritas y empujar los bytes al cliente
+                            entityManager.clear();
+                            rows.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rows.close();
+        } catch (UncheckedIOException e) {
+            log.warn("Exportación interrumpida tras {} filas: {}", count[0], e.getMessage());
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+        log.info("Exportadas {} filas en {} ms", count[0], System.currentTimeMillis() - started);
+    }
+
+    private static Object[] auditRow(AuditLog auditLog) {
+        return new Object[] {
+                auditLog.getId(), auditLog.getTimestamp(), auditLog.getUsername(), auditLog.getAction(),
+                auditLog.getActionType(), auditLog.getResourceType(), auditLog.getResourceId(),
+                auditLog.getResourceName(), auditLog.getStatus(), auditLog.getIpAddress(), auditLog.getUserAgent(),
+                auditLog.getErrorMessage(), auditLog.getDetails()
+        };
+    }
+
+    private static Object[] sessionRow(GameSession session) {
+        return new Object[] {
+                session.getId(), session.getSessionId(), session.getTrack().getId(), session.getTrack().getName(),
+                session.getStatus(), session.getStartTime(), session.getEndTime(), session.getMovesCount(),
+                session.getExecutionTimeMs(), session.getAttemptsCount(), session.getCellsVisited(),
+                session.getTotalCellsRequired(), session.getErrorPositionX(), session.getErrorPositionY(),
+                session.getErrorMessage(), session.getDeviceType(), session.getIpAddress(), session.getMovesSequence()
+        };
+    }
+
+    private static Object[] trackRow(Track track) {
+        return new Object[] {
+                track.getId(), track.getName(), track.getGridConfig(), track.getGridRows(), track.getGridCols(),
+                track.getStartX(), track.getStartY(), track.getStartDirection(), track.getDifficultyLevel(),
+                track.getDescription(), track.getIsActive(), track.getCreatedBy(), track.getCreatedAt(),
+                track.getUpdatedAt(), track.getDifficultyScore(), track.getOptimalMoves(), track.getOptimalLoopLength()
+        };
+    }
+
+    private interface RowWriter {
+        void header(String[] columns) throws IOException;
+
+        void row(String[] columns, Object[] values) throws IOException;
+
+        void flush() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            row(columns, columns);
+        }
+
+        @Override
+        public void row(String[] columns, Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values[i];
+                if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, JsonFactory factory) throws IOException {
+            this.generator = factory.createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void header(String[] columns) {
+            // NDJSON no lleva encabezado
+        }
+
+        @Override
+        public void row(String[] columns, Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = values[i];
+                generator.writeFieldName(columns[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long || value instanceof Integer) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Boolean) {
+                    generator.writeBoolean((Boolean) value);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.enable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.flush();
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeRaw('\n');
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.engine.ExecutionResult;
+import com.umg.game_for_devs.engine.Heading;
+import com.umg.game_for_devs.engine.MoveProgram;
+import com.umg.game_for_devs.engine.RobotInterpreter;
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.entity.Track;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Servicio que ejecuta los programas del robot en el servidor
+ * El resultado es la fuente de verdad para el estado de las sesiones de juego
+ */
+@Service
+public class GameEngineService {
+
+    @Autowired
+    private TrackGridCache trackGridCache;
+
+    /**
+     * Compila y ejecuta la secuencia de movimientos enviada por el cliente sobre la pista
+     */
+    public ExecutionResult simulate(Track track, String movesSequence) {
+        return simulate(track, MoveProgram.parse(movesSequence));
+    }
+
+    /**
+     * Ejecuta un programa ya compilado sobre la pista
+     */
+    public ExecutionResult simulate(Track track, MoveProgram program) {
+        return RobotInterpreter.run(trackGridCache.get(track),
+                track.getStartX(), track.getStartY(), Heading.fromName(track.getStartDirection()),
+                program, new ExecutionResult());
+    }
+    
+    /**
+     * Bitboard de la pista (desde la caché)
+     */
+    public TrackGrid getGrid(Track track) {
+        return trackGridCache.get(track);
+    }
+}
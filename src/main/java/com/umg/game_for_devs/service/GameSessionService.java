@@ -0,0 +1,247 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.engine.ExecutionResult;
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.entity.Track;
+import com.umg.game_for_devs.event.GameSessionEvent;
+import com.umg.game_for_devs.repository.GameSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Servicio para el ciclo de vida de las sesiones de juego públicas
+ * Las sesiones abiertas se mantienen en LiveSessionRegistry para que las actualizaciones no tengan que
+ * leerlas de la base de datos; la persistencia se delega en GameSessionWriteBehind
+ * Cada creación o cambio publica un GameSessionEvent con la contribución anterior y la nueva
+ * Las sesiones en curso sin señales de vida durante el plazo configurado pasan a ABANDONED
+ */
+@Service
+public class GameSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSessionService.class);
+
+    @Autowired
+    private GameSessionRepository gameSessionRepository;
+
+    @Autowired
+    private GameSessionWriteBehind gameSessionWriteBehind;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LiveSessionRegistry liveSessions;
+
+    @Autowired
+    private SessionRebuildCoordinator rebuildCoordinator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.sessions.open-session-ttl-minutes:60}")
+    private long openSessionTtlMinutes;
+
+    @Value("${game.sessions.stale-sweep.batch-size:500}")
+    private int staleSweepBatchSize;
+
+    @Value("${game.sessions.stale-sweep.max-per-run:5000}")
+    private int staleSweepMaxPerRun;
+
+    private Counter abandonedSessions;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("game.sessions.open", liveSessions, LiveSessionRegistry::size).register(meterRegistry);
+        abandonedSessions = meterRegistry.counter("game.sessions.abandoned");
+    }
+
+    /**
+     * Crear una sesión nueva para la pista y encolar su inserción
+     */
+    public GameSession startSession(Track track, String ipAddress, String userAgent, String deviceType,
+                                    Integer totalCellsRequired) {
+        GameSession session = new GameSession(UUID.randomUUID().toString(), track);
+        session.setIpAddress(ipAddress);
+        session.setUserAgent(userAgent);
+        session.setDeviceType(deviceType);
+        session.setTotalCellsRequired(totalCellsRequired);
+
+        liveSessions.register(session, System.currentTimeMillis());
+        rebuildCoordinator.runChange(() -> {
+            eventPublisher.publishEvent(GameSessionEvent.started(session));
+            gameSessionWriteBehind.enqueueInsert(session);
+        });
+        return session;
+    }
+
+    /**
+     * Buscar una sesión: primero entre las abiertas en memoria y, si no está, en la base de datos
+     * Solo las sesiones en curso vuelven al registro; las terminadas o abandonadas se devuelven tal cual para
+     * que la rueda de tiempo no las vuelva a procesar
+     */
+    public Optional<GameSession> findSession(String sessionId) {
+        GameSession session = liveSessions.get(sessionId);
+        if (session != null) {
+            return Optional.of(session);
+        }
+
+        Optional<GameSession> stored = gameSessionRepository.findWithTrackBySessionId(sessionId);
+        return stored.map(s -> s.getStatus() == GameSession.GameStatus.IN_PROGRESS
+                ? liveSessions.register(s, System.currentTimeMillis()) : s);
+    }
+
+    /**
+     * Señal de vida de una sesión abierta; solo actualiza memoria
+     * Devuelve false si la sesión no está abierta (terminó, fue abandonada o no existe)
+     */
+    public boolean heartbeat(String sessionId) {
+        return liveSessions.touch(sessionId, System.currentTimeMillis());
+    }
+
+    /**
+     * Aplicar cambios a una sesión bajo su lock, publicar el evento correspondiente y registrarlos
+     * El evento sale antes que la escritura para que SessionRebuildCoordinator lo vea antes que la fila
+     */
+    public void updateSession(GameSession session, Consumer<GameSession> changes) {
+        updateSession(session, null, null, changes);
+    }
+
+    /**
+     * Igual que updateSession, con la ejecución que decidió el resultado; viaja en el evento para que los
+     * consumidores (mapas de calor) no vuelvan a ejecutar el programa
+     */
+    public void updateSession(GameSession session, ExecutionResult execution, TrackGrid executionGrid,
+                              Consumer<GameSession> changes) {
+        rebuildCoordinator.runChange(() -> {
+            GameSessionEvent event;
+            synchronized (session) {
+                GameSessionEvent.Contribution previous = GameSessionEvent.Contribution.of(session);
+                changes.accept(session);
+                event = GameSessionEvent.updated(session, previous, execution, executionGrid);
+            }
+            eventPublisher.publishEvent(event);
+            saveSession(session);
+        });
+    }
+
+    /**
+     * Guardar de forma síncrona una sesión creada fuera del flujo de /api/game y publicar su evento
+     */
+    public GameSession recordSession(GameSession session) {
+        GameSession[] saved = new GameSession[1];
+        rebuildCoordinator.runChange(() -> {
+            saved[0] = gameSessionRepository.save(session);
+            eventPublisher.publishEvent(GameSessionEvent.started(saved[0]));
+        });
+        return saved[0];
+    }
+
+    /**
+     * Registrar los cambios de una sesión ya modificada
+     */
+    private void saveSession(GameSession session) {
+        gameSessionWriteBehind.enqueueUpdate(session);
+
+        // Una sesión completada ya no recibe más cambios
+        if (session.getStatus() == GameSession.GameStatus.SUCCESS) {
+            liveSessions.remove(session);
+        } else {
+            liveSessions.touch(session.getSessionId(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Sesiones abiertas en este momento (jugadores activos)
+     */
+    public int getOpenSessionCount() {
+        return liveSessions.size();
+    }
+
+    /**
+     * Marcar como abandonadas las sesiones cuyo plazo venció en la rueda de tiempo
+     * Las actualizaciones se escriben en lote a través de GameSessionWriteBehind
+     */
+    @Scheduled(fixedDelayString = "${game.sessions.wheel-tick-ms:5000}")
+    public void sweepIdleSessions() {
+        List<GameSession> expired = liveSessions.expire(System.currentTimeMillis());
+        int abandoned = 0;
+        for (GameSession session : expired) {
+            if (abandon(session)) {
+                abandoned++;
+            }
+        }
+        if (abandoned > 0) {
+            log.info("{} sesiones sin actividad marcadas como abandonadas", abandoned);
+        }
+    }
+
+    /**
+     * Marcar como abandonadas las sesiones en curso de la base de datos que no están abiertas en memoria
+     * (por ejemplo las que quedaron de antes de un reinicio) y que iniciaron hace más de open-session-ttl-minutes
+     */
+    @Scheduled(initialDelayString = "${game.sessions.stale-sweep.initial-delay-ms:30000}",
+               fixedDelayString = "${game.sessions.stale-sweep.interval-ms:600000}")
+    public void sweepStaleSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(openSessionTtlMinutes);
+        long lastId = 0;
+        int abandoned = 0;
+        while (abandoned < staleSweepMaxPerRun) {
+            List<GameSession> page = gameSessionRepository.findStaleInProgress(cutoff, lastId,
+                    PageRequest.of(0, staleSweepBatchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (GameSession session : page) {
+                lastId = session.getId();
+                if (!liveSessions.contains(session.getSessionId()) && abandon(session)) {
+                    abandoned++;
+                }
+            }
+        }
+        if (abandoned > 0) {
+            log.info("{} sesiones en curso de la base de datos marcadas como abandonadas", abandoned);
+        }
+    }
+
+    // Métodos auxiliares
+
+    private boolean abandon(GameSession session) {
+        boolean[] abandoned = {false};
+        rebuildCoordinator.runChange(() -> {
+            GameSessionEvent event;
+            synchronized (session) {
+                if (session.getStatus() != GameSession.GameStatus.IN_PROGRESS) {
+                    return;
+                }
+                GameSessionEvent.Contribution previous = GameSessionEvent.Contribution.of(session);
+                session.setStatus(GameSession.GameStatus.ABANDONED);
+                session.setEndTime(LocalDateTime.now());
+                event = GameSessionEvent.updated(session, previous);
+            }
+            eventPublisher.publishEvent(event);
+            gameSessionWriteBehind.enqueueUpdate(session);
+            abandoned[0] = true;
+        });
+        if (abandoned[0]) {
+            abandonedSessions.increment();
+        }
+        return abandoned[0];
+    }
+}
@@ -0,0 +1,411 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.GameSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escritura diferida (write-behind) de sesiones de juego
+ * Los cambios se agrupan por sessionId en memoria y un hilo dedicado los escribe con
+ * inserts/updates JDBC en lote cada flush-interval-ms o al juntar batch-size sesiones.
+ * La cola está acotada: si se llena, el llamador espera offer-timeout-ms y luego el evento se descarta
+ */
+@Service
+public class GameSessionWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSessionWriteBehind.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO game_sessions (session_id, track_id, start_time, end_time, status, moves_count, " +
+            "execution_time_ms, error_position_x, error_position_y, error_message, ip_address, user_agent, " +
+            "screen_resolution, device_type, moves_sequence, moves_encoded, attempts_count, cells_visited, " +
+            "total_cells_required) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE game_sessions SET end_time = ?, status = ?, moves_count = ?, execution_time_ms = ?, " +
+            "error_position_x = ?, error_position_y = ?, error_message = ?, moves_sequence = ?, moves_encoded = ?, " +
+            "attempts_count = ?, cells_visited = ?, total_cells_required = ? WHERE session_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.sessions.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${game.sessions.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${game.sessions.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${game.sessions.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${game.sessions.write-behind.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${game.sessions.write-behind.flush-on-terminal-status:true}")
+    private boolean flushOnTerminalStatus;
+
+    @Value("${game.sessions.write-behind.terminal-flush-timeout-ms:2000}")
+    private long terminalFlushTimeoutMs;
+
+    private final ConcurrentMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final Condition flushCompleted = lock.newCondition();
+    private boolean flushRequested;
+    private boolean flushInProgress;
+    private long completedFlushes;
+
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private Counter droppedEvents;
+    private Counter coalescedEvents;
+    private Counter writtenRows;
+    private Counter orphanUpdates;
+    private Timer flushLatency;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("game.sessions.writebehind.queue.depth", depth, AtomicInteger::get)
+                .description("Sesiones con cambios pendientes de escribir")
+                .register(meterRegistry);
+        droppedEvents = Counter.builder("game.sessions.writebehind.dropped")
+                .description("Eventos descartados por cola llena o error de escritura")
+                .register(meterRegistry);
+        coalescedEvents = Counter.builder("game.sessions.writebehind.coalesced")
+                .description("Eventos fusionados con un cambio pendiente de la misma sesión")
+                .register(meterRegistry);
+        writtenRows = Counter.builder("game.sessions.writebehind.written")
+                .register(meterRegistry);
+        orphanUpdates = Counter.builder("game.sessions.writebehind.orphans")
+                .description("Updates que no encontraron la sesión en la base de datos")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("game.sessions.writebehind.flush.latency")
+                .register(meterRegistry);
+
+        if (enabled) {
+            running = true;
+            flusher = new Thread(this::runFlusher, "session-write-behind");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        lock.lock();
+        try {
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encolar la creación de una sesión nueva
+     */
+    public boolean enqueueInsert(GameSession session) {
+        return enqueue(session, true);
+    }
+
+    /**
+     * Encolar la actualización de una sesión existente
+     */
+    public boolean enqueueUpdate(GameSession session) {
+        return enqueue(session, false);
+    }
+
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Escribir ya lo encolado hasta ahora y esperar a que termine (hasta terminal-flush-timeout-ms)
+     */
+    public void flushNow() {
+        if (flusher != null && running) {
+            awaitFlush();
+        }
+    }
+
+    private boolean enqueue(GameSession session, boolean insert) {
+        if (!enabled) {
+            writeSynchronously(session, insert);
+            return true;
+        }
+
+        String sessionId = session.getSessionId();
+        if (!pending.containsKey(sessionId) && !awaitCapacity()) {
+            droppedEvents.increment();
+            log.warn("Cola de sesiones llena, se descarta el evento de la sesión {}", sessionId);
+            return false;
+        }
+
+        boolean[] added = {false};
+        pending.compute(sessionId, (key, existing) -> {
+            if (existing == null) {
+                added[0] = true;
+                return new PendingWrite(session, insert);
+            }
+            // Un insert pendiente absorbe los updates posteriores: se escribe una sola fila con el estado final
+            existing.session = session;
+            existing.insert |= insert;
+            return existing;
+        });
+
+        if (added[0]) {
+            if (depth.incrementAndGet() >= batchSize) {
+                signalWork(false);
+            }
+        } else {
+            coalescedEvents.increment();
+        }
+
+        if (flushOnTerminalStatus && isTerminal(session.getStatus())) {
+            awaitFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Espera a que haya lugar en la cola (contrapresión)
+     */
+    private boolean awaitCapacity() {
+        if (depth.get() < capacity) {
+            return true;
+        }
+        signalWork(true);
+        long remaining = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        lock.lock();
+        try {
+            while (depth.get() >= capacity && remaining > 0) {
+                remaining = spaceAvailable.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        return depth.get() < capacity;
+    }
+
+    /**
+     * Fuerza un flush y espera a que termine uno que incluya lo encolado hasta ahora
+     */
+    private void awaitFlush() {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(terminalFlushTimeoutMs);
+        lock.lock();
+        try {
+            // Si hay un flush en curso puede haber drenado la cola antes de este evento
+            long target = completedFlushes + (flushInProgress ? 2 : 1);
+            flushRequested = true;
+            workAvailable.signalAll();
+            while (completedFlushes < target && remaining > 0) {
+                remaining = flushCompleted.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalWork(boolean urgent) {
+        lock.lock();
+        try {
+            if (urgent) {
+                flushRequested = true;
+            }
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        while (running || depth.get() > 0) {
+            lock.lock();
+            try {
+                if (running && !flushRequested && depth.get() < batchSize) {
+                    workAvailable.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+                }
+                flushRequested = false;
+                flushInProgress = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (depth.get() > 0) {
+                    flushLatency.record(this::flush);
+                }
+            } catch (Exception e) {
+                log.error("Error en el flush de sesiones de juego", e);
+            } finally {
+                lock.lock();
+                try {
+                    completedFlushes++;
+                    flushInProgress = false;
+                    flushCompleted.signalAll();
+                    spaceAvailable.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drena la cola y escribe inserts y updates en lotes dentro de una transacción
+     */
+    private void flush() {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (String sessionId : pending.keySet()) {
+            PendingWrite write = pending.remove(sessionId);
+            if (write == null) {
+                continue;
+            }
+            depth.decrementAndGet();
+            synchronized (write.session) {
+                if (write.insert) {
+                    inserts.add(insertParams(write.session));
+                } else {
+                    updates.add(updateParams(write.session));
+                }
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                writeBatches(INSERT_SQL, inserts);
+                writeBatches(UPDATE_SQL, updates);
+            });
+        } catch (Exception e) {
+            log.warn("Falló la escritura en lote de sesiones ({}), reintentando fila por fila", e.getMessage());
+            writeRowByRow(INSERT_SQL, inserts);
+            writeRowByRow(UPDATE_SQL, updates);
+        }
+    }
+
+    private void writeBatches(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> chunk = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            int[] counts = jdbcTemplate.batchUpdate(sql, chunk);
+            for (int count : counts) {
+                if (count == 0) {
+                    orphanUpdates.increment();
+                }
+            }
+            writtenRows.increment(chunk.size());
+        }
+    }
+
+    private void writeRowByRow(String sql, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            try {
+                if (jdbcTemplate.update(sql, row) == 0) {
+                    orphanUpdates.increment();
+                }
+                writtenRows.increment();
+            } catch (Exception e) {
+                droppedEvents.increment();
+                log.error("No se pudo escribir la sesión de juego: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void writeSynchronously(GameSession session, boolean insert) {
+        Object[] params;
+        synchronized (session) {
+            params = insert ? insertParams(session) : updateParams(session);
+        }
+        if (jdbcTemplate.update(insert ? INSERT_SQL : UPDATE_SQL, params) == 0) {
+            orphanUpdates.increment();
+        }
+        writtenRows.increment();
+    }
+
+    private static Object[] insertParams(GameSession s) {
+        return new Object[] {
+            s.getSessionId(), s.getTrack().getId(), s.getStartTime(), s.getEndTime(), s.getStatus().name(),
+            s.getMovesCount(), s.getExecutionTimeMs(), s.getErrorPositionX(), s.getErrorPositionY(),
+            s.getErrorMessage(), s.getIpAddress(), s.getUserAgent(), s.getScreenResolution(), s.getDeviceType(),
+            s.getLegacyMovesSequence(), s.getMovesEncoded(), s.getAttemptsCount(), s.getCellsVisited(),
+            s.getTotalCellsRequired()
+        };
+    }
+
+    private static Object[] updateParams(GameSession s) {
+        return new Object[] {
+            s.getEndTime(), s.getStatus().name(), s.getMovesCount(), s.getExecutionTimeMs(),
+            s.getErrorPositionX(), s.getErrorPositionY(), s.getErrorMessage(), s.getLegacyMovesSequence(),
+            s.getMovesEncoded(), s.getAttemptsCount(), s.getCellsVisited(), s.getTotalCellsRequired(), s.getSessionId()
+        };
+    }
+
+    private static boolean isTerminal(GameSession.GameStatus status) {
+        return status == GameSession.GameStatus.SUCCESS || status == GameSession.GameStatus.FAILED;
+    }
+
+    /**
+     * Cambio pendiente de una sesión (ya fusionado)
+     */
+    private static final class PendingWrite {
+        private GameSession session;
+        private boolean insert;
+
+        private PendingWrite(GameSession session, boolean insert) {
+            this.session = session;
+            this.insert = insert;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.umg.game_for_devs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro diferido de users.last_login
+ * Solo las autenticaciones exitosas marcan el login; varios logins del mismo usuario entre volcados
+ * se fusionan en uno y el volcado escribe todos los pendientes en un único UPDATE por lotes
+ */
+@Service
+public class LastLoginUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginUpdater.class);
+
+    private static final String UPDATE_SQL = "UPDATE users SET last_login = ? WHERE username = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private Counter flushedLogins;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("game.users.last-login.pending", pending, Map::size).register(meterRegistry);
+        flushedLogins = meterRegistry.counter("game.users.last-login.flushed");
+    }
+
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        record(event.getAuthentication().getName(), LocalDateTime.now());
+    }
+
+    /**
+     * Marcar un login; si ya había uno pendiente del mismo usuario se conserva el más reciente
+     */
+    public void record(String username, LocalDateTime loginTime) {
+        if (username != null) {
+            pending.merge(username, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+        }
+    }
+
+    /**
+     * Escribir los logins pendientes
+     */
+    @Scheduled(fixedDelayString = "${game.security.last-login.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            writePending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    // Métodos auxiliares
+
+    private void writePending() {
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            // remove(key, value) no descarta un login que llegó después de leer la entrada
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(new Object[] {Timestamp.valueOf(entry.getValue()), entry.getKey()});
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            flushedLogins.increment(batch.size());
+        } catch (Exception e) {
+            log.error("No se pudo registrar el último login de {} usuarios: {}", batch.size(), e.getMessage());
+            for (Object[] row : batch) {
+                record((String) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.event.AuditLogEvent;
+import com.umg.game_for_devs.event.GameSessionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feed en vivo del panel de administración por Server-Sent Events
+ * Las métricas se calculan en memoria a partir de GameSessionEvent, AuditLogEvent y LiveSessionRegistry
+ * (sin consultas a la base de datos)
+ * y se envían como deltas; cada suscriptor tiene un buffer acotado y el que no lo vacía a tiempo se desconecta
+ * Los envíos y cierres de cada suscriptor corren en su propia tarea serial del pool de envío, nunca en el scheduler:
+ * un socket trabado solo retiene su propio hilo, y el que pasa más de send-timeout-ms en un envío se da por muerto
+ */
+@Service
+public class LiveFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveFeedService.class);
+
+    private static final int WINDOW_MINUTES = 60;
+    private static final int RATE_MINUTES = 5;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LiveSessionRegistry liveSessions;
+
+    @Value("${game.live-feed.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${game.live-feed.max-subscribers:100}")
+    private int maxSubscribers;
+
+    @Value("${game.live-feed.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${game.live-feed.sender-threads:2}")
+    private int senderThreads;
+
+    @Value("${game.live-feed.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${game.live-feed.recent-audit-size:10}")
+    private int recentAuditSize;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Queue<Map<String, Object>> pendingAudit = new ConcurrentLinkedQueue<>();
+    private final List<Map<String, Object>> recentAudit = new ArrayList<>();
+
+    // Ventana de una hora en buckets de un minuto: inicios, éxitos y fallos
+    private final long[] bucketMinute = new long[WINDOW_MINUTES];
+    private final long[] started = new long[WINDOW_MINUTES];
+    private final long[] succeeded = new long[WINDOW_MINUTES];
+    private final long[] failed = new long[WINDOW_MINUTES];
+
+    private volatile Map<String, Object> lastStats = Map.of();
+
+    private ThreadPoolExecutor sender;
+    private Counter evicted;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        // Cada suscriptor tiene a lo sumo una tarea de envío y una de cierre en curso: el pool crece hasta ese
+        // límite en lugar de encolar, así un envío bloqueado no deja a los demás suscriptores esperando un hilo
+        sender = new ThreadPoolExecutor(senderThreads, Math.max(senderThreads, 2 * maxSubscribers),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "live-feed-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("game.live-feed.subscribers", subscribers, Set::size).register(meterRegistry);
+        evicted = meterRegistry.counter("game.live-feed.evicted");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> close(subscriber, false));
+        sender.shutdown();
+    }
+
+    /**
+     * Abrir una conexión SSE; devuelve null si ya se alcanzó el máximo de suscriptores
+     * El primer mensaje es el estado completo (snapshot) y después llegan deltas "stats" y "audit"
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> discard(subscriber));
+        emitter.onTimeout(() -> discard(subscriber));
+        emitter.onError(error -> discard(subscriber));
+        subscribers.add(subscriber);
+
+        Map<String, Object> snapshot = new LinkedHashMap<>(computeStats(System.currentTimeMillis()));
+        synchronized (recentAudit) {
+            snapshot.put("recentAudit", new ArrayList<>(recentAudit));
+        }
+        deliver(subscriber, SseEmitter.event().name("snapshot").data(snapshot, MediaType.APPLICATION_JSON).build());
+        return emitter;
+    }
+
+    @EventListener
+    public void onSessionEvent(GameSessionEvent event) {
+        long now = System.currentTimeMillis();
+        synchronized (bucketMinute) {
+            int slot = slot(now);
+            if (event.getType() == GameSessionEvent.Type.STARTED) {
+                started[slot]++;
+            }
+            if (event.isStatusChange() && event.isTerminal()) {
+                if (event.getCurrent().getStatus() == GameSession.GameStatus.SUCCESS) {
+                    succeeded[slot]++;
+                } else {
+                    failed[slot]++;
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onAuditEvent(AuditLogEvent event) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("username", event.getUsername());
+        entry.put("action", event.getAction());
+        entry.put("actionType", event.getActionType() != null ? event.getActionType().name() : null);
+        entry.put("status", event.getStatus() != null ? event.getStatus().name() : null);
+        entry.put("resourceName", event.getResourceName());
+        entry.put("timestamp", event.getTimestamp());
+        pendingAudit.add(entry);
+        synchronized (recentAudit) {
+            recentAudit.add(0, entry);
+            if (recentAudit.size() > recentAuditSize) {
+                recentAudit.remove(recentAudit.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Enviar los cambios acumulados desde el último tick
+     */
+    @Scheduled(fixedDelayString = "${game.live-feed.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        closeStalled(now);
+        List<Map<String, Object>> audit = new ArrayList<>();
+        for (Map<String, Object> entry; (entry = pendingAudit.poll()) != null; ) {
+            audit.add(entry);
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (Map<String, Object> entry : audit) {
+            broadcast(SseEmitter.event().name("audit").data(entry, MediaType.APPLICATION_JSON));
+        }
+
+        // Las tasas cambian también cuando un minuto sale de la ventana, no solo con eventos nuevos
+        Map<String, Object> stats = computeStats(now);
+        if (!stats.equals(lastStats)) {
+            lastStats = stats;
+            broadcast(SseEmitter.event().name("stats").data(stats, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Comentario periódico para detectar conexiones cerradas por el cliente o un proxy
+     */
+    @Scheduled(fixedDelayString = "${game.live-feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        broadcast(SseEmitter.event().comment("ping"));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Métodos auxiliares
+
+    private Map<String, Object> computeStats(long now) {
+        long currentMinute = now / 60_000;
+        long startedLastRate = 0;
+        long startedWindow = 0;
+        long successWindow = 0;
+        long failedWindow = 0;
+        synchronized (bucketMinute) {
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                long age = currentMinute - bucketMinute[i];
+                if (age < 0 || age >= WINDOW_MINUTES) {
+                    continue;
+                }
+                startedWindow += started[i];
+                successWindow += succeeded[i];
+                failedWindow += failed[i];
+                if (age < RATE_MINUTES) {
+                    startedLastRate += started[i];
+                }
+            }
+        }
+        long finished = successWindow + failedWindow;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessionsPerMinute", Math.round((double) startedLastRate / RATE_MINUTES * 10) / 10.0);
+        stats.put("sessionsLastHour", startedWindow);
+        stats.put("finishedLastHour", finished);
+        stats.put("successRate", finished > 0 ? Math.round((double) successWindow / finished * 1000) / 10.0 : 0.0);
+        stats.put("activePlayers", liveSessions.size());
+        return stats;
+    }
+
+    private int slot(long now) {
+        long minute = now / 60_000;
+        int slot = (int) (minute % WINDOW_MINUTES);
+        if (bucketMinute[slot] != minute) {
+            bucketMinute[slot] = minute;
+            started[slot] = 0;
+            succeeded[slot] = 0;
+            failed[slot] = 0;
+        }
+        return slot;
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        // build() no es idempotente: el mensaje se arma una vez y se comparte entre suscriptores
+        Set<ResponseBodyEmitter.DataWithMediaType> message = event.build();
+        for (Subscriber subscriber : subscribers) {
+            deliver(subscriber, message);
+        }
+    }
+
+    private void deliver(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.buffer.offer(message)) {
+            // Suscriptor lento: se desconecta en lugar de acumular mensajes; EventSource se reconecta y recibe un snapshot
+            evicted.increment();
+            close(subscriber, false);
+            log.debug("Suscriptor del feed en vivo desconectado por no consumir {} mensajes", bufferSize);
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+                discard(subscriber);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            for (Set<ResponseBodyEmitter.DataWithMediaType> message;
+                 !subscriber.closed.get() && (message = subscriber.buffer.poll()) != null; ) {
+                subscriber.sendingSince = System.currentTimeMillis();
+                subscriber.emitter.send(message);
+                subscriber.sendingSince = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            discard(subscriber);
+        } finally {
+            subscriber.sendingSince = 0;
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.buffer.isEmpty() && !subscriber.closed.get()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    /**
+     * Dar por muertos a los suscriptores con un envío en curso desde hace más de send-timeout-ms
+     */
+    private void closeStalled(long now) {
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since > 0 && now - since > sendTimeoutMs) {
+                evicted.increment();
+                close(subscriber, true);
+                log.debug("Suscriptor del feed en vivo desconectado por un envío trabado más de {} ms", sendTimeoutMs);
+            }
+        }
+    }
+
+    /**
+     * Marcar al suscriptor como muerto y cerrar su emisor en el pool de envío
+     * complete() espera el mismo lock que un send() trabado, así que nunca se llama desde el scheduler
+     */
+    private void close(Subscriber subscriber, boolean withError) {
+        if (!discard(subscriber)) {
+            return;
+        }
+        try {
+            sender.execute(() -> {
+                if (withError) {
+                    subscriber.emitter.completeWithError(new IOException("Envío al suscriptor sin progreso"));
+                } else {
+                    subscriber.emitter.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("No se pudo programar el cierre de un suscriptor del feed en vivo: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Quitar al suscriptor sin tocar su emisor; devuelve false si ya estaba cerrado
+     */
+    private boolean discard(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscribers.remove(subscriber);
+        subscriber.buffer.clear();
+        return true;
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Inicio del envío en curso (0 si no hay ninguno); lo revisa closeStalled
+        private volatile long sendingSince;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.GameSession;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro en memoria de las sesiones de juego abiertas
+ * Cada sesión vence idle-timeout-ms después de su última señal de vida (inicio, actualización o latido);
+ * los vencimientos se agrupan en una rueda de tiempo con buckets de wheel-tick-ms, así que un latido solo
+ * escribe en memoria y el barrido revisa únicamente los buckets que ya pasaron
+ * El registro admite hasta max-open sesiones; las que llegan con el registro lleno no se siguen en memoria y
+ * quedan a cargo del barrido de sesiones en curso de la base de datos
+ */
+@Component
+public class LiveSessionRegistry {
+
+    @Value("${game.sessions.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${game.sessions.wheel-tick-ms:5000}")
+    private long tickMs;
+
+    @Value("${game.sessions.max-open:10000}")
+    private int maxOpen;
+
+    private final ConcurrentMap<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    private Queue<String>[] wheel;
+    private long sweptTick;
+
+    public LiveSessionRegistry() {
+        this.clock = Clock.systemUTC();
+    }
+
+    /**
+     * Registro con parámetros y reloj explícitos (pruebas)
+     */
+    LiveSessionRegistry(long idleTimeoutMs, long tickMs, int maxOpen, Clock clock) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.tickMs = tickMs;
+        this.maxOpen = maxOpen;
+        this.clock = clock;
+        init();
+    }
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    void init() {
+        // Un bucket más que el plazo máximo para que un vencimiento nunca caiga en el bucket que se está barriendo
+        int size = (int) (idleTimeoutMs / tickMs) + 2;
+        wheel = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        sweptTick = clock.millis() / tickMs;
+    }
+
+    /**
+     * Registrar una sesión abierta; si ya había una con el mismo id se conserva la existente
+     * Con el registro lleno la sesión se devuelve sin registrarla
+     */
+    public GameSession register(GameSession session, long now) {
+        Entry entry = sessions.get(session.getSessionId());
+        if (entry == null) {
+            if (sessions.size() >= maxOpen) {
+                return session;
+            }
+            entry = sessions.computeIfAbsent(session.getSessionId(), id -> new Entry(session));
+        }
+        schedule(session.getSessionId(), entry, now);
+        return entry.session;
+    }
+
+    public GameSession get(String sessionId) {
+        Entry entry = sessions.get(sessionId);
+        return entry != null ? entry.session : null;
+    }
+
+    /**
+     * Extender el plazo de una sesión; false si no está abierta en memoria
+     */
+    public boolean touch(String sessionId, long now) {
+        Entry entry = sessions.get(sessionId);
+        if (entry == null) {
+            return false;
+        }
+        schedule(sessionId, entry, now);
+        return true;
+    }
+
+    public void remove(GameSession session) {
+        Entry entry = sessions.get(session.getSessionId());
+        if (entry != null && entry.session == session) {
+            sessions.remove(session.getSessionId(), entry);
+        }
+    }
+
+    public boolean contains(String sessionId) {
+        return sessions.containsKey(sessionId);
+    }
+
+    /**
+     * Sesiones abiertas en este momento
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Retirar y devolver las sesiones cuyo plazo venció hasta now
+     * Debe llamarse desde un solo hilo (el barrido programado)
+     */
+    public synchronized List<GameSession> expire(long now) {
+        List<GameSession> expired = new ArrayList<>();
+        long currentTick = now / tickMs;
+        // Si el barrido se atrasó más de una vuelta basta con recorrer la rueda una vez
+        long from = Math.max(sweptTick + 1, currentTick - wheel.length + 1);
+        for (long tick = from; tick <= currentTick; tick++) {
+            int index = (int) (tick % wheel.length);
+            Queue<String> bucket = wheel[index];
+            List<String> nextTurn = new ArrayList<>();
+            for (String sessionId; (sessionId = bucket.poll()) != null; ) {
+                Entry entry = sessions.get(sessionId);
+                if (entry == null) {
+                    continue;
+                }
+                long entryTick = entry.tick.get();
+                if (entryTick > currentTick) {
+                    // Si el barrido va atrasado, el bucket ya puede tener entradas de la vuelta siguiente: se
+                    // conservan; las reprogramadas a otro bucket son copias viejas y se descartan
+                    if (entryTick % wheel.length == index) {
+                        nextTurn.add(sessionId);
+                    }
+                    continue;
+                }
+                if (entry.deadline > now) {
+                    // Latido concurrente con el barrido: se revisa en el próximo tick
+                    wheel[(int) ((currentTick + 1) % wheel.length)].add(sessionId);
+                } else if (sessions.remove(sessionId, entry)) {
+                    expired.add(entry.session);
+                }
+            }
+            bucket.addAll(nextTurn);
+        }
+        sweptTick = currentTick;
+        return expired;
+    }
+
+    // Métodos auxiliares
+
+    private void schedule(String sessionId, Entry entry, long now) {
+        long deadline = now + idleTimeoutMs;
+        long tick = (deadline + tickMs - 1) / tickMs;
+        entry.deadline = deadline;
+        // Solo se encola cuando el vencimiento cambia de bucket: varios latidos seguidos no agregan entradas
+        if (entry.tick.getAndSet(tick) != tick) {
+            wheel[(int) (tick % wheel.length)].add(sessionId);
+        }
+    }
+
+    private static final class Entry {
+        private final GameSession session;
+        private final AtomicLong tick = new AtomicLong(-1);
+        private volatile long deadline;
+
+        private Entry(GameSession session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.engine.MoveCodec;
+import com.umg.game_for_devs.engine.MoveProgram;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Migración de game_sessions.moves_sequence (JSON) a moves_encoded (MoveCodec)
+ * Recorre la tabla por id en lotes de batch-size; cada ejecución programada avanza max-batches-per-run lotes
+ * y la pasada termina cuando ya no quedan filas. Las filas con JSON inválido se dejan como están
+ */
+@Service
+public class MovesSequenceMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovesSequenceMigrationService.class);
+
+    private static final String SCAN_SQL =
+            "SELECT id, moves_sequence FROM game_sessions " +
+            "WHERE id > ? AND moves_encoded IS NULL AND moves_sequence IS NOT NULL ORDER BY id LIMIT ?";
+
+    // moves_encoded IS NULL evita pisar una secuencia nueva escrita mientras tanto
+    private static final String UPDATE_SQL =
+            "UPDATE game_sessions SET moves_encoded = ?, moves_sequence = NULL WHERE id = ? AND moves_encoded IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.moves.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${game.moves.migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${game.moves.migration.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private long lastId;
+    private boolean completed;
+
+    private Counter migratedRows;
+    private Counter skippedRows;
+
+    @PostConstruct
+    void init() {
+        migratedRows = meterRegistry.counter("game.moves.migration.migrated");
+        skippedRows = meterRegistry.counter("game.moves.migration.skipped");
+    }
+
+    /**
+     * Avanzar la migración en segundo plano hasta completar una pasada
+     */
+    @Scheduled(initialDelayString = "${game.moves.migration.initial-delay-ms:10000}",
+               fixedDelayString = "${game.moves.migration.interval-ms:60000}")
+    public void migrateScheduled() {
+        if (!enabled || completed || !runLock.tryLock()) {
+            return;
+        }
+        try {
+            migrate(maxBatchesPerRun);
+        } catch (Exception e) {
+            log.error("Falló la migración de secuencias de movimientos: {}", e.getMessage());
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Migrar todas las filas pendientes desde el inicio de la tabla
+     */
+    public Map<String, Object> migrateAll() {
+        runLock.lock();
+        try {
+            lastId = 0;
+            completed = false;
+            return migrate(Integer.MAX_VALUE);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    // Métodos auxiliares
+
+    private Map<String, Object> migrate(int maxBatches) {
+        long migrated = 0;
+        long skipped = 0;
+        long jsonBytes = 0;
+        long encodedBytes = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(SCAN_SQL, lastId, batchSize);
+            if (rows.isEmpty()) {
+                completed = true;
+                log.info("Migración de secuencias de movimientos completada");
+                break;
+            }
+
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                String json = String.valueOf(row.get("moves_sequence"));
+                lastId = id;
+                try {
+                    byte[] encoded = MoveCodec.encode(MoveProgram.parse(json));
+                    updates.add(new Object[] {encoded, id});
+                    jsonBytes += json.length();
+                    encodedBytes += encoded.length;
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    log.warn("Sesión {} con secuencia de movimientos inválida, se deja sin migrar: {}", id, e.getMessage());
+                }
+            }
+            if (!updates.isEmpty()) {
+                int[] results = jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                for (int result : results) {
+                    // En lotes JDBC algunos drivers devuelven SUCCESS_NO_INFO (-2)
+                    if (result != 0) {
+                        migrated++;
+                    }
+                }
+            }
+        }
+
+        migratedRows.increment(migrated);
+        skippedRows.increment(skipped);
+        if (migrated > 0) {
+            log.info("Migradas {} secuencias de movimientos ({} bytes JSON -> {} bytes codificados)",
+                    migrated, jsonBytes, encodedBytes);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("migrated", migrated);
+        result.put("skipped", skipped);
+        result.put("jsonBytes", jsonBytes);
+        result.put("encodedBytes", encodedBytes);
+        result.put("completed", completed);
+        return result;
+    }
+}
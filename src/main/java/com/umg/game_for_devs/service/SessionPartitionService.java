@@ -0,0 +1,431 @@
+package com.umg.game_for_devs.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.game_for_devs.entity.GameSessionArchive;
+import com.umg.game_for_devs.entity.SessionPartition;
+import com.umg.game_for_devs.repository.GameSessionArchiveRepository;
+import com.umg.game_for_devs.repository.SessionPartitionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Particionado mensual de game_sessions por start_time, administrado por la aplicación
+ * - Las particiones se registran con months-ahead meses de anticipación y se cierran (midiendo su rango de ids)
+ *   cuando el mes terminó hace más de close-grace-hours, para no dejar fuera inserciones demoradas
+ * - Las particiones cerradas con más de hot-months meses de antigüedad se archivan: sus filas se copian como
+ *   NDJSON comprimido a game_session_archives en bloques de archive.chunk-size y se borran de game_sessions,
+ *   así la tabla caliente solo guarda los meses recientes
+ * - Los archivos con más de archive.retention-months meses se eliminan (0 los conserva indefinidamente)
+ * Las consultas sobre game_sessions acotan su ventana con clampToHot para no recorrer meses archivados; los
+ * agregados de estadísticas se conservan y sus reconstrucciones leen también los archivos (forEachArchivedSession)
+ */
+@Service
+public class SessionPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionPartitionService.class);
+
+    private static final Set<String> TIME_COLUMNS = Set.of("start_time", "end_time");
+    private static final String BINARY_COLUMN = "moves_encoded";
+
+    private static final String CHUNK_SQL =
+            "SELECT * FROM game_sessions WHERE start_time >= ? AND start_time < ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String DELETE_CHUNK_SQL =
+            "DELETE FROM game_sessions WHERE start_time >= ? AND start_time < ? AND id > ? AND id <= ?";
+
+    private static final String MEASURE_SQL =
+            "SELECT MIN(id), MAX(id), COUNT(*) FROM game_sessions WHERE start_time >= ? AND start_time < ?";
+
+    @Autowired
+    private SessionPartitionRepository sessionPartitionRepository;
+
+    @Autowired
+    private GameSessionArchiveRepository gameSessionArchiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.sessions.partitions.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${game.sessions.partitions.hot-months:3}")
+    private int hotMonths;
+
+    @Value("${game.sessions.partitions.close-grace-hours:24}")
+    private long closeGraceHours;
+
+    @Value("${game.sessions.partitions.maintain-on-startup:true}")
+    private boolean maintainOnStartup;
+
+    @Value("${game.sessions.archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${game.sessions.archive.retention-months:0}")
+    private int archiveRetentionMonths;
+
+    // Una sola pasada de mantenimiento: dos a la vez archivarían o borrarían el mismo mes
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+
+    // Inicio de la primera partición no archivada; null mientras no haya meses archivados
+    private volatile LocalDateTime hotStart;
+    private volatile long archivedBytes;
+    private volatile LocalDateTime lastMaintenanceAt;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("game.sessions.partitions.archived-bytes", this, SessionPartitionService::getArchivedBytes)
+                .description("Tamaño comprimido de las sesiones archivadas")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        if (!maintainOnStartup) {
+            refreshCatalog();
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.error("Falló el mantenimiento inicial de particiones de sesiones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registrar particiones futuras, cerrar los meses terminados, archivar los antiguos y aplicar la retención
+     */
+    @Scheduled(cron = "${game.sessions.partitions.maintenance-cron:0 15 3 * * *}")
+    public Map<String, Object> maintain() {
+        maintenanceLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate currentMonth = now.toLocalDate().withDayOfMonth(1);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("created", createPartitions(currentMonth));
+
+            int closed = 0;
+            long archived = 0;
+            int purged = 0;
+            LocalDate archiveBefore = currentMonth.minusMonths(Math.max(hotMonths, 1));
+            LocalDate purgeBefore = archiveRetentionMonths > 0 ? currentMonth.minusMonths(archiveRetentionMonths) : null;
+            for (SessionPartition partition : sessionPartitionRepository.findAllByOrderByPartitionMonthAsc()) {
+                if (partition.getStatus() == SessionPartition.Status.OPEN
+                        && partition.getEndTime().plusHours(closeGraceHours).isBefore(now)) {
+                    close(partition, now);
+                    closed++;
+                }
+                if (partition.getPartitionMonth().isBefore(archiveBefore)
+                        && partition.getStatus() != SessionPartition.Status.OPEN) {
+                    // Un mes ya archivado puede recibir sesiones tardías: se agregan como bloques nuevos
+                    archived += archive(partition, now);
+                }
+                if (purgeBefore != null && partition.getPartitionMonth().isBefore(purgeBefore)
+                        && partition.getStatus() == SessionPartition.Status.ARCHIVED) {
+                    purge(partition);
+                    purged++;
+                }
+            }
+
+            refreshCatalog();
+            lastMaintenanceAt = now;
+            summary.put("closed", closed);
+            summary.put("archivedSessions", archived);
+            summary.put("purged", purged);
+            summary.put("hotStart", hotStart);
+            if (closed > 0 || archived > 0 || purged > 0) {
+                log.info("Mantenimiento de particiones de sesiones: {}", summary);
+            }
+            return summary;
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Acotar el inicio de una ventana de consulta a los meses que siguen en game_sessions
+     * Las filas de meses archivados ya no están en la tabla, así que la consulta no necesita recorrerlos
+     */
+    public LocalDateTime clampToHot(LocalDateTime from) {
+        LocalDateTime start = hotStart;
+        return start != null && (from == null || from.isBefore(start)) ? start : from;
+    }
+
+    public LocalDateTime getHotStart() {
+        return hotStart;
+    }
+
+    public LocalDateTime getLastMaintenanceAt() {
+        return lastMaintenanceAt;
+    }
+
+    /**
+     * Catálogo de particiones con su estado, rango de ids y tamaño archivado
+     */
+    public List<Map<String, Object>> getPartitions() {
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (SessionPartition partition : sessionPartitionRepository.findAllByOrderByPartitionMonthAsc()) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("month", partition.getPartitionMonth().toString().substring(0, 7));
+            view.put("status", partition.getStatus());
+            view.put("firstId", partition.getFirstId());
+            view.put("lastId", partition.getLastId());
+            view.put("sessionCount", partition.getSessionCount());
+            view.put("archivedCount", partition.getArchivedCount());
+            view.put("archivedBytes", partition.getArchivedBytes());
+            view.put("closedAt", partition.getClosedAt());
+            view.put("archivedAt", partition.getArchivedAt());
+            partitions.add(view);
+        }
+        return partitions;
+    }
+
+    /**
+     * Escribir las sesiones archivadas de un mes como un único NDJSON comprimido con GZIP
+     * (los bloques son miembros GZIP independientes, así que basta con concatenarlos)
+     */
+    public void exportArchive(LocalDate month, OutputStream out) throws IOException {
+        for (Long id : gameSessionArchiveRepository.findIdsByPartitionMonth(month)) {
+            Optional<GameSessionArchive> chunk = gameSessionArchiveRepository.findById(id);
+            if (chunk.isPresent()) {
+                out.write(chunk.get().getPayload());
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Recorrer todas las sesiones archivadas como filas de game_sessions (columna -> valor)
+     * Lo usan las reconstrucciones de agregados para no perder los meses que ya no están en la tabla
+     */
+    public long forEachArchivedSession(Consumer<Map<String, Object>> consumer) {
+        long count = 0;
+        for (Long id : gameSessionArchiveRepository.findAllIds()) {
+            Optional<GameSessionArchive> chunk = gameSessionArchiveRepository.findById(id);
+            if (chunk.isEmpty()) {
+                continue;
+            }
+            for (Map<String, Object> row : decode(chunk.get().getPayload())) {
+                consumer.accept(row);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long getArchivedBytes() {
+        return archivedBytes;
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Registrar como OPEN los meses desde la primera sesión hasta months-ahead meses después del actual
+     */
+    private int createPartitions(LocalDate currentMonth) {
+        Set<LocalDate> existing = new HashSet<>();
+        sessionPartitionRepository.findAll().forEach(partition -> existing.add(partition.getPartitionMonth()));
+
+        Timestamp earliest = jdbcTemplate.queryForObject("SELECT MIN(start_time) FROM game_sessions", Timestamp.class);
+        LocalDate first = earliest != null ? earliest.toLocalDateTime().toLocalDate().withDayOfMonth(1) : currentMonth;
+        if (first.isAfter(currentMonth)) {
+            first = currentMonth;
+        }
+
+        List<SessionPartition> created = new ArrayList<>();
+        for (LocalDate month = first; !month.isAfter(currentMonth.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (!existing.contains(month)) {
+                created.add(new SessionPartition(month));
+            }
+        }
+        sessionPartitionRepository.saveAll(created);
+        return created.size();
+    }
+
+    private void close(SessionPartition partition, LocalDateTime now) {
+        jdbcTemplate.query(MEASURE_SQL, rs -> {
+            partition.setFirstId(rs.getObject(1) != null ? rs.getLong(1) : null);
+            partition.setLastId(rs.getObject(2) != null ? rs.getLong(2) : null);
+            partition.setSessionCount(rs.getLong(3));
+        }, Timestamp.valueOf(partition.getStartTime()), Timestamp.valueOf(partition.getEndTime()));
+        partition.setStatus(SessionPartition.Status.CLOSED);
+        partition.setClosedAt(now);
+        sessionPartitionRepository.save(partition);
+    }
+
+    /**
+     * Mover las sesiones del mes a game_session_archives, un bloque por transacción
+     * Cada bloque se inserta y sus filas se borran en la misma transacción: una falla deja el bloque en la tabla
+     */
+    private long archive(SessionPartition partition, LocalDateTime now) {
+        Timestamp start = Timestamp.valueOf(partition.getStartTime());
+        Timestamp end = Timestamp.valueOf(partition.getEndTime());
+        long archived = 0;
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(CHUNK_SQL, start, end, lastId, chunkSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            long firstId = ((Number) rows.get(0).get("id")).longValue();
+            long chunkLastId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            GameSessionArchive chunk = encode(partition, rows, firstId, chunkLastId, now);
+            long afterId = lastId;
+
+            transactionTemplate.executeWithoutResult(status -> {
+                gameSessionArchiveRepository.save(chunk);
+                int deleted = jdbcTemplate.update(DELETE_CHUNK_SQL, start, end, afterId, chunkLastId);
+                if (deleted != rows.size()) {
+                    throw new IllegalStateException("El bloque de sesiones cambió mientras se archivaba (" +
+                            deleted + " de " + rows.size() + ")");
+                }
+            });
+
+            partition.setArchivedCount(partition.getArchivedCount() + rows.size());
+            partition.setArchivedBytes(partition.getArchivedBytes() + chunk.getPayload().length);
+            archived += rows.size();
+            lastId = chunkLastId;
+        }
+
+        if (archived > 0 || partition.getStatus() == SessionPartition.Status.CLOSED) {
+            partition.setStatus(SessionPartition.Status.ARCHIVED);
+            partition.setArchivedAt(now);
+            sessionPartitionRepository.save(partition);
+        }
+        return archived;
+    }
+
+    private void purge(SessionPartition partition) {
+        transactionTemplate.executeWithoutResult(status -> {
+            gameSessionArchiveRepository.deleteByPartitionMonth(partition.getPartitionMonth());
+            partition.setStatus(SessionPartition.Status.PURGED);
+            partition.setArchivedBytes(0);
+            sessionPartitionRepository.save(partition);
+        });
+    }
+
+    private void refreshCatalog() {
+        LocalDateTime start = null;
+        long bytes = 0;
+        for (SessionPartition partition : sessionPartitionRepository.findAllByOrderByPartitionMonthAsc()) {
+            if (partition.getStatus() == SessionPartition.Status.ARCHIVED
+                    || partition.getStatus() == SessionPartition.Status.PURGED) {
+                start = partition.getEndTime();
+            }
+            bytes += partition.getArchivedBytes();
+        }
+        hotStart = start;
+        archivedBytes = bytes;
+    }
+
+    /**
+     * Una fila por línea con los nombres de columna en minúsculas; fechas en ISO y binarios en Base64
+     */
+    private GameSessionArchive encode(SessionPartition partition, List<Map<String, Object>> rows,
+                                      long firstId, long lastId, LocalDateTime now) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        long rawBytes = 0;
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            for (Map<String, Object> row : rows) {
+                Map<String, Object> normalized = new LinkedHashMap<>();
+                row.forEach((column, value) -> normalized.put(column.toLowerCase(Locale.ROOT), toArchiveValue(value)));
+                byte[] line = objectMapper.writeValueAsBytes(normalized);
+                gzip.write(line);
+                gzip.write('\n');
+                rawBytes += line.length + 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        GameSessionArchive chunk = new GameSessionArchive();
+        chunk.setPartitionMonth(partition.getPartitionMonth());
+        chunk.setFirstId(firstId);
+        chunk.setLastId(lastId);
+        chunk.setSessionCount(rows.size());
+        chunk.setRawBytes(rawBytes);
+        chunk.setPayload(buffer.toByteArray());
+        chunk.setCreatedAt(now);
+        return chunk;
+    }
+
+    private static Object toArchiveValue(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toString();
+        }
+        if (value instanceof LocalDateTime) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    private List<Map<String, Object>> decode(byte[] payload) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(payload)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Map<String, Object> row = objectMapper.readValue(line, new TypeReference<LinkedHashMap<String, Object>>() {});
+                for (String column : TIME_COLUMNS) {
+                    Object value = row.get(column);
+                    if (value != null) {
+                        row.put(column, LocalDateTime.parse(value.toString()));
+                    }
+                }
+                Object moves = row.get(BINARY_COLUMN);
+                if (moves != null) {
+                    row.put(BINARY_COLUMN, Base64.getDecoder().decode(moves.toString()));
+                }
+                rows.add(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,138 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.event.GameSessionEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Corte consistente para reconstruir agregados de sesiones mientras siguen llegando eventos
+ * GameSessionService publica cada evento y encola su escritura bajo el read lock de la compuerta (el evento
+ * antes que la escritura); begin() toma el write lock para fijar el corte y en ese mismo instante el servicio
+ * descarta sus deltas pendientes. Luego vacía GameSessionWriteBehind y AuditLogWriter, así que todo lo anterior
+ * al corte queda en la base de datos, y toma el mayor id de game_sessions como marca de agua
+ * Las sesiones que cambian después del corte se anotan con su estado en el corte (el previous de su primer
+ * evento) o como nuevas; resolve() usa ese estado en lugar de la fila leída, y los deltas posteriores, que el
+ * servicio conserva, completan el resultado sin contar dos veces ni perder cambios
+ */
+@Service
+public class SessionRebuildCoordinator {
+
+    @Autowired
+    private GameSessionWriteBehind gameSessionWriteBehind;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+    private final List<Snapshot> active = new CopyOnWriteArrayList<>();
+
+    /**
+     * Aplicar un cambio de sesión (publicar su evento y encolar su escritura) sin que un corte lo parta
+     */
+    public void runChange(Runnable change) {
+        gate.readLock().lock();
+        try {
+            change.run();
+        } finally {
+            gate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fijar un corte: discardPending corre dentro de él y descarta los deltas que la reconstrucción va a leer
+     * de la base de datos. El snapshot devuelto debe cerrarse al terminar
+     */
+    public Snapshot begin(Runnable discardPending) {
+        Snapshot snapshot = new Snapshot();
+        gate.writeLock().lock();
+        try {
+            discardPending.run();
+            active.add(snapshot);
+        } finally {
+            gate.writeLock().unlock();
+        }
+
+        try {
+            gameSessionWriteBehind.flushNow();
+            auditLogWriter.flushNow();
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM game_sessions", Long.class);
+            snapshot.maxSessionId = maxId != null ? maxId : 0L;
+        } catch (RuntimeException e) {
+            snapshot.close();
+            throw e;
+        }
+        return snapshot;
+    }
+
+    @EventListener
+    public void onSessionEvent(GameSessionEvent event) {
+        for (Snapshot snapshot : active) {
+            snapshot.changed.putIfAbsent(event.getSessionId(), Optional.ofNullable(event.getPrevious()));
+        }
+    }
+
+    /**
+     * Sesiones que cambiaron desde un corte y la marca de agua de game_sessions
+     */
+    public final class Snapshot implements AutoCloseable {
+        // Estado en el corte; vacío si la sesión se creó después
+        private final Map<String, Optional<GameSessionEvent.Contribution>> changed = new ConcurrentHashMap<>();
+        private long maxSessionId;
+
+        private Snapshot() {}
+
+        /**
+         * Mayor id de game_sessions después de vaciar las escrituras pendientes; las filas posteriores son
+         * sesiones creadas después del corte
+         */
+        public long getMaxSessionId() {
+            return maxSessionId;
+        }
+
+        /**
+         * La fila tal como estaba en el corte: la misma si la sesión no cambió, una copia con los valores que
+         * suman en los agregados si cambió, o null si la sesión se creó después del corte
+         */
+        public Map<String, Object> resolve(Map<String, Object> row) {
+            Object sessionId = row.get("session_id");
+            Optional<GameSessionEvent.Contribution> atCut = sessionId != null ? changed.get(sessionId.toString()) : null;
+            if (atCut == null) {
+                return row;
+            }
+            if (atCut.isEmpty()) {
+                return null;
+            }
+            GameSessionEvent.Contribution contribution = atCut.get();
+            // queryForList devuelve las columnas sin distinguir mayúsculas; la copia conserva ese comportamiento
+            Map<String, Object> resolved = new LinkedCaseInsensitiveMap<>();
+            resolved.putAll(row);
+            resolved.put("status", contribution.getStatus() != null ? contribution.getStatus().name() : null);
+            resolved.put("moves_count", contribution.getMovesCount());
+            resolved.put("execution_time_ms", contribution.getExecutionTimeMs());
+            resolved.put("attempts_count", contribution.getAttemptsCount());
+            return resolved;
+        }
+
+        public int getChangedCount() {
+            return changed.size();
+        }
+
+        @Override
+        public void close() {
+            active.remove(this);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.entity.SessionRollup;
+import com.umg.game_for_devs.event.GameSessionEvent;
+import com.umg.game_for_devs.repository.SessionRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mantenimiento incremental de los agregados de sesiones (session_rollups)
+ * Cada GameSessionEvent resta la contribución anterior de la sesión y suma la nueva en los
+ * buckets HOUR, DAY y TOTAL; los deltas se acumulan en memoria y se vuelcan con upserts JDBC
+ * cada flush-interval-ms. rebuild() recalcula todo desde game_sessions (backfill) a partir de un corte de
+ * SessionRebuildCoordinator
+ */
+@Service
+public class SessionRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionRollupService.class);
+
+    private static final String UNKNOWN_DEVICE = "UNKNOWN";
+
+    private static final String UPDATE_SQL =
+            "UPDATE session_rollups SET session_count = session_count + ?, moves_sum = moves_sum + ?, " +
+            "execution_time_sum = execution_time_sum + ?, execution_time_count = execution_time_count + ?, " +
+            "updated_at = ? WHERE granularity = ? AND bucket_start = ? AND track_id = ? AND device_type = ? AND status = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO session_rollups (session_count, moves_sum, execution_time_sum, execution_time_count, " +
+            "updated_at, granularity, bucket_start, track_id, device_type, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SCAN_SQL =
+            "SELECT id, session_id, track_id, device_type, status, start_time, moves_count, execution_time_ms " +
+            "FROM game_sessions WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private SessionRollupRepository sessionRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionPartitionService sessionPartitionService;
+
+    @Autowired
+    private SessionRebuildCoordinator rebuildCoordinator;
+
+    @Autowired
+    private StatisticsCache statisticsCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.rollups.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${game.rollups.backfill-page-size:5000}")
+    private int backfillPageSize;
+
+    // Los eventos suman deltas bajo el read lock; el volcado intercambia el mapa bajo el write lock
+    private final ReentrantReadWriteLock deltaLock = new ReentrantReadWriteLock();
+    private Map<RollupKey, Delta> pending = new ConcurrentHashMap<>();
+
+    // Un volcado no aplica upserts mientras rebuild reemplaza session_rollups
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+    private volatile LocalDateTime lastFlushAt;
+    private Counter flushedRows;
+    private Counter flushFailures;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("game.rollups.pending", this, SessionRollupService::getPendingCount)
+                .description("Agregados con deltas pendientes de volcar")
+                .register(meterRegistry);
+        flushedRows = Counter.builder("game.rollups.flushed")
+                .register(meterRegistry);
+        flushFailures = Counter.builder("game.rollups.flush.failures")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Aplicar el cambio de una sesión a los deltas pendientes
+     */
+    @EventListener
+    public void onSessionEvent(GameSessionEvent event) {
+        if (event.getTrackId() == null || event.getStartTime() == null) {
+            return;
+        }
+        GameSessionEvent.Contribution previous = event.getPrevious();
+        GameSessionEvent.Contribution current = event.getCurrent();
+        if (current.sameAs(previous)) {
+            return;
+        }
+
+        String deviceType = normalizeDevice(event.getDeviceType());
+        deltaLock.readLock().lock();
+        try {
+            if (previous != null && previous.getStatus() != null) {
+                apply(event.getTrackId(), deviceType, event.getStartTime(), previous.getStatus(),
+                        -1, -previous.getMovesCount(), previous.getExecutionTimeMs(), -1);
+            }
+            if (current.getStatus() != null) {
+                apply(event.getTrackId(), deviceType, event.getStartTime(), current.getStatus(),
+                        1, current.getMovesCount(), current.getExecutionTimeMs(), 1);
+            }
+        } finally {
+            deltaLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Volcar los deltas acumulados a session_rollups
+     */
+    @Scheduled(fixedDelayString = "${game.rollups.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<RollupKey, Delta> batch = drainPending();
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                int written = transactionTemplate.execute(status -> writeDeltas(batch));
+                flushedRows.increment(written);
+                lastFlushAt = LocalDateTime.now();
+            } catch (Exception e) {
+                // Se devuelven los deltas para el siguiente intento
+                flushFailures.increment();
+                log.warn("No se pudieron volcar los agregados de sesiones: {}", e.getMessage());
+                restorePending(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Recalcular todos los agregados a partir de game_sessions y de los meses archivados
+     * Los deltas pendientes se descartan en el corte y las sesiones que cambian después se leen con su estado
+     * en el corte; los deltas que llegan mientras tanto se conservan y se vuelcan después
+     */
+    public long rebuild() {
+        flushLock.lock();
+        try (SessionRebuildCoordinator.Snapshot snapshot = rebuildCoordinator.begin(this::drainPending)) {
+            Map<RollupKey, long[]> totals = new HashMap<>();
+            long scanned = 0;
+            long lastId = 0;
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SCAN_SQL, lastId,
+                        snapshot.getMaxSessionId(), backfillPageSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Map<String, Object> row : rows) {
+                    lastId = ((Number) row.get("id")).longValue();
+                    accumulate(totals, snapshot.resolve(row));
+                    scanned++;
+                }
+            }
+            scanned += sessionPartitionService.forEachArchivedSession(row -> accumulate(totals, snapshot.resolve(row)));
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> inserts = new ArrayList<>(totals.size());
+            totals.forEach((key, sums) -> inserts.add(params(key, sums[0], sums[1], sums[2], sums[3], now)));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM session_rollups");
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+            });
+            lastFlushAt = now;
+            statisticsCache.invalidateAll();
+            log.info("Agregados de sesiones reconstruidos: {} sesiones, {} filas", scanned, inserts.size());
+            return scanned;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Reconstruir los agregados al arrancar si la tabla está vacía y ya hay sesiones
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (sessionRollupRepository.count() == 0) {
+                Long sessions = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game_sessions", Long.class);
+                if (sessions != null && sessions > 0) {
+                    rebuild();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Falló la reconstrucción inicial de agregados: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Agregados que cubren [from, to]: días completos desde los buckets DAY y los extremos desde los HOUR
+     * La precisión es de una hora: el bucket que contiene from se cuenta completo
+     */
+    public List<SessionRollup> findBetween(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime fromHour = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime toExclusive = to.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime firstFullDay = fromHour.equals(from.truncatedTo(ChronoUnit.DAYS))
+                ? fromHour : from.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime lastDay = toExclusive.equals(toExclusive.truncatedTo(ChronoUnit.DAYS))
+                ? toExclusive : toExclusive.truncatedTo(ChronoUnit.DAYS);
+
+        if (!firstFullDay.isBefore(lastDay)) {
+            return findHourlyBetween(fromHour, toExclusive);
+        }
+
+        List<SessionRollup> rollups = new ArrayList<>();
+        rollups.addAll(findHourlyBetween(fromHour, firstFullDay));
+        rollups.addAll(sessionRollupRepository.findByGranularityBetween(SessionRollup.Granularity.DAY, firstFullDay, lastDay));
+        rollups.addAll(findHourlyBetween(lastDay, toExclusive));
+        return rollups;
+    }
+
+    /**
+     * Agregados por hora en [from, to)
+     */
+    public List<SessionRollup> findHourlyBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        return sessionRollupRepository.findByGranularityBetween(SessionRollup.Granularity.HOUR, from, to);
+    }
+
+    /**
+     * Agregados históricos (una fila por pista, dispositivo y estado)
+     */
+    public List<SessionRollup> findAllTime() {
+        return sessionRollupRepository.findByGranularity(SessionRollup.Granularity.TOTAL);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public LocalDateTime getLastFlushAt() {
+        return lastFlushAt;
+    }
+
+    // Métodos auxiliares
+
+    private void apply(Long trackId, String deviceType, LocalDateTime startTime, GameSession.GameStatus status,
+                       int count, int moves, Long executionTimeMs, int sign) {
+        long executionTime = executionTimeMs != null ? sign * executionTimeMs : 0L;
+        int executionCount = executionTimeMs != null ? sign : 0;
+        for (SessionRollup.Granularity granularity : SessionRollup.Granularity.values()) {
+            RollupKey key = new RollupKey(granularity, bucketOf(granularity, startTime), trackId, deviceType, status);
+            Delta delta = pending.computeIfAbsent(key, k -> new Delta());
+            delta.count.add(count);
+            delta.moves.add(moves);
+            delta.executionTime.add(executionTime);
+            delta.executionCount.add(executionCount);
+        }
+    }
+
+    private Map<RollupKey, Delta> drainPending() {
+        deltaLock.writeLock().lock();
+        try {
+            Map<RollupKey, Delta> drained = pending;
+            pending = new ConcurrentHashMap<>();
+            return drained;
+        } finally {
+            deltaLock.writeLock().unlock();
+        }
+    }
+
+    private void restorePending(Map<RollupKey, Delta> batch) {
+        deltaLock.readLock().lock();
+        try {
+            batch.forEach((key, delta) -> {
+                Delta target = pending.computeIfAbsent(key, k -> new Delta());
+                target.count.add(delta.count.sum());
+                target.moves.add(delta.moves.sum());
+                target.executionTime.add(delta.executionTime.sum());
+                target.executionCount.add(delta.executionCount.sum());
+            });
+        } finally {
+            deltaLock.readLock().unlock();
+        }
+    }
+
+    private int writeDeltas(Map<RollupKey, Delta> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> updates = new ArrayList<>(batch.size());
+        for (Map.Entry<RollupKey, Delta> entry : batch.entrySet()) {
+            Delta delta = entry.getValue();
+            if (delta.isZero()) {
+                continue;
+            }
+            updates.add(params(entry.getKey(), delta.count.sum(), delta.moves.sum(),
+                    delta.executionTime.sum(), delta.executionCount.sum(), now));
+        }
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        // Las filas que el UPDATE no encontró se insertan; un conteo negativo (SUCCESS_NO_INFO) se reintenta solo
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            int count = counts[i];
+            if (count < 0) {
+                count = jdbcTemplate.update(UPDATE_SQL, updates.get(i));
+            }
+            if (count == 0) {
+                inserts.add(updates.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        return updates.size();
+    }
+
+    private void accumulate(Map<RollupKey, long[]> totals, Map<String, Object> row) {
+        if (row == null) {
+            return;
+        }
+        Object trackId = row.get("track_id");
+        Object startTime = row.get("start_time");
+        Object status = row.get("status");
+        if (trackId == null || startTime == null || status == null) {
+            return;
+        }
+        LocalDateTime start = startTime instanceof Timestamp
+                ? ((Timestamp) startTime).toLocalDateTime() : (LocalDateTime) startTime;
+        Object moves = row.get("moves_count");
+        Object executionTime = row.get("execution_time_ms");
+        String deviceType = normalizeDevice((String) row.get("device_type"));
+        GameSession.GameStatus gameStatus = GameSession.GameStatus.valueOf(status.toString());
+
+        for (SessionRollup.Granularity granularity : SessionRollup.Granularity.values()) {
+            RollupKey key = new RollupKey(granularity, bucketOf(granularity, start),
+                    ((Number) trackId).longValue(), deviceType, gameStatus);
+            long[] sums = totals.computeIfAbsent(key, k -> new long[4]);
+            sums[0]++;
+            sums[1] += moves != null ? ((Number) moves).longValue() : 0L;
+            if (executionTime != null) {
+                sums[2] += ((Number) executionTime).longValue();
+                sums[3]++;
+            }
+        }
+    }
+
+    private static Object[] params(RollupKey key, long count, long moves, long executionTime,
+                                   long executionCount, LocalDateTime now) {
+        return new Object[] {
+                count, moves, executionTime, executionCount, Timestamp.valueOf(now),
+                key.granularity.name(), Timestamp.valueOf(key.bucketStart), key.trackId, key.deviceType, key.status.name()
+        };
+    }
+
+    private static LocalDateTime bucketOf(SessionRollup.Granularity granularity, LocalDateTime startTime) {
+        switch (granularity) {
+            case HOUR:
+                return startTime.truncatedTo(ChronoUnit.HOURS);
+            case DAY:
+                return startTime.truncatedTo(ChronoUnit.DAYS);
+            default:
+                return SessionRollup.TOTAL_BUCKET;
+        }
+    }
+
+    private static String normalizeDevice(String deviceType) {
+        return deviceType != null && !deviceType.isBlank() ? deviceType : UNKNOWN_DEVICE;
+    }
+
+    private static final class Delta {
+        final LongAdder count = new LongAdder();
+        final LongAdder moves = new LongAdder();
+        final LongAdder executionTime = new LongAdder();
+        final LongAdder executionCount = new LongAdder();
+
+        boolean isZero() {
+            return count.sum() == 0 && moves.sum() == 0 && executionTime.sum() == 0 && executionCount.sum() == 0;
+        }
+    }
+
+    private static final class RollupKey {
+        final SessionRollup.Granularity granularity;
+        final LocalDateTime bucketStart;
+        final Long trackId;
+        final String deviceType;
+        final GameSession.GameStatus status;
+        final int hash;
+
+        RollupKey(SessionRollup.Granularity granularity, LocalDateTime bucketStart, Long trackId,
+                  String deviceType, GameSession.GameStatus status) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.trackId = trackId;
+            this.deviceType = deviceType;
+            this.status = status;
+            this.hash = Objects.hash(granularity, bucketStart, trackId, deviceType, status);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RollupKey)) return false;
+            RollupKey other = (RollupKey) o;
+            return granularity == other.granularity && status == other.status
+                    && bucketStart.equals(other.bucketStart) && trackId.equals(other.trackId)
+                    && deviceType.equals(other.deviceType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
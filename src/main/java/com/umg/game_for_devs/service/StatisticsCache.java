@@ -0,0 +1,268 @@
+package com.umg.game_for_devs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caché con tiempo de vida de los resultados de StatisticsService
+ * Las claves identifican el método y la ventana de fechas; peticiones simultáneas de una clave vencida comparten
+ * una sola ejecución en la base de datos y las claves leídas recientemente se recalculan en segundo plano antes
+ * de vencer, de modo que los dashboards abiertos siempre se sirven desde memoria
+ */
+@Service
+public class StatisticsCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsCache.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.statistics.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${game.statistics.cache.ttl-ms:15000}")
+    private long ttlMs;
+
+    @Value("${game.statistics.cache.refresh-ahead-ms:5000}")
+    private long refreshAheadMs;
+
+    @Value("${game.statistics.cache.warm-idle-ms:300000}")
+    private long warmIdleMs;
+
+    @Value("${game.statistics.cache.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${game.statistics.cache.refresh-threads:2}")
+    private int refreshThreads;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter coalesced;
+    private Counter refreshes;
+
+    // Los refrescos consultan la base de datos; se ejecutan aquí y no en el hilo de @Scheduled, que comparten
+    // todas las tareas programadas de la aplicación
+    private ThreadPoolExecutor refresher;
+
+    @PostConstruct
+    void init() {
+        hits = meterRegistry.counter("game.statistics.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("game.statistics.cache.requests", "result", "miss");
+        coalesced = meterRegistry.counter("game.statistics.cache.requests", "result", "coalesced");
+        refreshes = meterRegistry.counter("game.statistics.cache.refreshes");
+        Gauge.builder("game.statistics.cache.size", entries, Map::size).register(meterRegistry);
+        AtomicInteger counter = new AtomicInteger();
+        refresher = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxEntries), runnable -> {
+                    Thread thread = new Thread(runnable, "stats-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        refresher.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Obtener el resultado de la clave, calculándolo con loader si no existe o venció
+     * El loader debe calcular su ventana al ejecutarse, ya que también se usa en los refrescos en segundo plano
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                evictIdle(now);
+            }
+            entry = entries.computeIfAbsent(key, k -> new Entry((Supplier<Object>) loader));
+        }
+        entry.lastReadAt = now;
+
+        Snapshot snapshot = entry.snapshot;
+        if (snapshot != null && now - snapshot.loadedAt < ttlMs) {
+            hits.increment();
+            return (T) snapshot.value;
+        }
+
+        CompletableFuture<Object> pending;
+        boolean leader = false;
+        synchronized (entry) {
+            snapshot = entry.snapshot;
+            if (snapshot != null && now - snapshot.loadedAt < ttlMs) {
+                hits.increment();
+                return (T) snapshot.value;
+            }
+            if (entry.inFlight == null) {
+                entry.inFlight = new CompletableFuture<>();
+                leader = true;
+            }
+            pending = entry.inFlight;
+        }
+
+        if (leader) {
+            misses.increment();
+            return (T) load(entry);
+        }
+        coalesced.increment();
+        try {
+            return (T) pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Recalcular las claves leídas recientemente que están por vencer y descartar las que nadie lee
+     */
+    @Scheduled(fixedDelayString = "${game.statistics.cache.refresh-interval-ms:1000}")
+    public void refreshAhead() {
+        if (!enabled || entries.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            Snapshot snapshot = entry.snapshot;
+            if (now - entry.lastReadAt > warmIdleMs) {
+                if (snapshot == null || now - snapshot.loadedAt >= ttlMs) {
+                    entries.remove(mapEntry.getKey(), entry);
+                }
+                continue;
+            }
+            if (snapshot == null || now - snapshot.loadedAt < ttlMs - refreshAheadMs) {
+                continue;
+            }
+            synchronized (entry) {
+                if (entry.inFlight != null) {
+                    continue;
+                }
+                entry.inFlight = new CompletableFuture<>();
+            }
+            String key = mapEntry.getKey();
+            try {
+                refresher.execute(() -> refresh(key, entry));
+            } catch (RejectedExecutionException e) {
+                // El resultado anterior sigue vigente: se entrega a quien ya espera y se reintenta en la próxima pasada
+                CompletableFuture<Object> pending = entry.inFlight;
+                synchronized (entry) {
+                    entry.inFlight = null;
+                }
+                pending.complete(snapshot.value);
+            }
+        }
+    }
+
+    /**
+     * Descartar todos los resultados (por ejemplo tras reconstruir los agregados)
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Contadores de aciertos, fallos y peticiones que esperaron una ejecución en curso
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("hits", (long) hits.count());
+        stats.put("misses", (long) misses.count());
+        stats.put("coalesced", (long) coalesced.count());
+        stats.put("refreshes", (long) refreshes.count());
+        stats.put("ttlMs", ttlMs);
+        return stats;
+    }
+
+    // Métodos auxiliares
+
+    private Object load(Entry entry) {
+        CompletableFuture<Object> pending = entry.inFlight;
+        try {
+            Object value = entry.loader.get();
+            entry.snapshot = new Snapshot(value, System.currentTimeMillis());
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (entry) {
+                entry.inFlight = null;
+            }
+        }
+    }
+
+    private void refresh(String key, Entry entry) {
+        try {
+            load(entry);
+            refreshes.increment();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo refrescar la estadística '{}': {}", key, e.getMessage());
+        }
+    }
+
+    private void evictIdle(long now) {
+        entries.entrySet().removeIf(mapEntry -> {
+            Snapshot snapshot = mapEntry.getValue().snapshot;
+            return mapEntry.getValue().inFlight == null
+                    && (snapshot == null || now - snapshot.loadedAt >= ttlMs || now - mapEntry.getValue().lastReadAt > warmIdleMs);
+        });
+    }
+
+    private static final class Entry {
+        private final Supplier<Object> loader;
+        private volatile Snapshot snapshot;
+        private volatile long lastReadAt;
+        private CompletableFuture<Object> inFlight;
+
+        private Entry(Supplier<Object> loader) {
+            this.loader = loader;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Object value;
+        private final long loadedAt;
+
+        private Snapshot(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
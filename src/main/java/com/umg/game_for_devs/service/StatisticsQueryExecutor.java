@@ -0,0 +1,187 @@
+package com.umg.game_for_devs.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecución concurrente de consultas de estadísticas independientes
+ * Cada consulta tiene su propio tiempo máximo y el lote entero un plazo global; la que no responde a tiempo
+ * o falla se reemplaza por su valor por defecto y queda registrada como degradada en el lote
+ */
+@Service
+public class StatisticsQueryExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsQueryExecutor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.statistics.fanout.threads:4}")
+    private int threads;
+
+    @Value("${game.statistics.fanout.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${game.statistics.fanout.query-timeout-ms:2000}")
+    private long queryTimeoutMs;
+
+    @Value("${game.statistics.fanout.deadline-ms:5000}")
+    private long deadlineMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "stats-query-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Iniciar un lote; el plazo global corre desde este momento
+     */
+    public Batch batch() {
+        return new Batch(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs));
+    }
+
+    /**
+     * Conjunto de consultas lanzadas para una misma respuesta
+     */
+    public final class Batch {
+        private final long deadline;
+        private final Map<String, String> degraded = new LinkedHashMap<>();
+
+        private Batch(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Lanzar una consulta en segundo plano
+         */
+        public <T> Query<T> submit(String name, Supplier<T> supplier) {
+            long submittedAt = System.nanoTime();
+            try {
+                return new Query<>(this, name, submittedAt, executor.submit(supplier::get));
+            } catch (RejectedExecutionException e) {
+                // Con la cola llena la consulta corre en el hilo de la petición
+                return new Query<>(this, name, submittedAt, supplier);
+            }
+        }
+
+        public boolean isDegraded() {
+            synchronized (degraded) {
+                return !degraded.isEmpty();
+            }
+        }
+
+        /**
+         * Consultas reemplazadas por su valor por defecto y el motivo (timeout o error)
+         */
+        public Map<String, String> getDegraded() {
+            synchronized (degraded) {
+                return new LinkedHashMap<>(degraded);
+            }
+        }
+
+        private void markDegraded(String name, String reason) {
+            synchronized (degraded) {
+                degraded.put(name, reason);
+            }
+        }
+    }
+
+    /**
+     * Resultado pendiente de una consulta
+     */
+    public final class Query<T> {
+        private final Batch batch;
+        private final String name;
+        private final long submittedAt;
+        private final Future<T> future;
+        private final Supplier<T> inline;
+
+        private Query(Batch batch, String name, long submittedAt, Future<T> future) {
+            this.batch = batch;
+            this.name = name;
+            this.submittedAt = submittedAt;
+            this.future = future;
+            this.inline = null;
+        }
+
+        private Query(Batch batch, String name, long submittedAt, Supplier<T> inline) {
+            this.batch = batch;
+            this.name = name;
+            this.submittedAt = submittedAt;
+            this.future = null;
+            this.inline = inline;
+        }
+
+        /**
+         * Esperar el resultado dentro del tiempo de la consulta y del plazo del lote; si no llega, fallback
+         */
+        public T get(T fallback) {
+            String outcome = "success";
+            try {
+                if (future == null) {
+                    return inline.get();
+                }
+                long remaining = Math.min(submittedAt + TimeUnit.MILLISECONDS.toNanos(queryTimeoutMs), batch.deadline)
+                        - System.nanoTime();
+                return future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                outcome = "timeout";
+                future.cancel(true);
+                log.warn("Consulta de estadísticas '{}' excedió el tiempo máximo; se responde sin ella", name);
+                batch.markDegraded(name, "timeout");
+                return fallback;
+            } catch (InterruptedException e) {
+                outcome = "timeout";
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                batch.markDegraded(name, "interrumpida");
+                return fallback;
+            } catch (ExecutionException | RuntimeException e) {
+                outcome = "error";
+                Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                log.warn("Consulta de estadísticas '{}' falló: {}", name, cause.getMessage());
+                batch.markDegraded(name, "error: " + cause.getMessage());
+                return fallback;
+            } finally {
+                Timer.builder("game.statistics.query")
+                        .tag("query", name)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
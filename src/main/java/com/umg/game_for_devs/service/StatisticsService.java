@@ -1,19 +1,28 @@
 package com.umg.game_for_devs.service;
 
+import com.umg.game_for_devs.entity.CompletionSketch;
 import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.entity.SessionRollup;
+import com.umg.game_for_devs.entity.Track;
 import com.umg.game_for_devs.repository.AuditLogRepository;
 import com.umg.game_for_devs.repository.GameSessionRepository;
 import com.umg.game_for_devs.repository.TrackRepository;
 import com.umg.game_for_devs.repository.UserRepository;
+import com.umg.game_for_devs.util.QuantileSketch;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Servicio para generar estadísticas del sistema
+ * Las estadísticas de sesiones de juego se leen de los agregados de SessionRollupService, no de game_sessions
+ * y los resultados se sirven desde StatisticsCache por método y ventana de fechas
  */
 @Service
 public class StatisticsService {
@@ -30,10 +39,29 @@ public class StatisticsService {
     @Autowired
     private AuditLogRepository auditLogRepository;
     
+    @Autowired
+    private SessionRollupService sessionRollupService;
+    
+    @Autowired
+    private CompletionDistributionService completionDistributionService;
+    
+    @Autowired
+    private SessionPartitionService sessionPartitionService;
+    
+    @Autowired
+    private AuditRetentionService auditRetentionService;
+    
+    @Autowired
+    private StatisticsCache statisticsCache;
+    
     /**
      * Obtener estadísticas generales del dashboard
      */
     public DashboardStats getDashboardStats() {
+        return statisticsCache.get("dashboard", this::loadDashboardStats);
+    }
+    
+    private DashboardStats loadDashboardStats() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
         LocalDateTime startOfWeek = now.minusDays(7);
@@ -42,15 +70,14 @@ public class StatisticsService {
         long totalUsers = userRepository.countByIsActiveTrue();
         long totalTracks = trackRepository.countByIsActiveTrue();
         
-        // Sesiones de hoy
-        long sessionsToday = gameSessionRepository.countByStartTimeBetween(startOfToday, now);
-        
-        // Sesiones de la semana
-        long sessionsThisWeek = gameSessionRepository.countByStartTimeBetween(startOfWeek, now);
+        // Sesiones de hoy y de la semana
+        long sessionsToday = countSessions(sessionRollupService.findBetween(startOfToday, now));
+        long sessionsThisWeek = countSessions(sessionRollupService.findBetween(startOfWeek, now));
         
         // Tasa de éxito general
-        long successfulSessions = gameSessionRepository.countByStatus(GameSession.GameStatus.SUCCESS);
-        long totalSessions = gameSessionRepository.count();
+        List<SessionRollup> allTime = sessionRollupService.findAllTime();
+        long successfulSessions = countSessions(allTime, GameSession.GameStatus.SUCCESS);
+        long totalSessions = countSessions(allTime);
         double successRate = totalSessions > 0 ? (double) successfulSessions / totalSessions * 100 : 0;
         
         // Actividad reciente (auditoría)
@@ -66,21 +93,64 @@ public class StatisticsService {
         );
     }
     
+    /**
+     * Contar sesiones iniciadas en un rango
+     */
+    public long countSessionsBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return statisticsCache.get("sessions:" + window(startDate, endDate),
+            () -> countSessions(sessionRollupService.findBetween(startDate, endDate)));
+    }
+    
+    /**
+     * Contar sesiones aproximadamente (precisión de una hora en el rango) con filtros opcionales
+     */
+    public long countSessionsApproximately(LocalDateTime startDate, LocalDateTime endDate,
+                                           GameSession.GameStatus status, Long trackId, String deviceType) {
+        return sessionRollupService.findBetween(startDate, endDate).stream()
+            .filter(rollup -> status == null || rollup.getStatus() == status)
+            .filter(rollup -> trackId == null || trackId.equals(rollup.getTrackId()))
+            .filter(rollup -> deviceType == null || deviceType.equals(rollup.getDeviceType()))
+            .mapToLong(SessionRollup::getSessionCount)
+            .sum();
+    }
+    
     /**
      * Obtener estadísticas de actividad por días
      */
     public List<DailyActivityStats> getDailyActivityStats(int days) {
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusDays(days);
-        
-        List<Object[]> dailyStats = gameSessionRepository.getDailyStats(startDate, endDate);
+        return statisticsCache.get("daily:" + days + "d", () -> {
+            LocalDateTime endDate = LocalDateTime.now();
+            return loadDailyActivityStats(endDate.minusDays(days), endDate);
+        });
+    }
+    
+    /**
+     * Obtener estadísticas de actividad por días en un rango (solo días con sesiones)
+     */
+    public List<DailyActivityStats> getDailyActivityStats(LocalDateTime startDate, LocalDateTime endDate) {
+        return statisticsCache.get("daily:" + window(startDate, endDate),
+            () -> loadDailyActivityStats(startDate, endDate));
+    }
+    
+    private List<DailyActivityStats> loadDailyActivityStats(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<LocalDate, long[]> byDay = new TreeMap<>();
+        for (SessionRollup rollup : sessionRollupService.findBetween(startDate, endDate)) {
+            long[] counts = byDay.computeIfAbsent(rollup.getBucketStart().toLocalDate(), d -> new long[3]);
+            counts[0] += rollup.getSessionCount();
+            if (rollup.getStatus() == GameSession.GameStatus.SUCCESS) {
+                counts[1] += rollup.getSessionCount();
+            } else if (rollup.getStatus() == GameSession.GameStatus.FAILED) {
+                counts[2] += rollup.getSessionCount();
+            }
+        }
         
-        return dailyStats.stream()
-            .map(stat -> new DailyActivityStats(
-                stat[0].toString(), // day
-                ((Number) stat[1]).longValue(), // total
-                ((Number) stat[2]).longValue(), // successful
-                ((Number) stat[3]).longValue()  // failed
+        return byDay.entrySet().stream()
+            .filter(entry -> entry.getValue()[0] > 0)
+            .map(entry -> new DailyActivityStats(
+                entry.getKey().toString(),
+                entry.getValue()[0], // total
+                entry.getValue()[1], // successful
+                entry.getValue()[2]  // failed
             ))
             .collect(Collectors.toList());
     }
@@ -89,19 +159,28 @@ public class StatisticsService {
      * Obtener estadísticas de éxito por pista
      */
     public List<TrackSuccessStats> getTrackSuccessStats() {
+        return statisticsCache.get("track-success:30d", this::loadTrackSuccessStats);
+    }
+    
+    private List<TrackSuccessStats> loadTrackSuccessStats() {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusMonths(1); // Último mes
         
-        List<Object[]> trackStats = gameSessionRepository.getSuccessStatsByTrack(startDate, endDate);
-        
-        return trackStats.stream()
-            .map(stat -> new TrackSuccessStats(
-                ((Number) stat[0]).longValue(), // trackId
-                (String) stat[1], // trackName
-                ((Number) stat[2]).longValue(), // total
-                ((Number) stat[3]).longValue(), // successful
-                stat[4] != null ? ((Number) stat[4]).doubleValue() : 0.0 // avgMoves
+        Map<Long, RollupTotals> byTrack = totalsBy(sessionRollupService.findBetween(startDate, endDate),
+                                                   SessionRollup::getTrackId);
+        Map<Long, String> names = trackNames(byTrack.keySet());
+        
+        return byTrack.entrySet().stream()
+            .filter(entry -> entry.getValue().sessions > 0)
+            .map(entry -> new TrackSuccessStats(
+                entry.getKey(),
+                names.get(entry.getKey()),
+                entry.getValue().sessions,
+                entry.getValue().successful,
+                entry.getValue().avgMoves()
             ))
+            .sorted(Comparator.comparingLong(TrackSuccessStats::getSuccessfulSessions).reversed()
+                .thenComparing(Comparator.comparingLong(TrackSuccessStats::getTotalSessions).reversed()))
             .collect(Collectors.toList());
     }
     
@@ -109,36 +188,61 @@ public class StatisticsService {
      * Obtener estadísticas por dispositivo
      */
     public List<DeviceStats> getDeviceStats() {
+        return statisticsCache.get("devices:30d", this::loadDeviceStats);
+    }
+    
+    private List<DeviceStats> loadDeviceStats() {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusMonths(1); // Último mes
         
-        List<Object[]> deviceStats = gameSessionRepository.getDeviceStats(startDate, endDate);
+        Map<String, RollupTotals> byDevice = totalsBy(sessionRollupService.findBetween(startDate, endDate),
+                                                      SessionRollup::getDeviceType);
         
-        return deviceStats.stream()
-            .map(stat -> new DeviceStats(
-                (String) stat[0], // deviceType
-                ((Number) stat[1]).longValue(), // total
-                ((Number) stat[2]).longValue()  // successful
+        return byDevice.entrySet().stream()
+            .filter(entry -> entry.getValue().sessions > 0)
+            .map(entry -> new DeviceStats(
+                entry.getKey(),
+                entry.getValue().sessions,
+                entry.getValue().successful
             ))
+            .sorted(Comparator.comparingLong(DeviceStats::getTotalSessions).reversed())
             .collect(Collectors.toList());
     }
     
     /**
-     * Obtener tiempos promedio de finalización
+     * Obtener tiempos promedio de finalización, con sus percentiles desde CompletionDistributionService
      */
     public List<TrackTimeStats> getAverageCompletionTimes() {
+        return statisticsCache.get("completion-times:30d", this::loadAverageCompletionTimes);
+    }
+    
+    private List<TrackTimeStats> loadAverageCompletionTimes() {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusMonths(1); // Último mes
         
-        List<Object[]> timeStats = gameSessionRepository.getAverageTimesToComplete(startDate, endDate);
-        
-        return timeStats.stream()
-            .map(stat -> new TrackTimeStats(
-                (String) stat[0], // trackName
-                stat[1] != null ? ((Number) stat[1]).longValue() : 0L, // avgExecutionTime
-                stat[2] != null ? ((Number) stat[2]).doubleValue() : 0.0, // avgMoves
-                ((Number) stat[3]).longValue() // sessions
-            ))
+        List<SessionRollup> successful = sessionRollupService.findBetween(startDate, endDate).stream()
+            .filter(rollup -> rollup.getStatus() == GameSession.GameStatus.SUCCESS)
+            .collect(Collectors.toList());
+        Map<Long, RollupTotals> byTrack = totalsBy(successful, SessionRollup::getTrackId);
+        Map<Long, String> names = trackNames(byTrack.keySet());
+        Map<Long, QuantileSketch> distributions = completionDistributionService.getSketchesByTrack(
+            CompletionSketch.Metric.EXECUTION_TIME_MS, startDate, endDate);
+        
+        return byTrack.entrySet().stream()
+            .filter(entry -> entry.getValue().executionCount > 0)
+            .map(entry -> {
+                QuantileSketch sketch = distributions.getOrDefault(entry.getKey(), new QuantileSketch());
+                return new TrackTimeStats(
+                    names.get(entry.getKey()),
+                    entry.getValue().avgExecutionTimeMs(),
+                    entry.getValue().avgMoves(),
+                    entry.getValue().executionCount,
+                    sketch.quantile(0.5),
+                    sketch.quantile(0.9),
+                    sketch.quantile(0.99)
+                );
+            })
+            .sorted(Comparator.comparingLong(TrackTimeStats::getAvgExecutionTimeMs))
             .collect(Collectors.toList());
     }
     
@@ -146,8 +250,12 @@ public class StatisticsService {
      * Obtener errores más comunes
      */
     public List<ErrorStats> getMostCommonErrors() {
+        return statisticsCache.get("errors:30d", this::loadMostCommonErrors);
+    }
+    
+    private List<ErrorStats> loadMostCommonErrors() {
         LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusMonths(1); // Último mes
+        LocalDateTime startDate = sessionPartitionService.clampToHot(endDate.minusMonths(1)); // Último mes
         
         List<Object[]> errorStats = gameSessionRepository.getMostCommonErrors(startDate, endDate);
         
@@ -164,10 +272,14 @@ public class StatisticsService {
      * Obtener estadísticas de auditoría por usuario
      */
     public List<UserAuditStats> getUserAuditStats() {
+        return statisticsCache.get("audit-users:30d", this::loadUserAuditStats);
+    }
+    
+    private List<UserAuditStats> loadUserAuditStats() {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusMonths(1); // Último mes
         
-        List<Object[]> auditStats = auditLogRepository.getActionStatsByUser(startDate, endDate);
+        List<Object[]> auditStats = auditRetentionService.getActionStatsByUser(startDate, endDate);
         
         Map<String, Map<String, Long>> userActionMap = new HashMap<>();
         
@@ -188,23 +300,96 @@ public class StatisticsService {
      * Obtener estadísticas generales del sistema
      */
     public SystemOverviewStats getSystemOverviewStats() {
+        return statisticsCache.get("overview:30d", this::loadSystemOverviewStats);
+    }
+    
+    private SystemOverviewStats loadSystemOverviewStats() {
         LocalDateTime endDate = LocalDateTime.now();
         LocalDateTime startDate = endDate.minusMonths(1); // Último mes
         
-        List<Object[]> generalStats = gameSessionRepository.getGeneralStats(startDate, endDate);
-        
-        if (!generalStats.isEmpty()) {
-            Object[] stats = generalStats.get(0);
-            return new SystemOverviewStats(
-                ((Number) stats[0]).longValue(), // totalSessions
-                ((Number) stats[1]).longValue(), // successfulSessions
-                ((Number) stats[2]).longValue(), // failedSessions
-                stats[3] != null ? ((Number) stats[3]).doubleValue() : 0.0, // avgMoves
-                stats[4] != null ? ((Number) stats[4]).longValue() : 0L // avgExecutionTime
-            );
+        return toOverview(sessionRollupService.findBetween(startDate, endDate));
+    }
+    
+    /**
+     * Obtener estadísticas generales de todas las sesiones registradas
+     */
+    public SystemOverviewStats getAllTimeOverviewStats() {
+        return statisticsCache.get("overview:all", this::loadAllTimeOverviewStats);
+    }
+    
+    private SystemOverviewStats loadAllTimeOverviewStats() {
+        return toOverview(sessionRollupService.findAllTime());
+    }
+    
+    /**
+     * Obtener tiempo promedio (en minutos) de las partidas completadas
+     */
+    public Double getAverageCompletionTimeMinutes() {
+        return statisticsCache.get("completion-minutes:all", this::loadAverageCompletionTimeMinutes);
+    }
+    
+    private Double loadAverageCompletionTimeMinutes() {
+        RollupTotals totals = new RollupTotals();
+        sessionRollupService.findAllTime().stream()
+            .filter(rollup -> rollup.getStatus() == GameSession.GameStatus.SUCCESS)
+            .forEach(totals::add);
+        return totals.executionCount > 0 ? totals.avgExecutionTimeMs() / 60000.0 : null;
+    }
+    
+    /**
+     * Obtener rendimiento histórico por pista
+     */
+    public List<TrackPerformanceStats> getTrackPerformanceStats() {
+        return statisticsCache.get("track-performance:all", this::loadTrackPerformanceStats);
+    }
+    
+    private List<TrackPerformanceStats> loadTrackPerformanceStats() {
+        Map<Long, RollupTotals> byTrack = new HashMap<>();
+        Map<Long, RollupTotals> successByTrack = new HashMap<>();
+        for (SessionRollup rollup : sessionRollupService.findAllTime()) {
+            byTrack.computeIfAbsent(rollup.getTrackId(), id -> new RollupTotals()).add(rollup);
+            if (rollup.getStatus() == GameSession.GameStatus.SUCCESS) {
+                successByTrack.computeIfAbsent(rollup.getTrackId(), id -> new RollupTotals()).add(rollup);
+            }
         }
-        
-        return new SystemOverviewStats(0L, 0L, 0L, 0.0, 0L);
+        Map<Long, String> names = trackNames(byTrack.keySet());
+        
+        return byTrack.entrySet().stream()
+            .filter(entry -> entry.getValue().sessions > 0)
+            .map(entry -> {
+                RollupTotals totals = entry.getValue();
+                RollupTotals success = successByTrack.get(entry.getKey());
+                Double averageTime = success != null && success.executionCount > 0
+                    ? success.avgExecutionTimeMs() / 60000.0 : null;
+                return new TrackPerformanceStats(
+                    names.get(entry.getKey()),
+                    totals.sessions,
+                    totals.successful,
+                    Math.round((double) totals.successful / totals.sessions * 10000) / 100.0,
+                    averageTime
+                );
+            })
+            .sorted(Comparator.comparingLong(TrackPerformanceStats::getTotalGames).reversed())
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Obtener partidas por hora del día desde la fecha indicada
+     */
+    public Map<Integer, Long> getHourlyActivity(LocalDateTime startDate) {
+        LocalDateTime fromHour = startDate.truncatedTo(ChronoUnit.HOURS);
+        return statisticsCache.get("hourly:" + fromHour, () -> loadHourlyActivity(fromHour));
+    }
+    
+    private Map<Integer, Long> loadHourlyActivity(LocalDateTime startDate) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Long> byHour = new TreeMap<>();
+        for (SessionRollup rollup : sessionRollupService.findHourlyBetween(
+                startDate.truncatedTo(ChronoUnit.HOURS), now)) {
+            byHour.merge(rollup.getBucketStart().getHour(), rollup.getSessionCount(), Long::sum);
+        }
+        byHour.values().removeIf(count -> count <= 0);
+        return byHour;
     }
     
     /**
@@ -224,6 +409,87 @@ public class StatisticsService {
         );
     }
     
+    // Métodos auxiliares sobre los agregados
+    
+    /**
+     * Ventana de fechas como parte de la clave de caché; los agregados tienen precisión de una hora
+     */
+    private static String window(LocalDateTime startDate, LocalDateTime endDate) {
+        return startDate.truncatedTo(ChronoUnit.HOURS) + ".." + endDate.truncatedTo(ChronoUnit.HOURS);
+    }
+    
+    private static long countSessions(List<SessionRollup> rollups) {
+        return rollups.stream().mapToLong(SessionRollup::getSessionCount).sum();
+    }
+    
+    private static long countSessions(List<SessionRollup> rollups, GameSession.GameStatus status) {
+        return rollups.stream()
+            .filter(rollup -> rollup.getStatus() == status)
+            .mapToLong(SessionRollup::getSessionCount)
+            .sum();
+    }
+    
+    private static <K> Map<K, RollupTotals> totalsBy(List<SessionRollup> rollups,
+                                                     Function<SessionRollup, K> key) {
+        Map<K, RollupTotals> totals = new HashMap<>();
+        for (SessionRollup rollup : rollups) {
+            totals.computeIfAbsent(key.apply(rollup), k -> new RollupTotals()).add(rollup);
+        }
+        return totals;
+    }
+    
+    private static SystemOverviewStats toOverview(List<SessionRollup> rollups) {
+        RollupTotals totals = new RollupTotals();
+        rollups.forEach(totals::add);
+        return new SystemOverviewStats(
+            totals.sessions,
+            totals.successful,
+            totals.failed,
+            totals.avgMoves(),
+            totals.avgExecutionTimeMs()
+        );
+    }
+    
+    private Map<Long, String> trackNames(Collection<Long> trackIds) {
+        Map<Long, String> names = new HashMap<>();
+        for (Track track : trackRepository.findAllById(trackIds)) {
+            names.put(track.getId(), track.getName());
+        }
+        return names;
+    }
+    
+    /**
+     * Suma de varios agregados
+     */
+    private static class RollupTotals {
+        private long sessions;
+        private long successful;
+        private long failed;
+        private long movesSum;
+        private long executionTimeSum;
+        private long executionCount;
+        
+        void add(SessionRollup rollup) {
+            sessions += rollup.getSessionCount();
+            if (rollup.getStatus() == GameSession.GameStatus.SUCCESS) {
+                successful += rollup.getSessionCount();
+            } else if (rollup.getStatus() == GameSession.GameStatus.FAILED) {
+                failed += rollup.getSessionCount();
+            }
+            movesSum += rollup.getMovesSum();
+            executionTimeSum += rollup.getExecutionTimeSum();
+            executionCount += rollup.getExecutionTimeCount();
+        }
+        
+        double avgMoves() {
+            return sessions > 0 ? (double) movesSum / sessions : 0.0;
+        }
+        
+        long avgExecutionTimeMs() {
+            return executionCount > 0 ? executionTimeSum / executionCount : 0L;
+        }
+    }
+    
     // Clases internas para estadísticas
     
     public static class DashboardStats {
@@ -328,12 +594,19 @@ public class StatisticsService {
         private final long avgExecutionTimeMs;
         private final double avgMoves;
         private final long totalSessions;
+        private final Long p50ExecutionTimeMs;
+        private final Long p90ExecutionTimeMs;
+        private final Long p99ExecutionTimeMs;
         
-        public TrackTimeStats(String trackName, long avgExecutionTimeMs, double avgMoves, long totalSessions) {
+        public TrackTimeStats(String trackName, long avgExecutionTimeMs, double avgMoves, long totalSessions,
+                              Long p50ExecutionTimeMs, Long p90ExecutionTimeMs, Long p99ExecutionTimeMs) {
             this.trackName = trackName;
             this.avgExecutionTimeMs = avgExecutionTimeMs;
             this.avgMoves = avgMoves;
             this.totalSessions = totalSessions;
+            this.p50ExecutionTimeMs = p50ExecutionTimeMs;
+            this.p90ExecutionTimeMs = p90ExecutionTimeMs;
+            this.p99ExecutionTimeMs = p99ExecutionTimeMs;
         }
         
         // Getters
@@ -341,9 +614,36 @@ public class StatisticsService {
         public long getAvgExecutionTimeMs() { return avgExecutionTimeMs; }
         public double getAvgMoves() { return avgMoves; }
         public long getTotalSessions() { return totalSessions; }
+        public Long getP50ExecutionTimeMs() { return p50ExecutionTimeMs; }
+        public Long getP90ExecutionTimeMs() { return p90ExecutionTimeMs; }
+        public Long getP99ExecutionTimeMs() { return p99ExecutionTimeMs; }
         public double getAvgExecutionTimeSeconds() { return avgExecutionTimeMs / 1000.0; }
     }
     
+    public static class TrackPerformanceStats {
+        private final String trackName;
+        private final long totalGames;
+        private final long completedGames;
+        private final double successRate;
+        private final Double averageTimeMinutes;
+        
+        public TrackPerformanceStats(String trackName, long totalGames, long completedGames,
+                                     double successRate, Double averageTimeMinutes) {
+            this.trackName = trackName;
+            this.totalGames = totalGames;
+            this.completedGames = completedGames;
+            this.successRate = successRate;
+            this.averageTimeMinutes = averageTimeMinutes;
+        }
+        
+        // Getters
+        public String getTrackName() { return trackName; }
+        public long getTotalGames() { return totalGames; }
+        public long getCompletedGames() { return completedGames; }
+        public double getSuccessRate() { return successRate; }
+        public Double getAverageTimeMinutes() { return averageTimeMinutes; }
+    }
+    
     public static class ErrorStats {
         private final String errorMessage;
         private final long frequency;
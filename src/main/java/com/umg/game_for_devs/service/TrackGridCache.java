@@ -0,0 +1,62 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.entity.Track;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caché de grids parseados por pista
+ * Cada entrada se identifica por el id de la pista y su updatedAt, de modo que una pista
+ * modificada se vuelve a parsear una sola vez y las lecturas siguientes no tocan el JSON
+ */
+@Service
+public class TrackGridCache {
+    
+    private final ConcurrentMap<Long, CachedGrid> grids = new ConcurrentHashMap<>();
+    
+    /**
+     * Obtener el bitboard de la pista, parseándolo solo si cambió su versión
+     */
+    public TrackGrid get(Track track) {
+        if (track.getId() == null) {
+            return TrackGrid.parse(track.getGridConfig());
+        }
+        
+        CachedGrid cached = grids.get(track.getId());
+        if (cached != null && Objects.equals(cached.updatedAt, track.getUpdatedAt())) {
+            return cached.grid;
+        }
+        
+        TrackGrid grid = TrackGrid.parse(track.getGridConfig());
+        grids.put(track.getId(), new CachedGrid(track.getUpdatedAt(), grid));
+        return grid;
+    }
+    
+    /**
+     * Descartar la versión en caché de una pista
+     */
+    public void evict(Long trackId) {
+        if (trackId != null) {
+            grids.remove(trackId);
+        }
+    }
+    
+    public int size() {
+        return grids.size();
+    }
+    
+    private static final class CachedGrid {
+        private final LocalDateTime updatedAt;
+        private final TrackGrid grid;
+        
+        private CachedGrid(LocalDateTime updatedAt, TrackGrid grid) {
+            this.updatedAt = updatedAt;
+            this.grid = grid;
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.engine.CellHeatmap;
+import com.umg.game_for_devs.engine.ExecutionResult;
+import com.umg.game_for_devs.engine.Heading;
+import com.umg.game_for_devs.engine.MoveCodec;
+import com.umg.game_for_devs.engine.MoveProgram;
+import com.umg.game_for_devs.engine.RobotInterpreter;
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.entity.GameSession;
+import com.umg.game_for_devs.entity.Track;
+import com.umg.game_for_devs.entity.TrackHeatmap;
+import com.umg.game_for_devs.event.GameSessionEvent;
+import com.umg.game_for_devs.repository.TrackHeatmapRepository;
+import com.umg.game_for_devs.repository.TrackRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mapas de calor de fallos por pista
+ * Cada ejecución terminada (GameSessionEvent con estado SUCCESS o FAILED) suma en contadores densos por celda
+ * (CellHeatmap) las celdas pisadas y la posición del choque, con la ejecución que trae el evento (o
+ * reproduciéndola con RobotInterpreter si la sesión se guardó fuera de /api/game). Los
+ * contadores viven en memoria, así que consultar los mapas no recorre game_sessions; las pistas con
+ * cambios se vuelcan como instantáneas compactas en track_heatmaps cada flush-interval-ms
+ */
+@Service
+public class TrackHeatmapService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrackHeatmapService.class);
+
+    private static final int HOTSPOT_LIMIT = 5;
+
+    // Sin filtrar por estado: una sesión que cambió después del corte cuenta según su estado en el corte
+    private static final String SCAN_SQL =
+            "SELECT id, session_id, track_id, status, error_position_x, error_position_y, moves_encoded " +
+            "FROM game_sessions WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private TrackHeatmapRepository trackHeatmapRepository;
+
+    @Autowired
+    private TrackRepository trackRepository;
+
+    @Autowired
+    private ActiveTrackCatalog activeTrackCatalog;
+
+    @Autowired
+    private TrackGridCache trackGridCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionPartitionService sessionPartitionService;
+
+    @Autowired
+    private SessionRebuildCoordinator rebuildCoordinator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.heatmaps.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${game.heatmaps.backfill-page-size:5000}")
+    private int backfillPageSize;
+
+    private final ConcurrentMap<Long, TrackHeat> heatmaps = new ConcurrentHashMap<>();
+
+    // Un volcado no suma celdas mientras rebuild reescribe los mapas de calor
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Los eventos suman bajo el read lock; rebuild abre y cierra rebuildDeltas y reemplaza heatmaps bajo el write lock
+    private final ReentrantReadWriteLock heatLock = new ReentrantReadWriteLock();
+
+    // Ejecuciones posteriores al corte de una reconstrucción en curso; se suman al resultado al terminar
+    private Map<Long, TrackHeat> rebuildDeltas;
+
+    private TransactionTemplate transactionTemplate;
+    private volatile LocalDateTime lastFlushAt;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("game.heatmaps.pending", this, TrackHeatmapService::getPendingCount)
+                .description("Mapas de calor con cambios pendientes de volcar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sumar la ejecución que terminó una sesión (o uno de sus intentos)
+     */
+    @EventListener
+    public void onSessionEvent(GameSessionEvent event) {
+        if (event.getTrackId() == null || !event.isTerminal() || event.getCurrent().sameAs(event.getPrevious())) {
+            return;
+        }
+        // Se ejecuta en el hilo que guardó la sesión: un error aquí no debe afectar al jugador
+        try {
+            TrackGrid grid = event.getExecutionGrid();
+            ExecutionResult result = event.getExecution();
+            if (result == null || grid == null) {
+                // Sesión guardada fuera de /api/game: no trae la ejecución y hay que reproducirla
+                Track track = findTrack(event.getTrackId());
+                if (track == null) {
+                    return;
+                }
+                grid = trackGridCache.get(track);
+                result = replay(track, grid, event.getMovesEncoded());
+            }
+
+            heatLock.readLock().lock();
+            try {
+                recordEvent(heatmaps, event, grid, result);
+                if (rebuildDeltas != null) {
+                    recordEvent(rebuildDeltas, event, grid, result);
+                }
+            } finally {
+                heatLock.readLock().unlock();
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo actualizar el mapa de calor de la pista {}: {}", event.getTrackId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Volcar las instantáneas de las pistas con cambios
+     */
+    @Scheduled(fixedDelayString = "${game.heatmaps.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<TrackHeat> flushed = new ArrayList<>();
+            List<TrackHeatmap> snapshots = new ArrayList<>();
+            heatmaps.forEach((trackId, heat) -> {
+                synchronized (heat) {
+                    if (heat.dirty) {
+                        snapshots.add(toSnapshot(trackId, heat, now));
+                        heat.dirty = false;
+                        flushed.add(heat);
+                    }
+                }
+            });
+            if (snapshots.isEmpty()) {
+                return;
+            }
+
+            try {
+                trackHeatmapRepository.saveAll(snapshots);
+                lastFlushAt = now;
+            } catch (Exception e) {
+                // Se vuelven a marcar para el siguiente intento
+                log.warn("No se pudieron volcar los mapas de calor: {}", e.getMessage());
+                for (TrackHeat heat : flushed) {
+                    synchronized (heat) {
+                        heat.dirty = true;
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Recalcular todos los mapas de calor a partir de game_sessions y de los meses archivados
+     * Usa el corte de SessionRebuildCoordinator: las sesiones que terminaron antes se leen de la base de datos
+     * y las ejecuciones posteriores se acumulan aparte y se suman al resultado. Solo se conoce el último intento
+     * de cada sesión, así que el resultado puede contar menos ejecuciones que los contadores mantenidos con los
+     * eventos
+     */
+    public long rebuild() {
+        flushLock.lock();
+        try (SessionRebuildCoordinator.Snapshot snapshot = rebuildCoordinator.begin(this::openRebuildDeltas)) {
+            Map<Long, Track> tracks = new HashMap<>();
+            Map<Long, TrackHeat> rebuilt = new HashMap<>();
+            long scanned = 0;
+            long lastId = 0;
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SCAN_SQL, lastId,
+                        snapshot.getMaxSessionId(), backfillPageSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Map<String, Object> row : rows) {
+                    lastId = ((Number) row.get("id")).longValue();
+                    if (accumulate(rebuilt, tracks, row, snapshot.resolve(row))) {
+                        scanned++;
+                    }
+                }
+            }
+            long[] archived = {0};
+            sessionPartitionService.forEachArchivedSession(row -> {
+                if (accumulate(rebuilt, tracks, row, snapshot.resolve(row))) {
+                    archived[0]++;
+                }
+            });
+            scanned += archived[0];
+
+            LocalDateTime now = LocalDateTime.now();
+            List<TrackHeatmap> snapshots = new ArrayList<>(rebuilt.size());
+            rebuilt.forEach((trackId, heat) -> snapshots.add(toSnapshot(trackId, heat, now)));
+            transactionTemplate.executeWithoutResult(status -> {
+                trackHeatmapRepository.deleteAllInBatch();
+                trackHeatmapRepository.saveAll(snapshots);
+            });
+
+            heatLock.writeLock().lock();
+            try {
+                // Las ejecuciones posteriores al corte quedan marcadas para el siguiente volcado
+                rebuildDeltas.forEach((trackId, delta) -> rebuilt.merge(trackId, delta, (heat, added) -> {
+                    if (!heat.sameGrid(added)) {
+                        return added;
+                    }
+                    heat.heatmap.addAll(added.heatmap);
+                    heat.dirty = true;
+                    return heat;
+                }));
+                heatmaps.clear();
+                heatmaps.putAll(rebuilt);
+            } finally {
+                heatLock.writeLock().unlock();
+            }
+            lastFlushAt = now;
+            log.info("Mapas de calor reconstruidos: {} sesiones, {} pistas", scanned, rebuilt.size());
+            return scanned;
+        } finally {
+            closeRebuildDeltas();
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Cargar las instantáneas guardadas; si no hay ninguna y ya hay sesiones, reconstruirlas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshots() {
+        try {
+            List<TrackHeatmap> snapshots = trackHeatmapRepository.findAll();
+            for (TrackHeatmap snapshot : snapshots) {
+                CellHeatmap heatmap = CellHeatmap.restore(snapshot.getGridRows(), snapshot.getGridCols(),
+                        snapshot.getRunsCount(), snapshot.getFailuresCount(),
+                        snapshot.getCrashCounts(), snapshot.getVisitCounts());
+                heatmaps.putIfAbsent(snapshot.getTrackId(), new TrackHeat(heatmap, snapshot.getGridHash()));
+            }
+
+            if (snapshots.isEmpty() && backfillOnStartup) {
+                Long sessions = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM game_sessions WHERE status IN ('SUCCESS', 'FAILED')", Long.class);
+                if (sessions != null && sessions > 0) {
+                    rebuild();
+                }
+            }
+        } catch (Exception e) {
+            log.error("No se pudieron cargar los mapas de calor: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Mapa de calor de una pista (vacío si todavía no tiene ejecuciones terminadas)
+     */
+    public Optional<Map<String, Object>> getHeatmap(Long trackId) {
+        TrackHeat heat = heatmaps.get(trackId);
+        return heat != null ? Optional.of(toView(trackId, heat, true)) : Optional.empty();
+    }
+
+    /**
+     * Mapas de calor de todas las pistas con ejecuciones, de la tasa de fallos más alta a la más baja
+     */
+    public List<Map<String, Object>> getHeatmaps(boolean includeMatrices) {
+        List<Map<String, Object>> views = new ArrayList<>(heatmaps.size());
+        heatmaps.forEach((trackId, heat) -> views.add(toView(trackId, heat, includeMatrices)));
+        views.sort(Comparator.comparingDouble((Map<String, Object> view) -> (Double) view.get("failureRate")).reversed());
+        return views;
+    }
+
+    public int getPendingCount() {
+        int pending = 0;
+        for (TrackHeat heat : heatmaps.values()) {
+            if (heat.dirty) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    public LocalDateTime getLastFlushAt() {
+        return lastFlushAt;
+    }
+
+    // Métodos auxiliares
+
+    private Track findTrack(Long trackId) {
+        return activeTrackCatalog.findActive(trackId)
+                .orElseGet(() -> trackRepository.findById(trackId).orElse(null));
+    }
+
+    /**
+     * Se llama dentro del corte: desde aquí las ejecuciones se suman también aparte
+     */
+    private void openRebuildDeltas() {
+        heatLock.writeLock().lock();
+        try {
+            rebuildDeltas = new ConcurrentHashMap<>();
+        } finally {
+            heatLock.writeLock().unlock();
+        }
+    }
+
+    private void closeRebuildDeltas() {
+        heatLock.writeLock().lock();
+        try {
+            rebuildDeltas = null;
+        } finally {
+            heatLock.writeLock().unlock();
+        }
+    }
+
+    private static void recordEvent(Map<Long, TrackHeat> target, GameSessionEvent event, TrackGrid grid,
+                                    ExecutionResult result) {
+        TrackHeat heat = heatFor(target, event.getTrackId(), grid);
+        synchronized (heat) {
+            record(heat.heatmap, result, event.getCurrent().getStatus(),
+                    event.getErrorPositionX(), event.getErrorPositionY());
+            heat.dirty = true;
+        }
+    }
+
+    /**
+     * Contadores de la pista; si el grid cambió desde que se crearon, se empiezan de nuevo
+     */
+    private static TrackHeat heatFor(Map<Long, TrackHeat> target, Long trackId, TrackGrid grid) {
+        return target.compute(trackId, (id, heat) -> heat != null && heat.matches(grid)
+                ? heat
+                : new TrackHeat(new CellHeatmap(grid.getRows(), grid.getCols()), grid.hashCode()));
+    }
+
+    private static ExecutionResult replay(Track track, TrackGrid grid, byte[] movesEncoded) {
+        if (movesEncoded == null) {
+            return null;
+        }
+        try {
+            MoveProgram program = MoveCodec.decode(movesEncoded);
+            return RobotInterpreter.run(grid, track.getStartX(), track.getStartY(),
+                    Heading.fromName(track.getStartDirection()), program, new ExecutionResult());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void record(CellHeatmap heatmap, ExecutionResult result, GameSession.GameStatus status,
+                               Integer errorX, Integer errorY) {
+        if (result != null) {
+            heatmap.record(result);
+        } else {
+            heatmap.recordOutcome(status == GameSession.GameStatus.FAILED, errorX, errorY);
+        }
+    }
+
+    /**
+     * Sumar una sesión terminada en el corte; resolved es la fila con el estado en el corte (null si la sesión
+     * se creó después). Si la sesión cambió después del corte su programa de entonces ya no está en la fila y
+     * solo se cuenta el resultado
+     */
+    private boolean accumulate(Map<Long, TrackHeat> rebuilt, Map<Long, Track> tracks, Map<String, Object> row,
+                               Map<String, Object> resolved) {
+        Object status = resolved != null ? resolved.get("status") : null;
+        Object trackIdValue = row.get("track_id");
+        if ((!"SUCCESS".equals(status) && !"FAILED".equals(status)) || trackIdValue == null) {
+            return false;
+        }
+        Long trackId = ((Number) trackIdValue).longValue();
+        Track track = tracks.computeIfAbsent(trackId, id -> trackRepository.findById(id).orElse(null));
+        if (track == null) {
+            return false;
+        }
+
+        TrackGrid grid = trackGridCache.get(track);
+        TrackHeat heat = rebuilt.computeIfAbsent(trackId,
+                id -> new TrackHeat(new CellHeatmap(grid.getRows(), grid.getCols()), grid.hashCode()));
+        boolean failed = "FAILED".equals(status);
+        if (resolved != row) {
+            heat.heatmap.recordOutcome(failed, null, null);
+            return true;
+        }
+        ExecutionResult result = replay(track, grid, (byte[]) row.get("moves_encoded"));
+        Object errorX = row.get("error_position_x");
+        Object errorY = row.get("error_position_y");
+        record(heat.heatmap, result, failed ? GameSession.GameStatus.FAILED : GameSession.GameStatus.SUCCESS,
+                errorX != null ? ((Number) errorX).intValue() : null,
+                errorY != null ? ((Number) errorY).intValue() : null);
+        return true;
+    }
+
+    private static TrackHeatmap toSnapshot(Long trackId, TrackHeat heat, LocalDateTime now) {
+        CellHeatmap heatmap = heat.heatmap;
+        TrackHeatmap snapshot = new TrackHeatmap();
+        snapshot.setTrackId(trackId);
+        snapshot.setGridRows(heatmap.getRows());
+        snapshot.setGridCols(heatmap.getCols());
+        snapshot.setGridHash(heat.gridHash);
+        snapshot.setRunsCount(heatmap.getRuns());
+        snapshot.setFailuresCount(heatmap.getFailures());
+        snapshot.setCrashCounts(heatmap.compactCrashes());
+        snapshot.setVisitCounts(heatmap.compactVisits());
+        snapshot.setUpdatedAt(now);
+        return snapshot;
+    }
+
+    private Map<String, Object> toView(Long trackId, TrackHeat heat, boolean includeMatrices) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("trackId", trackId);
+        view.put("trackName", activeTrackCatalog.findActive(trackId).map(Track::getName).orElse(null));
+        synchronized (heat) {
+            CellHeatmap heatmap = heat.heatmap;
+            view.put("gridRows", heatmap.getRows());
+            view.put("gridCols", heatmap.getCols());
+            view.put("runs", heatmap.getRuns());
+            view.put("failures", heatmap.getFailures());
+            view.put("failureRate", heatmap.getRuns() > 0 ? (double) heatmap.getFailures() / heatmap.getRuns() : 0.0);
+
+            List<Map<String, Integer>> hotspots = new ArrayList<>();
+            for (int[] hotspot : heatmap.crashHotspots(HOTSPOT_LIMIT)) {
+                Map<String, Integer> cell = new LinkedHashMap<>();
+                cell.put("x", hotspot[0]);
+                cell.put("y", hotspot[1]);
+                cell.put("crashes", hotspot[2]);
+                hotspots.add(cell);
+            }
+            view.put("hotspots", hotspots);
+
+            if (includeMatrices) {
+                view.put("crashMargin", CellHeatmap.MARGIN);
+                view.put("crashes", heatmap.crashMatrix());
+                view.put("visits", heatmap.visitMatrix());
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Contadores de una pista y el grid al que corresponden; se sincroniza sobre la instancia
+     */
+    private static final class TrackHeat {
+        final CellHeatmap heatmap;
+        final int gridHash;
+        boolean dirty;
+
+        TrackHeat(CellHeatmap heatmap, int gridHash) {
+            this.heatmap = heatmap;
+            this.gridHash = gridHash;
+        }
+
+        boolean matches(TrackGrid grid) {
+            return gridHash == grid.hashCode()
+                    && heatmap.getRows() == grid.getRows() && heatmap.getCols() == grid.getCols();
+        }
+
+        boolean sameGrid(TrackHeat other) {
+            return gridHash == other.gridHash
+                    && heatmap.getRows() == other.heatmap.getRows() && heatmap.getCols() == other.heatmap.getCols();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.umg.game_for_devs.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.game_for_devs.engine.Heading;
+import com.umg.game_for_devs.entity.AuditLog;
+import com.umg.game_for_devs.entity.Track;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importación masiva de pistas
+ * Lee el archivo como stream (un array JSON, un objeto suelto o NDJSON con un objeto por línea) y arma
+ * un árbol por registro, así que la memoria no depende del tamaño del paquete. Cada pista se valida con
+ * TrackValidator igual que en createTrack; los nombres repetidos se resuelven contra los nombres existentes cargados una vez
+ * y las filas válidas se insertan en lotes JDBC. La lectura y la resolución de las pistas ocurren fuera de
+ * transacción: cada lote se confirma en su propia transacción corta, así una importación larga no retiene una
+ * conexión mientras el solucionador trabaja. Un registro inválido no detiene la importación: se informa con su
+ * posición; si falla un lote, los anteriores quedan guardados y el resumen informa el error
+ */
+@Service
+public class TrackImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrackImportService.class);
+
+    private static final int MAX_NAME_LENGTH = 100;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO tracks (name, grid_config, grid_rows, grid_cols, start_x, start_y, start_direction, " +
+            "created_at, updated_at, created_by, is_active, difficulty_level, description, difficulty_score, " +
+            "optimal_moves, optimal_loop_length) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TrackValidator trackValidator;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private ActiveTrackCatalog activeTrackCatalog;
+
+    @Value("${game.tracks.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${game.tracks.import.max-records:10000}")
+    private int maxRecords;
+
+    @Value("${game.tracks.import.max-errors:100}")
+    private int maxErrors;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importar un paquete de pistas y devolver el resumen con los errores por registro
+     */
+    public Map<String, Object> importTracks(InputStream input, String currentUsername) {
+        long start = System.nanoTime();
+        Set<String> names = new HashSet<>(jdbcTemplate.queryForList("SELECT name FROM tracks", String.class));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        List<Map<String, Object>> errors = new ArrayList<>();
+        int total = 0;
+        int imported = 0;
+        int renamed = 0;
+        int batchRenamed = 0;
+        int failed = 0;
+        String fatalError = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            // Sin array, los objetos de nivel superior se leen uno tras otro (NDJSON)
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                if (total == maxRecords) {
+                    fatalError = "El archivo excede el máximo de " + maxRecords + " pistas por importación";
+                    break;
+                }
+                int index = total++;
+                JsonNode node = parser.readValueAsTree();
+                // Un registro inválido se informa con su motivo; solo los errores de lectura o de base de datos
+                // interrumpen la importación
+                Track track = new Track();
+                String error = readTrack(node, track, currentUsername);
+                if (error == null) {
+                    error = trackValidator.check(track).getError();
+                }
+                String name = error == null ? uniqueName(track.getName(), names) : null;
+                if (error == null && name == null) {
+                    error = "El nombre ya existe y con el sufijo excede " + MAX_NAME_LENGTH + " caracteres";
+                }
+
+                if (error != null) {
+                    failed++;
+                    if (errors.size() < maxErrors) {
+                        errors.add(toError(index, node, error));
+                    }
+                } else {
+                    if (!name.equals(track.getName())) {
+                        batchRenamed++;
+                    }
+                    names.add(name);
+                    track.setName(name);
+
+                    batch.add(toRow(track, now));
+                    if (batch.size() >= batchSize) {
+                        imported += flush(batch);
+                        renamed += batchRenamed;
+                        batchRenamed = 0;
+                    }
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            // Error de sintaxis: se conservan los registros leídos hasta ese punto
+            fatalError = "Formato JSON inválido cerca del registro " + (total + 1) + ": " + e.getOriginalMessage();
+        } catch (DataAccessException e) {
+            // Los lotes anteriores ya se confirmaron; el que falló se descarta
+            fatalError = "Error al guardar las pistas cerca del registro " + total + ": " + e.getMostSpecificCause().getMessage();
+            batch.clear();
+            batchRenamed = 0;
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el archivo: " + e.getMessage());
+        }
+        try {
+            imported += flush(batch);
+            renamed += batchRenamed;
+        } catch (DataAccessException e) {
+            String message = "Error al guardar el último lote: " + e.getMostSpecificCause().getMessage();
+            fatalError = fatalError == null ? message : fatalError + "; " + message;
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        String details = "registros=" + total + ", importadas=" + imported + ", renombradas=" + renamed
+                + ", con error=" + failed + (fatalError != null ? ", error=" + fatalError : "");
+        int importedTracks = imported;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (importedTracks > 0) {
+                activeTrackCatalog.refreshAfterCommit();
+            }
+            auditService.logAction("Importación masiva de pistas", AuditLog.ActionType.IMPORT,
+                                  "Track", null, importedTracks + " pistas", details);
+        });
+        log.info("Importación masiva de pistas por {}: {} ({} ms)", currentUsername, details, elapsedMs);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("total", total);
+        summary.put("imported", imported);
+        summary.put("renamed", renamed);
+        summary.put("failed", failed);
+        summary.put("errors", errors);
+        summary.put("errorsTruncated", failed > errors.size());
+        summary.put("fatalError", fatalError);
+        summary.put("elapsedMs", elapsedMs);
+        return summary;
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Copiar los campos del registro a la pista; devuelve el motivo del rechazo o null si están completos
+     */
+    private static String readTrack(JsonNode node, Track track, String currentUsername) {
+        if (node == null || !node.isObject()) {
+            return "Cada registro debe ser un objeto JSON";
+        }
+
+        String name = node.path("name").isTextual() ? node.path("name").asText().trim() : "";
+        if (name.isEmpty()) {
+            return "El nombre de la pista es obligatorio";
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            return "El nombre no puede exceder " + MAX_NAME_LENGTH + " caracteres";
+        }
+        track.setName(name);
+
+        // gridConfig puede venir como texto (formato de exportTrack) o como la matriz directamente
+        JsonNode gridConfig = node.path("gridConfig");
+        if (gridConfig.isTextual()) {
+            track.setGridConfig(gridConfig.asText());
+        } else if (gridConfig.isArray()) {
+            track.setGridConfig(gridConfig.toString());
+        } else {
+            return "La configuración del grid es obligatoria";
+        }
+
+        for (String field : new String[] {"startX", "startY"}) {
+            if (!node.path(field).isInt()) {
+                return "El campo " + field + " es obligatorio y debe ser un entero";
+            }
+        }
+        track.setStartX(node.path("startX").asInt());
+        track.setStartY(node.path("startY").asInt());
+        try {
+            track.setStartDirection(Heading.fromName(node.path("startDirection").isTextual()
+                    ? node.path("startDirection").asText() : null).name());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+
+        JsonNode difficulty = node.path("difficultyLevel");
+        track.setDifficultyLevel(difficulty.isInt() ? Math.max(1, Math.min(5, difficulty.asInt())) : 1);
+        track.setDescription(node.path("description").isTextual() ? node.path("description").asText() : null);
+        track.setIsActive(!node.path("isActive").isBoolean() || node.path("isActive").asBoolean());
+        track.setCreatedBy(currentUsername);
+        return null;
+    }
+
+    /**
+     * Mismo sufijo que importTrack, pero contra el conjunto de nombres ya cargado; null si el nombre con
+     * sufijo no cabe en la columna
+     */
+    private static String uniqueName(String name, Set<String> names) {
+        String candidate = name;
+        for (int suffix = 1; names.contains(candidate); suffix++) {
+            candidate = name + " (" + suffix + ")";
+        }
+        return candidate.length() > MAX_NAME_LENGTH ? null : candidate;
+    }
+
+    private static Object[] toRow(Track track, Timestamp now) {
+        return new Object[] {
+                track.getName(), track.getGridConfig(), track.getGridRows(), track.getGridCols(),
+                track.getStartX(), track.getStartY(), track.getStartDirection(),
+                now, now, track.getCreatedBy(), track.getIsActive(), track.getDifficultyLevel(),
+                track.getDescription(), track.getDifficultyScore(), track.getOptimalMoves(),
+                track.getOptimalLoopLength()
+        };
+    }
+
+    private static Map<String, Object> toError(int index, JsonNode node, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("index", index);
+        error.put("name", node != null && node.path("name").isTextual() ? node.path("name").asText() : null);
+        error.put("error", message);
+        return error;
+    }
+
+    /**
+     * Insertar el lote en su propia transacción y devolver cuántas pistas se guardaron
+     */
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+}
@@ -0,0 +1,170 @@
+package com.umg.game_for_devs.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.game_for_devs.entity.Track;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caché de las respuestas JSON de cada pista ya serializadas
+ * Igual que TrackGridCache, cada entrada se identifica por el id y el updatedAt de la pista: el JSON se
+ * genera una vez por versión y las lecturas siguientes escriben los bytes directamente, sin pasar por
+ * Jackson. El ETag fuerte de cada versión sale de los mismos dos valores
+ */
+@Service
+public class TrackPayloadCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ConcurrentMap<Long, TrackPayload> payloads = new ConcurrentHashMap<>();
+
+    /**
+     * Obtener las respuestas serializadas de la pista, generándolas solo si cambió su versión
+     */
+    public TrackPayload get(Track track) {
+        TrackPayload cached = track.getId() != null ? payloads.get(track.getId()) : null;
+        if (cached != null && Objects.equals(cached.updatedAt, track.getUpdatedAt())) {
+            return cached;
+        }
+
+        TrackPayload payload = new TrackPayload(track.getUpdatedAt(), etagOf(track),
+                serialize(track), serialize(toGameView(track)));
+        if (track.getId() != null) {
+            payloads.put(track.getId(), payload);
+        }
+        return payload;
+    }
+
+    /**
+     * Descartar la versión en caché de una pista
+     */
+    public void evict(Long trackId) {
+        if (trackId != null) {
+            payloads.remove(trackId);
+        }
+    }
+
+    public int size() {
+        return payloads.size();
+    }
+
+    /**
+     * ETag fuerte de una versión de la pista: "id-updatedAt" con updatedAt en nanosegundos (hexadecimal)
+     */
+    public static String etagOf(Track track) {
+        LocalDateTime updatedAt = track.getUpdatedAt();
+        long version = updatedAt != null
+                ? updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano()
+                : 0L;
+        return "\"" + track.getId() + "-" + Long.toHexString(version) + "\"";
+    }
+
+    /**
+     * Indica si la cabecera If-None-Match incluye el ETag (comparación débil, como pide la RFC 9110)
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Campos que recibe el juego (el mismo formato que /api/game/track/random)
+     */
+    private static Map<String, Object> toGameView(Track track) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", track.getId());
+        view.put("name", track.getName());
+        view.put("gridConfig", track.getGridConfig());
+        view.put("gridRows", track.getGridRows());
+        view.put("gridCols", track.getGridCols());
+        view.put("startX", track.getStartX());
+        view.put("startY", track.getStartY());
+        view.put("startDirection", track.getStartDirection());
+        view.put("difficultyLevel", track.getDifficultyLevel());
+        view.put("description", track.getDescription());
+        return view;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error al serializar la pista: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Respuestas de una versión de la pista; los arreglos no deben modificarse
+     */
+    public static final class TrackPayload {
+        private final LocalDateTime updatedAt;
+        private final String etag;
+        private final byte[] trackJson;
+        private final byte[] gameJson;
+
+        private TrackPayload(LocalDateTime updatedAt, String etag, byte[] trackJson, byte[] gameJson) {
+            this.updatedAt = updatedAt;
+            this.etag = etag;
+            this.trackJson = trackJson;
+            this.gameJson = gameJson;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * La entidad completa, como la devolvía /api/track/{id}
+         */
+        public byte[] getTrackJson() {
+            return trackJson;
+        }
+
+        /**
+         * La vista del juego sin campos adicionales
+         */
+        public byte[] getGameJson() {
+            return gameJson;
+        }
+
+        /**
+         * La vista del juego con isDifferent y excludedId agregados al final del objeto
+         */
+        public byte[] getGameJson(Long excludeId, boolean isDifferent) {
+            byte[] suffix = (",\"isDifferent\":" + isDifferent + ",\"excludedId\":" + excludeId + "}")
+                    .getBytes(StandardCharsets.US_ASCII);
+            // gameJson termina en '}': se reemplaza por los campos nuevos y el cierre
+            byte[] json = Arrays.copyOf(gameJson, gameJson.length - 1 + suffix.length);
+            System.arraycopy(suffix, 0, json, gameJson.length - 1, suffix.length);
+            return json;
+        }
+    }
+}
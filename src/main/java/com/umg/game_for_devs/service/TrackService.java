@@ -1,9 +1,17 @@
 package com.umg.game_for_devs.service;
 
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.engine.TrackSolution;
+import com.umg.game_for_devs.entity.AuditLog;
 import com.umg.game_for_devs.entity.Track;
 import com.umg.game_for_devs.repository.TrackRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +23,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,12 +35,29 @@ import java.util.Optional;
 @Transactional
 public class TrackService {
     
+    private static final Logger log = LoggerFactory.getLogger(TrackService.class);
+    
     @Autowired
     private TrackRepository trackRepository;
     
     @Autowired
     private AuditService auditService;
     
+    @Autowired
+    private TrackGridCache trackGridCache;
+    
+    @Autowired
+    private ActiveTrackCatalog activeTrackCatalog;
+    
+    @Autowired
+    private TrackPayloadCache trackPayloadCache;
+    
+    @Autowired
+    private TrackValidator trackValidator;
+    
+    @Value("${game.tracks.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     /**
@@ -62,7 +88,7 @@ public class TrackService {
      * Obtener una pista aleatoria activa
      */
     public Optional<Track> getRandomTrack() {
-        return trackRepository.findRandomActiveTrack();
+        return activeTrackCatalog.randomTrack(null);
     }
     
     /**
@@ -74,14 +100,15 @@ public class TrackService {
             throw new RuntimeException("Ya existe una pista con ese nombre");
         }
         
-        // Validar configuración del grid
-        validateGridConfig(track.getGridConfig());
+        // Validar configuración del grid y resolver la pista
+        trackValidator.check(track).orElseThrow();
         
         // Establecer creado por
         track.setCreatedBy(currentUsername);
         
         // Guardar pista
         Track savedTrack = trackRepository.save(track);
+        activeTrackCatalog.refreshAfterCommit();
         
         // Registrar en auditoría
         auditService.logTrackCreated(savedTrack.getId(), savedTrack.getName());
@@ -103,7 +130,7 @@ public class TrackService {
         }
         
         // Validar configuración del grid
-        validateGridConfig(trackDetails.getGridConfig());
+        TrackGrid grid = trackValidator.checkGrid(trackDetails.getGridConfig()).orElseThrow().getGrid();
         
         // Validar que no se desactive la última pista activa
         if (track.getIsActive() && !trackDetails.getIsActive()) {
@@ -122,8 +149,12 @@ public class TrackService {
         track.setDifficultyLevel(trackDetails.getDifficultyLevel());
         track.setDescription(trackDetails.getDescription());
         track.setIsActive(trackDetails.getIsActive());
+        trackValidator.analyze(track, grid).orElseThrow();
         
         Track savedTrack = trackRepository.save(track);
+        trackGridCache.evict(savedTrack.getId());
+        trackPayloadCache.evict(savedTrack.getId());
+        activeTrackCatalog.refreshAfterCommit();
         
         // Registrar en auditoría
         auditService.logTrackUpdated(savedTrack.getId(), savedTrack.getName());
@@ -146,6 +177,7 @@ public class TrackService {
         
         track.setIsActive(false);
         trackRepository.save(track);
+        activeTrackCatalog.refreshAfterCommit();
         
         // Registrar en auditoría
         auditService.logTrackDeleted(track.getId(), track.getName());
@@ -160,6 +192,7 @@ public class TrackService {
         
         track.setIsActive(true);
         Track savedTrack = trackRepository.save(track);
+        activeTrackCatalog.refreshAfterCommit();
         
         // Registrar en auditoría
         auditService.logAction("Pista reactivada", 
@@ -241,10 +274,11 @@ public class TrackService {
                 suffix++;
             }
             
-            // Validar configuración del grid
-            validateGridConfig(track.getGridConfig());
+            // Validar configuración del grid y resolver la pista
+            trackValidator.check(track).orElseThrow();
             
             Track savedTrack = trackRepository.save(track);
+            activeTrackCatalog.refreshAfterCommit();
             
             // Registrar en auditoría
             auditService.logTrackImport(savedTrack.getName());
@@ -273,50 +307,63 @@ public class TrackService {
     }
     
     /**
-     * Validar configuración del grid
+     * Recalcular la dificultad de todas las pistas del catálogo
+     * No rechaza pistas existentes: las que no tienen solución quedan sin puntaje
      */
-    private void validateGridConfig(String gridConfig) {
-        try {
-            int[][] grid = objectMapper.readValue(gridConfig, int[][].class);
-            
-            // Validar dimensiones (4 filas x 5 columnas)
-            if (grid.length != 4) {
-                throw new RuntimeException("El grid debe tener exactamente 4 filas");
-            }
-            
-            for (int[] row : grid) {
-                if (row.length != 5) {
-                    throw new RuntimeException("Cada fila del grid debe tener exactamente 5 columnas");
-                }
-            }
-            
-            // Validar que solo contenga 0s y 1s
-            for (int[] row : grid) {
-                for (int cell : row) {
-                    if (cell != 0 && cell != 1) {
-                        throw new RuntimeException("Las celdas del grid solo pueden contener 0 o 1");
-                    }
-                }
-            }
-            
-            // Validar que haya al menos una celda con valor 1 (camino)
-            boolean hasPath = false;
-            for (int[] row : grid) {
-                for (int cell : row) {
-                    if (cell == 1) {
-                        hasPath = true;
-                        break;
-                    }
-                }
-                if (hasPath) break;
+    public Map<Track, TrackSolution> analyzeCatalog() {
+        Map<Track, TrackSolution> results = new LinkedHashMap<>();
+        for (Track track : trackRepository.findAll(Sort.by("id"))) {
+            TrackSolution solution;
+            try {
+                TrackGrid grid = parseGrid(track);
+                solution = trackValidator.solve(track, grid);
+                trackValidator.apply(track, grid, solution);
+            } catch (RuntimeException e) {
+                log.warn("Pista {} con configuración inválida: {}", track.getId(), e.getMessage());
+                continue;
             }
-            
-            if (!hasPath) {
-                throw new RuntimeException("El grid debe tener al menos una celda de camino (valor 1)");
+            results.put(track, solution);
+        }
+        trackRepository.saveAll(results.keySet());
+        activeTrackCatalog.refreshAfterCommit();
+        
+        auditService.logAction("Análisis de dificultad de pistas", AuditLog.ActionType.UPDATE,
+                              "Track", null, results.size() + " pistas");
+        return results;
+    }
+    
+    /**
+     * Obtener la solución óptima de una pista
+     */
+    public TrackSolution getTrackSolution(Long id) {
+        Track track = trackRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Pista no encontrada"));
+        return trackValidator.solve(track, parseGrid(track));
+    }
+    
+    /**
+     * Completar dimensiones y dificultad de las pistas guardadas antes de que existieran esas columnas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTracks() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        List<Track> pending = trackRepository.findByGridRowsIsNull();
+        int updated = 0;
+        for (Track track : pending) {
+            try {
+                TrackGrid grid = parseGrid(track);
+                trackValidator.apply(track, grid, trackValidator.solve(track, grid));
+                updated++;
+            } catch (RuntimeException e) {
+                log.warn("No se pudo completar la pista {}: {}", track.getId(), e.getMessage());
             }
-            
-        } catch (IOException e) {
-            throw new RuntimeException("Formato de grid inválido: debe ser un array JSON válido");
+        }
+        if (updated > 0) {
+            trackRepository.saveAll(pending);
+            activeTrackCatalog.refreshAfterCommit();
+            log.info("Dimensiones y dificultad calculadas para {} pistas", updated);
         }
     }
     
@@ -327,6 +374,16 @@ public class TrackService {
         return !trackRepository.existsByNameAndIsActiveTrue(name);
     }
     
+    // Métodos auxiliares
+    
+    private TrackGrid parseGrid(Track track) {
+        try {
+            return TrackGrid.parse(track.getGridConfig());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+    
     /**
      * Clase interna para estadísticas de pistas
      */
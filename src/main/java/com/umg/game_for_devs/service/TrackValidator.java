@@ -0,0 +1,177 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.engine.Heading;
+import com.umg.game_for_devs.engine.TrackGrid;
+import com.umg.game_for_devs.engine.TrackSolution;
+import com.umg.game_for_devs.engine.TrackSolver;
+import com.umg.game_for_devs.entity.Track;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validación de pistas compartida por TrackService y TrackImportService
+ * No es transaccional ni lanza excepciones por una pista inválida: devuelve un Result con el motivo, así la
+ * importación masiva descarta el registro sin pasar por el manejo de excepciones de la transacción
+ */
+@Component
+public class TrackValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(TrackValidator.class);
+
+    @Value("${game.tracks.solver.max-states:200000}")
+    private int solverMaxStates = TrackSolver.DEFAULT_MAX_STATES;
+
+    // Los valores por defecto también aplican cuando el validador se crea fuera de Spring (benchmarks)
+    @Value("${game.tracks.grid.min-rows:1}")
+    private int minRows = 1;
+
+    @Value("${game.tracks.grid.max-rows:64}")
+    private int maxRows = TrackGrid.MAX_SIDE;
+
+    @Value("${game.tracks.grid.min-cols:1}")
+    private int minCols = 1;
+
+    @Value("${game.tracks.grid.max-cols:64}")
+    private int maxCols = TrackGrid.MAX_SIDE;
+
+    /**
+     * Validar la configuración del grid: formato, dimensiones y al menos una celda de camino
+     */
+    public Result checkGrid(String gridConfig) {
+        TrackGrid grid;
+        try {
+            grid = TrackGrid.parse(gridConfig);
+        } catch (IllegalArgumentException e) {
+            return Result.invalid(e.getMessage());
+        }
+
+        // Validar dimensiones (límites configurables, hasta 64x64)
+        if (grid.getRows() < minRows || grid.getRows() > maxRows) {
+            return Result.invalid("El grid debe tener entre " + minRows + " y " + maxRows + " filas");
+        }
+
+        if (grid.getCols() < minCols || grid.getCols() > maxCols) {
+            return Result.invalid("Cada fila del grid debe tener entre " + minCols + " y " + maxCols + " columnas");
+        }
+
+        // Validar que haya al menos una celda con valor 1 (camino)
+        if (!grid.hasPath()) {
+            return Result.invalid("El grid debe tener al menos una celda de camino (valor 1)");
+        }
+        return new Result(grid, null, null);
+    }
+
+    /**
+     * Validar el grid de la pista y analizarla
+     */
+    public Result check(Track track) {
+        Result gridResult = checkGrid(track.getGridConfig());
+        return gridResult.isValid() ? analyze(track, gridResult.getGrid()) : gridResult;
+    }
+
+    /**
+     * Resolver la pista y guardar su dificultad objetiva (puntaje, nivel y longitudes óptimas)
+     * Rechaza pistas sin solución desde la posición inicial; si la búsqueda excede el límite de estados
+     * la pista se acepta y conserva el nivel indicado por el administrador
+     */
+    public Result analyze(Track track, TrackGrid grid) {
+        Result result = resolve(track, grid);
+        if (!result.isValid()) {
+            return result;
+        }
+        TrackSolution solution = result.getSolution();
+        if (solution.isDetermined() && !solution.isSolvable()) {
+            return Result.invalid("La pista no tiene solución desde la posición inicial");
+        }
+        if (!solution.isDetermined()) {
+            log.warn("No se pudo determinar la solución de la pista '{}' con {} estados", track.getName(), solverMaxStates);
+        }
+        apply(track, grid, solution);
+        return result;
+    }
+
+    /**
+     * Resolver una pista ya guardada, aunque no tenga solución; lanza RuntimeException si la posición o la
+     * dirección inicial no son válidas
+     */
+    public TrackSolution solve(Track track, TrackGrid grid) {
+        return resolve(track, grid).orElseThrow().getSolution();
+    }
+
+    /**
+     * Copiar a la pista las dimensiones del grid y la dificultad calculada
+     */
+    public void apply(Track track, TrackGrid grid, TrackSolution solution) {
+        track.setGridRows(grid.getRows());
+        track.setGridCols(grid.getCols());
+        track.setDifficultyScore(solution.getDifficultyScore());
+        track.setOptimalMoves(solution.getMinMoves());
+        track.setOptimalLoopLength(solution.getMinLoopProgramLength());
+        if (solution.isSolvable()) {
+            track.setDifficultyLevel(solution.getDifficultyLevel());
+        }
+    }
+
+    // Métodos auxiliares
+
+    private Result resolve(Track track, TrackGrid grid) {
+        if (track.getStartX() == null || track.getStartY() == null) {
+            return Result.invalid("La posición inicial es obligatoria");
+        }
+        Heading heading;
+        try {
+            heading = Heading.fromName(track.getStartDirection());
+        } catch (IllegalArgumentException e) {
+            return Result.invalid(e.getMessage());
+        }
+        TrackSolution solution = TrackSolver.solve(grid, track.getStartX(), track.getStartY(), heading, solverMaxStates);
+        return new Result(grid, solution, null);
+    }
+
+    /**
+     * Resultado de una validación: el grid y la solución si la pista es válida, o el motivo del rechazo
+     */
+    public static final class Result {
+        private final TrackGrid grid;
+        private final TrackSolution solution;
+        private final String error;
+
+        private Result(TrackGrid grid, TrackSolution solution, String error) {
+            this.grid = grid;
+            this.solution = solution;
+            this.error = error;
+        }
+
+        static Result invalid(String error) {
+            return new Result(null, null, error);
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public TrackGrid getGrid() {
+            return grid;
+        }
+
+        public TrackSolution getSolution() {
+            return solution;
+        }
+
+        /**
+         * Para los flujos de un solo registro, que informan el rechazo con una excepción
+         */
+        public Result orElseThrow() {
+            if (error != null) {
+                throw new RuntimeException(error);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.AuditLog;
+import com.umg.game_for_devs.entity.PlayerSketch;
+import com.umg.game_for_devs.entity.SessionRollup;
+import com.umg.game_for_devs.event.AuditLogEvent;
+import com.umg.game_for_devs.event.GameSessionEvent;
+import com.umg.game_for_devs.repository.PlayerSketchRepository;
+import com.umg.game_for_devs.util.HyperLogLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Conteo aproximado de jugadores y administradores distintos con sketches HyperLogLog
+ * Cada sesión iniciada agrega el hash de su IP y navegador al sketch de su hora, día e histórico (por pista y
+ * dispositivo); cada entrada de auditoría agrega su username. Los sketches pendientes se combinan con los
+ * guardados en player_sketches cada flush-interval-ms. Como la unión toma el máximo de cada registro, volver
+ * a combinar un sketch no cambia nada: un volcado reintentado o una reconstrucción no cuentan dos veces
+ * Las consultas combinan los sketches del intervalo igual que SessionRollupService.findBetween (días completos
+ * desde DAY y los extremos desde HOUR), así que su costo no depende de la cantidad de sesiones
+ */
+@Service
+public class UniquePlayerService {
+
+    private static final Logger log = LoggerFactory.getLogger(UniquePlayerService.class);
+
+    private static final String UNKNOWN_DEVICE = "UNKNOWN";
+
+    /** Error estándar relativo de HyperLogLog con la precisión usada */
+    public static final double RELATIVE_ERROR = 1.04 / Math.sqrt(1 << HyperLogLog.PRECISION);
+
+    private static final String SESSION_SCAN_SQL =
+            "SELECT id, track_id, device_type, start_time, ip_address, user_agent " +
+            "FROM game_sessions WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+
+    private static final String AUDIT_SCAN_SQL =
+            "SELECT id, username, timestamp FROM audit_logs WHERE id > ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private PlayerSketchRepository playerSketchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SessionPartitionService sessionPartitionService;
+
+    @Autowired
+    private AuditSegmentStore auditSegmentStore;
+
+    @Autowired
+    private SessionRebuildCoordinator rebuildCoordinator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.unique-players.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${game.unique-players.backfill-page-size:5000}")
+    private int backfillPageSize;
+
+    // Los eventos agregan bajo el read lock; el volcado intercambia el mapa bajo el write lock
+    // Las consultas leen la referencia sin el lock, por eso es volatile: ven el mapa anterior o el nuevo completo
+    private final ReentrantReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private volatile Map<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    // Un volcado no combina sketches mientras rebuild borra y reescribe player_sketches
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+    private volatile LocalDateTime lastFlushAt;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("game.unique-players.pending", this, UniquePlayerService::getPendingCount)
+                .description("Sketches de usuarios distintos pendientes de volcar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Contar al jugador de cada sesión iniciada
+     */
+    @EventListener
+    public void onSessionEvent(GameSessionEvent event) {
+        if (event.getType() != GameSessionEvent.Type.STARTED || event.getTrackId() == null
+                || event.getStartTime() == null) {
+            return;
+        }
+        long hash = HyperLogLog.hash(playerIdentity(event.getIpAddress(), event.getUserAgent()));
+        pendingLock.readLock().lock();
+        try {
+            add(PlayerSketch.Scope.PLAYERS, event.getStartTime(), event.getTrackId(),
+                    normalizeDevice(event.getDeviceType()), hash);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Contar al usuario de cada entrada de auditoría
+     */
+    @EventListener
+    public void onAuditEvent(AuditLogEvent event) {
+        if (event.getUsername() == null) {
+            return;
+        }
+        LocalDateTime timestamp = event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+        long hash = HyperLogLog.hash(event.getUsername());
+        pendingLock.readLock().lock();
+        try {
+            add(PlayerSketch.Scope.AUDIT_USERS, timestamp, PlayerSketch.NO_TRACK, PlayerSketch.ALL_DEVICES, hash);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Combinar los sketches pendientes con los guardados
+     */
+    @Scheduled(fixedDelayString = "${game.unique-players.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<SketchKey, HyperLogLog> batch = drainPending();
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                transactionTemplate.executeWithoutResult(status -> batch.forEach((key, sketch) -> merge(key, sketch, now)));
+                lastFlushAt = now;
+            } catch (Exception e) {
+                // Volver a combinar es idempotente: se devuelven tal cual para el siguiente intento
+                log.warn("No se pudieron volcar los sketches de usuarios distintos: {}", e.getMessage());
+                restorePending(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Recalcular todos los sketches a partir de game_sessions (incluidos los meses archivados) y la bitácora de
+     * auditoría (audit_logs y sus segmentos fríos)
+     * Casi todas las claves (una hora de una pista y dispositivo) tienen pocos jugadores y su sketch queda disperso,
+     * así que el mapa en memoria crece con los registros usados y no 4 KB por clave
+     * El corte de SessionRebuildCoordinator vacía antes las escrituras diferidas de sesiones y auditoría; los
+     * pendientes no se descartan porque combinar un sketch es idempotente y se suman en el siguiente volcado
+     */
+    public long rebuild() {
+        flushLock.lock();
+        try (SessionRebuildCoordinator.Snapshot snapshot = rebuildCoordinator.begin(() -> {})) {
+            Map<SketchKey, HyperLogLog> sketches = new HashMap<>();
+            long scanned = 0;
+            long lastId = 0;
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SESSION_SCAN_SQL, lastId,
+                        snapshot.getMaxSessionId(), backfillPageSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Map<String, Object> row : rows) {
+                    lastId = ((Number) row.get("id")).longValue();
+                    accumulateSession(sketches, row);
+                    scanned++;
+                }
+            }
+            scanned += sessionPartitionService.forEachArchivedSession(row -> accumulateSession(sketches, row));
+
+            lastId = 0;
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(AUDIT_SCAN_SQL, lastId, backfillPageSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                for (Map<String, Object> row : rows) {
+                    lastId = ((Number) row.get("id")).longValue();
+                    accumulateAudit(sketches, (String) row.get("username"), toLocalDateTime(row.get("timestamp")));
+                    scanned++;
+                }
+            }
+            try (Stream<AuditLog> coldEntries = auditSegmentStore.stream(AuditSegmentStore.Filter.between(null, null))) {
+                for (AuditLog entry : (Iterable<AuditLog>) coldEntries::iterator) {
+                    accumulateAudit(sketches, entry.getUsername(), entry.getTimestamp());
+                    scanned++;
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<PlayerSketch> rows = new ArrayList<>(sketches.size());
+            sketches.forEach((key, sketch) -> rows.add(toEntity(key, sketch, now)));
+            transactionTemplate.executeWithoutResult(status -> {
+                playerSketchRepository.deleteAllInBatch();
+                playerSketchRepository.saveAll(rows);
+            });
+            lastFlushAt = now;
+            log.info("Sketches de usuarios distintos reconstruidos: {} registros, {} filas", scanned, rows.size());
+            return scanned;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Reconstruir los sketches al arrancar si la tabla está vacía
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (playerSketchRepository.count() == 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Falló la reconstrucción inicial de sketches de usuarios distintos: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Jugadores distintos en [from, to] en total, por pista y por dispositivo (precisión de una hora)
+     * Con from null se usan los sketches históricos
+     */
+    public Map<String, Object> countPlayers(LocalDateTime from, LocalDateTime to) {
+        HyperLogLog total = new HyperLogLog();
+        Map<Long, HyperLogLog> byTrack = new TreeMap<>();
+        Map<String, HyperLogLog> byDevice = new TreeMap<>();
+        forEachSketch(PlayerSketch.Scope.PLAYERS, from, to, (key, sketch) -> {
+            total.addAll(sketch);
+            byTrack.computeIfAbsent(key.trackId, k -> new HyperLogLog()).addAll(sketch);
+            byDevice.computeIfAbsent(key.deviceType, k -> new HyperLogLog()).addAll(sketch);
+        });
+
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("total", total.estimate());
+        counts.put("byTrack", estimates(byTrack));
+        counts.put("byDevice", estimates(byDevice));
+        counts.put("relativeError", RELATIVE_ERROR);
+        return counts;
+    }
+
+    /**
+     * Jugadores distintos en [from, to] (precisión de una hora)
+     */
+    public long countTotalPlayers(LocalDateTime from, LocalDateTime to) {
+        HyperLogLog total = new HyperLogLog();
+        forEachSketch(PlayerSketch.Scope.PLAYERS, from, to, (key, sketch) -> total.addAll(sketch));
+        return total.estimate();
+    }
+
+    /**
+     * Usuarios distintos con entradas de auditoría en [from, to] (precisión de una hora)
+     */
+    public long countAuditUsers(LocalDateTime from, LocalDateTime to) {
+        HyperLogLog total = new HyperLogLog();
+        forEachSketch(PlayerSketch.Scope.AUDIT_USERS, from, to, (key, sketch) -> total.addAll(sketch));
+        return total.estimate();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public LocalDateTime getLastFlushAt() {
+        return lastFlushAt;
+    }
+
+    // Métodos auxiliares
+
+    private void add(PlayerSketch.Scope scope, LocalDateTime time, long trackId, String deviceType, long hash) {
+        for (SessionRollup.Granularity granularity : SessionRollup.Granularity.values()) {
+            SketchKey key = new SketchKey(scope, granularity, bucketOf(granularity, time), trackId, deviceType);
+            HyperLogLog sketch = pending.computeIfAbsent(key, k -> new HyperLogLog());
+            synchronized (sketch) {
+                sketch.add(hash);
+            }
+        }
+    }
+
+    private static void addTo(Map<SketchKey, HyperLogLog> sketches, PlayerSketch.Scope scope, LocalDateTime time,
+                              long trackId, String deviceType, long hash) {
+        for (SessionRollup.Granularity granularity : SessionRollup.Granularity.values()) {
+            SketchKey key = new SketchKey(scope, granularity, bucketOf(granularity, time), trackId, deviceType);
+            sketches.computeIfAbsent(key, k -> new HyperLogLog()).add(hash);
+        }
+    }
+
+    private static void accumulateSession(Map<SketchKey, HyperLogLog> sketches, Map<String, Object> row) {
+        Object trackId = row.get("track_id");
+        LocalDateTime startTime = toLocalDateTime(row.get("start_time"));
+        if (trackId != null && startTime != null) {
+            long hash = HyperLogLog.hash(playerIdentity((String) row.get("ip_address"), (String) row.get("user_agent")));
+            addTo(sketches, PlayerSketch.Scope.PLAYERS, startTime, ((Number) trackId).longValue(),
+                    normalizeDevice((String) row.get("device_type")), hash);
+        }
+    }
+
+    private static void accumulateAudit(Map<SketchKey, HyperLogLog> sketches, String username, LocalDateTime timestamp) {
+        if (username != null && timestamp != null) {
+            addTo(sketches, PlayerSketch.Scope.AUDIT_USERS, timestamp, PlayerSketch.NO_TRACK,
+                    PlayerSketch.ALL_DEVICES, HyperLogLog.hash(username));
+        }
+    }
+
+    private Map<SketchKey, HyperLogLog> drainPending() {
+        pendingLock.writeLock().lock();
+        try {
+            Map<SketchKey, HyperLogLog> drained = pending;
+            pending = new ConcurrentHashMap<>();
+            return drained;
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+    }
+
+    private void restorePending(Map<SketchKey, HyperLogLog> batch) {
+        pendingLock.readLock().lock();
+        try {
+            batch.forEach((key, sketch) -> {
+                HyperLogLog target = pending.computeIfAbsent(key, k -> new HyperLogLog());
+                synchronized (target) {
+                    target.addAll(sketch);
+                }
+            });
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    private void merge(SketchKey key, HyperLogLog sketch, LocalDateTime now) {
+        Optional<PlayerSketch> stored = playerSketchRepository.findByScopeAndGranularityAndBucketStartAndTrackIdAndDeviceType(
+                key.scope, key.granularity, key.bucketStart, key.trackId, key.deviceType);
+        if (stored.isPresent()) {
+            HyperLogLog merged = HyperLogLog.fromBytes(stored.get().getSketch());
+            merged.addAll(sketch);
+            stored.get().setSketch(merged.toBytes());
+            stored.get().setUpdatedAt(now);
+            playerSketchRepository.save(stored.get());
+        } else {
+            playerSketchRepository.save(toEntity(key, sketch, now));
+        }
+    }
+
+    /**
+     * Recorre los sketches guardados y pendientes que cubren [from, to]
+     */
+    private void forEachSketch(PlayerSketch.Scope scope, LocalDateTime from, LocalDateTime to,
+                               BiConsumer<SketchKey, HyperLogLog> consumer) {
+        if (from == null) {
+            forEachSketch(scope, SessionRollup.Granularity.TOTAL, SessionRollup.TOTAL_BUCKET,
+                    SessionRollup.TOTAL_BUCKET.plusHours(1), consumer);
+            return;
+        }
+
+        LocalDateTime fromHour = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime toExclusive = to.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime firstFullDay = fromHour.equals(from.truncatedTo(ChronoUnit.DAYS))
+                ? fromHour : from.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime lastDay = toExclusive.equals(toExclusive.truncatedTo(ChronoUnit.DAYS))
+                ? toExclusive : toExclusive.truncatedTo(ChronoUnit.DAYS);
+        if (!firstFullDay.isBefore(lastDay)) {
+            forEachSketch(scope, SessionRollup.Granularity.HOUR, fromHour, toExclusive, consumer);
+            return;
+        }
+        forEachSketch(scope, SessionRollup.Granularity.HOUR, fromHour, firstFullDay, consumer);
+        forEachSketch(scope, SessionRollup.Granularity.DAY, firstFullDay, lastDay, consumer);
+        forEachSketch(scope, SessionRollup.Granularity.HOUR, lastDay, toExclusive, consumer);
+    }
+
+    private void forEachSketch(PlayerSketch.Scope scope, SessionRollup.Granularity granularity,
+                               LocalDateTime start, LocalDateTime end, BiConsumer<SketchKey, HyperLogLog> consumer) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        // Primero los pendientes: si un volcado los guarda entre las dos lecturas se combinan dos veces, sin efecto
+        pending.forEach((key, sketch) -> {
+            if (key.scope == scope && key.granularity == granularity
+                    && !key.bucketStart.isBefore(start) && key.bucketStart.isBefore(end)) {
+                synchronized (sketch) {
+                    consumer.accept(key, sketch);
+                }
+            }
+        });
+        for (PlayerSketch row : playerSketchRepository.findBetween(scope, granularity, start, end)) {
+            consumer.accept(new SketchKey(scope, granularity, row.getBucketStart(), row.getTrackId(),
+                    row.getDeviceType()), HyperLogLog.fromBytes(row.getSketch()));
+        }
+    }
+
+    private static <K> Map<K, Long> estimates(Map<K, HyperLogLog> sketches) {
+        Map<K, Long> estimates = new LinkedHashMap<>();
+        sketches.forEach((key, sketch) -> estimates.put(key, sketch.estimate()));
+        return estimates;
+    }
+
+    private static PlayerSketch toEntity(SketchKey key, HyperLogLog sketch, LocalDateTime now) {
+        PlayerSketch entity = new PlayerSketch();
+        entity.setScope(key.scope);
+        entity.setGranularity(key.granularity);
+        entity.setBucketStart(key.bucketStart);
+        entity.setTrackId(key.trackId);
+        entity.setDeviceType(key.deviceType);
+        entity.setSketch(sketch.toBytes());
+        entity.setUpdatedAt(now);
+        return entity;
+    }
+
+    /**
+     * Los jugadores públicos no tienen cuenta: se identifican por IP y navegador
+     */
+    private static String playerIdentity(String ipAddress, String userAgent) {
+        return (ipAddress != null ? ipAddress : "") + '|' + (userAgent != null ? userAgent : "");
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private static LocalDateTime bucketOf(SessionRollup.Granularity granularity, LocalDateTime time) {
+        switch (granularity) {
+            case HOUR:
+                return time.truncatedTo(ChronoUnit.HOURS);
+            case DAY:
+                return time.truncatedTo(ChronoUnit.DAYS);
+            default:
+                return SessionRollup.TOTAL_BUCKET;
+        }
+    }
+
+    private static String normalizeDevice(String deviceType) {
+        return deviceType != null && !deviceType.isBlank() ? deviceType : UNKNOWN_DEVICE;
+    }
+
+    private static final class SketchKey {
+        final PlayerSketch.Scope scope;
+        final SessionRollup.Granularity granularity;
+        final LocalDateTime bucketStart;
+        final Long trackId;
+        final String deviceType;
+        final int hash;
+
+        SketchKey(PlayerSketch.Scope scope, SessionRollup.Granularity granularity, LocalDateTime bucketStart,
+                  Long trackId, String deviceType) {
+            this.scope = scope;
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.trackId = trackId;
+            this.deviceType = deviceType;
+            this.hash = Objects.hash(scope, granularity, bucketStart, trackId, deviceType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SketchKey)) return false;
+            SketchKey other = (SketchKey) o;
+            return scope == other.scope && granularity == other.granularity
+                    && bucketStart.equals(other.bucketStart) && trackId.equals(other.trackId)
+                    && deviceType.equals(other.deviceType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
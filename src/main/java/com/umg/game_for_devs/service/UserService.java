@@ -1,5 +1,6 @@
 package com.umg.game_for_devs.service;
 
+import com.umg.game_for_devs.dto.CursorPage;
 import com.umg.game_for_devs.entity.User;
 import com.umg.game_for_devs.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,9 @@ public class UserService {
     @Autowired
     private AuditService auditService;
     
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    
     /**
      * Obtener todos los usuarios activos paginados
      */
@@ -63,6 +67,26 @@ public class UserService {
         }
     }
     
+    /**
+     * Obtener usuarios por cursor (orden por id descendente), sin consulta de conteo
+     */
+    public CursorPage<User> getUsersPage(String cursor, int size, String search, String role) {
+        CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+        String term = search != null && !search.trim().isEmpty() ? search.trim() : null;
+        User.Role userRole = null;
+        if (role != null && !role.trim().isEmpty()) {
+            try {
+                userRole = User.Role.valueOf(role.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Si el rol no es válido, no se filtra por rol
+            }
+        }
+        
+        List<User> rows = userRepository.findPageAfter(after != null ? after.getId() : null, userRole, term,
+                                                       PageRequest.of(0, size + 1));
+        return CursorPage.of(rows, size, user -> new CursorPage.Cursor(null, user.getId()), null);
+    }
+    
     /**
      * Obtener todos los usuarios activos
      */
@@ -132,6 +156,9 @@ public class UserService {
             throw new RuntimeException("Ya existe un usuario con ese email");
         }
         
+        // El principal en caché queda desactualizado, también bajo el nombre anterior
+        userDetailsService.evictAfterCommit(user.getUsername(), userDetails.getUsername());
+        
         // Actualizar campos
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
@@ -172,6 +199,7 @@ public class UserService {
         
         user.setIsActive(false);
         userRepository.save(user);
+        userDetailsService.evictAfterCommit(user.getUsername());
         
         // Registrar en auditoría
         auditService.logUserDeleted(user.getId(), user.getUsername());
@@ -186,6 +214,7 @@ public class UserService {
         
         user.setIsActive(true);
         User savedUser = userRepository.save(user);
+        userDetailsService.evictAfterCommit(user.getUsername());
         
         // Registrar en auditoría
         auditService.logAction("Usuario reactivado", 
@@ -204,6 +233,7 @@ public class UserService {
         
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userDetailsService.evictAfterCommit(user.getUsername());
         
         // Registrar en auditoría
         auditService.logAction("Contraseña cambiada para usuario: " + user.getUsername(), 
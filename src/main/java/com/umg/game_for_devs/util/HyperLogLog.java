@@ -0,0 +1,265 @@
+package com.umg.game_for_devs.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sketch HyperLogLog para contar elementos distintos de forma aproximada
+ * Usa 2^PRECISION registros de un byte (4 KB, error estándar ~1,6 %) y hashes de 64 bits. Dos sketches
+ * se combinan tomando el máximo de cada registro, así que la unión de cualquier cantidad de intervalos
+ * cuesta lo mismo que un sketch y volver a combinar el mismo sketch no altera el resultado
+ * Mientras tiene pocos registros no vacíos los guarda dispersos (índice y valor ordenados por índice) y pasa
+ * a los 4 KB densos al superar SPARSE_LIMIT; la forma serializada sigue el mismo criterio
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 12;
+
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    /** Registros dispersos (3 bytes cada uno) a partir de los cuales conviene la forma densa */
+    private static final int SPARSE_LIMIT = REGISTERS / 8;
+
+    private static final byte FORMAT_SPARSE = 1;
+    private static final byte FORMAT_DENSE = 2;
+
+    // null mientras el sketch es disperso
+    private byte[] registers;
+    private short[] sparseIndexes = new short[4];
+    private byte[] sparseRanks = new byte[4];
+    private int sparseSize;
+
+    /**
+     * Agrega un elemento por su hash de 64 bits (ver hash)
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Posición del primer 1 en los bits restantes; el bit centinela limita el valor a 64 - PRECISION + 1
+        long rest = (hash << PRECISION) | (1L << (PRECISION - 1));
+        update(index, (byte) (Long.numberOfLeadingZeros(rest) + 1));
+    }
+
+    public void addAll(HyperLogLog other) {
+        if (other.registers == null) {
+            for (int i = 0; i < other.sparseSize; i++) {
+                update(other.sparseIndexes[i], other.sparseRanks[i]);
+            }
+            return;
+        }
+        if (registers == null) {
+            toDense();
+        }
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public boolean isDense() {
+        return registers != null;
+    }
+
+    public boolean isEmpty() {
+        if (registers == null) {
+            return sparseSize == 0;
+        }
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cantidad estimada de elementos distintos
+     * Con pocos elementos (registros vacíos y estimación baja) se usa conteo lineal, que es exacto en la práctica
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        if (registers == null) {
+            zeros = REGISTERS - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << sparseRanks[i]);
+            }
+        } else {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Serializar: formato disperso (índices con delta en varint y el registro) o los registros completos
+     */
+    public byte[] toBytes() {
+        if (registers != null) {
+            byte[] dense = new byte[REGISTERS + 1];
+            dense[0] = FORMAT_DENSE;
+            System.arraycopy(registers, 0, dense, 1, REGISTERS);
+            return dense;
+        }
+
+        // Cada registro disperso ocupa como mucho 3 bytes (delta de hasta 12 bits y el valor)
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sparseSize * 3 + 3);
+        out.write(FORMAT_SPARSE);
+        writeVarint(out, sparseSize);
+        int previous = 0;
+        for (int i = 0; i < sparseSize; i++) {
+            writeVarint(out, sparseIndexes[i] - previous);
+            out.write(sparseRanks[i]);
+            previous = sparseIndexes[i];
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reconstruir un sketch serializado con toBytes; null o vacío devuelve un sketch vacío
+     */
+    public static HyperLogLog fromBytes(byte[] data) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (data == null || data.length == 0) {
+            return sketch;
+        }
+        if (data[0] == FORMAT_DENSE && data.length == REGISTERS + 1) {
+            sketch.registers = Arrays.copyOfRange(data, 1, REGISTERS + 1);
+            return sketch;
+        }
+        if (data[0] != FORMAT_SPARSE) {
+            throw new IllegalArgumentException("Formato de sketch HyperLogLog inválido");
+        }
+
+        int[] position = {1};
+        int count = readVarint(data, position);
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            index += readVarint(data, position);
+            if (index >= REGISTERS || position[0] >= data.length) {
+                throw new IllegalArgumentException("Formato de sketch HyperLogLog inválido");
+            }
+            sketch.update(index, data[position[0]++]);
+        }
+        return sketch;
+    }
+
+    /**
+     * Hash de 64 bits de un texto (FNV-1a sobre UTF-8 seguido del mezclador final de MurmurHash3)
+     */
+    public static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // Métodos auxiliares
+
+    private void update(int index, byte rank) {
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = rank;
+            }
+            return;
+        }
+        int position = Arrays.binarySearch(sparseIndexes, 0, sparseSize, (short) index);
+        if (position >= 0) {
+            if (rank > sparseRanks[position]) {
+                sparseRanks[position] = rank;
+            }
+            return;
+        }
+        if (rank == 0) {
+            return;
+        }
+        if (sparseSize == SPARSE_LIMIT) {
+            toDense();
+            registers[index] = rank;
+            return;
+        }
+        position = -position - 1;
+        if (sparseSize == sparseIndexes.length) {
+            sparseIndexes = Arrays.copyOf(sparseIndexes, sparseSize * 2);
+            sparseRanks = Arrays.copyOf(sparseRanks, sparseSize * 2);
+        }
+        System.arraycopy(sparseIndexes, position, sparseIndexes, position + 1, sparseSize - position);
+        System.arraycopy(sparseRanks, position, sparseRanks, position + 1, sparseSize - position);
+        sparseIndexes[position] = (short) index;
+        sparseRanks[position] = rank;
+        sparseSize++;
+    }
+
+    private void toDense() {
+        registers = denseRegisters();
+        sparseIndexes = null;
+        sparseRanks = null;
+        sparseSize = 0;
+    }
+
+    private byte[] denseRegisters() {
+        if (registers != null) {
+            return registers;
+        }
+        byte[] dense = new byte[REGISTERS];
+        for (int i = 0; i < sparseSize; i++) {
+            dense[sparseIndexes[i]] = sparseRanks[i];
+        }
+        return dense;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] position) {
+        int value = 0;
+        int shift = 0;
+        while (position[0] < data.length) {
+            byte b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+        throw new IllegalArgumentException("Formato de sketch HyperLogLog inválido");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof HyperLogLog other && Arrays.equals(denseRegisters(), other.denseRegisters()));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(denseRegisters());
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog{estimate=" + estimate() + '}';
+    }
+}
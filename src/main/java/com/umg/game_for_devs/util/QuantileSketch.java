@@ -0,0 +1,203 @@
+package com.umg.game_for_devs.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Histograma logarítmico para estimar percentiles de valores enteros no negativos
+ * Cada valor v >= 1 cae en el bucket ceil(log(v) / log(GAMMA)), así que el valor devuelto por quantile está a
+ * menos de RELATIVE_ACCURACY (1 %) del real; los enteros pequeños (movimientos, intentos) quedan en buckets
+ * propios y salen exactos. El cero tiene su propio contador
+ * Los contadores tienen signo para que un sketch sirva también como delta (sumar una sesión y restar su valor
+ * anterior); dos sketches se combinan sumando bucket a bucket, de modo que los días se unen sin perder precisión
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private static final byte FORMAT = 1;
+
+    private long zeroCount;
+    private long[] counts = new long[0];
+    private long count;
+
+    /**
+     * Sumar (delta > 0) o restar (delta < 0) apariciones de un valor; los negativos cuentan como cero
+     */
+    public void add(long value, long delta) {
+        if (value <= 0) {
+            zeroCount += delta;
+        } else {
+            int index = indexOf(value);
+            if (index >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length + counts.length / 2));
+            }
+            counts[index] += delta;
+        }
+        count += delta;
+    }
+
+    public void add(long value) {
+        add(value, 1);
+    }
+
+    public void addAll(QuantileSketch other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        if (zeroCount != 0) {
+            return false;
+        }
+        for (long bucket : counts) {
+            if (bucket != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Valor aproximado del percentil q (entre 0 y 1); null si el sketch no tiene valores
+     */
+    public Long quantile(double q) {
+        if (count <= 0) {
+            return null;
+        }
+        // Rango (base 0) del valor buscado
+        long rank = (long) Math.floor(Math.max(0.0, Math.min(1.0, q)) * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0L;
+        }
+        int last = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] <= 0) {
+                continue;
+            }
+            last = i;
+            seen += counts[i];
+            if (rank < seen) {
+                return valueOf(i);
+            }
+        }
+        return last >= 0 ? valueOf(last) : 0L;
+    }
+
+    /**
+     * Serializar como varints: contador de ceros, cantidad de buckets usados y pares (delta de índice, contador)
+     * Los contadores se guardan en zigzag porque un delta puede ser negativo
+     */
+    public byte[] toBytes() {
+        int used = 0;
+        for (long bucket : counts) {
+            if (bucket != 0) {
+                used++;
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + used * 3);
+        out.write(FORMAT);
+        writeVarint(out, zigzag(zeroCount));
+        writeVarint(out, used);
+        int previous = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                writeVarint(out, i - previous);
+                writeVarint(out, zigzag(counts[i]));
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reconstruir un sketch serializado con toBytes; null o vacío devuelve un sketch vacío
+     */
+    public static QuantileSketch fromBytes(byte[] data) {
+        QuantileSketch sketch = new QuantileSketch();
+        if (data == null || data.length == 0) {
+            return sketch;
+        }
+        if (data[0] != FORMAT) {
+            throw new IllegalArgumentException("Formato de sketch de percentiles inválido");
+        }
+
+        int[] position = {1};
+        sketch.zeroCount = unzigzag(readVarint(data, position));
+        sketch.count = sketch.zeroCount;
+        int used = (int) readVarint(data, position);
+        int index = 0;
+        for (int i = 0; i < used; i++) {
+            index += (int) readVarint(data, position);
+            long bucket = unzigzag(readVarint(data, position));
+            if (index >= sketch.counts.length) {
+                sketch.counts = Arrays.copyOf(sketch.counts, Math.max(index + 1, sketch.counts.length * 2));
+            }
+            sketch.counts[index] = bucket;
+            sketch.count += bucket;
+        }
+        return sketch;
+    }
+
+    // Métodos auxiliares
+
+    private static int indexOf(long value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    /**
+     * Punto medio del bucket (en escala relativa), que acota el error a RELATIVE_ACCURACY
+     */
+    private static long valueOf(int index) {
+        return Math.round(2 * Math.pow(GAMMA, index) / (GAMMA + 1));
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (position[0] < data.length && shift < 64) {
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+        throw new IllegalArgumentException("Formato de sketch de percentiles inválido");
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{count=" + count + ", p50=" + quantile(0.5) + ", p99=" + quantile(0.99) + '}';
+    }
+}
@@ -191,12 +191,40 @@ class GameManager {
                     sessionId: data.sessionId,
                     trackId: data.trackId
                 };
+                this.startHeartbeat();
             }
         } catch (error) {
             console.error('Error al iniciar sesión de juego:', error);
         }
     }
     
+    /**
+     * Envía señales de vida mientras la sesión sigue abierta; sin ellas el servidor la marca como abandonada
+     */
+    startHeartbeat() {
+        this.stopHeartbeat();
+        const sessionId = this.gameSession.sessionId;
+        
+        this.heartbeatTimer = setInterval(async () => {
+            if (document.hidden || !this.gameSession || this.gameSession.sessionId !== sessionId) return;
+            try {
+                const response = await fetch(`/api/game/session/${sessionId}/heartbeat`, { method: 'POST' });
+                if (response.status === 404) {
+                    this.stopHeartbeat();
+                }
+            } catch (error) {
+                console.error('Error al enviar señal de vida de la sesión:', error);
+            }
+        }, 60000);
+    }
+    
+    stopHeartbeat() {
+        if (this.heartbeatTimer) {
+            clearInterval(this.heartbeatTimer);
+            this.heartbeatTimer = null;
+        }
+    }
+    
     /**
      * Crea la grilla del juego
      */
@@ -204,11 +232,20 @@ class GameManager {
         const gridContainer = document.getElementById('gameGrid');
         gridContainer.innerHTML = '';
         
-        const gridConfig = JSON.parse(this.currentTrack.gridConfig);
+        const gridConfig = this.getGridConfig();
+        const { rows, cols } = this.getGridSize();
+        
+        // Las columnas y filas dependen de las dimensiones de la pista (hasta 64x64)
+        gridContainer.style.gridTemplateColumns = `repeat(${cols}, 1fr)`;
+        gridContainer.style.gridTemplateRows = `repeat(${rows}, 1fr)`;
+        gridContainer.style.aspectRatio = `${cols}/${rows}`;
+        gridContainer.style.maxWidth = cols > 10 ? '640px' : '';
+        gridContainer.classList.toggle('grid-large', rows * cols > 100);
         
-        // Crear celdas del grid (4 filas x 5 columnas)
-        for (let row = 0; row < 4; row++) {
-            for (let col = 0; col < 5; col++) {
+        // Crear celdas del grid en un fragmento para insertar el tablero de una sola vez
+        const fragment = document.createDocumentFragment();
+        for (let row = 0; row < rows; row++) {
+            for (let col = 0; col < cols; col++) {
                 const cell = document.createElement('div');
                 cell.className = 'grid-cell';
                 cell.dataset.x = col;
@@ -219,9 +256,10 @@ class GameManager {
                     cell.classList.add('path');
                 }
                 
-                gridContainer.appendChild(cell);
+                fragment.appendChild(cell);
             }
         }
+        gridContainer.appendChild(fragment);
         
         // El robot se creará cuando se actualice su posición
         this.robot.element = null;
@@ -273,8 +311,8 @@ class GameManager {
     updateRobotPosition() {
         const targetCell = document.querySelector(`[data-x="${this.robot.x}"][data-y="${this.robot.y}"]`);
         if (targetCell) {
-            // Remover robot de celdas anteriores
-            document.querySelectorAll('.grid-cell').forEach(cell => {
+            // Remover robot de celdas anteriores (solo las marcadas, sin recorrer todo el tablero)
+            document.querySelectorAll('.grid-cell.robot').forEach(cell => {
                 cell.classList.remove('robot');
                 // Remover elemento del robot si existe en la celda
                 const existingRobot = cell.querySelector('.robot-element');
@@ -611,17 +649,39 @@ class GameManager {
         this.updateRobotPosition();
     }
     
+    /**
+     * Matriz del grid de la pista actual; se parsea una vez por pista en lugar de en cada movimiento
+     */
+    getGridConfig() {
+        if (this.parsedGrid?.source !== this.currentTrack.gridConfig) {
+            this.parsedGrid = { source: this.currentTrack.gridConfig, cells: JSON.parse(this.currentTrack.gridConfig) };
+        }
+        return this.parsedGrid.cells;
+    }
+    
+    /**
+     * Dimensiones de la pista actual (las pistas anteriores a grid_rows/grid_cols se miden desde la matriz)
+     */
+    getGridSize() {
+        const gridConfig = this.getGridConfig();
+        return {
+            rows: this.currentTrack.gridRows || gridConfig.length,
+            cols: this.currentTrack.gridCols || (gridConfig[0] ? gridConfig[0].length : 0)
+        };
+    }
+    
     /**
      * Valida si una posición es válida
      */
     isValidPosition(x, y) {
         // Verificar límites del grid
-        if (x < 0 || x >= 5 || y < 0 || y >= 4) {
+        const { rows, cols } = this.getGridSize();
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
             return false;
         }
         
         // Verificar si es una celda de camino
-        const gridConfig = JSON.parse(this.currentTrack.gridConfig);
+        const gridConfig = this.getGridConfig();
         return gridConfig[y] && gridConfig[y][x] === 1;
     }
     
@@ -629,7 +689,8 @@ class GameManager {
      * Marca una posición de error
      */
     markErrorPosition(x, y) {
-        if (x >= 0 && x < 5 && y >= 0 && y < 4) {
+        const { rows, cols } = this.getGridSize();
+        if (x >= 0 && x < cols && y >= 0 && y < rows) {
             const cell = document.querySelector(`[data-x="${x}"][data-y="${y}"]`);
             if (cell) {
                 cell.classList.add('error');
@@ -641,12 +702,13 @@ class GameManager {
      * Verifica la condición de victoria
      */
     async checkWinCondition() {
-        const gridConfig = JSON.parse(this.currentTrack.gridConfig);
+        const gridConfig = this.getGridConfig();
+        const { rows, cols } = this.getGridSize();
         let totalPathCells = 0;
         
         // Contar total de celdas de camino
-        for (let row = 0; row < 4; row++) {
-            for (let col = 0; col < 5; col++) {
+        for (let row = 0; row < rows; row++) {
+            for (let col = 0; col < cols; col++) {
                 if (gridConfig[row] && gridConfig[row][col] === 1) {
                     totalPathCells++;
                 }
@@ -656,6 +718,7 @@ class GameManager {
         // Verificar si se visitaron todas las celdas
         if (this.visitedCells.size >= totalPathCells) {
             await this.updateGameSession('SUCCESS');
+            this.stopHeartbeat();
             this.showSuccessModal();
         }
     }
@@ -0,0 +1,140 @@
+package com.umg.game_for_devs.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.umg.game_for_devs.engine.MoveProgram.FORWARD;
+import static com.umg.game_for_devs.engine.MoveProgram.LEFT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CellHeatmapTests {
+
+	private static final int[][] ROW_OF_THREE = {{1, 1, 1}};
+
+	@Test
+	void recordCountsEachVisitedCellOncePerRun() {
+		CellHeatmap heatmap = new CellHeatmap(1, 3);
+
+		// Ida y vuelta sobre la primera celda: se pisa dos veces pero cuenta una
+		heatmap.record(run(ROW_OF_THREE, FORWARD, LEFT, LEFT, FORWARD));
+		heatmap.record(run(ROW_OF_THREE, FORWARD, FORWARD));
+
+		assertThat(heatmap.getRuns()).isEqualTo(2);
+		assertThat(heatmap.getFailures()).isZero();
+		assertThat(heatmap.visitMatrix()).isEqualTo(new int[][] {{2, 2, 1}});
+	}
+
+	@Test
+	void crashOutsideGridLandsInMargin() {
+		CellHeatmap heatmap = new CellHeatmap(1, 3);
+
+		heatmap.record(run(ROW_OF_THREE, FORWARD, FORWARD, FORWARD));
+
+		assertThat(heatmap.getFailures()).isEqualTo(1);
+		int[][] crashes = heatmap.crashMatrix();
+		assertThat(crashes).hasNumberOfRows(1 + 2 * CellHeatmap.MARGIN);
+		// El choque en (3, 0) queda en la columna de margen derecha
+		assertThat(crashes[CellHeatmap.MARGIN][3 + CellHeatmap.MARGIN]).isEqualTo(1);
+		assertThat(heatmap.crashHotspots(5)).singleElement().satisfies(hotspot ->
+				assertThat(hotspot).containsExactly(3, 0, 1));
+	}
+
+	@Test
+	void recordOutcomeCountsCrashOnlyWhenPositionFits() {
+		CellHeatmap heatmap = new CellHeatmap(2, 2);
+
+		heatmap.recordOutcome(false, null, null);
+		heatmap.recordOutcome(true, null, null);
+		heatmap.recordOutcome(true, -1, 0);
+		// Fuera también del margen: cuenta el fallo pero no la celda
+		heatmap.recordOutcome(true, 5, 5);
+
+		assertThat(heatmap.getRuns()).isEqualTo(4);
+		assertThat(heatmap.getFailures()).isEqualTo(3);
+		assertThat(heatmap.crashHotspots(5)).singleElement().satisfies(hotspot ->
+				assertThat(hotspot).containsExactly(-1, 0, 1));
+	}
+
+	@Test
+	void hotspotsAreSortedAndLimited() {
+		CellHeatmap heatmap = new CellHeatmap(3, 3);
+		crash(heatmap, 0, 0, 2);
+		crash(heatmap, 1, 1, 5);
+		crash(heatmap, 2, 2, 3);
+		crash(heatmap, 2, 0, 3);
+
+		List<int[]> hotspots = heatmap.crashHotspots(3);
+
+		assertThat(hotspots).hasSize(3);
+		assertThat(hotspots.get(0)).containsExactly(1, 1, 5);
+		// Con el mismo conteo se conserva el orden por filas
+		assertThat(hotspots.get(1)).containsExactly(2, 0, 3);
+		assertThat(hotspots.get(2)).containsExactly(2, 2, 3);
+		assertThat(new CellHeatmap(3, 3).crashHotspots(3)).isEmpty();
+	}
+
+	@Test
+	void compactSnapshotRestoresLargeCounts() {
+		CellHeatmap heatmap = new CellHeatmap(2, 2);
+		// 127 cabe en un byte, 128 y 20000 necesitan dos y tres
+		crash(heatmap, 0, 0, 127);
+		crash(heatmap, 1, 0, 128);
+		crash(heatmap, 1, 1, 20_000);
+		for (int i = 0; i < 300; i++) {
+			heatmap.record(run(new int[][] {{1, 1}, {0, 0}}, FORWARD));
+		}
+
+		byte[] crashes = heatmap.compactCrashes();
+		byte[] visits = heatmap.compactVisits();
+		assertThat(crashes).hasSize(16 - 3 + 1 + 2 + 3);
+		CellHeatmap restored = CellHeatmap.restore(2, 2, heatmap.getRuns(), heatmap.getFailures(), crashes, visits);
+
+		assertThat(restored.getRuns()).isEqualTo(heatmap.getRuns());
+		assertThat(restored.getFailures()).isEqualTo(heatmap.getFailures());
+		assertThat(restored.crashMatrix()).isEqualTo(heatmap.crashMatrix());
+		assertThat(restored.visitMatrix()).isEqualTo(new int[][] {{300, 300}, {0, 0}});
+		assertThat(restored.compactCrashes()).isEqualTo(crashes);
+	}
+
+	@Test
+	void restoreToleratesMissingAndShortSnapshots() {
+		CellHeatmap empty = CellHeatmap.restore(2, 2, 0, 0, null, null);
+		assertThat(empty.visitMatrix()).isEqualTo(new int[][] {{0, 0}, {0, 0}});
+
+		// Una instantánea truncada deja en cero las celdas que faltan
+		CellHeatmap partial = CellHeatmap.restore(2, 2, 5, 0, null, new byte[] {5});
+		assertThat(partial.visitMatrix()).isEqualTo(new int[][] {{5, 0}, {0, 0}});
+	}
+
+	@Test
+	void addAllSumsCountersOfSameGrid() {
+		CellHeatmap first = new CellHeatmap(1, 3);
+		first.record(run(ROW_OF_THREE, FORWARD, FORWARD, FORWARD));
+		CellHeatmap second = new CellHeatmap(1, 3);
+		second.record(run(ROW_OF_THREE, FORWARD, FORWARD));
+		second.record(run(ROW_OF_THREE, FORWARD, FORWARD, FORWARD));
+
+		first.addAll(second);
+
+		assertThat(first.getRuns()).isEqualTo(3);
+		assertThat(first.getFailures()).isEqualTo(2);
+		assertThat(first.visitMatrix()).isEqualTo(new int[][] {{3, 3, 3}});
+		assertThat(first.crashHotspots(1).get(0)).containsExactly(3, 0, 2);
+		assertThatThrownBy(() -> first.addAll(new CellHeatmap(3, 1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	// Métodos auxiliares
+
+	private static ExecutionResult run(int[][] cells, byte... ops) {
+		return RobotInterpreter.run(TrackGrid.of(cells), 0, 0, Heading.EAST, MoveProgram.of(ops), new ExecutionResult());
+	}
+
+	private static void crash(CellHeatmap heatmap, int x, int y, int times) {
+		for (int i = 0; i < times; i++) {
+			heatmap.recordOutcome(true, x, y);
+		}
+	}
+}
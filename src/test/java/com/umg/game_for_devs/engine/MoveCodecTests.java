@@ -0,0 +1,139 @@
+package com.umg.game_for_devs.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.umg.game_for_devs.engine.MoveProgram.FORWARD;
+import static com.umg.game_for_devs.engine.MoveProgram.LEFT;
+import static com.umg.game_for_devs.engine.MoveProgram.LOOP_END;
+import static com.umg.game_for_devs.engine.MoveProgram.LOOP_START;
+import static com.umg.game_for_devs.engine.MoveProgram.RIGHT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoveCodecTests {
+
+	private static final byte[] ALL_OPS = {FORWARD, LEFT, RIGHT, LOOP_START, LOOP_END};
+
+	@Test
+	void everyMoveTypeRoundTrips() {
+		for (byte op : ALL_OPS) {
+			assertRoundTrip(MoveProgram.of(op));
+		}
+		assertRoundTrip(MoveProgram.of(ALL_OPS));
+	}
+
+	@Test
+	void emptyProgramRoundTrips() {
+		byte[] encoded = MoveCodec.encode(MoveProgram.of());
+
+		assertThat(encoded).containsExactly(MoveCodec.VERSION, 0);
+		assertThat(MoveCodec.decode(encoded).size()).isZero();
+	}
+
+	@Test
+	void runsRoundTripAcrossRunLengthBoundary() {
+		// Un token seguido de hasta 16 repeticiones cabe en un solo código de run; 17 o más necesitan otro
+		for (byte op : ALL_OPS) {
+			for (int length = 1; length <= 40; length++) {
+				byte[] ops = new byte[length];
+				Arrays.fill(ops, op);
+				assertRoundTrip(MoveProgram.of(ops));
+			}
+		}
+	}
+
+	@Test
+	void longRunUsesRunLengthCodes() {
+		// 1 + 16 repeticiones: token (2 bits) + run (8 bits) = 10 bits -> 2 bytes tras la cabecera
+		assertThat(MoveCodec.encode(repeat(FORWARD, 17))).hasSize(2 + 2);
+		// La repetición 17 sobrante va como token suelto: 12 bits
+		assertThat(MoveCodec.encode(repeat(FORWARD, 18))).hasSize(2 + 2);
+		// 1 + 16 + 16: dos runs, 18 bits
+		assertThat(MoveCodec.encode(repeat(FORWARD, 33))).hasSize(2 + 3);
+	}
+
+	@Test
+	void shortRunsAreWrittenTokenByToken() {
+		// Cuatro repeticiones de 2 bits cuestan lo mismo que un run: 5 FORWARD ocupan 10 bits
+		assertThat(MoveCodec.encode(repeat(FORWARD, 5))).hasSize(2 + 2);
+		// Dos LOOP_END repetidos (8 bits) tampoco justifican un run
+		assertThat(MoveCodec.encode(repeat(LOOP_END, 3))).hasSize(2 + 2);
+	}
+
+	@Test
+	void maximumLengthProgramFitsColumn() {
+		// Alternar marcadores de bucle evita los runs: es el peor caso de 4 bits por token
+		byte[] ops = new byte[MoveProgram.MAX_MOVES];
+		for (int i = 0; i < ops.length; i++) {
+			ops[i] = i % 2 == 0 ? LOOP_START : LOOP_END;
+		}
+		MoveProgram program = MoveProgram.of(ops);
+
+		byte[] encoded = MoveCodec.encode(program);
+		assertThat(encoded).hasSize(MoveCodec.MAX_ENCODED_LENGTH);
+		assertThat(MoveCodec.decode(encoded)).isEqualTo(program);
+
+		assertRoundTrip(repeat(FORWARD, MoveProgram.MAX_MOVES));
+	}
+
+	@Test
+	void randomProgramsRoundTrip() {
+		Random random = new Random(42);
+		for (int n = 0; n < 500; n++) {
+			byte[] ops = new byte[random.nextInt(MoveProgram.MAX_MOVES + 1)];
+			for (int i = 0; i < ops.length; i++) {
+				// Sesgo hacia repeticiones para ejercitar los runs
+				ops[i] = i > 0 && random.nextInt(3) > 0 ? ops[i - 1] : ALL_OPS[random.nextInt(ALL_OPS.length)];
+			}
+			MoveProgram program = MoveProgram.of(ops);
+			byte[] encoded = MoveCodec.encode(program);
+			assertThat(encoded.length).isLessThanOrEqualTo(MoveCodec.MAX_ENCODED_LENGTH);
+			assertThat(MoveCodec.decode(encoded)).isEqualTo(program);
+		}
+	}
+
+	@Test
+	void jsonRepresentationParsesBack() {
+		MoveProgram program = MoveProgram.of(ALL_OPS);
+
+		assertThat(MoveCodec.toJson(program))
+				.isEqualTo("[\"FORWARD\",\"LEFT\",\"RIGHT\",\"LOOP_START\",\"LOOP_END\"]");
+		assertThat(MoveProgram.parse(MoveCodec.toJson(program))).isEqualTo(program);
+	}
+
+	@Test
+	void rejectsInvalidEncodings() {
+		assertThatThrownBy(() -> MoveCodec.decode(null)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> MoveCodec.decode(new byte[] {MoveCodec.VERSION}))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> MoveCodec.decode(new byte[] {(byte) (MoveCodec.VERSION + 1), 0}))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		// Declara 5 tokens pero un byte solo alcanza para 4
+		assertThatThrownBy(() -> MoveCodec.decode(new byte[] {MoveCodec.VERSION, 5, 0}))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		// Un run sin token previo: 11 10 0000
+		assertThatThrownBy(() -> MoveCodec.decode(new byte[] {MoveCodec.VERSION, 1, (byte) 0b1110_0000}))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		// Más tokens que MAX_MOVES (1001 = 0xE9 0x07 en varint)
+		assertThatThrownBy(() -> MoveCodec.decode(new byte[] {MoveCodec.VERSION, (byte) 0xE9, 0x07, 0}))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	// Métodos auxiliares
+
+	private static MoveProgram repeat(byte op, int length) {
+		byte[] ops = new byte[length];
+		Arrays.fill(ops, op);
+		return MoveProgram.of(ops);
+	}
+
+	private static void assertRoundTrip(MoveProgram program) {
+		assertThat(MoveCodec.decode(MoveCodec.encode(program))).isEqualTo(program);
+	}
+}
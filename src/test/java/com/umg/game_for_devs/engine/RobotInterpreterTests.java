@@ -0,0 +1,201 @@
+package com.umg.game_for_devs.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static com.umg.game_for_devs.engine.MoveProgram.FORWARD;
+import static com.umg.game_for_devs.engine.MoveProgram.LEFT;
+import static com.umg.game_for_devs.engine.MoveProgram.LOOP_END;
+import static com.umg.game_for_devs.engine.MoveProgram.LOOP_START;
+import static com.umg.game_for_devs.engine.MoveProgram.RIGHT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Paridad con processMovesSequence/executeMove de game.js
+ * Cada caso se ejecuta sobre el grid original (una palabra) y sobre el mismo grid ampliado con celdas vacías
+ * a más de 64 celdas (bitset por palabras): ambos caminos deben dar el mismo resultado
+ */
+class RobotInterpreterTests {
+
+	private static final int[][] ROW_OF_FIVE = {{1, 1, 1, 1, 1}};
+
+	@Test
+	void loopRunsBodyTwice() {
+		ExecutionResult result = run(ROW_OF_FIVE, 0, 0, Heading.EAST,
+				LOOP_START, FORWARD, FORWARD, LOOP_END);
+
+		assertThat(result.getOutcome()).isEqualTo(ExecutionResult.Outcome.SUCCESS);
+		assertThat(result.getFinalX()).isEqualTo(4);
+		assertThat(result.getStepsExecuted()).isEqualTo(4);
+		assertThat(result.getCellsVisited()).isEqualTo(5);
+	}
+
+	@Test
+	void nestedLoopMarkersAreIgnored() {
+		// El LOOP_START externo se empareja con el último LOOP_END; los marcadores internos no repiten nada,
+		// así que el cuerpo avanza dos veces por iteración (con el bucle interno serían seis avances y un choque)
+		ExecutionResult result = run(ROW_OF_FIVE, 0, 0, Heading.EAST,
+				LOOP_START, FORWARD, LOOP_START, FORWARD, LOOP_END, LOOP_END);
+
+		assertThat(result.getOutcome()).isEqualTo(ExecutionResult.Outcome.SUCCESS);
+		assertThat(result.getFinalX()).isEqualTo(4);
+		assertThat(result.getStepsExecuted()).isEqualTo(4);
+	}
+
+	@Test
+	void unclosedLoopStartIsSkipped() {
+		ExecutionResult result = run(ROW_OF_FIVE, 0, 0, Heading.EAST, LOOP_START, FORWARD);
+
+		assertThat(result.getOutcome()).isEqualTo(ExecutionResult.Outcome.INCOMPLETE);
+		assertThat(result.getFinalX()).isEqualTo(1);
+		assertThat(result.getStepsExecuted()).isEqualTo(1);
+	}
+
+	@Test
+	void strayLoopEndIsIgnored() {
+		ExecutionResult result = run(ROW_OF_FIVE, 0, 0, Heading.EAST, LOOP_END, FORWARD, LOOP_END, FORWARD);
+
+		assertThat(result.getFinalX()).isEqualTo(2);
+		assertThat(result.getStepsExecuted()).isEqualTo(2);
+	}
+
+	@Test
+	void leavingTheGridFailsAtTheTargetPosition() {
+		ExecutionResult result = run(new int[][] {{1, 1, 1}}, 0, 0, Heading.EAST, FORWARD, FORWARD, FORWARD);
+
+		assertCrash(result, 3, 0, 2);
+		assertThat(result.getFinalX()).isEqualTo(2);
+		assertThat(result.getCellsVisited()).isEqualTo(3);
+	}
+
+	@Test
+	void leavingTheGridThroughTheTopFails() {
+		ExecutionResult result = run(new int[][] {{1, 1}}, 1, 0, Heading.NORTH, FORWARD);
+
+		assertCrash(result, 1, -1, 0);
+		assertThat(result.getFinalX()).isEqualTo(1);
+		assertThat(result.getFinalY()).isEqualTo(0);
+	}
+
+	@Test
+	void movingOntoBlockedCellFails() {
+		ExecutionResult result = run(new int[][] {{1, 0, 1}}, 0, 0, Heading.EAST, FORWARD, FORWARD);
+
+		assertCrash(result, 1, 0, 0);
+		assertThat(result.getFinalX()).isZero();
+		assertThat(result.getCellsVisited()).isEqualTo(1);
+		assertThat(result.getStepsExecuted()).isEqualTo(1);
+	}
+
+	@Test
+	void crashInsideLoopReportsInnerMoveIndex() {
+		ExecutionResult result = run(new int[][] {{1, 1, 1, 1}}, 0, 0, Heading.EAST,
+				RIGHT, LEFT, LOOP_START, FORWARD, FORWARD, LOOP_END);
+
+		// Segunda iteración, segundo FORWARD (índice 4): de x=3 a x=4, fuera del grid
+		assertCrash(result, 4, 0, 4);
+		assertThat(result.getFinalX()).isEqualTo(3);
+		assertThat(result.getStepsExecuted()).isEqualTo(6);
+	}
+
+	@Test
+	void revisitedCellsAreCountedOnce() {
+		ExecutionResult result = run(new int[][] {{1, 1, 1}}, 0, 0, Heading.EAST,
+				FORWARD, RIGHT, RIGHT, FORWARD, RIGHT, RIGHT, FORWARD, FORWARD);
+
+		assertThat(result.getOutcome()).isEqualTo(ExecutionResult.Outcome.SUCCESS);
+		assertThat(result.getCellsVisited()).isEqualTo(3);
+		assertThat(result.getTotalCellsRequired()).isEqualTo(3);
+		assertThat(result.getFinalX()).isEqualTo(2);
+	}
+
+	@Test
+	void startCellCountsAsVisited() {
+		ExecutionResult result = run(new int[][] {{1, 1}, {0, 1}}, 0, 0, Heading.EAST, FORWARD);
+
+		assertThat(result.getOutcome()).isEqualTo(ExecutionResult.Outcome.INCOMPLETE);
+		assertThat(result.getCellsVisited()).isEqualTo(2);
+		assertThat(result.getTotalCellsRequired()).isEqualTo(3);
+	}
+
+	@Test
+	void turnsFollowGameJsDirectionOrder() {
+		int[][] plus = {
+				{0, 1, 0},
+				{1, 1, 1},
+				{0, 1, 0}
+		};
+		// LEFT desde NORTH mira al WEST; RIGHT desde NORTH mira al EAST
+		ExecutionResult left = run(plus, 1, 1, Heading.NORTH, LEFT, FORWARD);
+		assertThat(left.getFinalX()).isZero();
+		assertThat(left.getFinalHeading()).isEqualTo(Heading.WEST);
+
+		ExecutionResult right = run(plus, 1, 1, Heading.NORTH, RIGHT, FORWARD);
+		assertThat(right.getFinalX()).isEqualTo(2);
+		assertThat(right.getFinalHeading()).isEqualTo(Heading.EAST);
+
+		ExecutionResult around = run(plus, 1, 1, Heading.NORTH,
+				FORWARD, RIGHT, RIGHT, FORWARD, FORWARD, LEFT, LEFT, FORWARD,
+				RIGHT, FORWARD, LEFT, LEFT, FORWARD, FORWARD);
+		assertThat(around.getOutcome()).isEqualTo(ExecutionResult.Outcome.SUCCESS);
+		assertThat(around.getCellsVisited()).isEqualTo(5);
+	}
+
+	@Test
+	void emptyProgramLeavesRobotAtStart() {
+		ExecutionResult result = run(ROW_OF_FIVE, 2, 0, Heading.WEST);
+
+		assertThat(result.getOutcome()).isEqualTo(ExecutionResult.Outcome.INCOMPLETE);
+		assertThat(result.getFinalX()).isEqualTo(2);
+		assertThat(result.getFinalHeading()).isEqualTo(Heading.WEST);
+		assertThat(result.getCellsVisited()).isEqualTo(1);
+		assertThat(result.getStepsExecuted()).isZero();
+	}
+
+	// Métodos auxiliares
+
+	/**
+	 * Ejecuta sobre el grid compacto y sobre el ampliado, verifica que coincidan y devuelve el primero
+	 */
+	private static ExecutionResult run(int[][] cells, int startX, int startY, Heading heading, byte... ops) {
+		MoveProgram program = MoveProgram.of(ops);
+		TrackGrid compact = TrackGrid.of(cells);
+		TrackGrid wide = TrackGrid.of(pad(cells));
+		assertThat(compact.isCompact()).isTrue();
+		assertThat(wide.isCompact()).isFalse();
+
+		ExecutionResult expected = RobotInterpreter.run(compact, startX, startY, heading, program, new ExecutionResult());
+		ExecutionResult actual = RobotInterpreter.run(wide, startX, startY, heading, program, new ExecutionResult());
+		assertThat(actual.getOutcome()).isEqualTo(expected.getOutcome());
+		assertThat(actual.getFinalX()).isEqualTo(expected.getFinalX());
+		assertThat(actual.getFinalY()).isEqualTo(expected.getFinalY());
+		assertThat(actual.getFinalHeading()).isEqualTo(expected.getFinalHeading());
+		assertThat(actual.getCellsVisited()).isEqualTo(expected.getCellsVisited());
+		assertThat(actual.getTotalCellsRequired()).isEqualTo(expected.getTotalCellsRequired());
+		assertThat(actual.getStepsExecuted()).isEqualTo(expected.getStepsExecuted());
+		if (expected.isCrashed()) {
+			assertThat(actual.getErrorX()).isEqualTo(expected.getErrorX());
+			assertThat(actual.getErrorY()).isEqualTo(expected.getErrorY());
+			assertThat(actual.getFailedMoveIndex()).isEqualTo(expected.getFailedMoveIndex());
+		}
+		return expected;
+	}
+
+	/**
+	 * El mismo grid con filas y columnas vacías a la derecha y abajo hasta superar las 64 celdas
+	 * (salir del grid original equivale a pisar una celda vacía: mismo choque en la misma posición)
+	 */
+	private static int[][] pad(int[][] cells) {
+		int[][] padded = new int[cells.length + 8][cells[0].length + 8];
+		for (int y = 0; y < cells.length; y++) {
+			System.arraycopy(cells[y], 0, padded[y], 0, cells[y].length);
+		}
+		return padded;
+	}
+
+	private static void assertCrash(ExecutionResult result, int errorX, int errorY, int moveIndex) {
+		assertThat(result.getOutcome()).isEqualTo(ExecutionResult.Outcome.CRASHED);
+		assertThat(result.getErrorX()).isEqualTo(errorX);
+		assertThat(result.getErrorY()).isEqualTo(errorY);
+		assertThat(result.getFailedMoveIndex()).isEqualTo(moveIndex);
+	}
+}
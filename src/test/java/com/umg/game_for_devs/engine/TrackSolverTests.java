@@ -0,0 +1,98 @@
+package com.umg.game_for_devs.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static com.umg.game_for_devs.engine.MoveProgram.FORWARD;
+import static com.umg.game_for_devs.engine.MoveProgram.LOOP_END;
+import static com.umg.game_for_devs.engine.MoveProgram.LOOP_START;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackSolverTests {
+
+	// Pista "Dev - Camino en L" de data-dev.sql, inicio en (0, 3) mirando al este
+	private static final int[][] L_TRACK = {
+			{0, 0, 0, 0, 0},
+			{0, 1, 1, 1, 0},
+			{0, 1, 0, 0, 0},
+			{1, 1, 0, 0, 0}
+	};
+
+	@Test
+	void disconnectedPathIsUnsolvable() {
+		TrackSolution solution = solve(new int[][] {{1, 1, 0, 1}}, 0, 0, Heading.EAST);
+
+		assertThat(solution.getStatus()).isEqualTo(TrackSolution.Status.UNSOLVABLE);
+		assertThat(solution.isDetermined()).isTrue();
+		assertThat(solution.getMinMoves()).isNull();
+		assertThat(solution.getDifficultyScore()).isNull();
+	}
+
+	@Test
+	void startAwayFromPathIsUnsolvable() {
+		int[][] cells = {{0, 0, 0}, {0, 0, 1}};
+
+		assertThat(solve(cells, 0, 0, Heading.EAST).getStatus()).isEqualTo(TrackSolution.Status.UNSOLVABLE);
+		// Fuera del tablero
+		assertThat(solve(cells, 5, 0, Heading.EAST).getStatus()).isEqualTo(TrackSolution.Status.UNSOLVABLE);
+	}
+
+	@Test
+	void findsMinimalProgramOfKnownTrack() {
+		TrackSolution solution = solve(L_TRACK, 0, 3, Heading.EAST);
+
+		// Cinco avances y dos giros: FORWARD, LEFT, FORWARD, FORWARD, RIGHT, FORWARD, FORWARD
+		assertThat(solution.getStatus()).isEqualTo(TrackSolution.Status.SOLVED);
+		assertThat(solution.getMinMoves()).isEqualTo(7);
+		assertThat(solution.getTurns()).isEqualTo(2);
+		assertThat(solution.getRevisits()).isZero();
+		assertSucceeds(L_TRACK, 0, 3, Heading.EAST, solution.getShortestProgram());
+		assertSucceeds(L_TRACK, 0, 3, Heading.EAST, solution.getLoopProgram());
+	}
+
+	@Test
+	void loopProgramIsShorterOnLongStraight() {
+		int[][] row = {new int[13]};
+		Arrays.fill(row[0], 1);
+
+		TrackSolution solution = solve(row, 0, 0, Heading.EAST);
+
+		assertThat(solution.getMinMoves()).isEqualTo(12);
+		// LOOP_START + 6 FORWARD + LOOP_END, ejecutado dos veces
+		assertThat(solution.getMinLoopProgramLength()).isEqualTo(8);
+		assertThat(solution.getLoopProgram()).isEqualTo(MoveProgram.of(
+				LOOP_START, FORWARD, FORWARD, FORWARD, FORWARD, FORWARD, FORWARD, LOOP_END));
+		assertSucceeds(row, 0, 0, Heading.EAST, solution.getLoopProgram());
+	}
+
+	@Test
+	void openDefaultBoardSolvesWithinStateCap() {
+		int[][] open = new int[4][5];
+		for (int[] row : open) {
+			Arrays.fill(row, 1);
+		}
+
+		TrackSolution solution = solve(open, 0, 0, Heading.EAST);
+
+		assertThat(solution.getStatus()).isEqualTo(TrackSolution.Status.SOLVED);
+		assertThat(solution.getStatesExplored()).isLessThanOrEqualTo(TrackSolver.DEFAULT_MAX_STATES);
+		// 19 avances como mínimo para pisar 20 celdas
+		assertThat(solution.getMinMoves()).isGreaterThanOrEqualTo(19);
+		assertThat(solution.getMinLoopProgramLength()).isLessThanOrEqualTo(solution.getMinMoves());
+		assertSucceeds(open, 0, 0, Heading.EAST, solution.getShortestProgram());
+		assertSucceeds(open, 0, 0, Heading.EAST, solution.getLoopProgram());
+	}
+
+	// Métodos auxiliares
+
+	private static TrackSolution solve(int[][] cells, int startX, int startY, Heading heading) {
+		return TrackSolver.solve(TrackGrid.of(cells), startX, startY, heading);
+	}
+
+	private static void assertSucceeds(int[][] cells, int startX, int startY, Heading heading, MoveProgram program) {
+		ExecutionResult result = RobotInterpreter.run(TrackGrid.of(cells), startX, startY, heading, program,
+				new ExecutionResult());
+		assertThat(result.getOutcome()).as("programa %s", program).isEqualTo(ExecutionResult.Outcome.SUCCESS);
+	}
+}
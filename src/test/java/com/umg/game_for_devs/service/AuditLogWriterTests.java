@@ -0,0 +1,237 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.AuditLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogWriterTests {
+
+	private static final int CAPACITY = 4;
+
+	@TempDir
+	Path tempDir;
+
+	private JdbcTemplate jdbcTemplate;
+	private MeterRegistry meterRegistry;
+	private Path spillFile;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:audit-writer;DB_CLOSE_DELAY=-1"));
+		jdbcTemplate.execute("CREATE TABLE audit_logs (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+				"username VARCHAR(255) NOT NULL, action VARCHAR(255) NOT NULL, action_type VARCHAR(20) NOT NULL, " +
+				"resource_type VARCHAR(255), resource_id BIGINT, resource_name VARCHAR(255), details CLOB, " +
+				"timestamp TIMESTAMP NOT NULL, ip_address VARCHAR(255), user_agent VARCHAR(255), " +
+				"status VARCHAR(20) NOT NULL, error_message VARCHAR(255))");
+		meterRegistry = new SimpleMeterRegistry();
+		spillFile = tempDir.resolve("audit-spill.ndjson");
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("DROP TABLE audit_logs");
+	}
+
+	@Test
+	void dropOldestKeepsNewestEntries() {
+		AuditLogWriter writer = newWriter(AuditLogWriter.OverflowPolicy.DROP_OLDEST, 1_000);
+		for (long i = 1; i <= 6; i++) {
+			writer.append(entry("admin", i));
+		}
+
+		assertThat(writer.getQueueDepth()).isEqualTo(CAPACITY);
+		assertThat(writer.drain()).isEqualTo(CAPACITY);
+		assertThat(storedResourceIds()).containsExactly(3L, 4L, 5L, 6L);
+		assertThat(count("game.audit.writer.dropped")).isEqualTo(2);
+		assertThat(count("game.audit.writer.written")).isEqualTo(4);
+	}
+
+	@Test
+	void blockDropsAfterTimeoutWhenNothingDrains() {
+		AuditLogWriter writer = newWriter(AuditLogWriter.OverflowPolicy.BLOCK, 50);
+		for (long i = 1; i <= CAPACITY + 1; i++) {
+			writer.append(entry("admin", i));
+		}
+
+		writer.drain();
+		assertThat(storedResourceIds()).containsExactly(1L, 2L, 3L, 4L);
+		assertThat(count("game.audit.writer.dropped")).isEqualTo(1);
+	}
+
+	@Test
+	void blockWaitsUntilWriterMakesRoom() throws Exception {
+		AuditLogWriter writer = newWriter(AuditLogWriter.OverflowPolicy.BLOCK, 10_000);
+		for (long i = 1; i <= CAPACITY; i++) {
+			writer.append(entry("admin", i));
+		}
+
+		Thread drainer = new Thread(() -> {
+			sleep(100);
+			writer.drain();
+		});
+		drainer.start();
+		writer.append(entry("admin", CAPACITY + 1));
+		drainer.join();
+		writer.drain();
+
+		assertThat(storedResourceIds()).containsExactly(1L, 2L, 3L, 4L, 5L);
+		assertThat(count("game.audit.writer.dropped")).isZero();
+	}
+
+	@Test
+	void spillDivertsOverflowAndReplaysIt() throws Exception {
+		AuditLogWriter writer = newWriter(AuditLogWriter.OverflowPolicy.SPILL, 1_000);
+		for (long i = 1; i <= 6; i++) {
+			writer.append(entry("admin", i));
+		}
+
+		assertThat(count("game.audit.writer.spilled")).isEqualTo(2);
+		assertThat(Files.readAllLines(spillFile)).hasSize(2);
+
+		writer.drain();
+		writer.replaySpill();
+
+		assertThat(storedResourceIds()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+		assertThat(Files.exists(spillFile)).isFalse();
+		assertThat(count("game.audit.writer.written")).isEqualTo(6);
+	}
+
+	@Test
+	void failedRowsAreDroppedNotCountedAsWritten() {
+		AuditLogWriter writer = newWriter(AuditLogWriter.OverflowPolicy.DROP_OLDEST, 1_000);
+		writer.append(entry("admin", 1));
+		writer.append(entry(null, 2));
+		writer.append(entry("admin", 3));
+
+		assertThat(writer.drain()).isEqualTo(3);
+		assertThat(storedResourceIds()).containsExactly(1L, 3L);
+		assertThat(count("game.audit.writer.written")).isEqualTo(2);
+		assertThat(count("game.audit.writer.failures")).isEqualTo(1);
+		assertThat(count("game.audit.writer.dropped")).isEqualTo(1);
+	}
+
+	@Test
+	void failedRowsAreSpilledOnceThenDropped() throws Exception {
+		AuditLogWriter writer = newWriter(AuditLogWriter.OverflowPolicy.SPILL, 1_000);
+		writer.append(entry("admin", 1));
+		writer.append(entry(null, 2));
+
+		writer.drain();
+		assertThat(count("game.audit.writer.written")).isEqualTo(1);
+		assertThat(count("game.audit.writer.spilled")).isEqualTo(1);
+		assertThat(Files.readAllLines(spillFile)).hasSize(1);
+
+		// Al reinsertar vuelve a fallar: no se desvía otra vez
+		writer.replaySpill();
+		assertThat(Files.exists(spillFile)).isFalse();
+		assertThat(count("game.audit.writer.dropped")).isEqualTo(1);
+		assertThat(count("game.audit.writer.written")).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentProducersKeepTheirOwnOrder() throws Exception {
+		int producers = 4;
+		int perProducer = 2_000;
+		AuditLogWriter writer = newWriter(AuditLogWriter.OverflowPolicy.BLOCK, 30_000);
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			String username = "producer-" + p;
+			Thread thread = new Thread(() -> {
+				await(start);
+				for (long i = 1; i <= perProducer; i++) {
+					writer.append(entry(username, i));
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		AtomicBoolean producing = new AtomicBoolean(true);
+		Thread drainer = new Thread(() -> {
+			while (producing.get()) {
+				writer.drain();
+			}
+		});
+		drainer.start();
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		producing.set(false);
+		drainer.join();
+		writer.drain();
+
+		Map<String, Long> lastByProducer = new HashMap<>();
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT username, resource_id FROM audit_logs ORDER BY id");
+		assertThat(rows).hasSize(producers * perProducer);
+		for (Map<String, Object> row : rows) {
+			String username = (String) row.get("username");
+			long resourceId = ((Number) row.get("resource_id")).longValue();
+			assertThat(resourceId).as("orden de %s", username).isEqualTo(lastByProducer.getOrDefault(username, 0L) + 1);
+			lastByProducer.put(username, resourceId);
+		}
+		assertThat(count("game.audit.writer.dropped")).isZero();
+		assertThat(count("game.audit.writer.written")).isEqualTo(producers * perProducer);
+	}
+
+	// Métodos auxiliares
+
+	private AuditLogWriter newWriter(AuditLogWriter.OverflowPolicy policy, long blockTimeoutMs) {
+		return new AuditLogWriter(jdbcTemplate, meterRegistry, CAPACITY, 100, policy, blockTimeoutMs,
+				spillFile.toString());
+	}
+
+	private static AuditLog entry(String username, long resourceId) {
+		AuditLog auditLog = new AuditLog();
+		auditLog.setUsername(username);
+		auditLog.setAction("Prueba " + resourceId);
+		auditLog.setActionType(AuditLog.ActionType.UPDATE);
+		auditLog.setResourceType("Track");
+		auditLog.setResourceId(resourceId);
+		auditLog.setStatus(AuditLog.Status.SUCCESS);
+		return auditLog;
+	}
+
+	private List<Long> storedResourceIds() {
+		return jdbcTemplate.queryForList("SELECT resource_id FROM audit_logs ORDER BY id", Long.class);
+	}
+
+	private double count(String counter) {
+		return meterRegistry.get(counter).counter().count();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.entity.GameSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveSessionRegistryTests {
+
+	private static final long START = 100_000;
+	private static final long IDLE_TIMEOUT_MS = 10_000;
+	private static final long TICK_MS = 1_000;
+
+	private LiveSessionRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		registry = newRegistry(100);
+	}
+
+	@Test
+	void expiresWhenDeadlineFallsOnTickBoundary() {
+		GameSession session = register("a", START);
+
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS - 1)).isEmpty();
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS)).containsExactly(session);
+		assertThat(registry.contains("a")).isFalse();
+	}
+
+	@Test
+	void doesNotExpireBeforeDeadlineInsideTick() {
+		GameSession session = register("a", START + 500);
+
+		// El plazo (110.5 s) cae dentro del tick 110: el bucket que lo contiene es el del tick 111
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS + 499)).isEmpty();
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS + 999)).isEmpty();
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS + 1_000)).containsExactly(session);
+	}
+
+	@Test
+	void touchReschedulesDeadline() {
+		GameSession session = register("a", START);
+		assertThat(registry.touch("a", START + 5_000)).isTrue();
+
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS)).isEmpty();
+		assertThat(registry.contains("a")).isTrue();
+		assertThat(registry.expire(START + 5_000 + IDLE_TIMEOUT_MS - 1)).isEmpty();
+		assertThat(registry.expire(START + 5_000 + IDLE_TIMEOUT_MS)).containsExactly(session);
+	}
+
+	@Test
+	void touchWithinSameBucketKeepsLatestDeadline() {
+		GameSession session = register("a", START + 100);
+		registry.touch("a", START + 900);
+
+		// Ambos plazos caen en el bucket del tick 111; la entrada se encola una sola vez
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS + 1_000)).containsExactly(session);
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS + 2_000)).isEmpty();
+	}
+
+	@Test
+	void touchOfUnknownSessionReturnsFalse() {
+		assertThat(registry.touch("missing", START)).isFalse();
+	}
+
+	@Test
+	void removedSessionIsNotExpired() {
+		GameSession session = register("a", START);
+		registry.remove(session);
+
+		assertThat(registry.expire(START + IDLE_TIMEOUT_MS)).isEmpty();
+	}
+
+	@Test
+	void lateSweepCatchesUpAfterMoreThanOneTurn() {
+		GameSession first = register("a", START);
+		GameSession second = register("b", START + 3_000);
+
+		List<GameSession> expired = registry.expire(START + 10 * IDLE_TIMEOUT_MS);
+		assertThat(expired).containsExactlyInAnyOrder(first, second);
+		assertThat(registry.size()).isZero();
+	}
+
+	@Test
+	void laggingSweepKeepsEntriesScheduledForNextTurn() {
+		// La rueda tiene 12 buckets: el tick 113 comparte bucket con el 101, que el barrido atrasado revisa primero
+		GameSession session = register("a", START + 3_000);
+
+		assertThat(registry.expire(START + 5_000)).isEmpty();
+		assertThat(registry.expire(START + 3_000 + IDLE_TIMEOUT_MS - 1)).isEmpty();
+		assertThat(registry.expire(START + 3_000 + IDLE_TIMEOUT_MS)).containsExactly(session);
+	}
+
+	@Test
+	void registerKeepsExistingSession() {
+		GameSession original = register("a", START);
+		GameSession duplicate = new GameSession("a", null);
+
+		assertThat(registry.register(duplicate, START + 1_000)).isSameAs(original);
+		assertThat(registry.size()).isEqualTo(1);
+	}
+
+	@Test
+	void fullRegistryDoesNotTrackNewSessions() {
+		registry = newRegistry(1);
+		register("a", START);
+		GameSession overflow = new GameSession("b", null);
+
+		assertThat(registry.register(overflow, START)).isSameAs(overflow);
+		assertThat(registry.contains("b")).isFalse();
+		assertThat(registry.size()).isEqualTo(1);
+	}
+
+	// Métodos auxiliares
+
+	private LiveSessionRegistry newRegistry(int maxOpen) {
+		Clock clock = Clock.fixed(Instant.ofEpochMilli(START), ZoneOffset.UTC);
+		return new LiveSessionRegistry(IDLE_TIMEOUT_MS, TICK_MS, maxOpen, clock);
+	}
+
+	private GameSession register(String sessionId, long now) {
+		return registry.register(new GameSession(sessionId, null), now);
+	}
+}
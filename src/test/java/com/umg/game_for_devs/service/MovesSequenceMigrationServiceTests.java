@@ -0,0 +1,105 @@
+package com.umg.game_for_devs.service;
+
+import com.umg.game_for_devs.engine.MoveCodec;
+import com.umg.game_for_devs.engine.MoveProgram;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovesSequenceMigrationServiceTests {
+
+	private JdbcTemplate jdbcTemplate;
+	private MovesSequenceMigrationService service;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:moves-migration;DB_CLOSE_DELAY=-1"));
+		jdbcTemplate.execute("CREATE TABLE game_sessions (id BIGINT PRIMARY KEY, " +
+				"moves_sequence VARCHAR(20000), moves_encoded VARBINARY(" + MoveCodec.MAX_ENCODED_LENGTH + "))");
+
+		service = new MovesSequenceMigrationService();
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "batchSize", 2);
+		service.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("DROP TABLE game_sessions");
+	}
+
+	@Test
+	void migratesJsonRowsAndLeavesEncodedRowsUnchanged() {
+		byte[] alreadyEncoded = MoveCodec.encode(MoveProgram.of(MoveProgram.LEFT, MoveProgram.FORWARD));
+		insert(1, null, alreadyEncoded);
+		insert(2, "[\"FORWARD\",\"RIGHT\"]", null);
+		// Fila con ambas columnas: la codificada manda y el JSON residual no se toca
+		insert(3, "[\"LEFT\"]", alreadyEncoded);
+		insert(4, "[{\"type\":\"LOOP_START\",\"id\":1},{\"type\":\"FORWARD\",\"id\":2},{\"type\":\"LOOP_END\",\"id\":3}]", null);
+
+		Map<String, Object> result = service.migrateAll();
+
+		assertThat(result.get("migrated")).isEqualTo(2L);
+		assertThat(result.get("skipped")).isEqualTo(0L);
+		assertThat(result.get("completed")).isEqualTo(true);
+
+		assertThat(encoded(1)).isEqualTo(alreadyEncoded);
+		assertThat(sequence(1)).isNull();
+		assertThat(encoded(3)).isEqualTo(alreadyEncoded);
+		assertThat(sequence(3)).isEqualTo("[\"LEFT\"]");
+
+		assertThat(MoveCodec.decode(encoded(2))).isEqualTo(MoveProgram.of(MoveProgram.FORWARD, MoveProgram.RIGHT));
+		assertThat(sequence(2)).isNull();
+		assertThat(MoveCodec.decode(encoded(4)))
+				.isEqualTo(MoveProgram.of(MoveProgram.LOOP_START, MoveProgram.FORWARD, MoveProgram.LOOP_END));
+	}
+
+	@Test
+	void secondPassFindsNothingToMigrate() {
+		insert(1, "[\"FORWARD\"]", null);
+		service.migrateAll();
+		byte[] firstPass = encoded(1);
+
+		Map<String, Object> result = service.migrateAll();
+
+		assertThat(result.get("migrated")).isEqualTo(0L);
+		assertThat(encoded(1)).isEqualTo(firstPass);
+	}
+
+	@Test
+	void invalidJsonIsSkippedAndKept() {
+		insert(1, "no es json", null);
+		insert(2, "[\"FORWARD\"]", null);
+
+		Map<String, Object> result = service.migrateAll();
+
+		assertThat(result.get("migrated")).isEqualTo(1L);
+		assertThat(result.get("skipped")).isEqualTo(1L);
+		assertThat(sequence(1)).isEqualTo("no es json");
+		assertThat(encoded(1)).isNull();
+	}
+
+	// Métodos auxiliares
+
+	private void insert(long id, String movesSequence, byte[] movesEncoded) {
+		jdbcTemplate.update("INSERT INTO game_sessions (id, moves_sequence, moves_encoded) VALUES (?, ?, ?)",
+				id, movesSequence, movesEncoded);
+	}
+
+	private byte[] encoded(long id) {
+		return jdbcTemplate.queryForObject("SELECT moves_encoded FROM game_sessions WHERE id = ?", byte[].class, id);
+	}
+
+	private String sequence(long id) {
+		return jdbcTemplate.queryForObject("SELECT moves_sequence FROM game_sessions WHERE id = ?", String.class, id);
+	}
+}
@@ -0,0 +1,150 @@
+package com.umg.game_for_devs.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTests {
+
+	/** Tres errores estándar: 1,04 / sqrt(2^12) ~ 1,6 % */
+	private static final double TOLERANCE = 3 * 1.04 / Math.sqrt(1 << HyperLogLog.PRECISION);
+
+	@Test
+	void emptySketchEstimatesZero() {
+		HyperLogLog sketch = new HyperLogLog();
+
+		assertThat(sketch.isEmpty()).isTrue();
+		assertThat(sketch.estimate()).isZero();
+	}
+
+	@Test
+	void smallCardinalitiesStayWithinErrorBound() {
+		// Con conteo lineal las cardinalidades muy pequeñas salen exactas
+		for (int cardinality : new int[] {1, 2, 10}) {
+			assertThat(sketchOf("tiny", 0, cardinality).estimate()).isEqualTo(cardinality);
+		}
+		for (int cardinality : new int[] {100, 500, 2_000}) {
+			HyperLogLog sketch = sketchOf("small", 0, cardinality);
+			assertThat((double) sketch.estimate()).as("cardinalidad %d", cardinality)
+					.isCloseTo(cardinality, within(cardinality * TOLERANCE));
+		}
+	}
+
+	@Test
+	void largeCardinalitiesStayWithinErrorBound() {
+		for (int cardinality : new int[] {5_000, 50_000, 500_000}) {
+			HyperLogLog sketch = sketchOf("large", 0, cardinality);
+			assertThat(sketch.isDense()).isTrue();
+			assertThat((double) sketch.estimate()).as("cardinalidad %d", cardinality)
+					.isCloseTo(cardinality, within(cardinality * TOLERANCE));
+		}
+	}
+
+	@Test
+	void duplicatesDoNotChangeEstimate() {
+		HyperLogLog sketch = sketchOf("dup", 0, 1_000);
+		long estimate = sketch.estimate();
+
+		for (int i = 0; i < 1_000; i++) {
+			sketch.add(HyperLogLog.hash("dup-" + i));
+		}
+		assertThat(sketch.estimate()).isEqualTo(estimate);
+	}
+
+	@Test
+	void sparseSketchTurnsDenseWithSameEstimate() {
+		HyperLogLog sparse = sketchOf("grow", 0, 100);
+		assertThat(sparse.isDense()).isFalse();
+
+		HyperLogLog grown = sketchOf("grow", 0, 100);
+		grown.addAll(sketchOf("other", 0, 5_000));
+		HyperLogLog reference = sketchOf("other", 0, 5_000);
+		reference.addAll(sparse);
+
+		assertThat(grown.isDense()).isTrue();
+		assertThat(grown).isEqualTo(reference);
+		assertThat(grown.estimate()).isEqualTo(reference.estimate());
+	}
+
+	@Test
+	void mergeIsCommutative() {
+		for (int[] sizes : new int[][] {{50, 80}, {50, 20_000}, {20_000, 30_000}}) {
+			HyperLogLog a = sketchOf("a", 0, sizes[0]);
+			HyperLogLog b = sketchOf("b", 0, sizes[1]);
+
+			HyperLogLog ab = sketchOf("a", 0, sizes[0]);
+			ab.addAll(b);
+			HyperLogLog ba = sketchOf("b", 0, sizes[1]);
+			ba.addAll(a);
+
+			assertThat(ab).isEqualTo(ba);
+			assertThat(ab.estimate()).isEqualTo(ba.estimate());
+		}
+	}
+
+	@Test
+	void mergeIsIdempotent() {
+		for (int size : new int[] {40, 20_000}) {
+			HyperLogLog sketch = sketchOf("x", 0, size);
+			HyperLogLog merged = sketchOf("x", 0, size);
+
+			merged.addAll(sketch);
+			assertThat(merged).isEqualTo(sketch);
+			merged.addAll(sketch);
+			assertThat(merged).isEqualTo(sketch);
+		}
+	}
+
+	@Test
+	void mergeOfOverlappingSetsEstimatesUnion() {
+		HyperLogLog first = sketchOf("u", 0, 30_000);
+		HyperLogLog second = sketchOf("u", 20_000, 60_000);
+
+		first.addAll(second);
+		// La unión es [0, 60000): el solapamiento no se cuenta dos veces
+		assertThat((double) first.estimate()).isCloseTo(60_000, within(60_000 * TOLERANCE));
+	}
+
+	@Test
+	void serializationRoundTripsSparseAndDense() {
+		for (int size : new int[] {0, 1, 300, 100_000}) {
+			HyperLogLog sketch = sketchOf("s", 0, size);
+			byte[] bytes = sketch.toBytes();
+			HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+			assertThat(restored).isEqualTo(sketch);
+			assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+			assertThat(restored.isDense()).isEqualTo(sketch.isDense());
+			assertThat(restored.toBytes()).isEqualTo(bytes);
+		}
+	}
+
+	@Test
+	void sparseSerializationIsSmallerThanDense() {
+		assertThat(sketchOf("s", 0, 10).toBytes().length).isLessThan(40);
+		assertThat(sketchOf("s", 0, 100_000).toBytes()).hasSize((1 << HyperLogLog.PRECISION) + 1);
+	}
+
+	@Test
+	void fromBytesHandlesEmptyAndRejectsGarbage() {
+		assertThat(HyperLogLog.fromBytes(null).isEmpty()).isTrue();
+		assertThat(HyperLogLog.fromBytes(new byte[0]).isEmpty()).isTrue();
+		assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] {9, 1, 2}))
+				.isInstanceOf(IllegalArgumentException.class);
+		// Declara dos registros pero trae uno
+		assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] {1, 2, 5, 3}))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	// Métodos auxiliares
+
+	private static HyperLogLog sketchOf(String prefix, int from, int to) {
+		HyperLogLog sketch = new HyperLogLog();
+		for (int i = from; i < to; i++) {
+			sketch.add(HyperLogLog.hash(prefix + "-" + i));
+		}
+		return sketch;
+	}
+}
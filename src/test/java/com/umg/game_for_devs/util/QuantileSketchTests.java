@@ -0,0 +1,172 @@
+package com.umg.game_for_devs.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuantileSketchTests {
+
+	private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+	@Test
+	void emptySketchHasNoQuantiles() {
+		QuantileSketch sketch = new QuantileSketch();
+
+		assertThat(sketch.isEmpty()).isTrue();
+		assertThat(sketch.getCount()).isZero();
+		for (double q : QUANTILES) {
+			assertThat(sketch.quantile(q)).isNull();
+		}
+		assertThat(QuantileSketch.fromBytes(sketch.toBytes()).isEmpty()).isTrue();
+		assertThat(QuantileSketch.fromBytes(null).isEmpty()).isTrue();
+	}
+
+	@Test
+	void singleValueIsEveryQuantile() {
+		for (long value : new long[] {0, 1, 7, 1_234, 987_654_321}) {
+			QuantileSketch sketch = new QuantileSketch();
+			sketch.add(value);
+
+			assertThat(sketch.getCount()).isEqualTo(1);
+			for (double q : new double[] {0.0, 0.5, 0.9, 0.99, 1.0}) {
+				assertWithinRelativeError(sketch.quantile(q), value);
+			}
+		}
+	}
+
+	@Test
+	void smallIntegersAreExact() {
+		QuantileSketch sketch = new QuantileSketch();
+		for (long value = 0; value <= 10; value++) {
+			sketch.add(value);
+		}
+
+		for (long value = 0; value <= 10; value++) {
+			assertThat(sketch.quantile(value / 10.0)).isEqualTo(value);
+		}
+	}
+
+	@Test
+	void uniformValuesStayWithinRelativeError() {
+		Random random = new Random(7);
+		assertQuantilesWithinRelativeError(100_000, () -> 1 + random.nextInt(1_000_000));
+	}
+
+	@Test
+	void skewedValuesStayWithinRelativeError() {
+		// Tiempos de ejecución con cola larga: log-normal en milisegundos
+		Random random = new Random(11);
+		assertQuantilesWithinRelativeError(100_000, () -> Math.round(Math.exp(6 + 2 * random.nextGaussian())));
+	}
+
+	@Test
+	void mergeEqualsSketchOfAllValues() {
+		Random random = new Random(3);
+		QuantileSketch first = new QuantileSketch();
+		QuantileSketch second = new QuantileSketch();
+		QuantileSketch all = new QuantileSketch();
+		long[] values = new long[20_000];
+		for (int i = 0; i < values.length; i++) {
+			// Rangos distintos para que el segundo sketch tenga más buckets que el primero
+			values[i] = i % 2 == 0 ? random.nextInt(1_000) : 1_000 + random.nextInt(5_000_000);
+			(i % 2 == 0 ? first : second).add(values[i]);
+			all.add(values[i]);
+		}
+
+		first.addAll(second);
+
+		assertThat(first.getCount()).isEqualTo(all.getCount());
+		assertThat(first.toBytes()).isEqualTo(all.toBytes());
+		Arrays.sort(values);
+		for (double q : QUANTILES) {
+			assertThat(first.quantile(q)).isEqualTo(all.quantile(q));
+			assertWithinRelativeError(first.quantile(q), exact(values, q));
+		}
+	}
+
+	@Test
+	void negativeDeltaUndoesValue() {
+		QuantileSketch sketch = new QuantileSketch();
+		sketch.add(10);
+		sketch.add(500);
+
+		// Un delta que reemplaza 500 por 20
+		QuantileSketch delta = new QuantileSketch();
+		delta.add(500, -1);
+		delta.add(20, 1);
+		sketch.addAll(delta);
+
+		assertThat(sketch.getCount()).isEqualTo(2);
+		assertThat(sketch.quantile(1.0)).isEqualTo(20);
+
+		sketch.add(10, -1);
+		sketch.add(20, -1);
+		assertThat(sketch.isEmpty()).isTrue();
+		assertThat(sketch.quantile(0.5)).isNull();
+	}
+
+	@Test
+	void serializationRoundTrips() {
+		Random random = new Random(5);
+		QuantileSketch sketch = new QuantileSketch();
+		for (int i = 0; i < 5_000; i++) {
+			sketch.add(random.nextInt(3) == 0 ? 0 : random.nextInt(100_000));
+		}
+		sketch.add(42, -3);
+
+		QuantileSketch restored = QuantileSketch.fromBytes(sketch.toBytes());
+
+		assertThat(restored.getCount()).isEqualTo(sketch.getCount());
+		assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+		for (double q : QUANTILES) {
+			assertThat(restored.quantile(q)).isEqualTo(sketch.quantile(q));
+		}
+	}
+
+	@Test
+	void fromBytesRejectsGarbage() {
+		assertThatThrownBy(() -> QuantileSketch.fromBytes(new byte[] {9, 0, 0}))
+				.isInstanceOf(IllegalArgumentException.class);
+		// Declara un bucket pero termina antes de su contador
+		assertThatThrownBy(() -> QuantileSketch.fromBytes(new byte[] {1, 0, 1, 4}))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	// Métodos auxiliares
+
+	private static void assertQuantilesWithinRelativeError(int size, LongSupplier generator) {
+		QuantileSketch sketch = new QuantileSketch();
+		long[] values = new long[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = generator.getAsLong();
+			sketch.add(values[i]);
+		}
+		Arrays.sort(values);
+
+		for (double q : QUANTILES) {
+			assertWithinRelativeError(sketch.quantile(q), exact(values, q));
+		}
+	}
+
+	/**
+	 * Mismo rango que QuantileSketch.quantile: floor(q * (n - 1)) en base 0
+	 */
+	private static long exact(long[] sorted, double q) {
+		return sorted[(int) Math.floor(q * (sorted.length - 1))];
+	}
+
+	/**
+	 * El punto medio del bucket se redondea a entero: se admite media unidad además del error relativo
+	 */
+	private static void assertWithinRelativeError(Long estimate, long expected) {
+		assertThat(estimate).isNotNull();
+		assertThat((double) Math.abs(estimate - expected))
+				.as("estimado %d, real %d", estimate, expected)
+				.isLessThanOrEqualTo(expected * QuantileSketch.RELATIVE_ACCURACY + 0.5);
+	}
+}